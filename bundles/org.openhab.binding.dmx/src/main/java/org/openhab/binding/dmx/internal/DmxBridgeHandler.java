@@ -18,8 +18,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
@@ -35,6 +33,7 @@ import org.openhab.binding.dmx.action.DmxActions;
 import org.openhab.binding.dmx.internal.action.FadeAction;
 import org.openhab.binding.dmx.internal.action.ResumeAction;
 import org.openhab.binding.dmx.internal.config.DmxBridgeHandlerConfiguration;
+import org.openhab.binding.dmx.internal.dmxoverethernet.IpNode;
 import org.openhab.binding.dmx.internal.multiverse.BaseDmxChannel;
 import org.openhab.binding.dmx.internal.multiverse.DmxChannel;
 import org.openhab.binding.dmx.internal.multiverse.Universe;
@@ -55,7 +54,7 @@ public abstract class DmxBridgeHandler extends BaseBridgeHandler {
 
     protected Universe universe;
 
-    private ScheduledFuture<?> senderJob;
+    private final DmxFrameScheduler frameScheduler = DmxFrameScheduler.getInstance();
     private boolean isMuted = false;
     private int refreshTime = 1000 / DEFAULT_REFRESH_RATE;
 
@@ -145,26 +144,70 @@ public abstract class DmxBridgeHandler extends BaseBridgeHandler {
 
     /**
      * send the buffer of the current universe
+     *
+     * the buffer has already been calculated for the given frame time by {@link #renderFrame(long)}
+     *
+     * @param time the frame timestamp
+     * @return true if a frame was sent, false if it was skipped
+     */
+    protected abstract boolean sendDmxData(long time);
+
+    /**
+     * get the nodes that need a synchronization packet after a frame of this bridge has been sent
+     *
+     * @return the nodes, empty if synchronization is not supported by the protocol
+     */
+    protected Collection<IpNode> getFrameSyncNodes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * send a single synchronization packet after the frames of all bridges have been sent
+     *
+     * the {@link DmxFrameScheduler} calls this once per frame on one of the bridges, with the nodes of all bridges
+     * that sent a frame
+     *
+     * @param nodes the nodes that shall receive the synchronization packet
+     */
+    protected void sendFrameSync(Collection<IpNode> nodes) {
+    }
+
+    /**
+     * calculate the universe buffer for a frame (called by the {@link DmxFrameScheduler})
+     *
+     * @param time the frame timestamp, identical for all universes in the same frame
+     */
+    protected void renderFrame(long time) {
+        if (!isMuted) {
+            universe.calculateBuffer(time);
+        }
+    }
+
+    /**
+     * send the rendered frame (called by the {@link DmxFrameScheduler})
+     *
+     * @param time the frame timestamp
+     * @return true if a frame was sent
      */
-    protected abstract void sendDmxData();
+    protected boolean emitFrame(long time) {
+        logger.trace("packet sender for universe {} called, state {}/{}", universe.getUniverseId(),
+                getThing().getStatus(), isMuted);
+        if (isMuted) {
+            logger.trace("bridge {} is muted", getThing().getUID());
+            return false;
+        }
+        return sendDmxData(time);
+    }
 
     /**
      * install the sending and updating scheduler
      */
     protected void installScheduler() {
-        if (senderJob != null) {
+        if (frameScheduler.isRegistered(this)) {
             uninstallScheduler();
         }
         if (refreshTime > 0) {
-            senderJob = scheduler.scheduleAtFixedRate(() -> {
-                logger.trace("runnable packet sender for universe {} called, state {}/{}", universe.getUniverseId(),
-                        getThing().getStatus(), isMuted);
-                if (!isMuted) {
-                    sendDmxData();
-                } else {
-                    logger.trace("bridge {} is muted", getThing().getUID());
-                }
-            }, 1, refreshTime, TimeUnit.MILLISECONDS);
+            frameScheduler.register(this, refreshTime);
             logger.trace("started scheduler for thing {}", this.thing.getUID());
         } else {
             logger.info("refresh disabled for thing {}", this.thing.getUID());
@@ -175,11 +218,8 @@ public abstract class DmxBridgeHandler extends BaseBridgeHandler {
      * uninstall the sending and updating scheduler
      */
     protected void uninstallScheduler() {
-        if (senderJob != null) {
-            if (!senderJob.isCancelled()) {
-                senderJob.cancel(true);
-            }
-            senderJob = null;
+        if (frameScheduler.isRegistered(this)) {
+            frameScheduler.unregister(this);
             closeConnection();
             logger.trace("stopping scheduler for thing {}", this.thing.getUID());
         }
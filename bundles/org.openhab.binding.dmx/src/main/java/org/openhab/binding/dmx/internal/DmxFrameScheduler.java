@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.dmx.internal.dmxoverethernet.IpNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link DmxFrameScheduler} renders and sends the frames of all DMX bridges on a common tick, so that universes
+ * stay in sync and fades spanning several universes do not tear
+ *
+ * Each bridge keeps its own refresh time, the scheduler ticks with the greatest common divisor of all refresh times so
+ * that every bridge is served at its exact rate. On every tick all due universes are calculated for the same timestamp
+ * first, then the frames are sent back to back and finally a single synchronization packet is sent to the nodes of all
+ * bridges that sent a frame.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class DmxFrameScheduler {
+    private static final DmxFrameScheduler INSTANCE = new DmxFrameScheduler(ThreadPoolManager.getScheduledPool("dmx"));
+
+    private final Logger logger = LoggerFactory.getLogger(DmxFrameScheduler.class);
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<DmxBridgeHandler, FrameSlot> slots = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> frameJob;
+    private long tickTime = 0;
+
+    DmxFrameScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * get the scheduler shared by all DMX bridges
+     *
+     * @return the frame scheduler
+     */
+    public static DmxFrameScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * register a bridge for frame output (replaces an existing registration)
+     *
+     * @param bridge the bridge that shall receive frames
+     * @param refreshTime the time in ms between two frames of this bridge
+     */
+    public synchronized void register(DmxBridgeHandler bridge, int refreshTime) {
+        slots.put(bridge, new FrameSlot(TimeUnit.MILLISECONDS.toNanos(refreshTime)));
+        logger.trace("registered bridge {} with refresh time {} ms", bridge.getThing().getUID(), refreshTime);
+        reschedule();
+    }
+
+    /**
+     * unregister a bridge from frame output
+     *
+     * @param bridge the bridge that shall no longer receive frames
+     */
+    public synchronized void unregister(DmxBridgeHandler bridge) {
+        if (slots.remove(bridge) != null) {
+            logger.trace("unregistered bridge {}", bridge.getThing().getUID());
+            reschedule();
+        }
+    }
+
+    /**
+     * check if a bridge is registered for frame output
+     *
+     * @param bridge the bridge
+     * @return true if registered
+     */
+    public synchronized boolean isRegistered(DmxBridgeHandler bridge) {
+        return slots.containsKey(bridge);
+    }
+
+    /**
+     * adjust the tick to the greatest common divisor of all refresh times, stop ticking if no bridge is left
+     */
+    private void reschedule() {
+        long newTickTime = 0;
+        for (FrameSlot slot : slots.values()) {
+            newTickTime = gcd(newTickTime, slot.refreshTime);
+        }
+
+        ScheduledFuture<?> frameJob = this.frameJob;
+        if (frameJob != null && newTickTime == tickTime) {
+            return;
+        }
+        if (frameJob != null) {
+            frameJob.cancel(false);
+            this.frameJob = null;
+        }
+        tickTime = newTickTime;
+        if (newTickTime > 0) {
+            this.frameJob = scheduler.scheduleAtFixedRate(this::runFrame, 1, TimeUnit.NANOSECONDS.toMicros(tickTime),
+                    TimeUnit.MICROSECONDS);
+            logger.debug("frame scheduler ticking every {} µs", TimeUnit.NANOSECONDS.toMicros(tickTime));
+        } else {
+            logger.debug("frame scheduler stopped, no bridges registered");
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * get the current tick time
+     *
+     * @return the time between two ticks in ns, 0 if stopped
+     */
+    synchronized long getTickTime() {
+        return tickTime;
+    }
+
+    private void runFrame() {
+        runFrame(System.nanoTime(), System.currentTimeMillis());
+    }
+
+    /**
+     * render and send one frame for all due bridges
+     *
+     * @param nanoTime the monotonic time of this tick, used for the frame rate of the bridges
+     * @param now the frame timestamp passed to the bridges
+     */
+    void runFrame(long nanoTime, long now) {
+        List<DmxBridgeHandler> dueBridges = new ArrayList<>();
+        synchronized (this) {
+            // bridges are served in the order of their registration
+            slots.forEach((bridge, slot) -> {
+                if (slot.isDue(nanoTime)) {
+                    dueBridges.add(bridge);
+                }
+            });
+        }
+        if (dueBridges.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (DmxBridgeHandler bridge : dueBridges) {
+                bridge.renderFrame(now);
+            }
+            @Nullable
+            DmxBridgeHandler syncSender = null;
+            Set<IpNode> syncNodes = new LinkedHashSet<>();
+            int sent = 0;
+            for (DmxBridgeHandler bridge : dueBridges) {
+                if (bridge.emitFrame(now)) {
+                    sent++;
+                    Collection<IpNode> nodes = bridge.getFrameSyncNodes();
+                    if (!nodes.isEmpty()) {
+                        syncNodes.addAll(nodes);
+                        if (syncSender == null) {
+                            syncSender = bridge;
+                        }
+                    }
+                }
+            }
+            if (syncSender != null) {
+                syncSender.sendFrameSync(syncNodes);
+            }
+            logger.trace("frame at {}: {} bridges due, {} sent, sync to {} nodes", now, dueBridges.size(), sent,
+                    syncNodes.size());
+        } catch (RuntimeException e) {
+            // never let an exception cancel the periodic job
+            logger.warn("exception while sending DMX frame: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The {@link FrameSlot} tracks when the next frame for a bridge is due
+     */
+    private static class FrameSlot {
+        private final long refreshTime;
+        private long nextFrame;
+        private boolean started = false;
+
+        FrameSlot(long refreshTime) {
+            this.refreshTime = refreshTime;
+        }
+
+        boolean isDue(long nanoTime) {
+            if (!started) {
+                // the first frame is sent on the first tick after registration
+                started = true;
+                nextFrame = nanoTime + refreshTime;
+                return true;
+            }
+            // allow a small jitter of the tick
+            if (nanoTime - nextFrame < -refreshTime / 10) {
+                return false;
+            }
+            nextFrame += refreshTime;
+            if (nanoTime - nextFrame > refreshTime) {
+                // we fell behind, do not try to catch up with a burst of frames
+                nextFrame = nanoTime + refreshTime;
+            }
+            return true;
+        }
+    }
+}
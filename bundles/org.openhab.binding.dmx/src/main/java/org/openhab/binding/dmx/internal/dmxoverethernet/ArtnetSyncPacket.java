@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal.dmxoverethernet;
+
+/**
+ * The {@link ArtnetSyncPacket} is an ArtSync packet, it tells all nodes to output the previously received ArtDmx
+ * frames at the same time
+ *
+ * @author agent - Initial contribution
+ */
+public class ArtnetSyncPacket {
+    public static final int ARTSYNC_PACKET_LEN = 14;
+
+    private final byte[] rawPacket = new byte[ARTSYNC_PACKET_LEN];
+
+    public ArtnetSyncPacket() {
+        /* init ArtSync header, total length 14 bytes */
+        rawPacket[0] = 0x41; // packet identifier, 8 bytes
+        rawPacket[1] = 0x72;
+        rawPacket[2] = 0x74;
+        rawPacket[3] = 0x2d;
+        rawPacket[4] = 0x4e;
+        rawPacket[5] = 0x65;
+        rawPacket[6] = 0x74;
+        rawPacket[7] = 0x00;
+        rawPacket[8] = 0x00; // OpCode, 2 bytes
+        rawPacket[9] = 0x52;
+        rawPacket[10] = 0x00; // protocol version, 2 bytes
+        rawPacket[11] = 0x0e;
+        rawPacket[12] = 0x00; // aux1, 1 byte
+        rawPacket[13] = 0x00; // aux2, 1 byte
+    }
+
+    /**
+     * get packet for transmission
+     *
+     * @return byte array with raw packet data
+     */
+    public byte[] getRawPacket() {
+        return rawPacket;
+    }
+
+    /**
+     * get packet length
+     *
+     * @return full packet length
+     */
+    public int getPacketLength() {
+        return ARTSYNC_PACKET_LEN;
+    }
+}
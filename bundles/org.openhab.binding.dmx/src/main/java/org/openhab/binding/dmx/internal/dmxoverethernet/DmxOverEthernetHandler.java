@@ -17,6 +17,7 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.SocketException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.smarthome.core.thing.Bridge;
@@ -86,15 +87,13 @@ public abstract class DmxOverEthernetHandler extends DmxBridgeHandler {
     }
 
     @Override
-    protected void sendDmxData() {
+    protected boolean sendDmxData(long time) {
         if (getThing().getStatus() == ThingStatus.ONLINE) {
             boolean needsSending = false;
-            long now = System.currentTimeMillis();
-            universe.calculateBuffer(now);
             if ((universe.getLastBufferChanged() > lastSend) || refreshAlways) {
                 needsSending = true;
                 repeatCounter = 0;
-            } else if (now - lastSend > 800) {
+            } else if (time - lastSend > 800) {
                 needsSending = true;
             } else if (repeatCounter < 3) {
                 needsSending = true;
@@ -116,14 +115,41 @@ public abstract class DmxOverEthernetHandler extends DmxBridgeHandler {
                         logger.debug("Could not send to {} in {}: {}", receiverNode, this.thing.getUID(),
                                 e.getMessage());
                         closeConnection(ThingStatusDetail.COMMUNICATION_ERROR, "could not send DMX data");
+                        return false;
                     }
                 }
-                lastSend = now;
+                lastSend = time;
                 sequenceNo = (sequenceNo + 1) % 256;
+                return true;
             }
         } else {
             openConnection();
         }
+        return false;
+    }
+
+    /**
+     * send a raw packet to the given nodes using the socket of this bridge
+     *
+     * @param packet the raw packet data
+     * @param length the packet length
+     * @param nodes the receiving nodes
+     */
+    protected void sendToNodes(byte[] packet, int length, Collection<IpNode> nodes) {
+        DatagramSocket socket = this.socket;
+        if (socket == null) {
+            return;
+        }
+        DatagramPacket sendPacket = new DatagramPacket(packet, length);
+        for (IpNode receiverNode : nodes) {
+            sendPacket.setAddress(receiverNode.getAddress());
+            sendPacket.setPort(receiverNode.getPort());
+            try {
+                socket.send(sendPacket);
+            } catch (IOException e) {
+                logger.debug("Could not send to {} in {}: {}", receiverNode, this.thing.getUID(), e.getMessage());
+            }
+        }
     }
 
     public DmxOverEthernetHandler(Bridge sacnBridge) {
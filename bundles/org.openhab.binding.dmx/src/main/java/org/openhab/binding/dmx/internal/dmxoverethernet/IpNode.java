@@ -16,6 +16,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -138,6 +139,23 @@ public class IpNode {
         return this.address.toString() + ":" + String.valueOf(this.port);
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(address, port);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IpNode)) {
+            return false;
+        }
+        IpNode other = (IpNode) obj;
+        return port == other.port && Objects.equals(address, other.address);
+    }
+
     /**
      * create list of nodes from string
      *
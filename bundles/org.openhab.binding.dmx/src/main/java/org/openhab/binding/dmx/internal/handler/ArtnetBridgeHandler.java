@@ -14,6 +14,7 @@ package org.openhab.binding.dmx.internal.handler;
 
 import static org.openhab.binding.dmx.internal.DmxBindingConstants.THING_TYPE_ARTNET_BRIDGE;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
@@ -24,6 +25,7 @@ import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.openhab.binding.dmx.internal.config.ArtnetBridgeHandlerConfiguration;
 import org.openhab.binding.dmx.internal.dmxoverethernet.ArtnetNode;
 import org.openhab.binding.dmx.internal.dmxoverethernet.ArtnetPacket;
+import org.openhab.binding.dmx.internal.dmxoverethernet.ArtnetSyncPacket;
 import org.openhab.binding.dmx.internal.dmxoverethernet.DmxOverEthernetHandler;
 import org.openhab.binding.dmx.internal.dmxoverethernet.IpNode;
 import org.slf4j.Logger;
@@ -41,6 +43,7 @@ public class ArtnetBridgeHandler extends DmxOverEthernetHandler {
     public static final int MAX_UNIVERSE_ID = 32767;
 
     private final Logger logger = LoggerFactory.getLogger(ArtnetBridgeHandler.class);
+    private final ArtnetSyncPacket syncPacket = new ArtnetSyncPacket();
 
     public ArtnetBridgeHandler(Bridge artnetBridge) {
         super(artnetBridge);
@@ -85,6 +88,16 @@ public class ArtnetBridgeHandler extends DmxOverEthernetHandler {
         logger.debug("updated configuration for ArtNet bridge {}", this.thing.getUID());
     }
 
+    @Override
+    protected Collection<IpNode> getFrameSyncNodes() {
+        return receiverNodes;
+    }
+
+    @Override
+    protected void sendFrameSync(Collection<IpNode> nodes) {
+        sendToNodes(syncPacket.getRawPacket(), syncPacket.getPacketLength(), nodes);
+    }
+
     @Override
     public void initialize() {
         logger.debug("initializing ArtNet bridge {}", this.thing.getUID());
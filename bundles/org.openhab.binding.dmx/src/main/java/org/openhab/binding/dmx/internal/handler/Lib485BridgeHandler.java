@@ -47,6 +47,7 @@ public class Lib485BridgeHandler extends DmxBridgeHandler {
 
     private final Logger logger = LoggerFactory.getLogger(Lib485BridgeHandler.class);
     private final Map<IpNode, Socket> receiverNodes = new HashMap<IpNode, Socket>();
+    private long lastSend = 0;
 
     public Lib485BridgeHandler(Bridge lib485Bridge) {
         super(lib485Bridge);
@@ -77,6 +78,7 @@ public class Lib485BridgeHandler extends DmxBridgeHandler {
                     return;
                 }
             }
+            lastSend = 0;
             updateStatus(ThingStatus.ONLINE);
         }
     }
@@ -98,10 +100,12 @@ public class Lib485BridgeHandler extends DmxBridgeHandler {
     }
 
     @Override
-    protected void sendDmxData() {
+    protected boolean sendDmxData(long time) {
         if (getThing().getStatus() == ThingStatus.ONLINE) {
-            long now = System.currentTimeMillis();
-            universe.calculateBuffer(now);
+            // the TCP connection keeps the last frame, only refresh it from time to time if nothing changed
+            if (universe.getLastBufferChanged() <= lastSend && time - lastSend <= 800) {
+                return false;
+            }
             for (IpNode receiverNode : receiverNodes.keySet()) {
                 Socket socket = receiverNodes.get(receiverNode);
                 if (socket.isConnected()) {
@@ -111,16 +115,19 @@ public class Lib485BridgeHandler extends DmxBridgeHandler {
                         logger.debug("Could not send to {} in {}: {}", receiverNode, this.thing.getUID(),
                                 e.getMessage());
                         closeConnection(ThingStatusDetail.COMMUNICATION_ERROR, "could not send DMX data");
-                        return;
+                        return false;
                     }
                 } else {
                     closeConnection(ThingStatusDetail.NONE, "reconnect");
-                    return;
+                    return false;
                 }
             }
+            lastSend = time;
+            return true;
         } else {
             openConnection();
         }
+        return false;
     }
 
     @Override
@@ -58,6 +58,8 @@ public class DmxChannel extends BaseDmxChannel {
     private final HashMap<ChannelUID, DmxThingHandler> onOffListeners = new HashMap<ChannelUID, DmxThingHandler>();
     private final HashMap<ChannelUID, DmxThingHandler> valueListeners = new HashMap<ChannelUID, DmxThingHandler>();
     private Entry<ChannelUID, DmxThingHandler> actionListener = null;
+    private Runnable changeListener = () -> {
+    };
 
     public DmxChannel(int universeId, int dmxChannelId, int refreshTime) {
         super(universeId, dmxChannelId);
@@ -109,6 +111,7 @@ public class DmxChannel extends BaseDmxChannel {
      */
     public void setValue(int value) {
         this.value = Util.toDmxValue(value) << 8;
+        changeListener.run();
         logger.trace("set dmx channel {} to value {}", this, this.value >> 8);
     }
 
@@ -119,6 +122,7 @@ public class DmxChannel extends BaseDmxChannel {
      */
     public void setValue(PercentType value) {
         this.value = Util.toDmxValue(value) << 8;
+        changeListener.run();
         logger.trace("set dmx channel {} to value {}", this, this.value >> 8);
     }
 
@@ -174,6 +178,7 @@ public class DmxChannel extends BaseDmxChannel {
                 logger.trace("resuming suspended value for DMX channel {}", this);
             }
             isSuspended = false;
+            changeListener.run();
         } else {
             throw new IllegalStateException("trying to resume actions in non-suspended DMX channel " + this.toString());
         }
@@ -194,6 +199,7 @@ public class DmxChannel extends BaseDmxChannel {
     public synchronized void clearAction() {
         logger.trace("clearing all actions for DMX channel {}", this);
         actions.clear();
+        changeListener.run();
         // remove action listener
         if (actionListener != null) {
             actionListener.getValue().updateSwitchState(actionListener.getKey(), OnOffType.OFF);
@@ -209,6 +215,7 @@ public class DmxChannel extends BaseDmxChannel {
     public synchronized void setChannelAction(BaseAction channelAction) {
         clearAction();
         actions.add(channelAction);
+        changeListener.run();
         logger.trace("set action {} for DMX channel {}", channelAction, this);
     }
 
@@ -219,9 +226,28 @@ public class DmxChannel extends BaseDmxChannel {
      */
     public synchronized void addChannelAction(BaseAction channelAction) {
         actions.add(channelAction);
+        changeListener.run();
         logger.trace("added action {} to channel {} (total {} actions)", channelAction, this, actions.size());
     }
 
+    /**
+     * set the listener that is notified when the value or the actions of this channel change
+     *
+     * @param changeListener the listener, usually marks the universe for recalculation
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * check if the last calculated value has not been reported to the listeners yet (state updates are rate limited)
+     *
+     * @return true if a state update is pending
+     */
+    public boolean hasPendingStateUpdate() {
+        return lastStateValue != value;
+    }
+
     /**
      * @return true if there are running actions
      */
@@ -241,6 +267,7 @@ public class DmxChannel extends BaseDmxChannel {
         actions.remove(0);
         action.reset();
         actions.add(action);
+        changeListener.run();
         logger.trace("switching to next action {} on channel {}", actions.get(0), this);
     }
 
@@ -42,6 +42,8 @@ public class Universe {
     private final short[] cie1931Curve = new short[DmxChannel.MAX_VALUE << 8 + 1];
 
     private long bufferChanged;
+    private volatile boolean dirty = true;
+    private volatile boolean active = false;
     private int refreshTime = DEFAULT_REFRESH_TIME;
 
     private final List<DmxChannel> channels = new ArrayList<DmxChannel>();
@@ -101,9 +103,12 @@ public class Universe {
                 channel.unregisterThing(thing);
                 if (!channel.hasRegisteredThings()) {
                     channelIterator.remove();
+                    channel.setChangeListener(() -> {
+                    });
                     logger.trace("Removing channel {}, no more things", channel);
                 }
             }
+            dirty = true;
         } finally {
             universeLock.unlock();
         }
@@ -119,6 +124,8 @@ public class Universe {
             universeLock.lock();
             try {
                 channels.add(channel);
+                channel.setChangeListener(this::markDirty);
+                dirty = true;
                 if (channel.getChannelId() > bufferSize) {
                     bufferSize = channel.getChannelId();
                 }
@@ -171,14 +178,39 @@ public class Universe {
         }
     }
 
+    /**
+     * mark this universe for recalculation (called when a channel value or action changes)
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * check if the buffer needs to be calculated, i.e. a channel changed since the last calculation or there are
+     * running actions or pending state updates
+     *
+     * @return true if the next call of {@link #calculateBuffer(long)} will recalculate the buffer
+     */
+    public boolean needsCalculation() {
+        return dirty || active;
+    }
+
     /**
      * calculate this universe buffer (run all channel actions) for a given time
      *
+     * the calculation is skipped if no channel changed since the last calculation and no actions are running
+     *
      * @param time the timestamp used for calculation
      */
     public void calculateBuffer(long time) {
+        if (!needsCalculation()) {
+            return;
+        }
         universeLock.lock();
         try {
+            // reset before calculating, changes during the calculation trigger another one
+            dirty = false;
+            boolean active = false;
             for (DmxChannel channel : channels) {
                 logger.trace("calculating new value for {}", channel);
                 int channelId = channel.getChannelId();
@@ -193,7 +225,11 @@ public class Universe {
                     buffer[channelId - 1] = (short) value;
                     bufferChanged = time;
                 }
+                if (channel.hasRunningActions() || channel.hasPendingStateUpdate()) {
+                    active = true;
+                }
             }
+            this.active = active;
         } finally {
             universeLock.unlock();
         }
@@ -227,6 +263,7 @@ public class Universe {
         for (BaseDmxChannel channel : BaseDmxChannel.fromString(listString, universeId)) {
             applyCurve.add(channel.getChannelId());
         }
+        dirty = true;
         logger.debug("applying dim curve in universe {} to channels {}", universeId, applyCurve);
     }
 
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.dmx.internal.DmxBindingConstants.THING_TYPE_ARTNET_BRIDGE;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.dmx.internal.dmxoverethernet.IpNode;
+
+/**
+ * Tests cases for {@link DmxFrameScheduler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DmxFrameSchedulerTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final IpNode node1 = new IpNode("127.0.0.1", 6454);
+    private final IpNode node2 = new IpNode("127.0.0.2", 6454);
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> frameJob;
+    private DmxFrameScheduler frameScheduler;
+
+    private DmxBridgeHandler bridgeHandler1;
+    private DmxBridgeHandler bridgeHandler2;
+
+    private DmxBridgeHandler mockBridgeHandler(String id, Collection<IpNode> syncNodes) {
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getUID()).thenReturn(new ThingUID(THING_TYPE_ARTNET_BRIDGE, id));
+        DmxBridgeHandler bridgeHandler = mock(DmxBridgeHandler.class);
+        when(bridgeHandler.getThing()).thenReturn(bridge);
+        when(bridgeHandler.emitFrame(anyLong())).thenReturn(true);
+        when(bridgeHandler.getFrameSyncNodes()).thenReturn(syncNodes);
+        return bridgeHandler;
+    }
+
+    @Before
+    public void setUp() {
+        executor = mock(ScheduledExecutorService.class);
+        frameJob = mock(ScheduledFuture.class);
+        doReturn(frameJob).when(executor).scheduleAtFixedRate(any(), anyLong(), anyLong(), any());
+        frameScheduler = new DmxFrameScheduler(executor);
+
+        bridgeHandler1 = mockBridgeHandler("bridge1", Arrays.asList(node1, node2));
+        bridgeHandler2 = mockBridgeHandler("bridge2", Collections.singletonList(node2));
+    }
+
+    /**
+     * run ticks with the current tick time starting at 0
+     */
+    private void runTicks(int count) {
+        long tickTime = frameScheduler.getTickTime();
+        for (int i = 0; i < count; i++) {
+            frameScheduler.runFrame(i * tickTime, i * tickTime / MS);
+        }
+    }
+
+    @Test
+    public void tickIsGreatestCommonDivisorOfRefreshTimes() {
+        frameScheduler.register(bridgeHandler1, 20);
+        verify(executor).scheduleAtFixedRate(any(), eq(1L), eq(20000L), eq(TimeUnit.MICROSECONDS));
+
+        frameScheduler.register(bridgeHandler2, 30);
+        verify(frameJob).cancel(false);
+        verify(executor).scheduleAtFixedRate(any(), eq(1L), eq(10000L), eq(TimeUnit.MICROSECONDS));
+        assertEquals(10 * MS, frameScheduler.getTickTime());
+    }
+
+    @Test
+    public void universesAreRenderedForTheSameFrameTime() {
+        frameScheduler.register(bridgeHandler1, 20);
+        frameScheduler.register(bridgeHandler2, 20);
+
+        frameScheduler.runFrame(0, 1000);
+        frameScheduler.runFrame(20 * MS, 1020);
+
+        verify(bridgeHandler1).renderFrame(1000);
+        verify(bridgeHandler2).renderFrame(1000);
+        verify(bridgeHandler1).renderFrame(1020);
+        verify(bridgeHandler2).renderFrame(1020);
+        verify(bridgeHandler1, times(2)).emitFrame(anyLong());
+        verify(bridgeHandler2, times(2)).emitFrame(anyLong());
+    }
+
+    @Test
+    public void eachBridgeIsServedAtItsRefreshRate() {
+        frameScheduler.register(bridgeHandler1, 20);
+        frameScheduler.register(bridgeHandler2, 30);
+
+        // 60 ticks of 10 ms = 600 ms
+        runTicks(60);
+
+        verify(bridgeHandler1, times(30)).emitFrame(anyLong());
+        verify(bridgeHandler2, times(20)).emitFrame(anyLong());
+    }
+
+    @Test
+    public void syncIsSentOncePerFrameToAllNodes() {
+        frameScheduler.register(bridgeHandler1, 10);
+        frameScheduler.register(bridgeHandler2, 10);
+
+        runTicks(5);
+
+        // the first registered bridge that sent a frame sends the sync for all bridges
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<IpNode>> syncNodes = ArgumentCaptor.forClass(Collection.class);
+        verify(bridgeHandler1, times(5)).sendFrameSync(syncNodes.capture());
+        verify(bridgeHandler2, never()).sendFrameSync(any());
+        for (Collection<IpNode> nodes : syncNodes.getAllValues()) {
+            assertEquals(2, nodes.size());
+            assertTrue(nodes.containsAll(Arrays.asList(node1, node2)));
+        }
+    }
+
+    @Test
+    public void syncIsNotSentIfNoFrameWasSent() {
+        when(bridgeHandler1.emitFrame(anyLong())).thenReturn(false);
+        frameScheduler.register(bridgeHandler1, 10);
+
+        runTicks(5);
+
+        verify(bridgeHandler1, times(5)).emitFrame(anyLong());
+        verify(bridgeHandler1, never()).sendFrameSync(any());
+    }
+
+    @Test
+    public void unregisteredBridgeIsNotCalled() {
+        frameScheduler.register(bridgeHandler1, 10);
+        frameScheduler.unregister(bridgeHandler1);
+        assertFalse(frameScheduler.isRegistered(bridgeHandler1));
+        verify(frameJob).cancel(false);
+        assertEquals(0, frameScheduler.getTickTime());
+
+        frameScheduler.runFrame(0, 1000);
+        verify(bridgeHandler1, never()).renderFrame(anyLong());
+    }
+}
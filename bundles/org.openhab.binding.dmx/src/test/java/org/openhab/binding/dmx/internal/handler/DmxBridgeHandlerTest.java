@@ -66,7 +66,8 @@ public class DmxBridgeHandlerTest extends JavaTest {
         }
 
         @Override
-        protected void sendDmxData() {
+        protected boolean sendDmxData(long time) {
+            return true;
         }
 
         @Override
@@ -126,17 +127,17 @@ public class DmxBridgeHandlerTest extends JavaTest {
     @Ignore("https://github.com/eclipse/smarthome/issues/6015#issuecomment-411313627")
     @Test
     public void assertSendDmxDataIsCalled() {
-        Mockito.verify(bridgeHandler, after(500).atLeast(9)).sendDmxData();
+        Mockito.verify(bridgeHandler, after(500).atLeast(9)).sendDmxData(anyLong());
     }
 
     @Ignore("https://github.com/eclipse/smarthome/issues/6015")
     @Test
     public void assertMuteChannelMutesOutput() {
         bridgeHandler.handleCommand(CHANNEL_UID_MUTE, OnOffType.ON);
-        Mockito.verify(bridgeHandler, after(500).atMost(1)).sendDmxData();
+        Mockito.verify(bridgeHandler, after(500).atMost(1)).sendDmxData(anyLong());
 
         bridgeHandler.handleCommand(CHANNEL_UID_MUTE, OnOffType.OFF);
-        Mockito.verify(bridgeHandler, after(500).atLeast(9)).sendDmxData();
+        Mockito.verify(bridgeHandler, after(500).atLeast(9)).sendDmxData(anyLong());
     }
 
     @Test
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dmx.internal.multiverse;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.eclipse.smarthome.core.thing.Thing;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openhab.binding.dmx.internal.action.FadeAction;
+
+/**
+ * Tests cases for {@link Universe}
+ *
+ * @author agent - Initial contribution
+ */
+public class UniverseTest {
+
+    Universe universe;
+    DmxChannel dmxChannel;
+
+    @Before
+    public void setup() {
+        universe = new Universe(1);
+        dmxChannel = universe.registerChannel(new BaseDmxChannel(1, 1), Mockito.mock(Thing.class));
+    }
+
+    @Test
+    public void unchangedUniverseIsNotRecalculated() {
+        dmxChannel.setValue(100);
+        assertThat(universe.needsCalculation(), is(true));
+
+        universe.calculateBuffer(2000);
+        assertThat(universe.getBuffer()[0], is((byte) 100));
+        assertThat(universe.getLastBufferChanged(), is(2000L));
+        assertThat(universe.needsCalculation(), is(false));
+
+        universe.calculateBuffer(3000);
+        assertThat(universe.getLastBufferChanged(), is(2000L));
+
+        dmxChannel.setValue(50);
+        assertThat(universe.needsCalculation(), is(true));
+        universe.calculateBuffer(4000);
+        assertThat(universe.getBuffer()[0], is((byte) 50));
+        assertThat(universe.getLastBufferChanged(), is(4000L));
+        assertThat(universe.needsCalculation(), is(false));
+    }
+
+    @Test
+    public void universeIsRecalculatedWhileFading() {
+        dmxChannel.setValue(0);
+        universe.calculateBuffer(2000);
+        assertThat(universe.needsCalculation(), is(false));
+
+        dmxChannel.setChannelAction(new FadeAction(1000, 200, -1));
+        universe.calculateBuffer(3000);
+        assertThat(universe.needsCalculation(), is(true));
+        universe.calculateBuffer(3500);
+        assertThat(universe.needsCalculation(), is(true));
+        assertThat(universe.getBuffer()[0], is((byte) 100));
+
+        // fade completes, the final state update is sent after the channel refresh time
+        universe.calculateBuffer(4000);
+        assertThat(universe.getBuffer()[0], is((byte) 200));
+        universe.calculateBuffer(5500);
+        assertThat(universe.needsCalculation(), is(false));
+    }
+}
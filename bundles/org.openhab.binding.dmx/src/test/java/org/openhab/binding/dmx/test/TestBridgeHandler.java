@@ -56,8 +56,8 @@ public class TestBridgeHandler extends DmxBridgeHandler {
     }
 
     @Override
-    protected void sendDmxData() {
-
+    protected boolean sendDmxData(long time) {
+        return false;
     }
 
     @Override
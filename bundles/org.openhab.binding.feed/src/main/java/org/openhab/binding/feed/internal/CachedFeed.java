@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.feed.internal;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+
+/**
+ * The {@link CachedFeed} is the last known content of a feed together with the validators the server sent along with
+ * it. The validators are sent back with the next request, so that the server can answer with 304 Not Modified
+ * instead of the whole document.
+ *
+ * Instances are immutable and kept per feed thing by the {@link FeedCache}, so that a feed thing being reinitialized
+ * does not have to download the feed again.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CachedFeed {
+    private final String url;
+    private final SyndFeed feed;
+    private final @Nullable String eTag;
+    private final @Nullable String lastModified;
+    private final long contentLength;
+    private final byte[] contentDigest;
+    private final Set<String> entryIds = new HashSet<>();
+
+    /**
+     * @param url the URL the feed has been read from
+     * @param feed the parsed feed
+     * @param eTag the value of the ETag header of the response
+     * @param lastModified the value of the Last-Modified header of the response
+     * @param content the document the feed has been parsed from, only its length and digest are kept
+     */
+    public CachedFeed(String url, SyndFeed feed, @Nullable String eTag, @Nullable String lastModified,
+            byte[] content) {
+        this(url, feed, eTag, lastModified, content.length, digest(content));
+    }
+
+    private CachedFeed(String url, SyndFeed feed, @Nullable String eTag, @Nullable String lastModified,
+            long contentLength, byte[] contentDigest) {
+        this.url = url;
+        this.feed = feed;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.contentLength = contentLength;
+        this.contentDigest = contentDigest;
+        for (SyndEntry entry : feed.getEntries()) {
+            String id = getEntryId(entry);
+            if (id != null) {
+                entryIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * Returns the URL the feed has been read from
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public SyndFeed getFeed() {
+        return feed;
+    }
+
+    /**
+     * Returns the value of the ETag header of the response the feed has been read from
+     */
+    public @Nullable String getETag() {
+        return eTag;
+    }
+
+    /**
+     * Returns the value of the Last-Modified header of the response the feed has been read from
+     */
+    public @Nullable String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Checks if a downloaded document is the one the feed has been read from, by comparing its length and its
+     * SHA-256 digest.
+     *
+     * @param content the downloaded document
+     * @return <code>true</code> if the document did not change
+     */
+    public boolean hasContent(byte[] content) {
+        return content.length == contentLength && MessageDigest.isEqual(contentDigest, digest(content));
+    }
+
+    /**
+     * Returns a copy with new validators and the same content, used when the server confirmed that the content has
+     * not changed.
+     */
+    public CachedFeed withValidators(@Nullable String eTag, @Nullable String lastModified) {
+        return new CachedFeed(url, feed, eTag, lastModified, contentLength, contentDigest);
+    }
+
+    /**
+     * Counts the entries of a newer version of the feed that are not part of this one. Entries are ordered newest
+     * first, so counting stops at the first known entry.
+     *
+     * @param newFeed the newer version of the feed
+     * @return the number of new entries
+     */
+    public int countNewEntries(SyndFeed newFeed) {
+        int count = 0;
+        for (SyndEntry entry : newFeed.getEntries()) {
+            String id = getEntryId(entry);
+            if (id != null && entryIds.contains(id)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the information published about the feed itself differs in a newer version of the feed.
+     *
+     * @param newFeed the newer version of the feed
+     * @return <code>true</code> if title, description, author or number of entries changed
+     */
+    public boolean isHeaderChanged(SyndFeed newFeed) {
+        return !Objects.equals(feed.getTitle(), newFeed.getTitle())
+                || !Objects.equals(feed.getDescription(), newFeed.getDescription())
+                || !Objects.equals(feed.getAuthor(), newFeed.getAuthor())
+                || feed.getEntries().size() != newFeed.getEntries().size();
+    }
+
+    /**
+     * Checks if the most recent entry has been edited in a newer version of the feed. Only this entry is published to
+     * the channels, so older entries are not compared.
+     *
+     * @param newFeed the newer version of the feed
+     * @return <code>true</code> if the most recent entries differ
+     */
+    public boolean isLatestEntryChanged(SyndFeed newFeed) {
+        List<SyndEntry> entries = feed.getEntries();
+        List<SyndEntry> newEntries = newFeed.getEntries();
+        if (entries.isEmpty() || newEntries.isEmpty()) {
+            return entries.size() != newEntries.size();
+        }
+        return !entries.get(0).equals(newEntries.get(0));
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the most stable identifier of an entry: its URI (the guid of RSS or the id of Atom), its link or its
+     * title.
+     */
+    static @Nullable String getEntryId(SyndEntry entry) {
+        if (entry.getUri() != null) {
+            return entry.getUri();
+        }
+        if (entry.getLink() != null) {
+            return entry.getLink();
+        }
+        return entry.getTitle();
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.feed.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.FeedException;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+
+/**
+ * The {@link FeedCache} keeps the last known content of the feed of each feed thing, keyed by thing UID. Every thing
+ * compares a download with the content it has published itself, even if several things read the same URL.
+ *
+ * The downloaded document is written to disk together with its validators, so that the feed does not have to be
+ * downloaded again after a restart. Validators are never stored without the content they validate.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class FeedCache {
+    private static final String CONTENT_EXTENSION = ".xml";
+    private static final String VALIDATORS_EXTENSION = ".properties";
+    private static final String PROPERTY_URL = "url";
+    private static final String PROPERTY_ETAG = "eTag";
+    private static final String PROPERTY_LAST_MODIFIED = "lastModified";
+
+    private final Logger logger = LoggerFactory.getLogger(FeedCache.class);
+
+    private final File cacheFolder;
+    private final Map<String, CachedFeed> feeds = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheFolder the folder the feeds are stored in, it is created when the first feed is stored
+     */
+    public FeedCache(File cacheFolder) {
+        this.cacheFolder = cacheFolder;
+    }
+
+    /**
+     * Returns the last known content of the feed of a thing. A feed which is not in memory yet is read from disk.
+     *
+     * @param thingUID the UID of the feed thing
+     * @param url the URL the thing reads the feed from
+     * @return the feed or null if it is unknown or has been read from another URL
+     */
+    public @Nullable CachedFeed get(String thingUID, String url) {
+        CachedFeed feed = feeds.get(thingUID);
+        if (feed == null) {
+            feed = read(thingUID);
+            if (feed != null) {
+                feeds.put(thingUID, feed);
+            }
+        }
+        return feed != null && url.equals(feed.getUrl()) ? feed : null;
+    }
+
+    /**
+     * Stores the feed of a thing together with the document it has been parsed from
+     *
+     * @param thingUID the UID of the feed thing
+     * @param feed the parsed feed
+     * @param content the downloaded document
+     */
+    public void put(String thingUID, CachedFeed feed, byte[] content) {
+        feeds.put(thingUID, feed);
+        try {
+            Files.createDirectories(cacheFolder.toPath());
+            Files.write(getFile(thingUID, CONTENT_EXTENSION).toPath(), content);
+            writeValidators(thingUID, feed);
+        } catch (IOException e) {
+            logger.debug("Could not store feed of thing {}: {}", thingUID, e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the new validators of a feed whose content did not change
+     *
+     * @param thingUID the UID of the feed thing
+     * @param feed the feed with the new validators, as returned by {@link CachedFeed#withValidators(String, String)}
+     */
+    public void updateValidators(String thingUID, CachedFeed feed) {
+        CachedFeed previous = feeds.put(thingUID, feed);
+        if (previous != null && Objects.equals(previous.getETag(), feed.getETag())
+                && Objects.equals(previous.getLastModified(), feed.getLastModified())) {
+            return;
+        }
+        try {
+            writeValidators(thingUID, feed);
+        } catch (IOException e) {
+            logger.debug("Could not store validators of the feed of thing {}: {}", thingUID, e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the feed of a thing from memory and disk
+     *
+     * @param thingUID the UID of the feed thing
+     */
+    public void remove(String thingUID) {
+        feeds.remove(thingUID);
+        getFile(thingUID, VALIDATORS_EXTENSION).delete();
+        getFile(thingUID, CONTENT_EXTENSION).delete();
+    }
+
+    /**
+     * Removes the feeds of all things except the given ones from memory and disk. Feeds of things that have been
+     * removed while the binding was not running are never removed by {@link #remove(String)}.
+     *
+     * @param thingUIDs the UIDs of the existing feed things
+     */
+    public void retainAll(Set<String> thingUIDs) {
+        feeds.keySet().retainAll(thingUIDs);
+        File[] files = cacheFolder.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> fileNames = new HashSet<>();
+        for (String thingUID : thingUIDs) {
+            fileNames.add(getFileName(thingUID, CONTENT_EXTENSION));
+            fileNames.add(getFileName(thingUID, VALIDATORS_EXTENSION));
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if ((name.endsWith(CONTENT_EXTENSION) || name.endsWith(VALIDATORS_EXTENSION))
+                    && !fileNames.contains(name)) {
+                logger.debug("Removing stored feed {} of a removed thing", file);
+                file.delete();
+            }
+        }
+    }
+
+    private void writeValidators(String thingUID, CachedFeed feed) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(PROPERTY_URL, feed.getUrl());
+        String eTag = feed.getETag();
+        if (eTag != null) {
+            properties.setProperty(PROPERTY_ETAG, eTag);
+        }
+        String lastModified = feed.getLastModified();
+        if (lastModified != null) {
+            properties.setProperty(PROPERTY_LAST_MODIFIED, lastModified);
+        }
+        try (OutputStream outputStream = Files.newOutputStream(getFile(thingUID, VALIDATORS_EXTENSION).toPath())) {
+            properties.store(outputStream, null);
+        }
+    }
+
+    private @Nullable CachedFeed read(String thingUID) {
+        File validatorsFile = getFile(thingUID, VALIDATORS_EXTENSION);
+        File contentFile = getFile(thingUID, CONTENT_EXTENSION);
+        if (!validatorsFile.isFile() || !contentFile.isFile()) {
+            return null;
+        }
+        try {
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(validatorsFile.toPath())) {
+                properties.load(inputStream);
+            }
+            String url = properties.getProperty(PROPERTY_URL);
+            if (url == null) {
+                return null;
+            }
+            byte[] content = Files.readAllBytes(contentFile.toPath());
+            SyndFeed feed = new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(content)));
+            logger.debug("Read feed of thing {} from {}", thingUID, contentFile);
+            return new CachedFeed(url, feed, properties.getProperty(PROPERTY_ETAG),
+                    properties.getProperty(PROPERTY_LAST_MODIFIED), content);
+        } catch (IOException | FeedException | IllegalArgumentException e) {
+            logger.debug("Could not read stored feed of thing {}: {}", thingUID, e.getMessage());
+            return null;
+        }
+    }
+
+    private File getFile(String thingUID, String extension) {
+        return new File(cacheFolder, getFileName(thingUID, extension));
+    }
+
+    private String getFileName(String thingUID, String extension) {
+        // thing UIDs contain colons, which are not allowed in file names on all systems
+        return thingUID.replaceAll("[^\\w.-]", "_") + extension;
+    }
+}
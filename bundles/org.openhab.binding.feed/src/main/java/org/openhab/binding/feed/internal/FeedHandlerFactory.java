@@ -14,16 +14,24 @@ package org.openhab.binding.feed.internal;
 
 import static org.openhab.binding.feed.internal.FeedBindingConstants.FEED_THING_TYPE_UID;
 
+import java.io.File;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingRegistry;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
+import org.eclipse.smarthome.io.net.http.HttpClientFactory;
 import org.openhab.binding.feed.internal.handler.FeedHandler;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * The {@link FeedHandlerFactory} is responsible for creating things and thing
@@ -36,6 +44,30 @@ public class FeedHandlerFactory extends BaseThingHandlerFactory {
 
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Collections.singleton(FEED_THING_TYPE_UID);
 
+    /**
+     * Last known content of the feed of each thing, kept across handler lifecycles and restarts
+     */
+    private final FeedCache feedCache = new FeedCache(
+            new File(new File(ConfigConstants.getUserDataFolder(), "cache"), "org.openhab.binding.feed"));
+
+    private HttpClient httpClient;
+
+    private ThingRegistry thingRegistry;
+
+    @Override
+    protected void activate(ComponentContext componentContext) {
+        super.activate(componentContext);
+        // feeds of things removed while the binding was not running are never removed by their handler. A thing
+        // which is not provided yet only has to download its feed once more.
+        Set<String> thingUIDs = new HashSet<>();
+        for (Thing thing : thingRegistry.getAll()) {
+            if (thing.getThingTypeUID().equals(FEED_THING_TYPE_UID)) {
+                thingUIDs.add(thing.getUID().getAsString());
+            }
+        }
+        feedCache.retainAll(thingUIDs);
+    }
+
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
         return SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID);
@@ -46,9 +78,27 @@ public class FeedHandlerFactory extends BaseThingHandlerFactory {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (thingTypeUID.equals(FEED_THING_TYPE_UID)) {
-            return new FeedHandler(thing);
+            return new FeedHandler(thing, httpClient, feedCache);
         }
 
         return null;
     }
+
+    @Reference
+    protected void setHttpClientFactory(HttpClientFactory httpClientFactory) {
+        this.httpClient = httpClientFactory.getCommonHttpClient();
+    }
+
+    protected void unsetHttpClientFactory(HttpClientFactory httpClientFactory) {
+        this.httpClient = null;
+    }
+
+    @Reference
+    protected void setThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = thingRegistry;
+    }
+
+    protected void unsetThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = null;
+    }
 }
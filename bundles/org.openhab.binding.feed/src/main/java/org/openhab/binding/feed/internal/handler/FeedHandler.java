@@ -14,21 +14,24 @@ package org.openhab.binding.feed.internal.handler;
 
 import static org.openhab.binding.feed.internal.FeedBindingConstants.*;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
-import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
-
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.util.FutureResponseListener;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -42,6 +45,8 @@ import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.feed.internal.CachedFeed;
+import org.openhab.binding.feed.internal.FeedCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +54,7 @@ import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.FeedException;
 import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
 
 /**
  * The {@link FeedHandler } is responsible for handling commands, which are
@@ -58,22 +64,45 @@ import com.rometools.rome.io.SyndFeedInput;
  */
 public class FeedHandler extends BaseThingHandler {
 
+    /**
+     * Timeout of a feed request in seconds
+     */
+    private static final int REQUEST_TIMEOUT = 30;
+
+    /**
+     * The maximum size of a feed document in bytes
+     */
+    private static final int MAX_FEED_SIZE = 16 * 1024 * 1024;
+
     private Logger logger = LoggerFactory.getLogger(FeedHandler.class);
 
+    private final HttpClient httpClient;
+    private final FeedCache feedCache;
+
     private String urlString;
     private BigDecimal refreshTime;
     private ScheduledFuture<?> refreshTask;
     private SyndFeed currentFeedState;
+    private boolean feedPublished;
     private long lastRefreshTime;
 
-    public FeedHandler(Thing thing) {
+    /**
+     * @param thing the feed thing
+     * @param httpClient the client used to download the feed
+     * @param feedCache the last known content of the feed of each thing
+     */
+    public FeedHandler(Thing thing, HttpClient httpClient, FeedCache feedCache) {
         super(thing);
+        this.httpClient = httpClient;
+        this.feedCache = feedCache;
         currentFeedState = null;
     }
 
     @Override
     public void initialize() {
         checkConfiguration();
+        currentFeedState = null;
+        feedPublished = false;
         updateStatus(ThingStatus.UNKNOWN);
         startAutomaticRefresh();
     }
@@ -108,14 +137,15 @@ public class FeedHandler extends BaseThingHandler {
     }
 
     private void refreshFeedState() {
-        SyndFeed feed = fetchFeedData(urlString);
-        boolean feedUpdated = updateFeedIfChanged(feed);
+        boolean feedUpdated = fetchFeedData(urlString);
 
-        if (feedUpdated) {
+        // the first refresh publishes the feed, even if it is known from a previous initialization
+        if (feedUpdated || (!feedPublished && currentFeedState != null)) {
             List<Channel> channels = getThing().getChannels();
             for (Channel channel : channels) {
                 publishChannelIfLinked(channel.getUID());
             }
+            feedPublished = true;
         }
     }
 
@@ -181,75 +211,115 @@ public class FeedHandler extends BaseThingHandler {
 
     /**
      * This method updates the {@link #currentFeedState}, only if there are changes on the server, since the last check.
-     * It compares the content on the server with the local
-     * stored {@link #currentFeedState} in the {@link FeedHandler}.
+     * The validators of the last response are sent along with the request, so that the server can answer with
+     * 304 Not Modified. A downloaded document that is identical to the last one is not parsed. A parsed feed is
+     * compared entry by entry with the last one, starting with the newest entry.
      *
-     * @return <code>true</code> if new content is available on the server since the last update or <code>false</code>
-     *         otherwise
-     */
-    private synchronized boolean updateFeedIfChanged(SyndFeed newFeedState) {
-        // SyndFeed class has implementation of equals ()
-        if (newFeedState != null && !newFeedState.equals(currentFeedState)) {
-            currentFeedState = newFeedState;
-            logger.debug("New content available!");
-            return true;
-        }
-        logger.debug("Feed content has not changed!");
-        return false;
-    }
-
-    /**
-     * This method tries to make connection with the server and fetch data from the feed.
      * The status of the feed thing is set to {@link ThingStatus#ONLINE}, if the fetching was successful.
      * Otherwise the status will be set to {@link ThingStatus#OFFLINE} with
      * {@link ThingStatusDetail#CONFIGURATION_ERROR} or
      * {@link ThingStatusDetail#COMMUNICATION_ERROR} and adequate message.
      *
      * @param urlString URL of the Feed
-     * @return {@link SyndFeed} instance with the feed data, if the connection attempt was successful and
-     *         <code>null</code> otherwise
+     * @return <code>true</code> if new content is available on the server since the last update or <code>false</code>
+     *         otherwise
      */
-    private SyndFeed fetchFeedData(String urlString) {
-        SyndFeed feed = null;
-        try {
-            URL url = new URL(urlString);
+    private synchronized boolean fetchFeedData(String urlString) {
+        if (urlString == null) {
+            logger.warn("Feed URL is null");
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "Feed URL is not set");
+            return false;
+        }
 
-            URLConnection connection = url.openConnection();
-            connection.setRequestProperty("Accept-Encoding", "gzip");
+        // the cached feed is the one this thing published last, so every download is compared with it
+        CachedFeed cachedFeed = feedCache.get(getThingUID(), urlString);
+        // a 304 response refers to the cached content, which may have been downloaded before this handler existed
+        if (currentFeedState == null && cachedFeed != null) {
+            currentFeedState = cachedFeed.getFeed();
+        }
 
-            BufferedReader in = null;
-            if ("gzip".equals(connection.getContentEncoding())) {
-                in = new BufferedReader(new InputStreamReader(new GZIPInputStream(connection.getInputStream())));
+        try {
+            Request request = httpClient.newRequest(urlString).timeout(REQUEST_TIMEOUT, TimeUnit.SECONDS);
+            if (cachedFeed != null) {
+                if (cachedFeed.getETag() != null) {
+                    request.header(HttpHeader.IF_NONE_MATCH, cachedFeed.getETag());
+                }
+                if (cachedFeed.getLastModified() != null) {
+                    request.header(HttpHeader.IF_MODIFIED_SINCE, cachedFeed.getLastModified());
+                }
+            }
+            FutureResponseListener listener = new FutureResponseListener(request, MAX_FEED_SIZE);
+            request.send(listener);
+            ContentResponse response = listener.get(REQUEST_TIMEOUT, TimeUnit.SECONDS);
+
+            String eTag = response.getHeaders().get(HttpHeader.ETAG);
+            String lastModified = response.getHeaders().get(HttpHeader.LAST_MODIFIED);
+            boolean feedUpdated;
+            if (response.getStatus() == HttpStatus.NOT_MODIFIED_304 && cachedFeed != null) {
+                logger.debug("Feed {} has not been modified", urlString);
+                feedCache.updateValidators(getThingUID(), cachedFeed.withValidators(eTag, lastModified));
+                feedUpdated = false;
+            } else if (response.getStatus() == HttpStatus.OK_200) {
+                feedUpdated = updateFeedIfChanged(urlString, cachedFeed, response.getContent(), eTag, lastModified);
             } else {
-                in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+                logger.warn("Error accessing feed: {}, server answered with status {}", urlString,
+                        response.getStatus());
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                        "HTTP status " + response.getStatus() + " " + response.getReason());
+                return false;
             }
 
-            SyndFeedInput input = new SyndFeedInput();
-            feed = input.build(in);
-            in.close();
-
             if (this.thing.getStatus() != ThingStatus.ONLINE) {
                 updateStatus(ThingStatus.ONLINE);
             }
-        } catch (MalformedURLException e) {
-            logger.warn("Url '{}' is not valid: ", urlString, e);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
-            return null;
-        } catch (IOException e) {
-            logger.warn("Error accessing feed: {}", urlString, e);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, e.getMessage());
-            return null;
+            return feedUpdated;
         } catch (IllegalArgumentException e) {
-            logger.warn("Feed URL is null ", e);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
-            return null;
-        } catch (FeedException e) {
+            logger.warn("Url '{}' is not valid: ", urlString, e);
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.warn("Error accessing feed: {}", urlString, cause);
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, cause.getMessage());
+        } catch (IOException | FeedException e) {
             logger.warn("Feed content is not valid: {} ", urlString, e);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
-            return null;
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Parses a downloaded feed document and replaces the {@link #currentFeedState} if it differs from the last one.
+     *
+     * @return <code>true</code> if the feed changed
+     */
+    private boolean updateFeedIfChanged(String urlString, CachedFeed cachedFeed, byte[] content, String eTag,
+            String lastModified) throws IOException, FeedException {
+        if (cachedFeed != null && cachedFeed.hasContent(content)) {
+            logger.debug("Feed content has not changed!");
+            feedCache.updateValidators(getThingUID(), cachedFeed.withValidators(eTag, lastModified));
+            return false;
         }
 
-        return feed;
+        // XmlReader detects the encoding like an XML parser would
+        SyndFeed newFeedState = new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(content)));
+        feedCache.put(getThingUID(), new CachedFeed(urlString, newFeedState, eTag, lastModified, content), content);
+
+        if (cachedFeed != null) {
+            int newEntries = cachedFeed.countNewEntries(newFeedState);
+            if (newEntries == 0 && !cachedFeed.isHeaderChanged(newFeedState)
+                    && !cachedFeed.isLatestEntryChanged(newFeedState)) {
+                logger.debug("Feed content has not changed!");
+                currentFeedState = newFeedState;
+                return false;
+            }
+            logger.debug("New content available, {} new entries!", newEntries);
+        } else {
+            logger.debug("New content available!");
+        }
+        currentFeedState = newFeedState;
+        return true;
     }
 
     /**
@@ -276,8 +346,7 @@ public class FeedHandler extends BaseThingHandler {
         if (command instanceof RefreshType) {
             // safeguard for multiple REFRESH commands for different channels in a row
             if (isMinimumRefreshTimeExceeded()) {
-                SyndFeed feed = fetchFeedData(urlString);
-                updateFeedIfChanged(feed);
+                fetchFeedData(urlString);
             }
             publishChannelIfLinked(channelUID);
         } else {
@@ -294,6 +363,12 @@ public class FeedHandler extends BaseThingHandler {
         lastRefreshTime = 0;
     }
 
+    @Override
+    public void handleRemoval() {
+        feedCache.remove(getThingUID());
+        super.handleRemoval();
+    }
+
     private boolean isMinimumRefreshTimeExceeded() {
         long currentTime = System.currentTimeMillis();
         long timeSinceLastRefresh = currentTime - lastRefreshTime;
@@ -304,6 +379,10 @@ public class FeedHandler extends BaseThingHandler {
         return true;
     }
 
+    private String getThingUID() {
+        return getThing().getUID().getAsString();
+    }
+
     public String getValueSafely(String value) {
         return value == null ? new String() : value;
     }
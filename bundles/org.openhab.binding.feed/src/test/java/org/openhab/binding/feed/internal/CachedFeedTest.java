@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.feed.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.rometools.rome.feed.synd.SyndContentImpl;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndFeedImpl;
+
+/**
+ * Tests for {@link CachedFeed}
+ *
+ * @author agent - Initial contribution
+ */
+public class CachedFeedTest {
+
+    private static final String URL = "http://example.com/feed.xml";
+    private static final byte[] CONTENT = "<rss version=\"2.0\"/>".getBytes(UTF_8);
+
+    private SyndEntry entry(String uri, String description) {
+        SyndEntry entry = new SyndEntryImpl();
+        entry.setUri(uri);
+        entry.setTitle("Title of " + uri);
+        SyndContentImpl content = new SyndContentImpl();
+        content.setValue(description);
+        entry.setDescription(content);
+        return entry;
+    }
+
+    private SyndFeed feed(String title, SyndEntry... entries) {
+        SyndFeed feed = new SyndFeedImpl();
+        feed.setTitle(title);
+        List<SyndEntry> list = new ArrayList<>();
+        for (SyndEntry entry : entries) {
+            list.add(entry);
+        }
+        feed.setEntries(list);
+        return feed;
+    }
+
+    @Test
+    public void newEntriesAreCountedUntilFirstKnownEntry() {
+        CachedFeed cachedFeed = new CachedFeed(URL, feed("Feed", entry("2", "b"), entry("1", "a")), "\"v1\"", null,
+                CONTENT);
+
+        assertThat(cachedFeed.countNewEntries(feed("Feed", entry("2", "b"), entry("1", "a"))), is(0));
+        assertThat(cachedFeed.countNewEntries(feed("Feed", entry("4", "d"), entry("3", "c"), entry("2", "b"))),
+                is(2));
+        assertThat(cachedFeed.countNewEntries(feed("Feed", entry("6", "f"), entry("5", "e"))), is(2));
+    }
+
+    @Test
+    public void changesOfPublishedInformationAreDetected() {
+        CachedFeed cachedFeed = new CachedFeed(URL, feed("Feed", entry("2", "b"), entry("1", "a")), null, null,
+                CONTENT);
+
+        assertThat(cachedFeed.isHeaderChanged(feed("Feed", entry("2", "b"), entry("1", "a"))), is(false));
+        assertThat(cachedFeed.isHeaderChanged(feed("Renamed", entry("2", "b"), entry("1", "a"))), is(true));
+        // an old entry dropped out of the feed
+        assertThat(cachedFeed.isHeaderChanged(feed("Feed", entry("2", "b"))), is(true));
+
+        assertThat(cachedFeed.isLatestEntryChanged(feed("Feed", entry("2", "b"), entry("1", "a"))), is(false));
+        // the latest entry has been edited
+        assertThat(cachedFeed.isLatestEntryChanged(feed("Feed", entry("2", "b2"), entry("1", "a"))), is(true));
+        assertThat(cachedFeed.isLatestEntryChanged(feed("Feed")), is(true));
+    }
+
+    @Test
+    public void validatorsAreReplacedWithoutContent() {
+        SyndFeed feed = feed("Feed", entry("1", "a"));
+        CachedFeed cachedFeed = new CachedFeed(URL, feed, "\"v1\"", "Mon, 06 Jan 2020 10:00:00 GMT", CONTENT)
+                .withValidators("\"v2\"", null);
+
+        assertThat(cachedFeed.getUrl(), is(URL));
+        assertThat(cachedFeed.getFeed(), is(sameInstance(feed)));
+        assertThat(cachedFeed.getETag(), is("\"v2\""));
+        assertThat(cachedFeed.getLastModified(), is(nullValue()));
+        assertThat(cachedFeed.hasContent(CONTENT), is(true));
+    }
+
+    @Test
+    public void contentIsComparedByLengthAndDigest() {
+        CachedFeed cachedFeed = new CachedFeed(URL, feed("Feed", entry("1", "a")), null, null, CONTENT);
+
+        assertThat(cachedFeed.hasContent(CONTENT.clone()), is(true));
+        assertThat(cachedFeed.hasContent(Arrays.copyOf(CONTENT, CONTENT.length + 1)), is(false));
+        // "Aa" and "BB" have the same 32-bit hash code
+        CachedFeed collidingFeed = new CachedFeed(URL, feed("Feed"), null, null, "Aa".getBytes(UTF_8));
+        assertThat(collidingFeed.hasContent("BB".getBytes(UTF_8)), is(false));
+    }
+}
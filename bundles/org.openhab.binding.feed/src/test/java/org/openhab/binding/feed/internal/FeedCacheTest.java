@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.feed.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+
+/**
+ * Tests for {@link FeedCache}
+ *
+ * @author agent - Initial contribution
+ */
+public class FeedCacheTest {
+
+    private static final String URL = "http://example.com/feed.xml";
+    private static final String THING_A = "feed:feed:a";
+    private static final String THING_B = "feed:feed:b";
+
+    private static final byte[] CONTENT = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<rss version=\"2.0\"><channel><title>Feed</title><link>http://example.com</link>"
+            + "<description>Description</description>"
+            + "<item><guid>1</guid><title>First</title><description>a</description></item>"
+            + "</channel></rss>").getBytes(UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheFolder;
+
+    @Before
+    public void setUp() {
+        cacheFolder = new File(folder.getRoot(), "cache");
+    }
+
+    private CachedFeed cachedFeed(String eTag) throws Exception {
+        return new CachedFeed(URL, new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(CONTENT))), eTag,
+                null, CONTENT);
+    }
+
+    @Test
+    public void feedsAreKeptPerThing() throws Exception {
+        FeedCache feedCache = new FeedCache(cacheFolder);
+        CachedFeed feed = cachedFeed("\"v1\"");
+        feedCache.put(THING_A, feed, CONTENT);
+
+        assertThat(feedCache.get(THING_A, URL), is(sameInstance(feed)));
+        assertThat(feedCache.get(THING_B, URL), is(nullValue()));
+
+        feedCache.remove(THING_B);
+        assertThat(feedCache.get(THING_A, URL), is(sameInstance(feed)));
+    }
+
+    @Test
+    public void feedReadFromAnotherUrlIsIgnored() throws Exception {
+        FeedCache feedCache = new FeedCache(cacheFolder);
+        feedCache.put(THING_A, cachedFeed("\"v1\""), CONTENT);
+
+        assertThat(feedCache.get(THING_A, "http://example.com/other.xml"), is(nullValue()));
+    }
+
+    @Test
+    public void feedIsReadFromDiskWithItsValidators() throws Exception {
+        new FeedCache(cacheFolder).put(THING_A, cachedFeed("\"v1\""), CONTENT);
+
+        CachedFeed feed = new FeedCache(cacheFolder).get(THING_A, URL);
+        assertThat(feed, is(notNullValue()));
+        assertThat(feed.getETag(), is("\"v1\""));
+        assertThat(feed.getLastModified(), is(nullValue()));
+        assertThat(feed.hasContent(CONTENT), is(true));
+        assertThat(feed.getFeed().getTitle(), is("Feed"));
+        assertThat(feed.getFeed().getEntries().size(), is(1));
+    }
+
+    @Test
+    public void updatedValidatorsAreStored() throws Exception {
+        FeedCache feedCache = new FeedCache(cacheFolder);
+        CachedFeed feed = cachedFeed("\"v1\"");
+        feedCache.put(THING_A, feed, CONTENT);
+        feedCache.updateValidators(THING_A, feed.withValidators("\"v2\"", "Mon, 06 Jan 2020 10:00:00 GMT"));
+
+        CachedFeed readFeed = new FeedCache(cacheFolder).get(THING_A, URL);
+        assertThat(readFeed, is(notNullValue()));
+        assertThat(readFeed.getETag(), is("\"v2\""));
+        assertThat(readFeed.getLastModified(), is("Mon, 06 Jan 2020 10:00:00 GMT"));
+    }
+
+    @Test
+    public void removedFeedIsDeletedFromDisk() throws Exception {
+        FeedCache feedCache = new FeedCache(cacheFolder);
+        feedCache.put(THING_A, cachedFeed("\"v1\""), CONTENT);
+        feedCache.remove(THING_A);
+
+        assertThat(feedCache.get(THING_A, URL), is(nullValue()));
+        assertThat(new FeedCache(cacheFolder).get(THING_A, URL), is(nullValue()));
+        assertThat(cacheFolder.list().length, is(0));
+    }
+
+    @Test
+    public void feedsOfUnknownThingsAreDeletedFromDisk() throws Exception {
+        FeedCache feedCache = new FeedCache(cacheFolder);
+        feedCache.put(THING_A, cachedFeed("\"v1\""), CONTENT);
+        feedCache.put(THING_B, cachedFeed("\"v1\""), CONTENT);
+
+        feedCache.retainAll(Collections.singleton(THING_A));
+
+        assertThat(feedCache.get(THING_B, URL), is(nullValue()));
+        assertThat(cacheFolder.list().length, is(2));
+        assertThat(new FeedCache(cacheFolder).get(THING_A, URL), is(notNullValue()));
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -63,6 +64,7 @@ import org.openhab.binding.homematic.internal.communicator.virtual.StateContactV
 import org.openhab.binding.homematic.internal.communicator.virtual.VirtualDatapointHandler;
 import org.openhab.binding.homematic.internal.communicator.virtual.VirtualGateway;
 import org.openhab.binding.homematic.internal.misc.DelayedExecuter;
+import org.openhab.binding.homematic.internal.misc.EventCoalescer;
 import org.openhab.binding.homematic.internal.misc.HomematicClientException;
 import org.openhab.binding.homematic.internal.misc.HomematicConstants;
 import org.openhab.binding.homematic.internal.misc.MiscUtils;
@@ -90,6 +92,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final long EVENT_COALESCING_WINDOW_MILLIS = 50;
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -111,6 +114,8 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
     private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
+    private final EventCoalescer eventCoalescer = new EventCoalescer(scheduler, EVENT_COALESCING_WINDOW_MILLIS,
+            this::dispatchEvents);
 
     static {
         // loads all virtual datapoints
@@ -211,7 +216,10 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         newDeviceEventsEnabled = false;
         stopWatchdogs();
         sendDelayedExecutor.stop();
+        eventCoalescer.stop();
         receiveDelayedExecutor.stop();
+        logger.debug("Received {} events from gateway with id '{}', dispatched {} events after coalescing",
+                eventCoalescer.getReceivedEvents(), id, eventCoalescer.getDispatchedEvents());
         stopServers();
         stopClients();
         devices.clear();
@@ -720,6 +728,25 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         }
     }
 
+    /**
+     * Handles the virtual datapoints for the given datapoint of a batch of events. Trigger datapoints are handled and
+     * published immediately, all other datapoints are collected per handler and handled once per batch.
+     */
+    private void handleVirtualDatapointEvent(HmDatapoint dp,
+            Map<VirtualDatapointHandler, List<HmDatapoint>> virtualDatapointEvents) {
+        for (VirtualDatapointHandler vdph : virtualDatapointHandlers) {
+            if (vdph.canHandleEvent(dp)) {
+                HmDatapoint vdp = vdph.getVirtualDatapoint(dp.getChannel());
+                if (vdp != null && vdp.isTrigger()) {
+                    vdph.handleEvent(this, dp);
+                    gatewayAdapter.onStateUpdated(vdp);
+                } else {
+                    virtualDatapointEvents.computeIfAbsent(vdph, handler -> new ArrayList<HmDatapoint>()).add(dp);
+                }
+            }
+        }
+    }
+
     @Override
     public void eventReceived(HmDatapointInfo dpInfo, Object newValue) {
         String className = newValue == null ? "Unknown" : newValue.getClass().getSimpleName();
@@ -729,13 +756,28 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         if (echoEvents.remove(dpInfo)) {
             logger.debug("Echo event detected, ignoring '{}'", dpInfo);
         } else {
+            if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
+                connectionTrackerThread.pongReceived();
+            }
+            if (initialized) {
+                // every button press is dispatched, all other events are coalesced
+                eventCoalescer.add(dpInfo, newValue, !dpInfo.isPressDatapoint());
+            }
+        }
+    }
+
+    /**
+     * Dispatches a batch of coalesced events to the datapoints.
+     */
+    private void dispatchEvents(List<EventCoalescer.Event> events) {
+        Map<VirtualDatapointHandler, List<HmDatapoint>> virtualDatapointEvents = new LinkedHashMap<>();
+        for (EventCoalescer.Event event : events) {
+            final HmDatapointInfo dpInfo = event.getDpInfo();
+            final Object newValue = event.getValue();
             try {
-                if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
-                    connectionTrackerThread.pongReceived();
-                }
-                if (initialized) {
-                    final HmDatapoint dp = getDatapoint(dpInfo);
-                    HmDatapointConfig config = gatewayAdapter.getDatapointConfig(dp);
+                final HmDatapoint dp = getDatapoint(dpInfo);
+                HmDatapointConfig config = gatewayAdapter.getDatapointConfig(dp);
+                if (config.getReceiveDelay() > 0.0) {
                     receiveDelayedExecutor.start(dpInfo, config.getReceiveDelay(), () -> {
                         dp.setValue(newValue);
 
@@ -745,11 +787,24 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                             disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
                         }
                     });
+                } else {
+                    dp.setValue(newValue);
+
+                    gatewayAdapter.onStateUpdated(dp);
+                    handleVirtualDatapointEvent(dp, virtualDatapointEvents);
+                    if (dp.isPressDatapoint() && MiscUtils.isTrueValue(dp.getValue())) {
+                        disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
+                    }
                 }
             } catch (HomematicClientException | IOException ex) {
                 // ignore
             }
         }
+        for (Map.Entry<VirtualDatapointHandler, List<HmDatapoint>> entry : virtualDatapointEvents.entrySet()) {
+            for (HmDatapoint vdp : entry.getKey().handleEvents(this, entry.getValue())) {
+                gatewayAdapter.onStateUpdated(vdp);
+            }
+        }
     }
 
     @Override
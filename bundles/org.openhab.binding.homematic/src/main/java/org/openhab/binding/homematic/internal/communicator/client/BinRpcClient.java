@@ -13,7 +13,6 @@
 package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.IOException;
-import java.net.Socket;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
@@ -61,9 +60,10 @@ public class BinRpcClient extends RpcClient<byte[]> {
 
     /**
      * Sends a BIN-RPC message and parses the response to see if there was an error.
+     * Messages of concurrent callers to the same port are pipelined over the same socket.
      */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client BinRpcRequest:\n{}", request);
         }
@@ -75,10 +75,10 @@ public class BinRpcClient extends RpcClient<byte[]> {
      */
     private Object[] sendMessage(int port, RpcRequest<byte[]> request, int rpcRetryCounter) throws IOException {
         BinRpcMessage resp = null;
+        SocketInfo socketInfo = null;
         try {
-            Socket socket = socketHandler.getSocket(port);
-            socket.getOutputStream().write(request.createMessage());
-            resp = new BinRpcMessage(socket.getInputStream(), false, config.getEncoding());
+            socketInfo = socketHandler.getSocket(port);
+            resp = socketInfo.sendMessage(request.createMessage(), config.getEncoding());
             return new RpcResponseParser(request).parse(resp.getResponseData());
         } catch (UnknownRpcFailureException | UnknownParameterSetException rpcEx) {
             // throw immediately, don't retry the message
@@ -90,7 +90,9 @@ public class BinRpcClient extends RpcClient<byte[]> {
                 rpcRetryCounter++;
                 logger.debug("BinRpcMessage socket failure, sending message again {}/{}", rpcRetryCounter,
                         MAX_RPC_RETRY);
-                socketHandler.removeSocket(port);
+                if (socketInfo != null) {
+                    socketHandler.removeSocket(port, socketInfo);
+                }
                 return sendMessage(port, request, rpcRetryCounter);
             }
         } finally {
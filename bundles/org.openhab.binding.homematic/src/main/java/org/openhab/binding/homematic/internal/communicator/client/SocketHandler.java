@@ -23,7 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple socket cache class.
+ * Simple socket cache class. The sockets are shared by all threads sending messages to the same port.
  *
  * @author Gerhard Riegler - Initial contribution
  */
@@ -40,7 +40,7 @@ public class SocketHandler {
     /**
      * Returns a socket for the given port, (re)creates it if required.
      */
-    public Socket getSocket(int port) throws IOException {
+    public synchronized SocketInfo getSocket(int port) throws IOException {
         SocketInfo socketInfo = socketsPerPort.get(port);
         if (socketInfo == null) {
             logger.trace("Creating new socket for port {}", port);
@@ -56,46 +56,44 @@ public class SocketHandler {
 
             if (isMaxAliveReached) {
                 logger.debug("Max alive time reached for socket on port {}", port);
-                removeSocket(port);
+                // requests in flight on the old socket are still answered
+                socketsPerPort.remove(port);
+                socketInfo.closeWhenIdle();
                 return getSocket(port);
             }
             logger.trace("Returning socket for port {}", port);
         }
-        return socketInfo.getSocket();
+        return socketInfo;
     }
 
     /**
      * Removes the socket for the given port from the cache.
      */
-    public void removeSocket(int port) {
-        SocketInfo socketInfo = socketsPerPort.get(port);
+    public synchronized void removeSocket(int port) {
+        SocketInfo socketInfo = socketsPerPort.remove(port);
         if (socketInfo != null) {
             logger.trace("Closing Socket on port {}", port);
-            socketsPerPort.remove(port);
-            closeSilent(socketInfo.getSocket());
+            socketInfo.close();
         }
     }
 
     /**
-     * Removes all cached sockets.
+     * Removes the given socket for the given port from the cache, if it has not been replaced in the meantime.
      */
-    public void flush() {
-        synchronized (SocketHandler.class) {
-            Integer[] portsToRemove = socketsPerPort.keySet().toArray(new Integer[0]);
-            for (Integer key : portsToRemove) {
-                removeSocket(key);
-            }
+    public synchronized void removeSocket(int port, SocketInfo socketInfo) {
+        if (socketsPerPort.remove(port, socketInfo)) {
+            logger.trace("Closing Socket on port {}", port);
         }
+        socketInfo.close();
     }
 
     /**
-     * Silently closes the given socket.
+     * Removes all cached sockets.
      */
-    private void closeSilent(Socket socket) {
-        try {
-            socket.close();
-        } catch (IOException e) {
-            // ignore
+    public synchronized void flush() {
+        Integer[] portsToRemove = socketsPerPort.keySet().toArray(new Integer[0]);
+        for (Integer key : portsToRemove) {
+            removeSocket(key);
         }
     }
 }
@@ -12,17 +12,38 @@
  */
 package org.openhab.binding.homematic.internal.communicator.client;
 
+import java.io.IOException;
 import java.net.Socket;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 
 /**
  * Info class which holds some infos for caching a socket.
- * 
+ *
+ * Several threads may send BIN-RPC requests over the same socket at the same time. The requests are pipelined: a
+ * request is written as soon as the previous request has been written, the responses are read in the order of the
+ * requests by whichever waiting thread holds the read lock. A retired socket is closed when the last request in flight
+ * has been answered, the number of requests in flight and the close are guarded by the write lock.
+ *
  * @author Gerhard Riegler - Initial contribution
  */
 public class SocketInfo {
     private Socket socket;
     private long created;
 
+    private final Object writeLock = new Object();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final Queue<CompletableFuture<BinRpcMessage>> pendingResponses = new ConcurrentLinkedQueue<>();
+    private IOException failure;
+    private int inFlight;
+    private boolean retired;
+    private boolean closed;
+
     public SocketInfo(Socket socket) {
         this.socket = socket;
         this.created = System.currentTimeMillis();
@@ -41,4 +62,97 @@ public class SocketInfo {
     public long getCreated() {
         return created;
     }
+
+    /**
+     * Sends a BIN-RPC request and waits for its response.
+     */
+    public BinRpcMessage sendMessage(byte[] request, String encoding) throws IOException {
+        CompletableFuture<BinRpcMessage> response = new CompletableFuture<>();
+        synchronized (writeLock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IOException("Socket has been closed");
+            }
+            inFlight++;
+            pendingResponses.add(response);
+            try {
+                socket.getOutputStream().write(request);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        readLock.lock();
+        try {
+            while (!response.isDone()) {
+                BinRpcMessage message;
+                try {
+                    message = new BinRpcMessage(socket.getInputStream(), false, encoding);
+                } catch (IOException e) {
+                    fail(e);
+                    break;
+                }
+                CompletableFuture<BinRpcMessage> next = pendingResponses.poll();
+                if (next != null) {
+                    next.complete(message);
+                }
+            }
+        } finally {
+            readLock.unlock();
+            synchronized (writeLock) {
+                if (--inFlight == 0 && retired) {
+                    close();
+                }
+            }
+        }
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Fails all pending requests and closes the socket, the socket cannot be used anymore.
+     */
+    private void fail(IOException e) {
+        synchronized (writeLock) {
+            if (failure == null) {
+                failure = e;
+            }
+            CompletableFuture<BinRpcMessage> pending;
+            while ((pending = pendingResponses.poll()) != null) {
+                pending.completeExceptionally(e);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Closes the socket as soon as all pending requests have been answered.
+     */
+    public void closeWhenIdle() {
+        synchronized (writeLock) {
+            retired = true;
+            if (inFlight == 0) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Silently closes the socket.
+     */
+    public void close() {
+        synchronized (writeLock) {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
 }
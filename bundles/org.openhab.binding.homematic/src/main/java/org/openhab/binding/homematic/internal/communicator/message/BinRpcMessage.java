@@ -19,28 +19,35 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
  *
+ * Messages are decoded in place from the received bytes, without copying the payload. The bytes of a message decoded
+ * from a shared buffer are not kept, such a message is encoded again from its values if it has to be sent. Requests
+ * are encoded into a single array which is only copied once, if at all, when the message is created.
+ *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private final Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
 
+    /** Size of the BIN-RPC header: signature, type and content length */
+    public static final int HEADER_LENGTH = 8;
+
     public enum TYPE {
         REQUEST,
         RESPONSE
@@ -49,6 +56,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private Object[] messageData;
     private byte binRpcData[];
     private int offset;
+    private int argsPosition;
 
     private String methodName;
     private TYPE type;
@@ -74,87 +82,149 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
         this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
-        if (length != 4) {
-            throw new EOFException("Only " + length + " bytes received reading signature");
-        }
-        validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
-        if (length != 4) {
-            throw new EOFException("Only " + length + " bytes received reading message length");
-        }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte payload[] = new byte[datasize];
-        int offset = 0;
-        int currentLength;
+        byte header[] = new byte[HEADER_LENGTH];
+        readFully(is, header, 0, HEADER_LENGTH, "header");
+        validateBinXSignature(header, 0);
+        int datasize = getMessageLength(ByteBuffer.wrap(header)) - HEADER_LENGTH;
+
+        // read the payload directly behind the header, the message is decoded in place
+        byte message[] = Arrays.copyOf(header, HEADER_LENGTH + datasize);
+        readFully(is, message, HEADER_LENGTH, datasize, "payload");
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
+    }
 
-        while (offset < datasize && (currentLength = is.read(payload, offset, datasize - offset)) != -1) {
-            offset += currentLength;
+    /**
+     * Decodes a BIN-RPC message from the given byte array.
+     */
+    public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
+        this.encoding = encoding;
+        if (message.length < HEADER_LENGTH) {
+            throw new EOFException("Only " + message.length + " bytes received");
         }
-        if (offset != datasize) {
-            throw new EOFException("Only " + offset + " bytes received while reading message payload, expected "
-                    + datasize + " bytes");
+        validateBinXSignature(message, 0);
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
+    }
+
+    /**
+     * Decodes a BIN-RPC message in place from the given buffer. The message starts at the position of the buffer and
+     * ends at its limit, see {@link #getMessageLength(ByteBuffer)}. The position is moved behind the message.
+     */
+    public BinRpcMessage(ByteBuffer message, boolean methodHeader, String encoding) throws IOException {
+        this.encoding = encoding;
+        if (message.remaining() < HEADER_LENGTH) {
+            throw new EOFException("Only " + message.remaining() + " bytes received");
         }
-        byte[] message = ArrayUtils.addAll(sig, payload);
         decodeMessage(message, methodHeader);
     }
 
-    private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
+    /**
+     * Returns the total length including the header of the BIN-RPC message at the position of the buffer, without
+     * moving the position. The buffer must contain at least {@link #HEADER_LENGTH} bytes.
+     */
+    public static int getMessageLength(ByteBuffer buffer) throws IOException {
+        int position = buffer.position();
+        if (buffer.get(position) != 'B' || buffer.get(position + 1) != 'i' || buffer.get(position + 2) != 'n') {
             throw new UnsupportedEncodingException("No BinX signature");
         }
+        int datasize = buffer.getInt(position + 4);
+        if (datasize < 0) {
+            throw new IOException("Invalid message length " + datasize);
+        }
+        return HEADER_LENGTH + datasize;
     }
 
-    /**
-     * Decodes a BIN-RPC message from the given byte array.
-     */
-    public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
-        this.encoding = encoding;
-        if (message.length < 8) {
-            throw new EOFException("Only " + message.length + " bytes received");
+    private static void readFully(InputStream is, byte[] buffer, int offset, int length, String part)
+            throws IOException {
+        int read = 0;
+        int currentLength;
+        while (read < length && (currentLength = is.read(buffer, offset + read, length - read)) != -1) {
+            read += currentLength;
+        }
+        if (read != length) {
+            throw new EOFException(
+                    "Only " + read + " bytes received while reading message " + part + ", expected " + length + " bytes");
         }
-        validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
+    private static void validateBinXSignature(byte[] sig, int offset) throws UnsupportedEncodingException {
+        if (sig[offset] != 'B' || sig[offset + 1] != 'i' || sig[offset + 2] != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+    }
 
-        offset = 8;
+    private void decodeMessage(ByteBuffer message, boolean methodHeader) throws IOException {
+        int start = message.position();
+        int end = start + getMessageLength(message);
+        if (end > message.limit()) {
+            throw new EOFException("Only " + (message.limit() - start) + " bytes received, expected " + (end - start)
+                    + " bytes");
+        }
+        if (message.hasArray() && start == 0 && message.arrayOffset() == 0 && end == message.array().length) {
+            binRpcData = message.array();
+            offset = end - start;
+        }
+        // else a part of a buffer which is reused for the next messages, see encodeValues()
+        type = message.get(start + 3) == 1 ? TYPE.RESPONSE : TYPE.REQUEST;
 
-        if (methodHeader) {
-            methodName = readString();
-            readInt();
+        ByteBuffer data = message.duplicate();
+        data.position(start + HEADER_LENGTH);
+        data.limit(end);
+        try {
+            if (methodHeader) {
+                methodName = readString(data);
+                args = data.getInt();
+            }
+            messageData = readValues(data);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Message truncated while decoding");
         }
-        generateResponseData();
+        message.position(end);
     }
 
     public void setType(TYPE type) {
-        binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
+        this.type = type;
+        if (binRpcData != null) {
+            binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
+        }
+    }
+
+    /**
+     * Encodes the decoded values again if the message has been decoded from a shared buffer.
+     */
+    private void encodeValues() {
+        if (binRpcData == null) {
+            Object[] values = messageData;
+            offset = 0;
+            args = 0;
+            createHeader();
+            for (Object value : values) {
+                addArg(value);
+            }
+        }
     }
 
-    private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
+    private Object[] readValues(ByteBuffer data) throws IOException {
         List<Object> values = new ArrayList<>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
+        while (data.hasRemaining()) {
+            values.add(readRpcValue(data));
         }
-        messageData = values.toArray();
-        values.clear();
+        return values.toArray();
     }
 
     private void createHeader() {
         binRpcData = new byte[256];
-        addString("Bin ");
+        addByte((byte) 'B');
+        addByte((byte) 'i');
+        addByte((byte) 'n');
+        addByte((byte) 0);
         setType(type);
         addInt(0); // placeholder content length
         if (methodName != null) {
-            addInt(methodName.length());
             addString(methodName);
+            argsPosition = offset;
             addInt(0); // placeholder arguments
         }
-        setInt(4, offset - 8);
+        setInt(4, offset - HEADER_LENGTH);
     }
 
     /**
@@ -163,10 +233,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public void addArg(Object argument) {
         addObject(argument);
-        setInt(4, offset - 8);
+        setInt(4, offset - HEADER_LENGTH);
 
         if (methodName != null) {
-            setInt(12 + methodName.length(), ++args);
+            setInt(argsPosition, ++args);
         }
     }
 
@@ -181,14 +251,19 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
 
     @Override
     public byte[] createMessage() {
-        trimBinRpcData();
+        encodeValues();
+        if (binRpcData.length != offset) {
+            binRpcData = Arrays.copyOf(binRpcData, offset);
+        }
         return binRpcData;
     }
 
-    private void trimBinRpcData() {
-        byte[] trimmed = new byte[offset];
-        System.arraycopy(binRpcData, 0, trimmed, 0, offset);
-        binRpcData = trimmed;
+    /**
+     * Returns the encoded message as buffer, without copying it.
+     */
+    public ByteBuffer asByteBuffer() {
+        encodeValues();
+        return ByteBuffer.wrap(binRpcData, 0, offset);
     }
 
     @Override
@@ -197,56 +272,65 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
-    }
-
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private String readString(ByteBuffer data) throws UnsupportedEncodingException {
+        int len = data.getInt();
+        if (len < 0 || len > data.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String string;
+        if (data.hasArray()) {
+            string = new String(data.array(), data.arrayOffset() + data.position(), len, encoding);
+            data.position(data.position() + len);
+        } else {
+            byte[] bytes = new byte[len];
+            data.get(bytes);
+            string = new String(bytes, encoding);
+        }
+        return string;
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer data) throws IOException {
+        int type = data.getInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(data.getInt());
             case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                return readString();
+                return readString(data);
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(data.getInt() * 1000L);
             case 0x100:
                 // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                int numElements = data.getInt();
+                Object[] array = new Object[Math.max(0, numElements)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readRpcValue(data);
                 }
-                return array.toArray();
+                return array;
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = data.getInt();
                 Map<String, Object> struct = new TreeMap<>();
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(data);
+                    struct.put(name, readRpcValue(data));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                if (logger.isInfoEnabled()) {
+                    ByteBuffer message = data.duplicate();
+                    message.rewind();
+                    byte[] dump = new byte[message.remaining()];
+                    message.get(dump);
+                    logger.info("Unknown data type {} at position {} in message {}", type, data.position() - 4,
+                            Arrays.toString(dump));
                 }
                 throw new IOException("Unknown data type " + type);
         }
@@ -259,20 +343,23 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         offset = temp;
     }
 
-    private void addByte(byte b) {
-        if (offset == binRpcData.length) {
-            byte newdata[] = new byte[binRpcData.length * 2];
-            System.arraycopy(binRpcData, 0, newdata, 0, binRpcData.length);
-            binRpcData = newdata;
+    private void ensureCapacity(int additional) {
+        if (offset + additional > binRpcData.length) {
+            binRpcData = Arrays.copyOf(binRpcData, Math.max(binRpcData.length * 2, offset + additional));
         }
+    }
+
+    private void addByte(byte b) {
+        ensureCapacity(1);
         binRpcData[offset++] = b;
     }
 
     private void addInt(int value) {
-        addByte((byte) (value >> 24));
-        addByte((byte) (value >> 16));
-        addByte((byte) (value >> 8));
-        addByte((byte) (value));
+        ensureCapacity(4);
+        binRpcData[offset++] = (byte) (value >> 24);
+        binRpcData[offset++] = (byte) (value >> 16);
+        binRpcData[offset++] = (byte) (value >> 8);
+        binRpcData[offset++] = (byte) (value);
     }
 
     private void addDouble(double value) {
@@ -297,6 +384,9 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         addInt(exp);
     }
 
+    /**
+     * Adds a string with its length prefix, the length is the number of encoded bytes.
+     */
     private void addString(String string) {
         byte sd[];
         try {
@@ -304,9 +394,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         } catch (UnsupportedEncodingException use) {
             sd = string.getBytes();
         }
-        for (byte ch : sd) {
-            addByte(ch);
-        }
+        addInt(sd.length);
+        ensureCapacity(sd.length);
+        System.arraycopy(sd, 0, binRpcData, offset, sd.length);
+        offset += sd.length;
     }
 
     private void addList(Collection<?> collection) {
@@ -318,9 +409,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private void addObject(Object object) {
         if (object.getClass() == String.class) {
             addInt(3);
-            String string = (String) object;
-            addInt(string.length());
-            addString(string);
+            addString((String) object);
         } else if (object.getClass() == Boolean.class) {
             addInt(2);
             addByte(((Boolean) object).booleanValue() ? (byte) 1 : (byte) 0);
@@ -342,7 +431,12 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             addDouble(((BigInteger) object).doubleValue());
         } else if (object.getClass() == Date.class) {
             addInt(5);
-            addInt((int) ((Date) object).getTime() / 1000);
+            addInt((int) (((Date) object).getTime() / 1000));
+        } else if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            addInt(0x100);
+            addInt(array.length);
+            addList(Arrays.asList(array));
         } else if (object instanceof List<?>) {
             Collection<?> list = (Collection<?>) object;
             addInt(0x100);
@@ -355,9 +449,8 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             for (Map.Entry<?, ?> entry : map.entrySet()) {
                 String key = (String) entry.getKey();
                 if (key != null) {
-                    addInt(key.length());
                     addString(key);
-                    addList(Collections.singleton(entry.getValue()));
+                    addObject(entry.getValue());
                 }
             }
         }
@@ -370,9 +463,14 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
-            return RpcUtils.dumpRpcMessage(methodName, messageData);
+            Object[] data = messageData;
+            if (data == null) {
+                // an encoded request or response, decode the arguments added so far
+                ByteBuffer buffer = asByteBuffer();
+                buffer.position(methodName != null ? argsPosition + 4 : HEADER_LENGTH);
+                data = readValues(buffer);
+            }
+            return RpcUtils.dumpRpcMessage(methodName, data);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -12,30 +12,54 @@
  */
 package org.openhab.binding.homematic.internal.communicator.server;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and handles them with the RpcResponseHandler.
+ *
+ * All callback connections are served by a single selector thread. Messages are read into pooled heap buffers and
+ * decoded in place, the method calls are handled on the RPC thread pool. Requests that arrive while the previous
+ * request of the same connection is still handled are buffered and handled in order afterwards.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 32;
+    private static final Queue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> finishedConnections = new ConcurrentLinkedQueue<>();
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
 
@@ -45,9 +69,18 @@ public class BinRpcNetworkService implements Runnable {
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -78,14 +111,74 @@ public class BinRpcNetworkService implements Runnable {
      */
     @Override
     public void run() {
-        while (accept) {
-            try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+        try {
+            while (accept) {
+                selector.select();
+                Connection connection;
+                while ((connection = finishedConnections.poll()) != null) {
+                    try {
+                        connection.sendResponse();
+                    } catch (CancelledKeyException e) {
+                        connection.close();
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptConnection();
+                    } else {
+                        connection = (Connection) key.attachment();
+                        try {
+                            if (key.isWritable()) {
+                                connection.write();
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                        } catch (CancelledKeyException e) {
+                            connection.close();
+                        }
+                    }
+                }
             }
+        } catch (IOException | ClosedSelectorException e) {
+            if (accept) {
+                logger.warn("BIN-RPC server failed: {}", e.getMessage(), e);
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void acceptConnection() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            }
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ioe) {
+            // ignore
         }
     }
 
@@ -95,10 +188,168 @@ public class BinRpcNetworkService implements Runnable {
     public void shutdown() {
         accept = false;
         try {
-            serverSocket.close();
+            serverChannel.close();
         } catch (IOException ioe) {
             // ignore
         }
+        selector.wakeup();
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = BUFFER_POOL.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() == BUFFER_SIZE && BUFFER_POOL.size() < MAX_POOLED_BUFFERS) {
+            buffer.clear();
+            BUFFER_POOL.offer(buffer);
+        }
     }
 
+    /**
+     * A callback connection of the Homematic gateway. All methods except {@link #handle(BinRpcMessage)} are called
+     * by the selector thread.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final long created = System.currentTimeMillis();
+        private SelectionKey key;
+        private ByteBuffer readBuffer = acquireBuffer();
+        private ByteBuffer response;
+        private boolean busy;
+        private volatile boolean failed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                    return;
+                }
+                handleNextMessage();
+            } catch (IOException e) {
+                logger.debug("Closing BIN-RPC connection: {}", e.getMessage());
+                close();
+            }
+        }
+
+        /**
+         * Decodes the next complete message from the read buffer and handles it on the RPC thread pool.
+         * Does nothing while the previous message is still handled.
+         */
+        private void handleNextMessage() throws IOException {
+            if (busy) {
+                return;
+            }
+            readBuffer.flip();
+            try {
+                if (readBuffer.remaining() < BinRpcMessage.HEADER_LENGTH) {
+                    return;
+                }
+                int length = BinRpcMessage.getMessageLength(readBuffer);
+                if (length > readBuffer.capacity()) {
+                    // message does not fit into a pooled buffer
+                    ByteBuffer larger = ByteBuffer.allocate(length);
+                    larger.put(readBuffer);
+                    larger.flip();
+                    releaseBuffer(readBuffer);
+                    readBuffer = larger;
+                    return;
+                }
+                if (readBuffer.remaining() < length) {
+                    return;
+                }
+                BinRpcMessage message = new BinRpcMessage(readBuffer, true, config.getEncoding());
+                busy = true;
+                // do not read further requests until the response has been sent
+                key.interestOps(0);
+                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(() -> handle(message));
+            } finally {
+                readBuffer.compact();
+            }
+        }
+
+        /**
+         * Handles the method call, called by the RPC thread pool.
+         */
+        private void handle(BinRpcMessage message) {
+            try {
+                logger.trace("Event BinRpcMessage: {}", message);
+                byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
+                        message.getResponseData());
+                response = returnValue != null ? ByteBuffer.wrap(returnValue) : null;
+            } catch (Exception e) {
+                logger.warn("{}", e.getMessage(), e);
+                failed = true;
+            }
+            finishedConnections.offer(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Starts sending the response of a handled method call.
+         */
+        void sendResponse() {
+            if (failed || !channel.isOpen()) {
+                busy = false;
+                close();
+            } else if (response != null) {
+                write();
+            } else {
+                responseSent();
+            }
+        }
+
+        void write() {
+            try {
+                channel.write(response);
+                if (response.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } else {
+                    response = null;
+                    responseSent();
+                }
+            } catch (IOException e) {
+                logger.debug("Closing BIN-RPC connection: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void responseSent() {
+            busy = false;
+            if (System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000)) {
+                close();
+                return;
+            }
+            try {
+                key.interestOps(SelectionKey.OP_READ);
+                // the gateway may have sent the next request already
+                handleNextMessage();
+            } catch (EOFException eof) {
+                close();
+            } catch (IOException e) {
+                logger.warn("{}", e.getMessage(), e);
+                close();
+            }
+        }
+
+        void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                // ignore
+            }
+            if (readBuffer != null && !busy) {
+                releaseBuffer(readBuffer);
+                readBuffer = null;
+            }
+        }
+    }
 }
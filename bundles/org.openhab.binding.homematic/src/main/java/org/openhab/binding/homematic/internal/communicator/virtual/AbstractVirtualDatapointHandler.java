@@ -13,6 +13,10 @@
 package org.openhab.binding.homematic.internal.communicator.virtual;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.openhab.binding.homematic.internal.misc.HomematicClientException;
 import org.openhab.binding.homematic.internal.model.HmChannel;
@@ -51,6 +55,19 @@ public abstract class AbstractVirtualDatapointHandler implements VirtualDatapoin
     public void handleEvent(VirtualGateway gateway, HmDatapoint dp) {
     }
 
+    @Override
+    public Collection<HmDatapoint> handleEvents(VirtualGateway gateway, List<HmDatapoint> dps) {
+        Set<HmDatapoint> virtualDatapoints = new LinkedHashSet<HmDatapoint>();
+        for (HmDatapoint dp : dps) {
+            handleEvent(gateway, dp);
+            HmDatapoint vdp = getVirtualDatapoint(dp.getChannel());
+            if (vdp != null) {
+                virtualDatapoints.add(vdp);
+            }
+        }
+        return virtualDatapoints;
+    }
+
     @Override
     public HmDatapoint getVirtualDatapoint(HmChannel channel) {
         return channel.getDatapoint(HmParamsetType.VALUES, getName());
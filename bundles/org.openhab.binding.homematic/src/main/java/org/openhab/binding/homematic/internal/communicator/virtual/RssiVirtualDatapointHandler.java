@@ -14,6 +14,12 @@ package org.openhab.binding.homematic.internal.communicator.virtual;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.openhab.binding.homematic.internal.model.HmChannel;
 import org.openhab.binding.homematic.internal.model.HmDatapoint;
 import org.openhab.binding.homematic.internal.model.HmDevice;
@@ -56,6 +62,19 @@ public class RssiVirtualDatapointHandler extends AbstractVirtualDatapointHandler
         vdpRssi.setValue(value);
     }
 
+    /**
+     * The value only depends on the channel, it is calculated once per channel even if both the device and the peer
+     * rssi have been received within the batch.
+     */
+    @Override
+    public Collection<HmDatapoint> handleEvents(VirtualGateway gateway, List<HmDatapoint> dps) {
+        Map<HmChannel, HmDatapoint> eventPerChannel = new LinkedHashMap<HmChannel, HmDatapoint>();
+        for (HmDatapoint dp : dps) {
+            eventPerChannel.put(dp.getChannel(), dp);
+        }
+        return super.handleEvents(gateway, new ArrayList<HmDatapoint>(eventPerChannel.values()));
+    }
+
     /**
      * Returns either the device or the peer rssi value.
      */
@@ -13,6 +13,8 @@
 package org.openhab.binding.homematic.internal.communicator.virtual;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 import org.openhab.binding.homematic.internal.misc.HomematicClientException;
 import org.openhab.binding.homematic.internal.model.HmChannel;
@@ -59,6 +61,12 @@ public interface VirtualDatapointHandler {
      */
     public void handleEvent(VirtualGateway gateway, HmDatapoint dp);
 
+    /**
+     * Handles the events of a batch of coalesced events for the given datapoints, this virtual datapoint can handle
+     * all of them. Returns the virtual datapoints which have been updated and have to be published.
+     */
+    public Collection<HmDatapoint> handleEvents(VirtualGateway gateway, List<HmDatapoint> dps);
+
     /**
      * Returns the virtual datapoint in the given channel.
      */
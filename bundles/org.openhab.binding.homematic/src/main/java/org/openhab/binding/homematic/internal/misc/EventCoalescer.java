@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the events received from a Homematic gateway within a short window and dispatches them as one batch.
+ * Within a batch only the latest value of a datapoint is kept, the events are dispatched in the order their latest
+ * value has been received, so the order of the events of a device is preserved.
+ *
+ * @author agent - Initial contribution
+ */
+public class EventCoalescer {
+    private final Logger logger = LoggerFactory.getLogger(EventCoalescer.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final EventCoalescerCallback callback;
+    private final Object dispatchLock = new Object();
+
+    private List<Event> batch = new ArrayList<Event>();
+    private Map<HmDatapointInfo, Event> latestEvents = new HashMap<HmDatapointInfo, Event>();
+    private ScheduledFuture<?> flushFuture;
+
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+
+    /**
+     * Creates a coalescer which dispatches the events received within the given window in milliseconds.
+     */
+    public EventCoalescer(ScheduledExecutorService scheduler, long window, EventCoalescerCallback callback) {
+        this.scheduler = scheduler;
+        this.window = window;
+        this.callback = callback;
+    }
+
+    /**
+     * Adds an event to the current batch. If coalesce is true, a pending event of the same datapoint is replaced,
+     * otherwise every event is dispatched, e.g. for button presses.
+     */
+    public synchronized void add(HmDatapointInfo dpInfo, Object value, boolean coalesce) {
+        receivedEvents.incrementAndGet();
+        Event event = new Event(dpInfo, value);
+        if (coalesce) {
+            Event replaced = latestEvents.put(dpInfo, event);
+            if (replaced != null) {
+                replaced.superseded = true;
+            }
+        }
+        batch.add(event);
+        if (flushFuture == null) {
+            flushFuture = scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Dispatches all pending events immediately.
+     */
+    public void flush() {
+        synchronized (dispatchLock) {
+            List<Event> events;
+            synchronized (this) {
+                flushFuture = null;
+                if (batch.isEmpty()) {
+                    return;
+                }
+                events = batch;
+                batch = new ArrayList<Event>();
+                latestEvents = new HashMap<HmDatapointInfo, Event>();
+            }
+
+            List<Event> dispatch = new ArrayList<Event>(events.size());
+            for (Event event : events) {
+                if (!event.superseded) {
+                    dispatch.add(event);
+                }
+            }
+            dispatchedEvents.addAndGet(dispatch.size());
+            logger.trace("Dispatching {} of {} events, {} of {} events dispatched in total", dispatch.size(),
+                    events.size(), dispatchedEvents.get(), receivedEvents.get());
+            try {
+                callback.dispatch(dispatch);
+            } catch (Exception ex) {
+                logger.error("{}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Discards all pending events. Waits for a batch which is dispatched at the same time, no events are dispatched
+     * after this method returns.
+     */
+    public void stop() {
+        synchronized (dispatchLock) {
+            synchronized (this) {
+                if (flushFuture != null) {
+                    flushFuture.cancel(false);
+                    flushFuture = null;
+                }
+                batch.clear();
+                latestEvents.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events received.
+     */
+    public long getReceivedEvents() {
+        return receivedEvents.get();
+    }
+
+    /**
+     * Returns the number of events dispatched, the difference to the received events has been coalesced.
+     */
+    public long getDispatchedEvents() {
+        return dispatchedEvents.get();
+    }
+
+    /**
+     * A event with the received value of a datapoint.
+     *
+     * @author agent - Initial contribution
+     */
+    public static class Event {
+        private final HmDatapointInfo dpInfo;
+        private final Object value;
+        private boolean superseded;
+
+        private Event(HmDatapointInfo dpInfo, Object value) {
+            this.dpInfo = dpInfo;
+            this.value = value;
+        }
+
+        public HmDatapointInfo getDpInfo() {
+            return dpInfo;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Callback interface for the {@link EventCoalescer}.
+     *
+     * @author agent - Initial contribution
+     */
+    public interface EventCoalescerCallback {
+
+        public void dispatch(List<Event> events);
+
+    }
+
+}
@@ -83,6 +83,13 @@ public class HmDatapointInfo {
         return paramsetType;
     }
 
+    /**
+     * Returns true, if this is a PRESS datapoint.
+     */
+    public boolean isPressDatapoint() {
+        return name != null && name.startsWith("PRESS_");
+    }
+
     /**
      * Return true, if this is a pong datapoint info.
      */
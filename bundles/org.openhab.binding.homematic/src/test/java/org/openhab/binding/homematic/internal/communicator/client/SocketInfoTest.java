@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
+
+/**
+ * Tests for {@link SocketInfo}, a simulated Homematic gateway answers the requests over a local socket.
+ *
+ * @author agent - Initial contribution
+ */
+public class SocketInfoTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    private ServerSocket gatewaySocket;
+    private SocketInfo socketInfo;
+
+    @Before
+    public void setup() throws IOException {
+        gatewaySocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), gatewaySocket.getLocalPort());
+        socket.setSoTimeout(5000);
+        socketInfo = new SocketInfo(socket);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        socketInfo.close();
+        gatewaySocket.close();
+    }
+
+    @Test
+    public void testRetiredSocketIsClosedAfterRequestInFlight() throws Exception {
+        CountDownLatch requestReceived = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        CompletableFuture<Void> gateway = CompletableFuture.runAsync(() -> {
+            try (Socket connection = gatewaySocket.accept()) {
+                new BinRpcMessage(connection.getInputStream(), true, ENCODING);
+                requestReceived.countDown();
+                answer.await();
+                BinRpcMessage response = new BinRpcMessage(null, BinRpcMessage.TYPE.RESPONSE, ENCODING);
+                response.addArg("OK");
+                connection.getOutputStream().write(response.createMessage());
+                connection.getInputStream().read();
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        CompletableFuture<BinRpcMessage> response = CompletableFuture.supplyAsync(() -> {
+            try {
+                return socketInfo.sendMessage(new BinRpcMessage("ping", ENCODING).createMessage(), ENCODING);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(requestReceived.await(5, TimeUnit.SECONDS), is(true));
+
+        // the request in flight keeps the socket open
+        socketInfo.closeWhenIdle();
+        assertThat(socketInfo.getSocket().isClosed(), is(false));
+
+        answer.countDown();
+        assertThat(response.get(5, TimeUnit.SECONDS).getResponseData()[0], is("OK"));
+        assertThat(socketInfo.getSocket().isClosed(), is(true));
+        gateway.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IOException.class)
+    public void testClosedSocketRejectsRequests() throws IOException {
+        socketInfo.closeWhenIdle();
+        assertThat(socketInfo.getSocket().isClosed(), is(true));
+
+        socketInfo.sendMessage(new BinRpcMessage("ping", ENCODING).createMessage(), ENCODING);
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BinRpcMessage}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ENCODING = "UTF-8";
+
+    @Test
+    public void testRoundTripOfAllTypes() throws IOException {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put("LEVEL", 0.5);
+        struct.put("NAME", "Küche");
+        Date date = new Date(1_500_000_000_000L);
+
+        BinRpcMessage request = new BinRpcMessage("event", ENCODING);
+        request.addArg("BidCos-RF");
+        request.addArg(42);
+        request.addArg(Boolean.TRUE);
+        request.addArg(-21.5);
+        request.addArg(date);
+        request.addArg(Arrays.asList("a", 1));
+        request.addArg(struct);
+
+        Object[] data = decode(request.createMessage()).getResponseData();
+
+        assertThat(data.length, is(7));
+        assertThat(data[0], is("BidCos-RF"));
+        assertThat(data[1], is(42));
+        assertThat(data[2], is(Boolean.TRUE));
+        assertEquals(-21.5, ((Number) data[3]).doubleValue(), 1e-6);
+        assertThat(data[4], is(date));
+        assertThat((Object[]) data[5], is(new Object[] { "a", 1 }));
+        Map<?, ?> decodedStruct = (Map<?, ?>) data[6];
+        assertEquals(0.5, ((Number) decodedStruct.get("LEVEL")).doubleValue(), 1e-6);
+        assertThat(decodedStruct.get("NAME"), is("Küche"));
+    }
+
+    @Test
+    public void testStreamAndBufferDecodingAreEqual() throws IOException {
+        BinRpcMessage request = new BinRpcMessage("setValue", ENCODING);
+        request.addArg("JEQ0123456:1");
+        request.addArg("STATE");
+        request.addArg(Boolean.FALSE);
+        byte[] message = request.createMessage();
+
+        BinRpcMessage fromStream = new BinRpcMessage(new ByteArrayInputStream(message), true, ENCODING);
+        BinRpcMessage fromBuffer = new BinRpcMessage(ByteBuffer.wrap(message), true, ENCODING);
+
+        assertThat(fromStream.getMethodName(), is("setValue"));
+        assertThat(fromBuffer.getMethodName(), is("setValue"));
+        assertThat(fromBuffer.getResponseData(), is(fromStream.getResponseData()));
+    }
+
+    @Test
+    public void testSeveralMessagesInOneBuffer() throws IOException {
+        byte[] first = createEvent("JEQ0000001:1", 1).createMessage();
+        byte[] second = createEvent("JEQ0000002:1", 2).createMessage();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(first.length + second.length + 3);
+        buffer.put(first).put(second).put(new byte[] { 'B', 'i', 'n' }).flip();
+
+        assertThat(BinRpcMessage.getMessageLength(buffer), is(first.length));
+        BinRpcMessage message = decodeNext(buffer);
+        assertThat(message.getResponseData()[1], is("JEQ0000001:1"));
+        assertThat(buffer.position(), is(first.length));
+
+        message = decodeNext(buffer);
+        assertThat(message.getResponseData()[1], is("JEQ0000002:1"));
+        assertThat(message.getResponseData()[3], is(2));
+        assertThat(buffer.remaining(), is(3));
+    }
+
+    @Test
+    public void testMessageDecodedFromDirectBufferCanBeReused() throws IOException {
+        byte[] event = createEvent("JEQ0000001:1", 1).createMessage();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(event.length + 2);
+        buffer.put(new byte[] { 0, 0 }).put(event).flip();
+        buffer.position(2);
+
+        BinRpcMessage message = new BinRpcMessage(buffer, true, ENCODING);
+        // the buffer is reused for the next message
+        buffer.clear();
+        buffer.put(new byte[buffer.capacity()]);
+
+        assertThat(message.createMessage(), is(event));
+        assertThat(message.asByteBuffer(), is(ByteBuffer.wrap(event)));
+        message.setType(BinRpcMessage.TYPE.RESPONSE);
+        assertThat(message.createMessage()[3], is((byte) 1));
+        assertThat(decode(message.createMessage()).getResponseData()[1], is("JEQ0000001:1"));
+    }
+
+    @Test
+    public void testMessageWithArraysDecodedFromBufferIsEncodedAgain() throws IOException {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put("ADDRESS", "JEQ0000001:1");
+        BinRpcMessage request = new BinRpcMessage("newDevices", ENCODING);
+        request.addArg("BidCos-RF");
+        request.addArg(Arrays.asList(struct, Arrays.asList("a", 1)));
+        byte[] encoded = request.createMessage();
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 1);
+        buffer.put(encoded).put((byte) 0).flip();
+
+        BinRpcMessage message = decodeNext(buffer);
+        // the message does not keep a reference to the shared buffer
+        Arrays.fill(buffer.array(), (byte) 0);
+
+        assertThat(message.createMessage(), is(encoded));
+    }
+
+    @Test
+    public void testMessageDecodedFromArrayCanBeReused() throws IOException {
+        byte[] event = createEvent("JEQ0000001:1", 1).createMessage();
+
+        assertThat(decode(event.clone()).createMessage(), is(event));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSignature() throws IOException {
+        BinRpcMessage.getMessageLength(ByteBuffer.wrap(new byte[] { 'X', 'M', 'L', 0, 0, 0, 0, 0 }));
+    }
+
+    private BinRpcMessage createEvent(String address, int value) {
+        BinRpcMessage event = new BinRpcMessage("event", ENCODING);
+        event.addArg("BidCos-RF");
+        event.addArg(address);
+        event.addArg("LEVEL");
+        event.addArg(value);
+        return event;
+    }
+
+    private BinRpcMessage decode(byte[] message) throws IOException {
+        return new BinRpcMessage(ByteBuffer.wrap(message), true, ENCODING);
+    }
+
+    private BinRpcMessage decodeNext(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + BinRpcMessage.getMessageLength(buffer));
+        BinRpcMessage message = new BinRpcMessage(buffer, true, ENCODING);
+        buffer.limit(limit);
+        return message;
+    }
+}
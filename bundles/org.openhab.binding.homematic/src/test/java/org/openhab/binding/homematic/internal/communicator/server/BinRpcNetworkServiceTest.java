@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for {@link BinRpcNetworkService}, a simulated Homematic gateway sends its callbacks over a local socket.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcNetworkServiceTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    private final RpcEventListener listener = mock(RpcEventListener.class);
+    private BinRpcNetworkService networkService;
+    private Thread networkServiceThread;
+    private int port;
+
+    @Before
+    public void setup() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        HomematicConfig config = new HomematicConfig();
+        config.setBindAddress("127.0.0.1");
+        config.setBinCallbackPort(port);
+
+        networkService = new BinRpcNetworkService(listener, config);
+        networkServiceThread = new Thread(networkService, "homematic-test-callback");
+        networkServiceThread.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        networkService.shutdown();
+        networkServiceThread.join(5000);
+    }
+
+    @Test
+    public void testPipelinedEventsAreHandledInOrder() throws IOException {
+        final int events = 50;
+        try (Socket gateway = new Socket("127.0.0.1", port)) {
+            gateway.setSoTimeout(5000);
+
+            // the gateway does not wait for the responses before sending the next event
+            OutputStream out = gateway.getOutputStream();
+            for (int i = 0; i < events; i++) {
+                out.write(createEvent("JEQ0000001:1", "LEVEL", i).createMessage());
+            }
+            out.flush();
+
+            InputStream in = gateway.getInputStream();
+            for (int i = 0; i < events; i++) {
+                BinRpcMessage response = new BinRpcMessage(in, false, ENCODING);
+                assertThat(response.getResponseData(), is(new Object[] { "" }));
+            }
+        }
+
+        HmDatapointInfo dpInfo = new HmDatapointInfo("JEQ0000001", HmParamsetType.VALUES, 1, "LEVEL");
+        InOrder inOrder = inOrder(listener);
+        for (int i = 0; i < events; i++) {
+            inOrder.verify(listener).eventReceived(eq(dpInfo), eq(i));
+        }
+    }
+
+    @Test
+    public void testMulticallInSmallSegments() throws IOException, InterruptedException {
+        List<Object> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", "event");
+            call.put("params", Arrays.asList("BidCos-RF", "JEQ000000" + i + ":2", "STATE", Boolean.TRUE));
+            calls.add(call);
+        }
+        BinRpcMessage multicall = new BinRpcMessage("system.multicall", ENCODING);
+        multicall.addArg(calls);
+        byte[] message = multicall.createMessage();
+
+        try (Socket gateway = new Socket("127.0.0.1", port)) {
+            gateway.setSoTimeout(5000);
+            gateway.setTcpNoDelay(true);
+
+            // the message arrives in several reads
+            OutputStream out = gateway.getOutputStream();
+            for (int offset = 0; offset < message.length; offset += 7) {
+                out.write(message, offset, Math.min(7, message.length - offset));
+                out.flush();
+                Thread.sleep(1);
+            }
+
+            BinRpcMessage response = new BinRpcMessage(gateway.getInputStream(), false, ENCODING);
+            assertThat(response.getResponseData().length, is(1));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            verify(listener).eventReceived(
+                    eq(new HmDatapointInfo("JEQ000000" + i, HmParamsetType.VALUES, 2, "STATE")), eq(Boolean.TRUE));
+        }
+    }
+
+    private BinRpcMessage createEvent(String address, String name, Object value) {
+        BinRpcMessage event = new BinRpcMessage("event", ENCODING);
+        event.addArg("BidCos-RF");
+        event.addArg(address);
+        event.addArg(name);
+        event.addArg(value);
+        return event;
+    }
+}
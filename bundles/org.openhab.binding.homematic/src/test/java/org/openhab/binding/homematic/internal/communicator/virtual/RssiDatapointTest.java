@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.virtual;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmInterface;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests for {@link RssiVirtualDatapointHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RssiDatapointTest {
+    private final List<HmDatapoint> handledEvents = new ArrayList<>();
+    private final RssiVirtualDatapointHandler rssiHandler = new RssiVirtualDatapointHandler() {
+        @Override
+        public void handleEvent(VirtualGateway gateway, HmDatapoint dp) {
+            handledEvents.add(dp);
+            super.handleEvent(gateway, dp);
+        }
+    };
+
+    private HmChannel channel;
+    private HmDatapoint rssiDevice;
+    private HmDatapoint rssiPeer;
+
+    @Before
+    public void setup() {
+        HmDevice device = new HmDevice("ABC12345", HmInterface.RF, "HM-MOCK", "mockid", "mockid", "mockfw");
+        channel = new HmChannel("MAINTENANCE", 0);
+        device.addChannel(channel);
+        rssiDevice = new HmDatapoint(DATAPOINT_NAME_RSSI_DEVICE, "", HmValueType.INTEGER, -60, true,
+                HmParamsetType.VALUES);
+        rssiPeer = new HmDatapoint(DATAPOINT_NAME_RSSI_PEER, "", HmValueType.INTEGER, -70, true,
+                HmParamsetType.VALUES);
+        channel.addDatapoint(rssiDevice);
+        channel.addDatapoint(rssiPeer);
+        rssiHandler.initialize(device);
+    }
+
+    @Test
+    public void testRssiIsCalculatedOncePerBatch() {
+        rssiDevice.setValue(-55);
+        rssiPeer.setValue(-75);
+
+        Collection<HmDatapoint> virtualDatapoints = rssiHandler.handleEvents(null, Arrays.asList(rssiDevice, rssiPeer));
+
+        assertThat(handledEvents.size(), is(1));
+        assertThat(virtualDatapoints.size(), is(1));
+        HmDatapoint rssi = virtualDatapoints.iterator().next();
+        assertThat(rssi, is(sameInstance(channel.getDatapoint(HmParamsetType.VALUES, VIRTUAL_DATAPOINT_NAME_RSSI))));
+        assertThat(rssi.getValue(), is(-55));
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.misc.EventCoalescer.Event;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for {@link EventCoalescer}.
+ *
+ * @author agent - Initial contribution
+ */
+public class EventCoalescerTest {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<Event>> batches = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testLatestValuePerDatapointInOrderOfLastUpdate() {
+        EventCoalescer coalescer = new EventCoalescer(scheduler, 60000, batches::add);
+        coalescer.add(dpInfo("JEQ0000001", "LEVEL"), 0.1, true);
+        coalescer.add(dpInfo("JEQ0000001", "WORKING"), true, true);
+        coalescer.add(dpInfo("JEQ0000002", "LEVEL"), 0.5, true);
+        coalescer.add(dpInfo("JEQ0000001", "LEVEL"), 0.2, true);
+        coalescer.add(dpInfo("JEQ0000001", "WORKING"), false, true);
+        coalescer.flush();
+
+        assertThat(batches.size(), is(1));
+        List<Event> batch = batches.get(0);
+        assertThat(batch.size(), is(3));
+        assertEvent(batch.get(0), "JEQ0000002", "LEVEL", 0.5);
+        assertEvent(batch.get(1), "JEQ0000001", "LEVEL", 0.2);
+        assertEvent(batch.get(2), "JEQ0000001", "WORKING", false);
+        assertThat(coalescer.getReceivedEvents(), is(5L));
+        assertThat(coalescer.getDispatchedEvents(), is(3L));
+    }
+
+    @Test
+    public void testUncoalescedEventsAreAllDispatched() {
+        EventCoalescer coalescer = new EventCoalescer(scheduler, 60000, batches::add);
+        coalescer.add(dpInfo("JEQ0000001", "PRESS_SHORT"), true, false);
+        coalescer.add(dpInfo("JEQ0000001", "PRESS_SHORT"), true, false);
+        coalescer.flush();
+
+        assertThat(batches.get(0).size(), is(2));
+        assertThat(coalescer.getDispatchedEvents(), is(2L));
+    }
+
+    @Test
+    public void testBatchIsDispatchedAfterWindow() throws InterruptedException {
+        CountDownLatch dispatched = new CountDownLatch(1);
+        EventCoalescer coalescer = new EventCoalescer(scheduler, 20, events -> {
+            batches.add(events);
+            dispatched.countDown();
+        });
+        for (int i = 0; i < 100; i++) {
+            coalescer.add(dpInfo("JEQ0000001", "LEVEL"), i, true);
+        }
+
+        assertThat(dispatched.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(batches.size(), is(1));
+        assertEvent(batches.get(0).get(0), "JEQ0000001", "LEVEL", 99);
+    }
+
+    @Test
+    public void testStopDiscardsPendingEvents() {
+        EventCoalescer coalescer = new EventCoalescer(scheduler, 60000, batches::add);
+        coalescer.add(dpInfo("JEQ0000001", "LEVEL"), 0.1, true);
+        coalescer.stop();
+        coalescer.flush();
+
+        assertThat(batches.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testStopWaitsForRunningDispatch() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EventCoalescer coalescer = new EventCoalescer(scheduler, 60000, events -> {
+            dispatching.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(events);
+        });
+        coalescer.add(dpInfo("JEQ0000001", "LEVEL"), 0.1, true);
+        Thread flush = new Thread(coalescer::flush);
+        flush.start();
+        assertThat(dispatching.await(5, TimeUnit.SECONDS), is(true));
+
+        Thread stop = new Thread(coalescer::stop);
+        stop.start();
+        while (stop.getState() != Thread.State.BLOCKED) {
+            assertThat(stop.isAlive(), is(true));
+            Thread.yield();
+        }
+
+        release.countDown();
+        stop.join(5000);
+        assertThat(stop.isAlive(), is(false));
+        assertThat(batches.size(), is(1));
+        flush.join(5000);
+    }
+
+    private HmDatapointInfo dpInfo(String address, String name) {
+        return new HmDatapointInfo(address, HmParamsetType.VALUES, 1, name);
+    }
+
+    private void assertEvent(Event event, String address, String name, Object value) {
+        assertThat(event.getDpInfo(), is(dpInfo(address, name)));
+        assertThat(event.getValue(), is(value));
+    }
+}
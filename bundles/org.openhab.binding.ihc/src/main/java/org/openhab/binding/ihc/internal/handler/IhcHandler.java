@@ -564,17 +564,21 @@ public class IhcHandler extends BaseThingHandler implements IhcEventListener {
             boolean loadProject = false;
 
             if (projectFile == null) {
-                // try first load project file from local cache file.
-                try {
-                    projectFile = ProjectFileUtils.readFromFile(filePath);
-                } catch (IhcExecption e) {
-                    logger.debug("Error occured when read project file from file '{}', reason {}", filePath,
-                            e.getMessage(), e);
+                // try first load project file from local cache file, if its header matches the controller project
+                if (ProjectFileUtils.projectEqualsToControllerProject(filePath, ihc.getProjectInfo())) {
+                    try {
+                        projectFile = ProjectFileUtils.readFromFile(filePath);
+                    } catch (IhcExecption e) {
+                        logger.debug("Error occured when read project file from file '{}', reason {}", filePath,
+                                e.getMessage(), e);
+                        loadProject = true;
+                    }
+                } else {
+                    logger.debug(
+                            "Local project file is missing or not same as in the controller, reload project file from controller!");
                     loadProject = true;
                 }
-            }
-
-            if (!ProjectFileUtils.projectEqualsToControllerProject(projectFile, ihc.getProjectInfo())) {
+            } else if (!ProjectFileUtils.projectEqualsToControllerProject(projectFile, ihc.getProjectInfo())) {
                 logger.debug(
                         "Local project file is not same as in the controller, reload project file from controller!");
                 loadProject = true;
@@ -12,15 +12,22 @@
  */
 package org.openhab.binding.ihc.internal.ws.projectfile;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.io.FileUtils;
 import org.openhab.binding.ihc.internal.ws.datatypes.WSProjectInfo;
@@ -39,6 +46,14 @@ import org.xml.sax.SAXException;
  */
 public class ProjectFileUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProjectFileUtils.class);
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
 
     /**
      * Read IHC project file from local file.
@@ -102,26 +117,9 @@ public class ProjectFileUtils {
                 NodeList nodes = projectfile.getElementsByTagName("modified");
                 if (nodes.getLength() == 1) {
                     Element node = (Element) nodes.item(0);
-                    int year = Integer.parseInt(node.getAttribute("year"));
-                    int month = Integer.parseInt(node.getAttribute("month"));
-                    int day = Integer.parseInt(node.getAttribute("day"));
-                    int hour = Integer.parseInt(node.getAttribute("hour"));
-                    int minute = Integer.parseInt(node.getAttribute("minute"));
-
-                    LOGGER.debug("Project file from file, date: {}.{}.{} {}:{}", year, month, day, hour, minute);
-                    LOGGER.debug("Project file in controller, date: {}.{}.{} {}:{}",
-                            projectInfo.getLastmodified().getYear(),
-                            projectInfo.getLastmodified().getMonthWithJanuaryAsOne(),
-                            projectInfo.getLastmodified().getDay(), projectInfo.getLastmodified().getHours(),
-                            projectInfo.getLastmodified().getMinutes());
-
-                    if (projectInfo.getLastmodified().getYear() == year
-                            && projectInfo.getLastmodified().getMonthWithJanuaryAsOne() == month
-                            && projectInfo.getLastmodified().getDay() == day
-                            && projectInfo.getLastmodified().getHours() == hour
-                            && projectInfo.getLastmodified().getMinutes() == minute) {
-                        return true;
-                    }
+                    return modifiedEqualsToControllerProject(node.getAttribute("year"), node.getAttribute("month"),
+                            node.getAttribute("day"), node.getAttribute("hour"), node.getAttribute("minute"),
+                            projectInfo);
                 }
             } catch (RuntimeException e) {
                 LOGGER.debug("Error occured during project file date comparasion, reason {}.", e.getMessage(), e);
@@ -132,6 +130,59 @@ public class ProjectFileUtils {
         return false;
     }
 
+    /**
+     * Compare header information of local project file to project info.
+     *
+     * The file is streamed only until the header has been found, so an outdated project file is never parsed
+     * completely.
+     *
+     * @param filePath File to read.
+     * @return true if information is equal and false if not or the file can't be read.
+     */
+    public static boolean projectEqualsToControllerProject(String filePath, WSProjectInfo projectInfo) {
+        if (projectInfo != null) {
+            try (InputStream is = new BufferedInputStream(new FileInputStream(filePath))) {
+                XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+                try {
+                    while (reader.hasNext()) {
+                        if (reader.next() == XMLStreamConstants.START_ELEMENT
+                                && "modified".equals(reader.getLocalName())) {
+                            return modifiedEqualsToControllerProject(reader.getAttributeValue(null, "year"),
+                                    reader.getAttributeValue(null, "month"), reader.getAttributeValue(null, "day"),
+                                    reader.getAttributeValue(null, "hour"), reader.getAttributeValue(null, "minute"),
+                                    projectInfo);
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException | XMLStreamException | RuntimeException e) {
+                LOGGER.debug("Error occured during project file date comparasion, reason {}.", e.getMessage(), e);
+            }
+        }
+        return false;
+    }
+
+    private static boolean modifiedEqualsToControllerProject(String yearValue, String monthValue, String dayValue,
+            String hourValue, String minuteValue, WSProjectInfo projectInfo) {
+        int year = Integer.parseInt(yearValue);
+        int month = Integer.parseInt(monthValue);
+        int day = Integer.parseInt(dayValue);
+        int hour = Integer.parseInt(hourValue);
+        int minute = Integer.parseInt(minuteValue);
+
+        LOGGER.debug("Project file from file, date: {}.{}.{} {}:{}", year, month, day, hour, minute);
+        LOGGER.debug("Project file in controller, date: {}.{}.{} {}:{}", projectInfo.getLastmodified().getYear(),
+                projectInfo.getLastmodified().getMonthWithJanuaryAsOne(), projectInfo.getLastmodified().getDay(),
+                projectInfo.getLastmodified().getHours(), projectInfo.getLastmodified().getMinutes());
+
+        return projectInfo.getLastmodified().getYear() == year
+                && projectInfo.getLastmodified().getMonthWithJanuaryAsOne() == month
+                && projectInfo.getLastmodified().getDay() == day
+                && projectInfo.getLastmodified().getHours() == hour
+                && projectInfo.getLastmodified().getMinutes() == minute;
+    }
+
     /**
      * Parse all enum values from IHC project file.
      *
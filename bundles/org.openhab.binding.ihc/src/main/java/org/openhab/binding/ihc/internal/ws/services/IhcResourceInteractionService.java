@@ -14,13 +14,12 @@ package org.openhab.binding.ihc.internal.ws.services;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPathExpressionException;
 
-import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.ihc.internal.ws.datatypes.XPathUtils;
 import org.openhab.binding.ihc.internal.ws.exeptions.IhcExecption;
 import org.openhab.binding.ihc.internal.ws.http.IhcConnectionPool;
@@ -33,8 +32,6 @@ import org.openhab.binding.ihc.internal.ws.resourcevalues.WSResourceValue;
 import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimeValue;
 import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimerValue;
 import org.openhab.binding.ihc.internal.ws.resourcevalues.WSWeekdayValue;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * Class to handle IHC / ELKO LS Controller's resource interaction service.
@@ -68,100 +65,23 @@ public class IhcResourceInteractionService extends IhcBaseService {
 
         String query = String.format(soapQuery, String.valueOf(resoureId));
         String response = sendSoapQuery(null, query);
-        NodeList nodeList;
+        List<WSResourceValue> values;
         try {
-            nodeList = XPathUtils.parseList(response, "/SOAP-ENV:Envelope/SOAP-ENV:Body/ns1:getRuntimeValue2");
-
-            if (nodeList != null && nodeList.getLength() == 1) {
-                WSResourceValue val = parseResourceValue(nodeList.item(0));
-
-                if (val != null && val.resourceID == resoureId) {
-                    return val;
-                } else {
-                    throw new IhcExecption("No resource id found");
-                }
-            } else {
-                throw new IhcExecption("No resource value found");
-            }
-        } catch (XPathExpressionException | NumberFormatException | IOException e) {
+            values = ResourceValueParser.parseResourceValues(response, "getRuntimeValue2");
+        } catch (XMLStreamException | NumberFormatException e) {
             throw new IhcExecption("Error occured during XML data parsing", e);
         }
-    }
-
-    private WSResourceValue parseResourceValue(Node n) throws XPathExpressionException, NumberFormatException {
-        // parse resource id
-        String resourceId = XPathUtils.getSpeficValueFromNode(n, "ns1:resourceID");
-
-        if (StringUtils.isNotBlank(resourceId)) {
-            int id = Integer.parseInt(resourceId);
-
-            // Parse floating point value
-            String floatingPointValue = getValue(n, "floatingPointValue");
-            if (StringUtils.isNotBlank(floatingPointValue)) {
-                String min = getValue(n, "minimumValue");
-                String max = getValue(n, "maximumValue");
-                return new WSFloatingPointValue(id, Double.valueOf(floatingPointValue), Double.valueOf(min),
-                        Double.valueOf(max));
-            }
-
-            // Parse boolean value
-            String value = getValue(n, "value");
-            if (StringUtils.isNotBlank(value)) {
-                return new WSBooleanValue(id, Boolean.valueOf(value));
-            }
-
-            // Parse integer value
-            String integer = getValue(n, "integer");
-            if (StringUtils.isNotBlank(integer)) {
-                String min = getValue(n, "minimumValue");
-                String max = getValue(n, "maximumValue");
-                return new WSIntegerValue(id, Integer.valueOf(integer), Integer.valueOf(min), Integer.valueOf(max));
-            }
-
-            // Parse timer value
-            String milliseconds = getValue(n, "milliseconds");
-            if (StringUtils.isNotBlank(milliseconds)) {
-                return new WSTimerValue(id, Integer.valueOf(milliseconds));
-            }
-
-            // Parse time value
-            String hours = getValue(n, "hours");
-            if (StringUtils.isNotBlank(hours)) {
-                String minutes = getValue(n, "minutes");
-                String seconds = getValue(n, "seconds");
-                return new WSTimeValue(id, Integer.valueOf(hours), Integer.valueOf(minutes), Integer.valueOf(seconds));
-            }
-
-            // Parse date value
-            String year = getValue(n, "year");
-            if (StringUtils.isNotBlank(year)) {
-                String month = getValue(n, "month");
-                String day = getValue(n, "day");
-                return new WSDateValue(id, Short.valueOf(year), Byte.valueOf(month), Byte.valueOf(day));
-            }
-
-            // Parse enum value
-            String definitionTypeID = getValue(n, "definitionTypeID");
-            if (StringUtils.isNotBlank(definitionTypeID)) {
-                String enumValueID = getValue(n, "enumValueID");
-                String enumName = getValue(n, "enumName");
-                return new WSEnumValue(id, Integer.valueOf(definitionTypeID), Integer.valueOf(enumValueID), enumName);
-            }
 
-            // Parse week day value
-            value = getValue(n, "weekdayNumber");
-            if (StringUtils.isNotBlank(value)) {
-                return new WSWeekdayValue(id, Integer.valueOf(value));
+        if (values.size() == 1) {
+            WSResourceValue val = values.get(0);
+            if (val.resourceID == resoureId) {
+                return val;
+            } else {
+                throw new IhcExecption("No resource id found");
             }
-
-            // Unknown value type
-            throw new IllegalArgumentException("Unsupported value type");
+        } else {
+            throw new IhcExecption("No resource value found");
         }
-        return null;
-    }
-
-    private String getValue(Node n, String value) throws XPathExpressionException {
-        return XPathUtils.getSpeficValueFromNode(n, "ns1:value/" + XPathUtils.createIgnoreNameSpaceSyntaxExpr(value));
     }
 
     /**
@@ -438,32 +358,12 @@ public class IhcResourceInteractionService extends IhcBaseService {
 
         String query = String.format(soapQuery, timeoutInSeconds);
         String response = sendSoapQuery(null, query, getTimeout() + timeoutInSeconds * 1000);
-        List<WSResourceValue> resourceValueList = new ArrayList<WSResourceValue>();
 
+        // IHC controller indicates timeout with a single notification without resource id, that results to an empty
+        // list
         try {
-            NodeList nodeList = XPathUtils.parseList(response,
-                    "/SOAP-ENV:Envelope/SOAP-ENV:Body/ns1:waitForResourceValueChanges2/ns1:arrayItem");
-
-            if (nodeList != null) {
-                if (nodeList.getLength() == 1) {
-                    String resourceId = XPathUtils.getSpeficValueFromNode(nodeList.item(0), "ns1:resourceID");
-                    if (resourceId == null || resourceId.isEmpty()) {
-                        // IHC controller indicates timeout, return empty list
-                        return resourceValueList;
-                    }
-                }
-
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    WSResourceValue newVal = parseResourceValue(nodeList.item(i));
-                    if (newVal != null) {
-                        resourceValueList.add(newVal);
-                    }
-                }
-            } else {
-                throw new IhcExecption("Illegal resource value notification response received");
-            }
-            return resourceValueList;
-        } catch (XPathExpressionException | NumberFormatException | IOException e) {
+            return ResourceValueParser.parseResourceValues(response, "arrayItem");
+        } catch (XMLStreamException | NumberFormatException e) {
             throw new IhcExecption("Error occured during XML data parsing", e);
         }
     }
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ihc.internal.ws.services;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.openhab.binding.ihc.internal.ws.exeptions.IhcExecption;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSBooleanValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSDateValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSEnumValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSFloatingPointValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSIntegerValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSResourceValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimeValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimerValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSWeekdayValue;
+
+/**
+ * Streaming parser for resource values in IHC / ELKO LS Controller's SOAP responses.
+ *
+ * The response is read in a single pass, every resource value envelope is turned into a {@link WSResourceValue} as
+ * soon as it has been read.
+ *
+ * @author agent - Initial contribution
+ */
+class ResourceValueParser {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * Parse all resource values from SOAP response.
+     *
+     * @param xml SOAP response.
+     * @param envelopeName Local name of the elements which contain a single resource value.
+     * @return List of resource values, envelopes without resource id are skipped.
+     * @throws IhcExecption if the response does not contain any envelope, e.g. a SOAP fault.
+     */
+    static List<WSResourceValue> parseResourceValues(String xml, String envelopeName)
+            throws XMLStreamException, NumberFormatException, IhcExecption {
+        List<WSResourceValue> values = new ArrayList<WSResourceValue>();
+        boolean envelopeFound = false;
+        String faultString = null;
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if (envelopeName.equals(reader.getLocalName())) {
+                    envelopeFound = true;
+                    WSResourceValue value = parseEnvelope(reader);
+                    if (value != null) {
+                        values.add(value);
+                    }
+                } else if ("faultstring".equals(reader.getLocalName())) {
+                    faultString = reader.getElementText();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (!envelopeFound) {
+            if (faultString != null) {
+                throw new IhcExecption("Illegal resource value response received: " + faultString);
+            }
+            throw new IhcExecption("Illegal resource value response received");
+        }
+        return values;
+    }
+
+    private static WSResourceValue parseEnvelope(XMLStreamReader reader)
+            throws XMLStreamException, NumberFormatException {
+        String resourceId = null;
+        Map<String, String> fields = new HashMap<String, String>();
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 1 && "resourceID".equals(reader.getLocalName())) {
+                    resourceId = reader.getElementText();
+                } else if (depth == 1 && "value".equals(reader.getLocalName())) {
+                    // value fields are leaf elements directly below the value element
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        fields.put(reader.getLocalName(), reader.getElementText());
+                    }
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        if (StringUtils.isBlank(resourceId)) {
+            return null;
+        }
+        return createResourceValue(Integer.parseInt(resourceId.trim()), fields);
+    }
+
+    private static WSResourceValue createResourceValue(int id, Map<String, String> fields)
+            throws NumberFormatException {
+        // Parse floating point value
+        String floatingPointValue = getValue(fields, "floatingPointValue");
+        if (StringUtils.isNotBlank(floatingPointValue)) {
+            String min = getValue(fields, "minimumValue");
+            String max = getValue(fields, "maximumValue");
+            return new WSFloatingPointValue(id, Double.valueOf(floatingPointValue), Double.valueOf(min),
+                    Double.valueOf(max));
+        }
+
+        // Parse boolean value
+        String value = getValue(fields, "value");
+        if (StringUtils.isNotBlank(value)) {
+            return new WSBooleanValue(id, Boolean.valueOf(value));
+        }
+
+        // Parse integer value
+        String integer = getValue(fields, "integer");
+        if (StringUtils.isNotBlank(integer)) {
+            String min = getValue(fields, "minimumValue");
+            String max = getValue(fields, "maximumValue");
+            return new WSIntegerValue(id, Integer.valueOf(integer), Integer.valueOf(min), Integer.valueOf(max));
+        }
+
+        // Parse timer value
+        String milliseconds = getValue(fields, "milliseconds");
+        if (StringUtils.isNotBlank(milliseconds)) {
+            return new WSTimerValue(id, Integer.valueOf(milliseconds));
+        }
+
+        // Parse time value
+        String hours = getValue(fields, "hours");
+        if (StringUtils.isNotBlank(hours)) {
+            String minutes = getValue(fields, "minutes");
+            String seconds = getValue(fields, "seconds");
+            return new WSTimeValue(id, Integer.valueOf(hours), Integer.valueOf(minutes), Integer.valueOf(seconds));
+        }
+
+        // Parse date value
+        String year = getValue(fields, "year");
+        if (StringUtils.isNotBlank(year)) {
+            String month = getValue(fields, "month");
+            String day = getValue(fields, "day");
+            return new WSDateValue(id, Short.valueOf(year), Byte.valueOf(month), Byte.valueOf(day));
+        }
+
+        // Parse enum value
+        String definitionTypeID = getValue(fields, "definitionTypeID");
+        if (StringUtils.isNotBlank(definitionTypeID)) {
+            String enumValueID = getValue(fields, "enumValueID");
+            String enumName = getValue(fields, "enumName");
+            return new WSEnumValue(id, Integer.valueOf(definitionTypeID), Integer.valueOf(enumValueID), enumName);
+        }
+
+        // Parse week day value
+        value = getValue(fields, "weekdayNumber");
+        if (StringUtils.isNotBlank(value)) {
+            return new WSWeekdayValue(id, Integer.valueOf(value));
+        }
+
+        // Unknown value type
+        throw new IllegalArgumentException("Unsupported value type");
+    }
+
+    private static String getValue(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ihc.internal.ws.services;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.openhab.binding.ihc.internal.ws.ResourceFileUtils;
+import org.openhab.binding.ihc.internal.ws.exeptions.IhcExecption;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSBooleanValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSFloatingPointValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSResourceValue;
+
+/**
+ * Test for IHC / ELKO binding
+ *
+ * @author agent - Initial contribution
+ */
+public class ResourceValueParserTest {
+    // @formatter:off
+    private static final String NOTIFICATIONS_PREFIX =
+              "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\">\n"
+            + "<SOAP-ENV:Body>\n"
+            + "<ns1:waitForResourceValueChanges2 xmlns:ns1=\"utcs\">\n";
+
+    private static final String NOTIFICATIONS_SUFFIX =
+              "</ns1:waitForResourceValueChanges2>\n"
+            + "</SOAP-ENV:Body>\n"
+            + "</SOAP-ENV:Envelope>";
+
+    private static final String FLOATING_POINT_NOTIFICATION =
+              "<ns1:arrayItem xsi:type=\"ns1:WSResourceValueEnvelope\">\n"
+            + "<ns1:resourceID xsi:type=\"xsd:int\">%d</ns1:resourceID>\n"
+            + "<ns1:isValueRuntime xsi:type=\"xsd:boolean\">true</ns1:isValueRuntime>\n"
+            + "<ns1:typeString xsi:type=\"xsd:string\"></ns1:typeString>\n"
+            + "<ns1:value xmlns:ns2=\"utcs.values\" xsi:type=\"ns2:WSFloatingPointValue\">\n"
+            + "<ns2:maximumValue xsi:type=\"xsd:double\">1000.0</ns2:maximumValue>\n"
+            + "<ns2:minimumValue xsi:type=\"xsd:double\">-1000.0</ns2:minimumValue>\n"
+            + "<ns2:floatingPointValue xsi:type=\"xsd:double\">%d.5</ns2:floatingPointValue>\n"
+            + "</ns1:value>\n"
+            + "</ns1:arrayItem>\n";
+
+    private static final String TIMEOUT_NOTIFICATION =
+              "<ns1:arrayItem xsi:type=\"ns1:WSResourceValueEnvelope\">\n"
+            + "<ns1:resourceID xsi:type=\"xsd:int\"></ns1:resourceID>\n"
+            + "<ns1:isValueRuntime xsi:type=\"xsd:boolean\">false</ns1:isValueRuntime>\n"
+            + "<ns1:typeString xsi:type=\"xsd:string\"></ns1:typeString>\n"
+            + "<ns1:value xmlns:ns2=\"utcs.values\" xsi:type=\"ns2:WSBooleanValue\">\n"
+            + "<ns2:value xsi:type=\"xsd:boolean\">false</ns2:value>\n"
+            + "</ns1:value>\n"
+            + "</ns1:arrayItem>\n";
+    // @formatter:on
+
+    @Test
+    public void testNotificationTimeout() throws XMLStreamException, IhcExecption {
+        List<WSResourceValue> list = ResourceValueParser
+                .parseResourceValues(NOTIFICATIONS_PREFIX + TIMEOUT_NOTIFICATION + NOTIFICATIONS_SUFFIX, "arrayItem");
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testNotificationBurst() throws XMLStreamException, IhcExecption {
+        final int count = 5000;
+        StringBuilder response = new StringBuilder(NOTIFICATIONS_PREFIX);
+        for (int i = 0; i < count; i++) {
+            response.append(String.format(FLOATING_POINT_NOTIFICATION, 1000000 + i, i % 1000));
+        }
+        response.append(NOTIFICATIONS_SUFFIX);
+
+        List<WSResourceValue> list = ResourceValueParser.parseResourceValues(response.toString(), "arrayItem");
+        assertEquals(count, list.size());
+        for (int i = 0; i < count; i++) {
+            WSFloatingPointValue val = (WSFloatingPointValue) list.get(i);
+            assertEquals(1000000 + i, val.resourceID);
+            assertEquals(i % 1000 + 0.5, val.value, 0.001);
+            assertEquals(-1000.0, val.minimumValue, 0.001);
+            assertEquals(1000.0, val.maximumValue, 0.001);
+        }
+    }
+
+    @Test
+    public void testBooleanValueNamedLikeEnvelopeField() throws XMLStreamException, IhcExecption {
+        List<WSResourceValue> list = ResourceValueParser.parseResourceValues(
+                ResourceFileUtils.getFileContent("ResourceValueQueryResponse11111.xml"), "getRuntimeValue2");
+        assertEquals(1, list.size());
+        assertEquals(11111, list.get(0).resourceID);
+        assertTrue(((WSBooleanValue) list.get(0)).value);
+    }
+
+    @Test
+    public void testSoapFault() throws XMLStreamException {
+        // @formatter:off
+        final String fault =
+                  "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\">\n"
+                + "<SOAP-ENV:Body>\n"
+                + "<SOAP-ENV:Fault>\n"
+                + "<faultcode>SOAP-ENV:Server</faultcode>\n"
+                + "<faultstring>Not authenticated</faultstring>\n"
+                + "</SOAP-ENV:Fault>\n"
+                + "</SOAP-ENV:Body>\n"
+                + "</SOAP-ENV:Envelope>";
+        // @formatter:on
+        try {
+            ResourceValueParser.parseResourceValues(fault, "arrayItem");
+            fail("IhcExecption expected");
+        } catch (IhcExecption e) {
+            assertTrue(e.getMessage().contains("Not authenticated"));
+        }
+    }
+
+    @Test(expected = IhcExecption.class)
+    public void testResponseWithoutEnvelope() throws XMLStreamException, IhcExecption {
+        ResourceValueParser.parseResourceValues(NOTIFICATIONS_PREFIX + NOTIFICATIONS_SUFFIX, "arrayItem");
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testMalformedResponse() throws XMLStreamException, IhcExecption {
+        ResourceValueParser.parseResourceValues(NOTIFICATIONS_PREFIX + "<ns1:arrayItem>", "arrayItem");
+    }
+}
@@ -13,8 +13,6 @@
 package org.openhab.binding.knx.internal.client;
 
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -64,6 +62,7 @@ import tuwien.auto.calimero.process.ProcessListener;
 public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClient {
 
     private static final int MAX_SEND_ATTEMPTS = 2;
+    private static final int READ_PROGRESS_LOG_INTERVAL = 100;
 
     private final Logger logger = LoggerFactory.getLogger(AbstractKNXClient.class);
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
@@ -85,8 +84,9 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
 
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final GroupAddressListenerIndex groupAddressListeners = new GroupAddressListenerIndex();
+    private final TelegramDispatchMetrics dispatchMetrics = new TelegramDispatchMetrics();
+    private final ReadDatapointScheduler readDatapoints;
 
     @FunctionalInterface
     private interface ListenerNotification {
@@ -130,6 +130,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.responseTimeout = responseTimeout;
         this.readingPause = readingPause;
         this.readRetriesLimit = readRetriesLimit;
+        this.readDatapoints = new ReadDatapointScheduler(readingPause);
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
     }
@@ -223,6 +224,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     @SuppressWarnings("null")
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
+        logger.debug("Bridge {} dispatched telegrams to {} group addresses: {}", thingUID,
+                groupAddressListeners.size(), dispatchMetrics);
         readDatapoints.clear();
         busJob = nullify(busJob, j -> j.cancel(true));
         deviceInfoClient = null;
@@ -251,11 +254,25 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
-            }
+        Set<GroupAddressListener> listeners = groupAddressListeners.get(destination);
+        dispatchMetrics.telegramReceived(!listeners.isEmpty());
+        if (listeners.isEmpty()) {
+            return;
         }
+        long received = System.nanoTime();
+        knxScheduler.execute(() -> {
+            int notified = 0;
+            for (GroupAddressListener listener : listeners) {
+                try {
+                    action.apply(listener, source, destination, asdu);
+                    notified++;
+                } catch (RuntimeException e) {
+                    logger.warn("Listener {} failed to process a {} telegram to '{}'", listener, task, destination,
+                            e);
+                }
+            }
+            dispatchMetrics.telegramDispatched(notified, System.nanoTime() - received);
+        });
     }
 
     /**
@@ -279,25 +296,42 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         if (processCommunicator == null) {
             return;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
-        if (datapoint != null) {
-            datapoint.incrementRetries();
-            try {
-                logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
-                processCommunicator.read(datapoint.getDatapoint());
-            } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
-                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
-                            datapoint.getDatapoint().getMainAddress(), e.getMessage());
-                } else {
-                    logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
-                            datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
-                }
-            } catch (InterruptedException e) {
-                logger.debug("Interrupted sending KNX read request");
-                return;
+        // read at most one datapoint per run, the job runs once per reading pause
+        ReadDatapoint datapoint = readDatapoints.next();
+        if (datapoint == null) {
+            return;
+        }
+        datapoint.incrementRetries();
+        try {
+            logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
+            processCommunicator.read(datapoint.getDatapoint());
+            readDatapoints.succeeded(datapoint);
+        } catch (KNXException e) {
+            if (readDatapoints.failed(datapoint)) {
+                logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
+                        datapoint.getDatapoint().getMainAddress(), e.getMessage());
+            } else {
+                logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                        datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
             }
+        } catch (InterruptedException e) {
+            readDatapoints.failed(datapoint);
+            logger.debug("Interrupted sending KNX read request");
+        } finally {
+            logReadProgress();
+        }
+    }
+
+    private void logReadProgress() {
+        int done = readDatapoints.getBatchDone();
+        int total = readDatapoints.getBatchTotal();
+        if (done == total) {
+            if (total >= READ_PROGRESS_LOG_INTERVAL) {
+                logger.debug("Bridge {} finished reading {} datapoints", thingUID, total);
+            }
+        } else if (done > 0 && done % READ_PROGRESS_LOG_INTERVAL == 0) {
+            logger.debug("Bridge {} read {} of {} datapoints, about {}s remaining", thingUID, done, total,
+                    readDatapoints.getEstimatedSecondsRemaining());
         }
     }
 
@@ -366,13 +400,17 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+    public void readDatapoint(Datapoint datapoint, boolean prioritize) {
+        readDatapoints.add(new ReadDatapoint(datapoint, readRetriesLimit), prioritize);
+    }
+
+    /**
+     * Get the queue of pending read requests, e.g. to check the progress of the initial read.
+     *
+     * @return the read scheduler of this client
+     */
+    public ReadDatapointScheduler getReadScheduler() {
+        return readDatapoints;
     }
 
     @Override
@@ -385,6 +423,15 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return groupAddressListeners.remove(listener);
     }
 
+    /**
+     * Get the statistics of the group telegram dispatching.
+     *
+     * @return the dispatch metrics of this client
+     */
+    public TelegramDispatchMetrics getDispatchMetrics() {
+        return dispatchMetrics;
+    }
+
     @Override
     public boolean isConnected() {
         return link != null && link.isOpen();
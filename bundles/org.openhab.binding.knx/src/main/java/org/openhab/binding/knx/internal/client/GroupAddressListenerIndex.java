@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Index from {@link GroupAddress}es to the {@link GroupAddressListener}s interested in them.
+ *
+ * The index is maintained when listeners (un-)register, so that a telegram can be routed to its listeners by a single
+ * lookup instead of asking every listener.
+ *
+ * @author agent - initial contribution and API
+ *
+ */
+@NonNullByDefault
+class GroupAddressListenerIndex {
+
+    private final Map<GroupAddress, Set<GroupAddressListener>> listenersByAddress = new ConcurrentHashMap<>();
+    private final Map<GroupAddressListener, Set<GroupAddress>> addressesByListener = new ConcurrentHashMap<>();
+
+    /**
+     * Add the listener or update the addresses of an already registered listener.
+     *
+     * @param listener the listener
+     * @return {@code true} if it wasn't registered before
+     */
+    synchronized boolean add(GroupAddressListener listener) {
+        Set<GroupAddress> addresses = new HashSet<>(listener.getGroupAddresses());
+        Set<GroupAddress> oldAddresses = addressesByListener.put(listener, addresses);
+        if (oldAddresses != null) {
+            for (GroupAddress address : oldAddresses) {
+                if (!addresses.contains(address)) {
+                    removeFromAddress(address, listener);
+                }
+            }
+        }
+        for (GroupAddress address : addresses) {
+            listenersByAddress.computeIfAbsent(address, a -> new CopyOnWriteArraySet<>()).add(listener);
+        }
+        return oldAddresses == null;
+    }
+
+    /**
+     * Remove the listener from all of its addresses.
+     *
+     * @param listener the listener
+     * @return {@code true} if it was registered
+     */
+    synchronized boolean remove(GroupAddressListener listener) {
+        Set<GroupAddress> addresses = addressesByListener.remove(listener);
+        if (addresses == null) {
+            return false;
+        }
+        for (GroupAddress address : addresses) {
+            removeFromAddress(address, listener);
+        }
+        return true;
+    }
+
+    private void removeFromAddress(GroupAddress address, GroupAddressListener listener) {
+        Set<GroupAddressListener> listeners = listenersByAddress.get(address);
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                listenersByAddress.remove(address);
+            }
+        }
+    }
+
+    /**
+     * Get the listeners of the given group address.
+     *
+     * @param address the destination of a telegram
+     * @return the listeners, an empty set if nobody listens to this address
+     */
+    Set<GroupAddressListener> get(GroupAddress address) {
+        Set<GroupAddressListener> listeners = listenersByAddress.get(address);
+        return listeners != null ? listeners : Collections.emptySet();
+    }
+
+    /**
+     * @return the number of indexed group addresses
+     */
+    int size() {
+        return listenersByAddress.size();
+    }
+
+    synchronized void clear() {
+        listenersByAddress.clear();
+        addressesByListener.clear();
+    }
+
+}
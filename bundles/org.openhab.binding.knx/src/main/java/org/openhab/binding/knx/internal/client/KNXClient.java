@@ -76,12 +76,25 @@ public interface KNXClient {
      */
     boolean unregisterGroupAddressListener(GroupAddressListener listener);
 
+    /**
+     * Schedule the given data point for asynchronous reading in the background.
+     *
+     * @param datapoint the datapoint
+     */
+    default void readDatapoint(Datapoint datapoint) {
+        readDatapoint(datapoint, false);
+    }
+
     /**
      * Schedule the given data point for asynchronous reading.
      *
+     * Pending reads for the same group address are merged.
+     *
      * @param datapoint the datapoint
+     * @param prioritize {@code true} if the read should be served before background reads, e.g. because a linked item
+     *            has no state yet
      */
-    void readDatapoint(Datapoint datapoint);
+    void readDatapoint(Datapoint datapoint, boolean prioritize);
 
     /**
      * Write a command to the KNX bus.
@@ -24,6 +24,7 @@ public class ReadDatapoint {
     private final Datapoint datapoint;
     private int retries;
     private final int limit;
+    private boolean prioritized;
 
     public ReadDatapoint(Datapoint datapoint, int limit) {
         this.datapoint = datapoint;
@@ -47,6 +48,14 @@ public class ReadDatapoint {
         return limit;
     }
 
+    public boolean isPrioritized() {
+        return prioritized;
+    }
+
+    public void setPrioritized(boolean prioritized) {
+        this.prioritized = prioritized;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Queue of {@link ReadDatapoint}s to be read from the KNX bus.
+ *
+ * <ul>
+ * <li>Reads are de-duplicated by their group address, also while a read for the address is in progress.</li>
+ * <li>Prioritized reads (channels which have just been linked and don't have a state yet) are served before background
+ * refreshes.</li>
+ * <li>The read rate is limited to one telegram per reading pause, even if {@link #next()} is called more often. Failed
+ * reads back off the rate exponentially.</li>
+ * <li>The progress of the current batch (everything queued since the queue was empty the last time) is tracked to
+ * provide an ETA.</li>
+ * </ul>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadDatapointScheduler {
+
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toNanos(10);
+
+    private final long readingPause;
+    private final LongSupplier nanoTime;
+
+    private final Map<GroupAddress, ReadDatapoint> pending = new HashMap<>();
+    private final Deque<ReadDatapoint> prioritized = new ArrayDeque<>();
+    private final Deque<ReadDatapoint> background = new ArrayDeque<>();
+
+    private double tokens = 1;
+    private long lastRefill;
+    private long backoff = 0;
+    private long backoffUntil = 0;
+
+    private int batchTotal = 0;
+    private int batchDone = 0;
+    private long batchStart = 0;
+
+    /**
+     * @param readingPause the average pause between two read telegrams in milliseconds
+     */
+    public ReadDatapointScheduler(int readingPause) {
+        this(readingPause, System::nanoTime);
+    }
+
+    /**
+     * @param readingPause the average pause between two read telegrams in milliseconds
+     * @param nanoTime the monotonic time source in nanoseconds
+     */
+    ReadDatapointScheduler(int readingPause, LongSupplier nanoTime) {
+        this.readingPause = TimeUnit.MILLISECONDS.toNanos(Math.max(readingPause, 1));
+        this.nanoTime = nanoTime;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Queue a datapoint for reading.
+     *
+     * @param datapoint the datapoint
+     * @param prioritize whether the read should be served before all background reads
+     * @return {@code false} if a read for the group address was already pending (it is prioritized if requested)
+     */
+    public synchronized boolean add(ReadDatapoint datapoint, boolean prioritize) {
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        ReadDatapoint existing = pending.get(address);
+        if (existing != null) {
+            if (prioritize && !existing.isPrioritized() && background.remove(existing)) {
+                existing.setPrioritized(true);
+                prioritized.addLast(existing);
+            }
+            return false;
+        }
+        if (pending.isEmpty()) {
+            batchTotal = 0;
+            batchDone = 0;
+            batchStart = nanoTime.getAsLong();
+        }
+        datapoint.setPrioritized(prioritize);
+        pending.put(address, datapoint);
+        (prioritize ? prioritized : background).addLast(datapoint);
+        batchTotal++;
+        return true;
+    }
+
+    /**
+     * Get the next datapoint to read if the telegram budget allows it.
+     *
+     * The datapoint stays pending until {@link #succeeded(ReadDatapoint)} or {@link #failed(ReadDatapoint)} is called.
+     *
+     * @return the datapoint or {@code null} if nothing is queued or the budget is exhausted
+     */
+    public synchronized @Nullable ReadDatapoint next() {
+        long now = nanoTime.getAsLong();
+        if (now - backoffUntil < 0) {
+            return null;
+        }
+        // unused budget does not accumulate, so there are never bursts of read telegrams
+        tokens = Math.min(tokens + (double) (now - lastRefill) / readingPause, 1);
+        lastRefill = now;
+        if (tokens < 1) {
+            return null;
+        }
+        ReadDatapoint datapoint = prioritized.pollFirst();
+        if (datapoint == null) {
+            datapoint = background.pollFirst();
+        }
+        if (datapoint != null) {
+            tokens--;
+        }
+        return datapoint;
+    }
+
+    /**
+     * Mark the read of a datapoint as successful.
+     *
+     * @param datapoint the datapoint returned by {@link #next()}
+     */
+    public synchronized void succeeded(ReadDatapoint datapoint) {
+        backoff = 0;
+        complete(datapoint);
+    }
+
+    /**
+     * Mark the read of a datapoint as failed and re-queue it unless its retry limit is reached.
+     *
+     * Failed reads are retried at the end of their priority class and slow down the read rate until the next
+     * successful read.
+     *
+     * @param datapoint the datapoint returned by {@link #next()}
+     * @return {@code true} if the datapoint will be retried
+     */
+    public synchronized boolean failed(ReadDatapoint datapoint) {
+        backoff = backoff == 0 ? readingPause : Math.min(backoff * 2, MAX_BACKOFF);
+        backoffUntil = nanoTime.getAsLong() + backoff;
+        tokens = 0;
+        if (datapoint.getRetries() < datapoint.getLimit()) {
+            (datapoint.isPrioritized() ? prioritized : background).addLast(datapoint);
+            return true;
+        }
+        complete(datapoint);
+        return false;
+    }
+
+    private void complete(ReadDatapoint datapoint) {
+        pending.remove(datapoint.getDatapoint().getMainAddress());
+        batchDone++;
+    }
+
+    /**
+     * Remove all pending datapoints.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        prioritized.clear();
+        background.clear();
+        batchTotal = 0;
+        batchDone = 0;
+    }
+
+    /**
+     * @return the number of datapoints waiting to be read (including reads in progress)
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of datapoints read in the current batch
+     */
+    public synchronized int getBatchDone() {
+        return batchDone;
+    }
+
+    /**
+     * @return the number of datapoints queued in the current batch
+     */
+    public synchronized int getBatchTotal() {
+        return batchTotal;
+    }
+
+    /**
+     * Estimate the remaining time of the current batch from its read rate so far.
+     *
+     * @return the remaining time in seconds, -1 if no estimation is possible yet
+     */
+    public synchronized long getEstimatedSecondsRemaining() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        if (batchDone == 0) {
+            return -1;
+        }
+        long elapsed = nanoTime.getAsLong() - batchStart;
+        return TimeUnit.NANOSECONDS.toSeconds(elapsed / batchDone * pending.size());
+    }
+
+}
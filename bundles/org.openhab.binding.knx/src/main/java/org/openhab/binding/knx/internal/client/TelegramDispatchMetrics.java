@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Counters for the dispatching of group telegrams to the group address listeners.
+ *
+ * The latency is measured from the reception of a telegram until all of its listeners have been notified.
+ *
+ * @author agent - initial contribution and API
+ *
+ */
+@NonNullByDefault
+public class TelegramDispatchMetrics {
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder unrouted = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    void telegramReceived(boolean routed) {
+        received.increment();
+        if (!routed) {
+            unrouted.increment();
+        }
+    }
+
+    void telegramDispatched(int listeners, long latencyNanos) {
+        dispatched.increment();
+        notifications.add(listeners);
+        totalLatency.add(latencyNanos);
+        maxLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * @return the number of group telegrams received from the bus
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * @return the number of group telegrams nobody listened to
+     */
+    public long getUnrouted() {
+        return unrouted.sum();
+    }
+
+    /**
+     * @return the number of listener notifications
+     */
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    /**
+     * @return the average dispatch latency in microseconds
+     */
+    public long getAverageLatencyMicros() {
+        long count = dispatched.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLatency.sum() / count);
+    }
+
+    /**
+     * @return the maximum dispatch latency in microseconds
+     */
+    public long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLatency.get());
+    }
+
+    @Override
+    public String toString() {
+        return "TelegramDispatchMetrics [received=" + getReceived() + ", unrouted=" + getUnrouted()
+                + ", notifications=" + getNotifications() + ", avgLatency=" + getAverageLatencyMicros()
+                + "µs, maxLatency=" + getMaxLatencyMicros() + "µs]";
+    }
+
+}
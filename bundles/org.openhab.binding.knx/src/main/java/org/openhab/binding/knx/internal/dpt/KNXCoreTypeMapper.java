@@ -13,18 +13,19 @@
 package org.openhab.binding.knx.internal.dpt;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
@@ -95,6 +96,24 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     private static final String TIME_DAY_FORMAT = new String("EEE, HH:mm:ss");
     private static final String DATE_FORMAT = new String("yyyy-MM-dd");
 
+    /** datapoint types by their id, looked up once from calimero */
+    private static final Map<String, DPT> DPT_CACHE = new ConcurrentHashMap<>();
+
+    private static final int MAX_IDLE_TRANSLATORS = 64;
+
+    /**
+     * idle translators by datapoint type id, least recently used first. A translator is taken out of the cache while
+     * it is used because it keeps the last data it was given.
+     */
+    private final Map<String, DPTXlator> translators = new LinkedHashMap<String, DPTXlator>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DPTXlator> eldest) {
+            return size() > MAX_IDLE_TRANSLATORS;
+        }
+    };
+
     /**
      * stores the openHAB type class for (supported) KNX datapoint types in a generic way.
      * dptTypeMap stores more specific type class and exceptions.
@@ -586,10 +605,8 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             return null;
         }
 
-        try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
-        } catch (KNXException e) {
+        dpt = getDPT(mainNumber, dptID);
+        if (dpt == null) {
             return null;
         }
 
@@ -675,190 +692,351 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
-            translator.setData(data);
-            String value = translator.getValue();
-
-            String id = translator.getType().getID();
-            logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
-
-            int mainNumber = getMainNumber(id);
-            if (mainNumber == -1) {
-                logger.debug("toType: couldn't identify mainnumber in dptID: {}.", id);
-                return null;
-            }
-            int subNumber = getSubNumber(id);
-            if (subNumber == -1) {
-                logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
-                return null;
+            Type primitiveType = toPrimitiveType(datapoint.getMainNumber(), datapoint.getDPT(), data);
+            if (primitiveType != null) {
+                return primitiveType;
             }
-            /*
-             * Following code section deals with specific mapping of values from KNX to openHAB types were the String
-             * received from the DPTXlator is not sufficient to set the openHAB type or has bugs
-             */
-            switch (mainNumber) {
-                case 1:
-                    DPTXlatorBoolean translatorBoolean = (DPTXlatorBoolean) translator;
-                    switch (subNumber) {
-                        case 8:
-                            return translatorBoolean.getValueBoolean() ? UpDownType.DOWN : UpDownType.UP;
-                        case 9:
-                            return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                        case 10:
-                            return translatorBoolean.getValueBoolean() ? StopMoveType.MOVE : StopMoveType.STOP;
-                        case 19:
-                            return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                        case 22:
-                            return DecimalType.valueOf(translatorBoolean.getValueBoolean() ? "1" : "0");
-                        default:
-                            return translatorBoolean.getValueBoolean() ? OnOffType.ON : OnOffType.OFF;
-                    }
-                case 2:
-                    DPTXlator1BitControlled translator1BitControlled = (DPTXlator1BitControlled) translator;
-                    int decValue = (translator1BitControlled.getControlBit() ? 2 : 0)
-                            + (translator1BitControlled.getValueBit() ? 1 : 0);
-                    return new DecimalType(decValue);
-                case 3:
-                    DPTXlator3BitControlled translator3BitControlled = (DPTXlator3BitControlled) translator;
-                    if (translator3BitControlled.getStepCode() == 0) {
-                        logger.debug("toType: KNX DPT_Control_Dimming: break received.");
-                        return UnDefType.UNDEF;
-                    }
-                    switch (subNumber) {
-                        case 7:
-                            return translator3BitControlled.getControlBit() ? IncreaseDecreaseType.INCREASE
-                                    : IncreaseDecreaseType.DECREASE;
-                        case 8:
-                            return translator3BitControlled.getControlBit() ? UpDownType.DOWN : UpDownType.UP;
-                    }
-                case 14:
-                    /*
-                     * FIXME: Workaround for a bug in Calimero / Openhab DPTXlator4ByteFloat.makeString(): is using a
-                     * locale when
-                     * translating a Float to String. It could happen the a ',' is used as separator, such as
-                     * 3,14159E20.
-                     * Openhab's DecimalType expects this to be in US format and expects '.': 3.14159E20.
-                     * There is no issue with DPTXlator2ByteFloat since calimero is using a non-localized translation
-                     * there.
-                     */
-                    DPTXlator4ByteFloat translator4ByteFloat = (DPTXlator4ByteFloat) translator;
-                    Float f = translator4ByteFloat.getValueFloat();
-                    if (Math.abs(f) < 100000) {
-                        value = String.valueOf(f);
-                    } else {
-                        NumberFormat dcf = NumberFormat.getInstance(Locale.US);
-                        if (dcf instanceof DecimalFormat) {
-                            ((DecimalFormat) dcf).applyPattern("0.#####E0");
-                        }
-                        value = dcf.format(f);
-                    }
-                    break;
-                case 18:
-                    DPTXlatorSceneControl translatorSceneControl = (DPTXlatorSceneControl) translator;
-                    int decimalValue = translatorSceneControl.getSceneNumber();
-                    if (value.startsWith("learn")) {
-                        decimalValue += 0x80;
-                    }
-                    value = String.valueOf(decimalValue);
-
-                    break;
-                case 19:
-                    DPTXlatorDateTime translatorDateTime = (DPTXlatorDateTime) translator;
-                    if (translatorDateTime.isFaultyClock()) {
-                        // Not supported: faulty clock
-                        logger.debug("toType: KNX clock msg ignored: clock faulty bit set, which is not supported");
-                        return null;
-                    } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && translatorDateTime.isValidField(DPTXlatorDateTime.DATE)) {
-                        // Not supported: "/1/1" (month and day without year)
-                        logger.debug(
-                                "toType: KNX clock msg ignored: no year, but day and month, which is not supported");
-                        return null;
-                    } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && !translatorDateTime.isValidField(DPTXlatorDateTime.DATE)) {
-                        // Not supported: "1900" (year without month and day)
-                        logger.debug(
-                                "toType: KNX clock msg ignored: no day and month, but year, which is not supported");
-                        return null;
-                    } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && !translatorDateTime.isValidField(DPTXlatorDateTime.DATE)
-                            && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Not supported: No year, no date and no time
-                        logger.debug("toType: KNX clock msg ignored: no day and month or year, which is not supported");
-                        return null;
-                    }
-
-                    Calendar cal = Calendar.getInstance();
-                    if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Pure date format, no time information
-                        cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
-                    } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Pure time format, no date information
-                        cal.clear();
-                        cal.set(Calendar.HOUR_OF_DAY, translatorDateTime.getHour());
-                        cal.set(Calendar.MINUTE, translatorDateTime.getMinute());
-                        cal.set(Calendar.SECOND, translatorDateTime.getSecond());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
-                    } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Date format and time information
-                        cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
-                    }
-                    break;
+
+            DPTXlator translator = acquireTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            try {
+                translator.setData(data);
+                return toType(datapoint, translator);
+            } finally {
+                releaseTranslator(datapoint.getDPT(), translator);
             }
+        } catch (KNXFormatException kfe) {
+            logger.info("Translator couldn't parse data for datapoint type '{}' (KNXFormatException).",
+                    datapoint.getDPT());
+        } catch (KNXIllegalArgumentException kiae) {
+            logger.info("Translator couldn't parse data for datapoint type '{}' (KNXIllegalArgumentException).",
+                    datapoint.getDPT());
+        } catch (KNXException e) {
+            logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Converts the data of a translator into an openHAB type.
+     *
+     * @param datapoint the datapoint the data was received for
+     * @param translator the translator holding the data
+     * @return the openHAB type or {@code null} if the data can't be mapped
+     * @throws KNXException if the translator can't interpret the data
+     */
+    private @Nullable Type toType(Datapoint datapoint, DPTXlator translator) throws KNXException {
+        String value = translator.getValue();
+
+        String id = translator.getType().getID();
+        logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
+
+        int mainNumber = getMainNumber(id);
+        if (mainNumber == -1) {
+            logger.debug("toType: couldn't identify mainnumber in dptID: {}.", id);
+            return null;
+        }
+        int subNumber = getSubNumber(id);
+        if (subNumber == -1) {
+            logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
+            return null;
+        }
+        /*
+         * Following code section deals with specific mapping of values from KNX to openHAB types were the String
+         * received from the DPTXlator is not sufficient to set the openHAB type or has bugs
+         */
+        switch (mainNumber) {
+            case 1:
+                DPTXlatorBoolean translatorBoolean = (DPTXlatorBoolean) translator;
+                switch (subNumber) {
+                    case 8:
+                        return translatorBoolean.getValueBoolean() ? UpDownType.DOWN : UpDownType.UP;
+                    case 9:
+                        return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 10:
+                        return translatorBoolean.getValueBoolean() ? StopMoveType.MOVE : StopMoveType.STOP;
+                    case 19:
+                        return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 22:
+                        return DecimalType.valueOf(translatorBoolean.getValueBoolean() ? "1" : "0");
+                    default:
+                        return translatorBoolean.getValueBoolean() ? OnOffType.ON : OnOffType.OFF;
+                }
+            case 2:
+                DPTXlator1BitControlled translator1BitControlled = (DPTXlator1BitControlled) translator;
+                int decValue = (translator1BitControlled.getControlBit() ? 2 : 0)
+                        + (translator1BitControlled.getValueBit() ? 1 : 0);
+                return new DecimalType(decValue);
+            case 3:
+                DPTXlator3BitControlled translator3BitControlled = (DPTXlator3BitControlled) translator;
+                if (translator3BitControlled.getStepCode() == 0) {
+                    logger.debug("toType: KNX DPT_Control_Dimming: break received.");
+                    return UnDefType.UNDEF;
+                }
+                switch (subNumber) {
+                    case 7:
+                        return translator3BitControlled.getControlBit() ? IncreaseDecreaseType.INCREASE
+                                : IncreaseDecreaseType.DECREASE;
+                    case 8:
+                        return translator3BitControlled.getControlBit() ? UpDownType.DOWN : UpDownType.UP;
+                }
+            case 18:
+                DPTXlatorSceneControl translatorSceneControl = (DPTXlatorSceneControl) translator;
+                int decimalValue = translatorSceneControl.getSceneNumber();
+                if (value.startsWith("learn")) {
+                    decimalValue += 0x80;
+                }
+                value = String.valueOf(decimalValue);
+
+                break;
+            case 19:
+                DPTXlatorDateTime translatorDateTime = (DPTXlatorDateTime) translator;
+                if (translatorDateTime.isFaultyClock()) {
+                    // Not supported: faulty clock
+                    logger.debug("toType: KNX clock msg ignored: clock faulty bit set, which is not supported");
+                    return null;
+                } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && translatorDateTime.isValidField(DPTXlatorDateTime.DATE)) {
+                    // Not supported: "/1/1" (month and day without year)
+                    logger.debug(
+                            "toType: KNX clock msg ignored: no year, but day and month, which is not supported");
+                    return null;
+                } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && !translatorDateTime.isValidField(DPTXlatorDateTime.DATE)) {
+                    // Not supported: "1900" (year without month and day)
+                    logger.debug(
+                            "toType: KNX clock msg ignored: no day and month, but year, which is not supported");
+                    return null;
+                } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && !translatorDateTime.isValidField(DPTXlatorDateTime.DATE)
+                        && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
+                    // Not supported: No year, no date and no time
+                    logger.debug("toType: KNX clock msg ignored: no day and month or year, which is not supported");
+                    return null;
+                }
+
+                Calendar cal = Calendar.getInstance();
+                if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
+                    // Pure date format, no time information
+                    cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
+                    value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                    return DateTimeType.valueOf(value);
+                } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
+                    // Pure time format, no date information
+                    cal.clear();
+                    cal.set(Calendar.HOUR_OF_DAY, translatorDateTime.getHour());
+                    cal.set(Calendar.MINUTE, translatorDateTime.getMinute());
+                    cal.set(Calendar.SECOND, translatorDateTime.getSecond());
+                    value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                    return DateTimeType.valueOf(value);
+                } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
+                        && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
+                    // Date format and time information
+                    cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
+                    value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                    return DateTimeType.valueOf(value);
+                }
+                break;
+        }
+
+        Class<? extends Type> typeClass = toTypeClass(id);
+        if (typeClass == null) {
+            return null;
+        }
+
+        if (typeClass.equals(PercentType.class)) {
+            return new PercentType(BigDecimal.valueOf(Math.round(translator.getNumericValue())));
+        }
+        if (typeClass.equals(DecimalType.class)) {
+            return new DecimalType(translator.getNumericValue());
+        }
+        if (typeClass.equals(StringType.class)) {
+            return StringType.valueOf(value);
+        }
 
-            Class<? extends Type> typeClass = toTypeClass(id);
-            if (typeClass == null) {
+        if (typeClass.equals(DateTimeType.class)) {
+            String date = formatDateTime(value, datapoint.getDPT());
+            if ((date == null) || (date.isEmpty())) {
+                logger.debug("toType: KNX clock msg ignored: date object null or empty {}.", date);
                 return null;
+            } else {
+                return DateTimeType.valueOf(date);
             }
+        }
 
-            if (typeClass.equals(PercentType.class)) {
-                return new PercentType(BigDecimal.valueOf(Math.round(translator.getNumericValue())));
-            }
-            if (typeClass.equals(DecimalType.class)) {
-                return new DecimalType(translator.getNumericValue());
-            }
-            if (typeClass.equals(StringType.class)) {
-                return StringType.valueOf(value);
-            }
+        if (typeClass.equals(HSBType.class)) {
+            // value has format of "r:<red value> g:<green value> b:<blue value>"
+            int r = Integer.parseInt(value.split(" ")[0].split(":")[1]);
+            int g = Integer.parseInt(value.split(" ")[1].split(":")[1]);
+            int b = Integer.parseInt(value.split(" ")[2].split(":")[1]);
+
+            return HSBType.fromRGB(r, g, b);
+        }
+
+        return null;
+    }
 
-            if (typeClass.equals(DateTimeType.class)) {
-                String date = formatDateTime(value, datapoint.getDPT());
-                if ((date == null) || (date.isEmpty())) {
-                    logger.debug("toType: KNX clock msg ignored: date object null or empty {}.", date);
+    /**
+     * Decodes the most common datapoint types (1.x, 5.x, 9.x and 14.x) directly from the ASDU, without formatting the
+     * value to a String and parsing it again.
+     *
+     * @param mainNumber the main number of the datapoint type
+     * @param dptID the datapoint type id
+     * @param data the ASDU
+     * @return the openHAB type or {@code null} if the datapoint type is not handled here
+     * @throws KNXFormatException if the value is out of the range of the datapoint type
+     */
+    private @Nullable Type toPrimitiveType(int mainNumber, String dptID, byte[] data) throws KNXFormatException {
+        double value;
+        switch (mainNumber) {
+            case 1:
+                if (data.length != 1 || getDPT(mainNumber, dptID) == null) {
+                    return null;
+                }
+                boolean bool = (data[0] & 0x01) != 0;
+                switch (getSubNumber(dptID)) {
+                    case 8:
+                        return bool ? UpDownType.DOWN : UpDownType.UP;
+                    case 9:
+                        return bool ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 10:
+                        return bool ? StopMoveType.MOVE : StopMoveType.STOP;
+                    case 19:
+                        return bool ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 22:
+                        return bool ? DecimalType.valueOf("1") : DecimalType.valueOf("0");
+                    default:
+                        return bool ? OnOffType.ON : OnOffType.OFF;
+                }
+            case 5:
+                if (data.length != 1 || getDPT(mainNumber, dptID) == null) {
                     return null;
+                }
+                int unsigned = data[0] & 0xFF;
+                if (DPTXlator8BitUnsigned.DPT_SCALING.getID().equals(dptID)) {
+                    value = Math.round(unsigned * 100.0f / 255);
+                } else if (DPTXlator8BitUnsigned.DPT_ANGLE.getID().equals(dptID)) {
+                    value = Math.round(unsigned * 360.0f / 255);
                 } else {
-                    return DateTimeType.valueOf(date);
+                    value = unsigned;
                 }
-            }
+                break;
+            case 9:
+                DPT floatDPT = getDPT(mainNumber, dptID);
+                if (data.length != 2 || (data[0] == 0x7F && data[1] == (byte) 0xFF) || floatDPT == null) {
+                    // 0x7FFF is the invalid value, leave it to the translator
+                    return null;
+                }
+                // MEEEEMMM MMMMMMMM: 0.01 * mantissa (11 bit + sign, two's complement) * 2^exponent
+                int mantissa = ((data[0] & 0x87) << 8 | (data[1] & 0xFF)) & 0x7FF;
+                if ((data[0] & 0x80) != 0) {
+                    mantissa -= 0x800;
+                }
+                int exponent = (data[0] & 0x78) >> 3;
+                BigDecimal floatValue = BigDecimal.valueOf((long) mantissa << exponent, 2).stripTrailingZeros();
+                checkRange(floatDPT, floatValue.doubleValue());
+                if (PercentType.class.equals(toTypeClass(dptID))) {
+                    return new PercentType(BigDecimal.valueOf(Math.round(floatValue.doubleValue())));
+                }
+                return new DecimalType(floatValue);
+            case 14:
+                if (data.length != 4 || getDPT(mainNumber, dptID) == null) {
+                    return null;
+                }
+                value = Float.intBitsToFloat(
+                        (data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF));
+                break;
+            default:
+                return null;
+        }
 
-            if (typeClass.equals(HSBType.class)) {
-                // value has format of "r:<red value> g:<green value> b:<blue value>"
-                int r = Integer.parseInt(value.split(" ")[0].split(":")[1]);
-                int g = Integer.parseInt(value.split(" ")[1].split(":")[1]);
-                int b = Integer.parseInt(value.split(" ")[2].split(":")[1]);
+        Class<? extends Type> typeClass = toTypeClass(dptID);
+        if (PercentType.class.equals(typeClass)) {
+            return new PercentType(BigDecimal.valueOf(Math.round(value)));
+        }
+        if (DecimalType.class.equals(typeClass)) {
+            return new DecimalType(value);
+        }
+        return null;
+    }
 
-                return HSBType.fromRGB(r, g, b);
+    /**
+     * Looks up the calimero datapoint type for the given id.
+     *
+     * @param mainNumber the main number of the datapoint type
+     * @param dptID the datapoint type id
+     * @return the datapoint type or {@code null} if calimero doesn't support it
+     */
+    private @Nullable DPT getDPT(int mainNumber, String dptID) {
+        DPT dpt = DPT_CACHE.get(dptID);
+        if (dpt == null) {
+            try {
+                DPTXlator translator = acquireTranslator(mainNumber, dptID);
+                dpt = translator.getType();
+                releaseTranslator(dptID, translator);
+                DPT_CACHE.put(dptID, dpt);
+            } catch (KNXException e) {
+                return null;
             }
+        }
+        return dpt;
+    }
 
-        } catch (KNXFormatException kfe) {
-            logger.info("Translator couldn't parse data for datapoint type '{}' (KNXFormatException).",
-                    datapoint.getDPT());
-        } catch (KNXIllegalArgumentException kiae) {
-            logger.info("Translator couldn't parse data for datapoint type '{}' (KNXIllegalArgumentException).",
-                    datapoint.getDPT());
-        } catch (KNXException e) {
-            logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+    /**
+     * Checks a value against the range of its datapoint type, like the calimero translators do.
+     *
+     * @param dpt the datapoint type
+     * @param value the value
+     * @throws KNXFormatException if the value is out of range
+     */
+    private void checkRange(DPT dpt, double value) throws KNXFormatException {
+        double lower;
+        double upper;
+        try {
+            lower = Double.parseDouble(dpt.getLowerValue());
+            upper = Double.parseDouble(dpt.getUpperValue());
+        } catch (NumberFormatException e) {
+            // no numeric range
+            return;
         }
+        if (value < lower || value > upper) {
+            throw new KNXFormatException("value out of range [" + dpt.getLowerValue() + ".." + dpt.getUpperValue()
+                    + "] for DPT " + dpt.getID(), String.valueOf(value));
+        }
+    }
 
-        return null;
+    /**
+     * Takes a translator for the given datapoint type out of the cache or creates a new one. The translator has to be
+     * handed back with {@link #releaseTranslator(String, DPTXlator)} after use.
+     *
+     * @param mainNumber the main number of the datapoint type
+     * @param dptID the datapoint type id
+     * @return the translator, exclusively for the caller until it is released
+     * @throws KNXException if calimero doesn't support the datapoint type
+     */
+    private DPTXlator acquireTranslator(int mainNumber, String dptID) throws KNXException {
+        DPTXlator translator;
+        synchronized (translators) {
+            translator = translators.remove(dptID);
+        }
+        if (translator == null) {
+            translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+        }
+        return translator;
+    }
+
+    /**
+     * Puts a translator back into the cache.
+     *
+     * @param dptID the datapoint type id
+     * @param translator the translator returned by {@link #acquireTranslator(int, String)}
+     */
+    private void releaseTranslator(String dptID, DPTXlator translator) {
+        synchronized (translators) {
+            translators.put(dptID, translator);
+        }
     }
 
     /**
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.knx.internal.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
@@ -34,4 +36,12 @@ public interface GroupAddressListener extends BusMessageListener {
      */
     public boolean listensTo(GroupAddress destination);
 
+    /**
+     * Returns all GroupAddresses the GroupAddressListener has an interest in
+     *
+     * The addresses are read when the listener is registered with the client, in order to route telegrams by their
+     * destination. Listeners have to register again if their addresses change.
+     */
+    public Set<GroupAddress> getGroupAddresses();
+
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ *
+ * @author agent - initial contribution and API
+ *
+ */
+public class GroupAddressListenerIndexTest {
+
+    private GroupAddressListener createListener(GroupAddress... addresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(addresses)));
+        return listener;
+    }
+
+    @Test
+    public void testRouting() {
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        GroupAddressListener listener1 = createListener(new GroupAddress(1, 0, 1), new GroupAddress(1, 0, 2));
+        GroupAddressListener listener2 = createListener(new GroupAddress(1, 0, 2));
+
+        assertTrue(index.add(listener1));
+        assertTrue(index.add(listener2));
+        assertFalse(index.add(listener2));
+
+        assertEquals(new HashSet<>(Arrays.asList(listener1)), index.get(new GroupAddress(1, 0, 1)));
+        assertEquals(new HashSet<>(Arrays.asList(listener1, listener2)), index.get(new GroupAddress(1, 0, 2)));
+        assertTrue(index.get(new GroupAddress(1, 0, 3)).isEmpty());
+
+        assertTrue(index.remove(listener1));
+        assertFalse(index.remove(listener1));
+        assertTrue(index.get(new GroupAddress(1, 0, 1)).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(listener2)), index.get(new GroupAddress(1, 0, 2)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testReRegistrationUpdatesAddresses() {
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        GroupAddressListener listener = createListener(new GroupAddress(1, 0, 1));
+        index.add(listener);
+
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(new GroupAddress(1, 0, 2))));
+        index.add(listener);
+
+        assertTrue(index.get(new GroupAddress(1, 0, 1)).isEmpty());
+        assertTrue(index.get(new GroupAddress(1, 0, 2)).contains(listener));
+    }
+
+    @Test
+    public void testManyListenersAndUnknownAddresses() {
+        final int numberOfAddresses = 3000;
+
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        for (int i = 0; i < numberOfAddresses; i++) {
+            // one thing per address plus one thing listening to a whole middle group
+            index.add(createListener(new GroupAddress(i >> 8, 0, i & 0xFF)));
+        }
+        Set<GroupAddress> groupAddresses = new HashSet<>();
+        for (int i = 0; i < 256; i++) {
+            groupAddresses.add(new GroupAddress(0, 0, i));
+        }
+        GroupAddressListener groupListener = mock(GroupAddressListener.class);
+        when(groupListener.getGroupAddresses()).thenReturn(groupAddresses);
+        index.add(groupListener);
+        assertEquals(numberOfAddresses + 1, index.size());
+
+        // twice as many addresses on the bus than configured
+        for (int i = 0; i < 2 * numberOfAddresses; i++) {
+            GroupAddress address = new GroupAddress(i >> 8, 0, i & 0xFF);
+            Set<GroupAddressListener> listeners = index.get(address);
+            if (i >= numberOfAddresses) {
+                assertTrue(listeners.isEmpty());
+            } else {
+                assertEquals(i < 256 ? 2 : 1, listeners.size());
+                assertEquals(i < 256, listeners.contains(groupListener));
+                for (GroupAddressListener listener : listeners) {
+                    assertTrue(listener.getGroupAddresses().contains(address));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReadDatapointSchedulerTest {
+
+    private long now = 0;
+
+    private ReadDatapoint createDatapoint(int subGroup) {
+        return new ReadDatapoint(new CommandDP(new GroupAddress(1, 1, subGroup), "test", 0, "1.001"), 2);
+    }
+
+    private ReadDatapointScheduler createScheduler(int readingPause) {
+        return new ReadDatapointScheduler(readingPause, () -> now);
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void testDeduplication() {
+        ReadDatapointScheduler scheduler = createScheduler(1);
+        assertTrue(scheduler.add(createDatapoint(1), false));
+        assertFalse(scheduler.add(createDatapoint(1), false));
+        assertFalse(scheduler.add(createDatapoint(1), true));
+        assertEquals(1, scheduler.getPending());
+
+        // still pending while the read is in progress
+        ReadDatapoint datapoint = scheduler.next();
+        assertNotNull(datapoint);
+        assertTrue(datapoint.isPrioritized());
+        assertFalse(scheduler.add(createDatapoint(1), false));
+
+        scheduler.succeeded(datapoint);
+        assertEquals(0, scheduler.getPending());
+        assertTrue(scheduler.add(createDatapoint(1), false));
+    }
+
+    @Test
+    public void testPrioritizedReadsFirst() {
+        ReadDatapointScheduler scheduler = createScheduler(1);
+        scheduler.add(createDatapoint(1), false);
+        scheduler.add(createDatapoint(2), false);
+        scheduler.add(createDatapoint(3), true);
+
+        assertEquals(new GroupAddress(1, 1, 3), scheduler.next().getDatapoint().getMainAddress());
+        advance(1);
+        assertEquals(new GroupAddress(1, 1, 1), scheduler.next().getDatapoint().getMainAddress());
+        advance(1);
+        assertEquals(new GroupAddress(1, 1, 2), scheduler.next().getDatapoint().getMainAddress());
+        advance(1);
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    public void testTelegramBudget() {
+        ReadDatapointScheduler scheduler = createScheduler(100);
+        scheduler.add(createDatapoint(1), false);
+        scheduler.add(createDatapoint(2), false);
+        scheduler.add(createDatapoint(3), false);
+
+        assertNotNull(scheduler.next());
+        assertNull(scheduler.next());
+        advance(99);
+        assertNull(scheduler.next());
+        advance(1);
+        assertNotNull(scheduler.next());
+
+        // unused budget does not accumulate
+        advance(1000);
+        assertNotNull(scheduler.next());
+        assertEquals(3, scheduler.getPending());
+        scheduler.add(createDatapoint(4), false);
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    public void testRetryLimit() {
+        ReadDatapointScheduler scheduler = createScheduler(5);
+        scheduler.add(createDatapoint(1), true);
+
+        ReadDatapoint datapoint = scheduler.next();
+        datapoint.incrementRetries();
+        assertTrue(scheduler.failed(datapoint));
+        // failed reads back off
+        advance(4);
+        assertNull(scheduler.next());
+
+        advance(1);
+        datapoint = scheduler.next();
+        assertNotNull(datapoint);
+        datapoint.incrementRetries();
+        assertFalse(scheduler.failed(datapoint));
+        assertEquals(0, scheduler.getPending());
+        assertEquals(1, scheduler.getBatchDone());
+        assertEquals(0, scheduler.getEstimatedSecondsRemaining());
+    }
+
+    @Test
+    public void testBackoffIsExponential() {
+        ReadDatapointScheduler scheduler = createScheduler(5);
+        ReadDatapoint datapoint = new ReadDatapoint(new CommandDP(new GroupAddress(1, 1, 1), "test", 0, "1.001"), 5);
+        scheduler.add(datapoint, false);
+
+        assertSame(datapoint, scheduler.next());
+        datapoint.incrementRetries();
+        scheduler.failed(datapoint);
+        advance(5);
+        assertSame(datapoint, scheduler.next());
+        datapoint.incrementRetries();
+        scheduler.failed(datapoint);
+        // second failure doubles the pause
+        advance(9);
+        assertNull(scheduler.next());
+        advance(1);
+        assertSame(datapoint, scheduler.next());
+    }
+
+}
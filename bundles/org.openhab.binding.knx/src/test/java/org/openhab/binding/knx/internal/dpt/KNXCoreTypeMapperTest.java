@@ -12,11 +12,23 @@
  */
 package org.openhab.binding.knx.internal.dpt;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
 import org.junit.Test;
 
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
 /**
  *
  * @author Simon Kaufmann - initial contribution and API
@@ -30,4 +42,122 @@ public class KNXCoreTypeMapperTest {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
 
+    @Test
+    public void testToType_booleanFastPath() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(OnOffType.ON, mapper.toType(datapoint("1.001"), new byte[] { 1 }));
+        assertEquals(OnOffType.OFF, mapper.toType(datapoint("1.001"), new byte[] { 0 }));
+        assertEquals(UpDownType.DOWN, mapper.toType(datapoint("1.008"), new byte[] { 1 }));
+        assertEquals(OpenClosedType.CLOSED, mapper.toType(datapoint("1.009"), new byte[] { 0 }));
+        assertEquals(new DecimalType(1), mapper.toType(datapoint("1.022"), new byte[] { 1 }));
+    }
+
+    @Test
+    public void testToType_unsignedFastPathMatchesTranslator() throws KNXException {
+        for (String dpt : new String[] { "5.001", "5.003", "5.005", "5.010" }) {
+            for (int i = 0; i < 256; i++) {
+                assertSameNumericValue(dpt, new byte[] { (byte) i });
+            }
+        }
+    }
+
+    @Test
+    public void testToType_2ByteFloatFastPathMatchesTranslator() throws KNXException {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        for (String dpt : new String[] { "9.001", "9.004" }) {
+            for (int i = 0; i < 0x10000; i++) {
+                byte[] data = new byte[] { (byte) (i >> 8), (byte) i };
+                if (i == 0x7FFF) {
+                    // invalid value
+                    continue;
+                }
+                if (translatorValue(dpt, data) == null) {
+                    // out of range for this DPT
+                    assertNull(dpt + " " + Integer.toHexString(i), mapper.toType(datapoint(dpt), data));
+                    continue;
+                }
+                assertSameNumericValue(dpt, data);
+            }
+        }
+        // no rounding artifacts
+        assertEquals("21.6", new KNXCoreTypeMapper().toType(datapoint("9.001"), new byte[] { 0x0C, 0x38 }).toString());
+    }
+
+    @Test
+    public void testToType_2ByteFloatOutOfRange() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        // -300 (mantissa -1875, exponent 4) is below absolute zero
+        assertNull(mapper.toType(datapoint("9.001"), new byte[] { (byte) 0xA0, (byte) 0xAD }));
+        // negative illuminance
+        assertNull(mapper.toType(datapoint("9.004"), new byte[] { (byte) 0x8A, 0x24 }));
+        // the same values are valid for a general float
+        assertEquals(new DecimalType(-300),
+                mapper.toType(datapoint("9.002"), new byte[] { (byte) 0xA0, (byte) 0xAD }));
+    }
+
+    @Test
+    public void testToType_4ByteFloatFastPathMatchesTranslator() throws KNXException {
+        for (float f : new float[] { 0f, 1f, -1f, 3.14159e20f, -273.15f, 1234.5678f, Float.MIN_VALUE }) {
+            assertSameNumericValue("14.056", toBytes(f));
+        }
+    }
+
+    @Test
+    public void testToType_reusedTranslatorsKeepNoState() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint[] datapoints = new Datapoint[] { datapoint("1.001"), datapoint("5.001"), datapoint("9.001"),
+                datapoint("14.056"), datapoint("7.001") };
+        byte[][][] data = new byte[][][] { { { 1 }, { 0 } }, { { (byte) 128 }, { 0 } },
+                { { 0x0C, 0x38 }, { (byte) 0x8A, 0x24 } }, { toBytes(21.6f), toBytes(-1f) },
+                { { 0x01, 0x02 }, { 0x00, 0x00 } } };
+
+        Type[][] expected = new Type[datapoints.length][2];
+        for (int d = 0; d < datapoints.length; d++) {
+            for (int v = 0; v < 2; v++) {
+                expected[d][v] = new KNXCoreTypeMapper().toType(datapoints[d], data[d][v]);
+                assertNotNull(expected[d][v]);
+            }
+        }
+
+        // the same translators are reused for all telegrams of a DPT, interleaved with other DPTs and values
+        for (int round = 0; round < 3; round++) {
+            for (int v = 0; v < 2; v++) {
+                int value = (v + round) % 2;
+                for (int d = 0; d < datapoints.length; d++) {
+                    assertEquals(expected[d][value], mapper.toType(datapoints[d], data[d][value]));
+                }
+            }
+        }
+    }
+
+    private Datapoint datapoint(String dpt) {
+        return new CommandDP(new GroupAddress(1, 1, 1), "test", 0, dpt);
+    }
+
+    private byte[] toBytes(float f) {
+        int bits = Float.floatToIntBits(f);
+        return new byte[] { (byte) (bits >> 24), (byte) (bits >> 16), (byte) (bits >> 8), (byte) bits };
+    }
+
+    private Double translatorValue(String dpt, byte[] data) {
+        try {
+            DPTXlator translator = TranslatorTypes.createTranslator(0, dpt);
+            translator.setData(data);
+            return translator.getNumericValue();
+        } catch (KNXException e) {
+            return null;
+        }
+    }
+
+    private void assertSameNumericValue(String dpt, byte[] data) {
+        Double expected = translatorValue(dpt, data);
+        assertNotNull(expected);
+        Type type = new KNXCoreTypeMapper().toType(datapoint(dpt), data);
+        double actual = ((DecimalType) type).doubleValue();
+        if (type instanceof PercentType) {
+            expected = (double) Math.round(expected);
+        }
+        assertEquals("DPT " + dpt, expected, actual, Math.abs(expected) * 1e-6);
+    }
+
 }
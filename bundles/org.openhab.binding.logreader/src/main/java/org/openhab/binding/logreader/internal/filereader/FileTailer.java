@@ -12,61 +12,116 @@
  */
 package org.openhab.binding.logreader.internal.filereader;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.io.input.Tailer;
-import org.apache.commons.io.input.TailerListener;
-import org.apache.commons.io.input.TailerListenerAdapter;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.storage.Storage;
 import org.openhab.binding.logreader.internal.filereader.api.FileReaderException;
 import org.openhab.binding.logreader.internal.filereader.api.LogFileReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Apache Tailer based log file reader implementation.
+ * File channel based log file reader implementation.
+ *
+ * The file is polled with the refresh rate and appended content is read from the last position. If the reader has
+ * fallen behind by more than {@link #CATCH_UP_THRESHOLD} bytes, e.g. after a restart, the backlog is read with a
+ * buffer of {@link #CATCH_UP_BUFFER_SIZE} bytes. The file is only open while it is polled, so that it can be renamed
+ * or deleted by the log rotation on every operating system.
+ *
+ * The position and the identity of the file are persisted, so that reading continues where it stopped after a
+ * restart. The identity is the file key (device and inode) where the file system provides one, otherwise the creation
+ * time. Rotations are detected by a changed identity of the file behind the path (rename / create) or by the file
+ * getting shorter than the position (copy / truncate). In the first case the renamed file is looked up by its
+ * identity next to the new one and read to its end first.
  *
  * @author Pauli Anttila - Initial contribution
  */
 public class FileTailer extends AbstractLogFileReader implements LogFileReader {
 
-    private final Logger logger = LoggerFactory.getLogger(FileTailer.class);
+    /**
+     * Backlog in bytes above which the file is read in catch-up mode.
+     */
+    static final int CATCH_UP_THRESHOLD = 1024 * 1024;
 
-    private Tailer tailer;
+    /**
+     * Size of the read buffer in catch-up mode, it is released after the poll.
+     */
+    static final int CATCH_UP_BUFFER_SIZE = 1024 * 1024;
 
-    TailerListener logListener = new TailerListenerAdapter() {
+    /**
+     * Size of the read buffer outside catch-up mode. Longer lines are split.
+     */
+    static final int READ_BUFFER_SIZE = 64 * 1024;
 
-        @Override
-        public void handle(@Nullable String line) {
-            sendLineToListeners(line);
-        }
+    private final Logger logger = LoggerFactory.getLogger(FileTailer.class);
 
-        @Override
-        public void fileNotFound() {
-            sendFileNotFoundToListeners();
-        }
+    private final @Nullable Storage<String> positionStorage;
+    private final String storageKey;
+    private final Charset charset;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
 
-        @Override
-        public void handle(@Nullable Exception e) {
-            sendExceptionToListeners(e);
-        }
+    private @Nullable Path path;
+    private @Nullable ScheduledFuture<?> pollJob;
+    private @Nullable String identity;
+    private long position;
+    private @Nullable String storedValue;
+    private volatile boolean running;
 
-        @Override
-        public void fileRotated() {
-            sendFileRotationToListeners();
-        }
-    };
+    /**
+     * Create log file reader.
+     *
+     * @param positionStorage storage for the read positions, null to always start at the end of the file.
+     * @param storageKey key of the read position in the storage, e.g. the UID of the thing reading the file.
+     */
+    public FileTailer(@Nullable Storage<String> positionStorage, String storageKey) {
+        this(positionStorage, storageKey, Charset.defaultCharset());
+    }
+
+    FileTailer(@Nullable Storage<String> positionStorage, String storageKey, Charset charset) {
+        this.positionStorage = positionStorage;
+        this.storageKey = storageKey;
+        this.charset = charset;
+        this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
 
     @Override
     public void start(String filePath, long refreshRate, ScheduledExecutorService scheduler)
             throws FileReaderException {
-        tailer = new Tailer(new File(filePath), logListener, refreshRate, true, false, true);
+        stop();
+        try {
+            path = Paths.get(filePath);
+        } catch (InvalidPathException e) {
+            throw new FileReaderException(e);
+        }
 
         try {
-            logger.debug("Start executor");
-            scheduler.execute(tailer);
+            logger.debug("Start polling '{}' every {} ms", filePath, refreshRate);
+            identity = null;
+            storedValue = null;
+            running = true;
+            pollJob = scheduler.scheduleWithFixedDelay(this::poll, 0, refreshRate, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
+            running = false;
             throw new FileReaderException(e);
         }
     }
@@ -75,8 +130,227 @@ public class FileTailer extends AbstractLogFileReader implements LogFileReader {
     public void stop() {
         logger.debug("Shutdown");
 
-        if (tailer != null) {
-            tailer.stop();
+        // let a running poll finish its current line, interrupting it would close the channel
+        running = false;
+        ScheduledFuture<?> job = pollJob;
+        if (job != null) {
+            job.cancel(false);
+            pollJob = null;
+        }
+        synchronized (this) {
+            savePosition();
+        }
+    }
+
+    @Override
+    public synchronized void removePosition() {
+        Storage<String> positionStorage = this.positionStorage;
+        if (positionStorage != null) {
+            positionStorage.remove(storageKey);
+        }
+        // nothing is stored until the file is read again
+        identity = null;
+        storedValue = null;
+    }
+
+    /**
+     * Read the content appended since the last poll.
+     */
+    synchronized void poll() {
+        Path path = this.path;
+        if (!running || path == null) {
+            return;
+        }
+        try {
+            String currentIdentity = getIdentity(path);
+            String identity = this.identity;
+            if (identity != null && !identity.equals(currentIdentity)) {
+                finishRenamedFile(path, identity);
+                sendFileRotationToListeners();
+                position = 0;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (identity == null) {
+                    position = getResumePosition(path, currentIdentity, size);
+                    logger.debug("Reading '{}' ({}) from position {} of {}", path, currentIdentity, position, size);
+                } else if (size < position) {
+                    logger.debug("'{}' has been truncated", path);
+                    position = 0;
+                    sendFileRotationToListeners();
+                }
+                this.identity = currentIdentity;
+                readAppended(channel);
+            }
+            savePosition();
+        } catch (NoSuchFileException e) {
+            // renamed, but not created again yet; the renamed file is finished once the new one exists
+            sendFileNotFoundToListeners();
+        } catch (IOException | RuntimeException e) {
+            // never let an exception cancel the periodic job, the file is opened again on the next poll
+            sendExceptionToListeners(e);
+        }
+    }
+
+    /**
+     * Position to read from after (re)starting. Without a stored position the file is read from its end, like a
+     * tail -f would do.
+     */
+    private long getResumePosition(Path path, String identity, long size) {
+        Storage<String> positionStorage = this.positionStorage;
+        String stored = positionStorage != null ? positionStorage.get(storageKey) : null;
+        if (stored == null) {
+            return size;
         }
+        // position:identity:path, the path may contain colons itself
+        String[] values = stored.split(":", 3);
+        try {
+            if (values.length < 3 || !values[2].equals(path.toString())) {
+                logger.debug("No position stored for '{}', reading it from the end", path);
+                return size;
+            }
+            long storedOffset = Long.parseLong(values[0]);
+            if (!values[1].equals(identity)) {
+                logger.debug("'{}' has been rotated since last read, reading it from the start", path);
+                return 0;
+            }
+            return storedOffset <= size ? storedOffset : 0;
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring invalid stored position '{}' of '{}'", stored, path);
+            return size;
+        }
+    }
+
+    /**
+     * Read the rest of a file that has been renamed by the rotation. The file is looked up by its identity in the
+     * folder of the log file, a file that has been compressed or deleted since the last poll is not found.
+     */
+    private void finishRenamedFile(Path path, String identity) throws IOException {
+        Path file = path.toAbsolutePath();
+        Path folder = file.getParent();
+        if (folder == null) {
+            return;
+        }
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(folder)) {
+            for (Path sibling : siblings) {
+                if (!sibling.equals(file) && isFile(sibling, identity)) {
+                    try (FileChannel channel = FileChannel.open(sibling, StandardOpenOption.READ)) {
+                        logger.debug("'{}' has been renamed to '{}', finishing it at {} bytes", path, sibling,
+                                channel.size());
+                        readAppended(channel);
+                    }
+                    return;
+                }
+            }
+        }
+        logger.debug("'{}' has been replaced, the previous file has not been found", path);
+    }
+
+    private boolean isFile(Path path, String identity) {
+        try {
+            return Files.isRegularFile(path) && identity.equals(getIdentity(path));
+        } catch (IOException e) {
+            // deleted while searching
+            return false;
+        }
+    }
+
+    private void readAppended(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = readBuffer;
+        if (size - position > CATCH_UP_THRESHOLD) {
+            logger.debug("Catching up with {} bytes of '{}'", size - position, path);
+            buffer = ByteBuffer.allocate(CATCH_UP_BUFFER_SIZE);
+        }
+        while (running && position < size) {
+            ByteBuffer window = read(channel, buffer, (int) Math.min(size - position, buffer.capacity()));
+
+            int consumed = readLines(window);
+            if (consumed == 0 && running) {
+                if (window.limit() < buffer.capacity()) {
+                    // last line is not complete yet
+                    break;
+                }
+                // no line end in a whole window
+                consumed = sendPartialLine(window);
+            }
+            position += consumed;
+        }
+    }
+
+    private ByteBuffer read(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Send all complete lines of a window to the listeners.
+     *
+     * @return number of bytes consumed, up to and including the last line end.
+     */
+    private int readLines(ByteBuffer window) {
+        int start = 0;
+        int limit = window.limit();
+        for (int i = 0; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                int end = i > start && window.get(i - 1) == '\r' ? i - 1 : i;
+                sendLine(window, start, end);
+                start = i + 1;
+                if (!running) {
+                    break;
+                }
+            }
+        }
+        return start;
+    }
+
+    private void sendLine(ByteBuffer window, int start, int end) {
+        sendLineToListeners(new String(window.array(), window.arrayOffset() + start, end - start, charset));
+    }
+
+    /**
+     * Send the beginning of a line that does not fit into a window. It is split after the last complete character,
+     * the rest of a multi-byte character is read with the next window.
+     *
+     * @return number of bytes consumed.
+     */
+    private int sendPartialLine(ByteBuffer window) {
+        ByteBuffer input = window.duplicate();
+        CharBuffer chars = CharBuffer.allocate((int) (input.remaining() * decoder.maxCharsPerByte()) + 1);
+        decoder.reset();
+        decoder.decode(input, chars, false);
+        chars.flip();
+        sendLineToListeners(chars.toString());
+        return input.position();
+    }
+
+    private void savePosition() {
+        Storage<String> positionStorage = this.positionStorage;
+        Path path = this.path;
+        String identity = this.identity;
+        if (positionStorage != null && path != null && identity != null) {
+            String value = position + ":" + identity + ":" + path;
+            if (!value.equals(storedValue)) {
+                positionStorage.put(storageKey, value);
+                storedValue = value;
+            }
+        }
+    }
+
+    /**
+     * Identity of the file behind the path: device and inode on Unix. Windows does not provide a file key, the
+     * creation time is used instead.
+     */
+    private static String getIdentity(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Object key = attributes.fileKey();
+        return key != null ? key.toString() : "created=" + attributes.creationTime().toMillis();
     }
 }
@@ -51,4 +51,9 @@ public interface LogFileReader {
      * Stop log file reader.
      */
     void stop();
+
+    /**
+     * Remove the persisted read position, called after the reader has been stopped for the last time.
+     */
+    void removePosition();
 }
@@ -15,6 +15,7 @@ package org.openhab.binding.logreader.internal.handler;
 import static org.openhab.binding.logreader.internal.LogReaderBindingConstants.*;
 
 import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
@@ -43,6 +44,8 @@ import org.slf4j.LoggerFactory;
  * @author Pauli Anttila - Rewrite
  */
 public class LogHandler extends BaseThingHandler implements FileReaderListener {
+    private static final long LINE_RATE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
     private final Logger logger = LoggerFactory.getLogger(LogHandler.class);
 
     private LogReaderConfiguration configuration;
@@ -53,6 +56,9 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
     private SearchEngine warningEngine;
     private SearchEngine customEngine;
 
+    private long lineCount;
+    private long lineCountStart;
+
     public LogHandler(Thing thing, LogFileReader fileReader) {
         super(thing);
         this.fileReader = fileReader;
@@ -88,6 +94,8 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
         logger.debug("Using configuration: {}", configuration);
 
         clearCounters();
+        lineCount = 0;
+        lineCountStart = System.currentTimeMillis();
 
         try {
             warningEngine = new SearchEngine(configuration.warningPatterns, configuration.warningBlacklistingPatterns);
@@ -119,6 +127,13 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
         shutdown();
     }
 
+    @Override
+    public void handleRemoval() {
+        // the read position is kept across restarts, but not beyond the lifetime of the thing
+        fileReader.removePosition();
+        super.handleRemoval();
+    }
+
     private void updateChannel(ChannelUID channelUID, Command command, SearchEngine matcher) {
         if (command instanceof DecimalType) {
             matcher.setMatchCount(((DecimalType) command).longValue());
@@ -175,6 +190,8 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
             updateStatus(ThingStatus.ONLINE);
         }
 
+        countLine();
+
         if (errorEngine.isMatching(line)) {
             updateChannelIfLinked(CHANNEL_ERRORS, new DecimalType(errorEngine.getMatchCount()));
             updateChannelIfLinked(CHANNEL_LASTERROR, new StringType(line));
@@ -192,6 +209,18 @@ public class LogHandler extends BaseThingHandler implements FileReaderListener {
         }
     }
 
+    private void countLine() {
+        lineCount++;
+        long now = System.currentTimeMillis();
+        long elapsed = now - lineCountStart;
+        if (elapsed >= LINE_RATE_INTERVAL) {
+            logger.debug("Read {} lines in {} ms ({} lines/s) from '{}'", lineCount, elapsed,
+                    lineCount * 1000 / elapsed, configuration.filePath);
+            lineCount = 0;
+            lineCountStart = now;
+        }
+    }
+
     @Override
     public void handle(Exception ex) {
         final String msg = ex != null ? ex.getMessage() : "";
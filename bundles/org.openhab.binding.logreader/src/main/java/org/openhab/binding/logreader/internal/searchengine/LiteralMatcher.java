@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * This class implements an Aho-Corasick automaton, which finds any of a set of literal strings in a single pass
+ * over the data.
+ *
+ * Transitions for ASCII characters are precomputed into a table, so that each character of the data costs one
+ * table lookup. Other characters walk the failure links of the automaton.
+ *
+ * @author agent - Initial contribution
+ */
+class LiteralMatcher {
+    private static final int ASCII = 128;
+
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final int[] failure;
+    private final boolean[] accepting;
+    private final int[] asciiTransitions;
+
+    /**
+     * Build automaton.
+     *
+     * @param literals strings to search for, must not be empty.
+     */
+    LiteralMatcher(List<String> literals) {
+        List<Boolean> output = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        output.add(false);
+
+        // build the trie of all literals
+        for (String literal : literals) {
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                Integer next = transitions.get(state).get(literal.charAt(i));
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    output.add(false);
+                    transitions.get(state).put(literal.charAt(i), next);
+                }
+                state = next;
+            }
+            output.set(state, true);
+        }
+
+        int states = transitions.size();
+        failure = new int[states];
+        accepting = new boolean[states];
+        asciiTransitions = new int[states * ASCII];
+        for (int state = 0; state < states; state++) {
+            accepting[state] = output.get(state);
+        }
+
+        // compute failure links and the ASCII transition table in breadth first order, so that the entries of the
+        // failure state are known when a state is processed
+        Queue<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            accepting[state] |= accepting[failure[state]];
+            for (int c = 0; c < ASCII; c++) {
+                Integer next = transitions.get(state).get((char) c);
+                if (next != null) {
+                    asciiTransitions[state * ASCII + c] = next;
+                } else {
+                    asciiTransitions[state * ASCII + c] = state == 0 ? 0 : asciiTransitions[failure[state] * ASCII + c];
+                }
+            }
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                int next = transition.getValue();
+                failure[next] = state == 0 ? 0 : step(failure[state], transition.getKey());
+                queue.add(next);
+            }
+        }
+    }
+
+    /**
+     * Check if data contains one of the literals.
+     *
+     * @param data data against search will be done.
+     * @return true if one of the literals found.
+     */
+    boolean find(CharSequence data) {
+        int state = 0;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            state = c < ASCII ? asciiTransitions[state * ASCII + c] : step(state, c);
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of states of the automaton.
+     */
+    int size() {
+        return failure.length;
+    }
+
+    private int step(int state, char c) {
+        int current = state;
+        while (true) {
+            Integer next = transitions.get(current).get(c);
+            if (next != null) {
+                return next;
+            }
+            if (current == 0) {
+                return 0;
+            }
+            current = failure[current];
+        }
+    }
+}
@@ -23,12 +23,18 @@ import org.eclipse.jdt.annotation.Nullable;
 /**
  * This class implements logic for regular expression based searching.
  *
+ * Patterns which are plain strings (optionally ending with a single character repetition like ERROR+) are searched
+ * all at once by a {@link LiteralMatcher}, only the remaining patterns are searched with regular expressions.
+ * Instances are not thread safe.
+ *
  * @author Pauli Anttila - Initial contribution
  */
 public class SearchEngine {
 
-    private List<Pattern> matchers;
-    private List<Pattern> blacklistingMatchers;
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private PatternSet matchers;
+    private PatternSet blacklistingMatchers;
 
     private long matchCount;
 
@@ -50,8 +56,8 @@ public class SearchEngine {
      * @param data data against search will be done.
      * @return true if one of the search patterns found.
      */
-    public boolean isMatching(String data) {
-        if (isMatching(matchers, data)) {
+    public boolean isMatching(CharSequence data) {
+        if (matchers.find(data)) {
             if (notBlacklisted(data)) {
                 matchCount++;
                 return true;
@@ -76,9 +82,10 @@ public class SearchEngine {
      * Split pattern string and precompile search patterns.
      *
      * @param patterns patterns which will handled.
-     * @return list of precompiled patterns. If pattern parameter is null, empty list is returned.
+     * @return precompiled patterns. If pattern parameter is null, an empty set is returned.
      */
-    private List<Pattern> compilePatterns(@Nullable String patterns) throws PatternSyntaxException {
+    private PatternSet compilePatterns(@Nullable String patterns) throws PatternSyntaxException {
+        List<String> literals = new ArrayList<>();
         List<Pattern> patternsList = new ArrayList<Pattern>();
 
         if (patterns != null && !patterns.isEmpty()) {
@@ -86,26 +93,80 @@ public class SearchEngine {
             if (list.length > 0) {
 
                 for (String patternStr : list) {
-                    patternsList.add(Pattern.compile(patternStr));
+                    String literal = toLiteral(patternStr);
+                    if (literal != null) {
+                        literals.add(literal);
+                    } else {
+                        patternsList.add(Pattern.compile(patternStr));
+                    }
+                }
+            }
+        }
+        return new PatternSet(literals, patternsList);
+    }
+
+    /**
+     * Convert a regular expression to the string it searches for, if it is a plain string. A trailing + repeating
+     * the last character is dropped, as it does not change whether a line is found.
+     *
+     * @param pattern regular expression.
+     * @return string to search for or null if the pattern is not a plain string.
+     */
+    static @Nullable String toLiteral(String pattern) {
+        StringBuilder literal = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                // only escaped punctuation is a literal character, \d, \Q... are not
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) < 128
+                        && !Character.isLetterOrDigit(pattern.charAt(i + 1))) {
+                    literal.append(pattern.charAt(++i));
+                } else {
+                    return null;
                 }
+            } else if (c == '+' && i == pattern.length() - 1 && literal.length() > 0) {
+                break;
+            } else if (REGEX_META_CHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
             }
         }
-        return patternsList;
+        // an empty pattern matches everything, leave it to the regular expression engine
+        return literal.length() > 0 ? literal.toString() : null;
     }
 
-    private boolean notBlacklisted(String data) {
-        return !isMatching(blacklistingMatchers, data);
+    private boolean notBlacklisted(CharSequence data) {
+        return !blacklistingMatchers.find(data);
     }
 
-    private boolean isMatching(@Nullable List<Pattern> patterns, String data) {
-        if (patterns != null) {
-            for (Pattern pattern : patterns) {
-                Matcher matcher = pattern.matcher(data);
-                if (matcher.find()) {
+    /**
+     * Literal patterns compiled into one automaton plus the regular expressions
+     */
+    private static class PatternSet {
+        private final @Nullable LiteralMatcher literalMatcher;
+        private final Matcher[] regexMatchers;
+
+        PatternSet(List<String> literals, List<Pattern> patterns) {
+            literalMatcher = literals.isEmpty() ? null : new LiteralMatcher(literals);
+            regexMatchers = new Matcher[patterns.size()];
+            for (int i = 0; i < regexMatchers.length; i++) {
+                // matchers are reset for every line instead of being created
+                regexMatchers[i] = patterns.get(i).matcher("");
+            }
+        }
+
+        boolean find(CharSequence data) {
+            LiteralMatcher literalMatcher = this.literalMatcher;
+            if (literalMatcher != null && literalMatcher.find(data)) {
+                return true;
+            }
+            for (Matcher matcher : regexMatchers) {
+                if (matcher.reset(data).find()) {
                     return true;
                 }
             }
+            return false;
         }
-        return false;
     }
 }
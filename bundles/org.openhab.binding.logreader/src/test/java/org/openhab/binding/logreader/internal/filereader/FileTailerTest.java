@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.filereader;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.storage.Storage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.logreader.internal.filereader.api.FileReaderListener;
+
+/**
+ * Tests for {@link FileTailer}.
+ *
+ * @author agent - Initial contribution
+ */
+public class FileTailerTest {
+
+    private static final String THING_UID = "logreader:reader:openhablog";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final MapStorage storage = new MapStorage();
+    private final RecordingListener listener = new RecordingListener();
+
+    private Path file;
+    private FileTailer tailer;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile("openhab.log").toPath();
+        tailer = startTailer();
+    }
+
+    @After
+    public void tearDown() {
+        tailer.stop();
+    }
+
+    @Test
+    public void appendedLinesAreRead() throws Exception {
+        append("first\nsecond\r\nthi");
+        tailer.poll();
+        assertEquals(list("first", "second"), listener.lines);
+
+        append("rd\n");
+        tailer.poll();
+        assertEquals(list("first", "second", "third"), listener.lines);
+    }
+
+    @Test
+    public void existingContentIsSkippedWithoutStoredPosition() throws Exception {
+        tailer.stop();
+        storage.remove(THING_UID);
+        append("old\n");
+        tailer = startTailer();
+        append("new\n");
+        tailer.poll();
+        assertEquals(list("new"), listener.lines);
+    }
+
+    @Test
+    public void readingContinuesAtStoredPositionAfterRestart() throws Exception {
+        append("one\n");
+        tailer.poll();
+        tailer.stop();
+
+        append("two\nthree\n");
+        tailer = startTailer();
+        tailer.poll();
+        assertEquals(list("one", "two", "three"), listener.lines);
+    }
+
+    @Test
+    public void renamedFileIsFinishedBeforeNewFileIsRead() throws Exception {
+        append("one\n");
+        tailer.poll();
+
+        append("two\n");
+        Files.move(file, file.resolveSibling("openhab.log.1"));
+        append("three\n");
+        tailer.poll();
+
+        assertEquals(list("one", "two", "three"), listener.lines);
+        assertEquals(1, listener.rotations);
+    }
+
+    @Test
+    public void replacedFileIsReadFromStart() throws Exception {
+        append("one\n");
+        tailer.poll();
+
+        append("lost\n");
+        Path rotated = file.resolveSibling("openhab.log.1");
+        Files.move(file, rotated);
+        append("two\n");
+        // compressed by the rotation
+        Files.delete(rotated);
+        tailer.poll();
+
+        assertEquals(list("one", "two"), listener.lines);
+        assertEquals(1, listener.rotations);
+    }
+
+    @Test
+    public void storedPositionOfAnotherFileIsIgnored() throws Exception {
+        append("one\n");
+        tailer.poll();
+        tailer.stop();
+
+        Path otherFile = folder.newFile("events.log").toPath();
+        Files.write(otherFile, "old\n".getBytes(Charset.defaultCharset()));
+        tailer = new FileTailer(storage, THING_UID);
+        tailer.registerListener(listener);
+        tailer.start(otherFile.toString(), 1000, scheduler);
+        tailer.poll();
+
+        assertEquals(list("one"), listener.lines);
+        assertTrue(storage.get(THING_UID).endsWith(":" + otherFile));
+    }
+
+    @Test
+    public void truncatedFileIsReadFromStart() throws Exception {
+        append("a long line before truncation\n");
+        tailer.poll();
+
+        Files.write(file, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+        append("new\n");
+        tailer.poll();
+
+        assertEquals(list("a long line before truncation", "new"), listener.lines);
+        assertEquals(1, listener.rotations);
+    }
+
+    @Test
+    public void backlogIsReadInCatchUpMode() throws Exception {
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            chunk.append("line ").append(i).append(" of a backlog written while the reader was not running\n");
+        }
+        int lines = 0;
+        while (Files.size(file) <= FileTailer.CATCH_UP_THRESHOLD * 2) {
+            append(chunk.toString());
+            lines += 1000;
+        }
+        tailer.poll();
+
+        assertEquals(lines, listener.lines.size());
+        assertEquals("line 999 of a backlog written while the reader was not running",
+                listener.lines.get(lines - 1));
+        assertEquals(String.valueOf(Files.size(file)), storage.get(THING_UID).split(":")[0]);
+    }
+
+    @Test
+    public void overlongLineIsSplitAtCharacterBoundary() throws Exception {
+        tailer.stop();
+        tailer = new FileTailer(storage, THING_UID, StandardCharsets.UTF_8);
+        tailer.registerListener(listener);
+        tailer.start(file.toString(), 1000, scheduler);
+        tailer.poll();
+
+        StringBuilder start = new StringBuilder();
+        for (int i = 0; i < FileTailer.READ_BUFFER_SIZE - 1; i++) {
+            start.append('a');
+        }
+        // the two bytes of the umlaut are split by the end of the read window
+        Files.write(file, (start + "\u00e4b\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        tailer.poll();
+
+        assertEquals(list(start.toString(), "\u00e4b"), listener.lines);
+    }
+
+    @Test
+    public void removedPositionIsNotStoredAgain() throws Exception {
+        append("one\n");
+        tailer.poll();
+        tailer.stop();
+        assertNotNull(storage.get(THING_UID));
+
+        tailer.removePosition();
+        tailer.stop();
+        assertNull(storage.get(THING_UID));
+    }
+
+    @Test
+    public void missingFileIsReported() throws Exception {
+        tailer.stop();
+        tailer = new FileTailer(storage, THING_UID);
+        tailer.registerListener(listener);
+        tailer.start(new File(folder.getRoot(), "missing.log").getPath(), 1000, scheduler);
+        tailer.poll();
+        assertEquals(1, listener.notFound);
+    }
+
+    private FileTailer startTailer() throws Exception {
+        FileTailer tailer = new FileTailer(storage, THING_UID);
+        tailer.registerListener(listener);
+        tailer.start(file.toString(), 1000, scheduler);
+        tailer.poll();
+        return tailer;
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(file, content.getBytes(Charset.defaultCharset()), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    private List<String> list(String... lines) {
+        List<String> list = new ArrayList<>();
+        for (String line : lines) {
+            list.add(line);
+        }
+        return list;
+    }
+
+    private static class RecordingListener implements FileReaderListener {
+        final List<String> lines = new ArrayList<>();
+        int rotations;
+        int notFound;
+
+        @Override
+        public void fileNotFound() {
+            notFound++;
+        }
+
+        @Override
+        public void fileRotated() {
+            rotations++;
+        }
+
+        @Override
+        public void handle(String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void handle(Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static class MapStorage implements Storage<String> {
+        private final Map<String, String> values = new HashMap<>();
+
+        @Override
+        public @Nullable String put(String key, @Nullable String value) {
+            return values.put(key, value);
+        }
+
+        @Override
+        public @Nullable String remove(String key) {
+            return values.remove(key);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public @Nullable String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public Collection<@NonNull String> getKeys() {
+            return values.keySet();
+        }
+
+        @Override
+        public Collection<@Nullable String> getValues() {
+            return values.values();
+        }
+    }
+}
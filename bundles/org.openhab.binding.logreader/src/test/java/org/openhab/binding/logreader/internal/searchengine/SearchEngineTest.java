@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SearchEngine} and {@link LiteralMatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SearchEngineTest {
+
+    @Test
+    public void plainPatternsAreLiterals() {
+        assertEquals("ERROR", SearchEngine.toLiteral("ERROR+"));
+        assertEquals("WARN", SearchEngine.toLiteral("WARN"));
+        assertEquals("a.b", SearchEngine.toLiteral("a\\.b"));
+        assertEquals("[thing]", SearchEngine.toLiteral("\\[thing\\]"));
+        assertNull(SearchEngine.toLiteral("ERR.R"));
+        assertNull(SearchEngine.toLiteral("\\d+"));
+        assertNull(SearchEngine.toLiteral("(?i)error"));
+        assertNull(SearchEngine.toLiteral("^ERROR"));
+        assertNull(SearchEngine.toLiteral(""));
+    }
+
+    @Test
+    public void literalMatcherFindsOverlappingLiterals() {
+        LiteralMatcher matcher = new LiteralMatcher(Arrays.asList("he", "she", "hers", "his", "\u00fc\u20ac"));
+        assertTrue(matcher.find("ushers"));
+        assertTrue(matcher.find("ahishers"));
+        assertTrue(matcher.find("xx\u00fc\u20ac"));
+        assertFalse(matcher.find("hi s h"));
+        assertFalse(matcher.find(""));
+        assertFalse(matcher.find("\u00fc"));
+    }
+
+    @Test
+    public void engineMatchesLikeRegularExpressions() {
+        String patterns = "ERROR+|WARN|Exception|fail\\.ed|[Tt]imeout|\\d{3} ms";
+        String blacklist = "Ignored|thing.id";
+        SearchEngine engine = new SearchEngine(patterns, blacklist);
+
+        Pattern[] regexes = compile(patterns);
+        Pattern[] blacklistRegexes = compile(blacklist);
+        String[] words = new String[] { "ERROR", "ERRO", "WARN", "WAR", "Exception", "fail.ed", "failed", "Timeout",
+                "timeout", "123 ms", "12 ms", "Ignored", "thing-id", "thing.id", "[main]", "\u00e4", "INFO" };
+        Random random = new Random(42);
+        long expectedCount = 0;
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder line = new StringBuilder();
+            for (int j = random.nextInt(6); j > 0; j--) {
+                line.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "");
+            }
+            boolean expected = find(regexes, line) && !find(blacklistRegexes, line);
+            if (expected) {
+                expectedCount++;
+            }
+            assertEquals(line.toString(), expected, engine.isMatching(line));
+        }
+        assertEquals(expectedCount, engine.getMatchCount());
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void invalidPatternsAreRejected() {
+        new SearchEngine("ERROR|[a", null);
+    }
+
+    private Pattern[] compile(String patterns) {
+        String[] list = patterns.split("\\|");
+        Pattern[] regexes = new Pattern[list.length];
+        for (int i = 0; i < list.length; i++) {
+            regexes[i] = Pattern.compile(list[i]);
+        }
+        return regexes;
+    }
+
+    private boolean find(Pattern[] regexes, CharSequence line) {
+        for (Pattern regex : regexes) {
+            if (regex.matcher(line).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
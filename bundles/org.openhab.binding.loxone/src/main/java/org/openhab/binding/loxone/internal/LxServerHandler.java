@@ -52,6 +52,7 @@ import org.openhab.binding.loxone.internal.types.LxErrorCode;
 import org.openhab.binding.loxone.internal.types.LxResponse;
 import org.openhab.binding.loxone.internal.types.LxState;
 import org.openhab.binding.loxone.internal.types.LxUuid;
+import org.openhab.binding.loxone.internal.types.LxValueStateTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,6 +83,8 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
     // the state. It must be ensured that updates received for this state UUID are passed to all controls that have this
     // state UUID configured.
     private Map<LxUuid, Map<LxUuid, LxState>> states = new HashMap<>();
+    // Index of the above states for decoding binary value state updates, rebuilt whenever the states change
+    private volatile LxValueStateTable valueStates = new LxValueStateTable(Collections.emptyMap());
 
     private LxWebSocket socket;
     private WebSocketClient wsClient;
@@ -240,6 +243,7 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
     @Override
     public void addControl(LxControl control) {
         addControlStructures(control);
+        valueStates = new LxValueStateTable(states);
         addThingChannels(control.getChannelsWithSubcontrols(), false);
     }
 
@@ -265,6 +269,7 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
                 }
             }
         });
+        valueStates = new LxValueStateTable(states);
 
         ThingBuilder builder = editThing();
         control.getChannels().forEach(channel -> {
@@ -359,6 +364,7 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
         controls.clear();
         channels.clear();
         states.clear();
+        valueStates = new LxValueStateTable(states);
         dynamicStateDescriptionProvider.removeAllDescriptions();
     }
 
@@ -394,6 +400,8 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
         } else {
             logger.warn("[{}] no controls received in Miniserver configuration.", debugId);
         }
+        valueStates = new LxValueStateTable(states);
+        logger.trace("[{}] indexed {} value states.", debugId, valueStates.size());
         addThingChannels(list, true);
         updateStatus(ThingStatus.ONLINE);
     }
@@ -415,6 +423,19 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
         }
     }
 
+    /**
+     * Update states with a table of new values received from Miniserver. Only states whose value has changed since the
+     * last update are updated.
+     *
+     * @param data   binary message with the table of value states
+     * @param offset offset of the table in the message
+     * @param length length of the table
+     */
+    void updateValueStates(byte data[], int offset, int length) {
+        int changed = valueStates.update(data, offset, length);
+        logger.trace("[{}] {} of {} value states changed.", debugId, changed, length / LxValueStateTable.ENTRY_SIZE);
+    }
+
     /**
      * Set thing status to offline and start attempts to establish a new connection to the Miniserver after a delay
      * depending of the reason for going offline.
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.loxone.internal.types;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Index of all states that receive value updates from the Miniserver.
+ * <p>
+ * Miniserver sends value states in binary tables, where each entry consists of a 16 bytes state UUID followed by a
+ * little endian double value. This index is built once from the structure file and decodes such tables without
+ * allocating objects per entry. UUIDs are read as two primitive long values and looked up in an open addressing hash
+ * table. Only states whose value has actually changed since the last update are passed the new value.
+ *
+ * @author agent - initial contribution
+ *
+ */
+public class LxValueStateTable {
+    /**
+     * Size of a single entry in a value states table
+     */
+    public static final int ENTRY_SIZE = 24;
+
+    private final long[] keysLow;
+    private final long[] keysHigh;
+    private final LxState[][] states;
+    private final long[] values;
+    private final boolean[] valueKnown;
+    private final int mask;
+    private int size;
+
+    /**
+     * Creates an index from the states of all controls.
+     *
+     * @param stateMap map of state UUID to a map of control UUID and state objects
+     */
+    public LxValueStateTable(Map<LxUuid, Map<LxUuid, LxState>> stateMap) {
+        int capacity = Integer.highestOneBit(Math.max(stateMap.size(), 8) * 2 - 1) << 1;
+        keysLow = new long[capacity];
+        keysHigh = new long[capacity];
+        states = new LxState[capacity][];
+        values = new long[capacity];
+        valueKnown = new boolean[capacity];
+        mask = capacity - 1;
+
+        stateMap.forEach((uuid, perUuid) -> {
+            String hex = uuid.toString().replace("-", "");
+            if (hex.length() != 32 || perUuid.isEmpty()) {
+                return;
+            }
+            try {
+                long low = (Long.parseLong(hex.substring(0, 8), 16)) | (Long.parseLong(hex.substring(8, 12), 16) << 32)
+                        | (Long.parseLong(hex.substring(12, 16), 16) << 48);
+                long high = Long.reverseBytes(Long.parseUnsignedLong(hex.substring(16, 32), 16));
+                add(low, high, perUuid.values());
+            } catch (NumberFormatException e) {
+                // not a UUID that can be received in a binary message
+            }
+        });
+    }
+
+    private void add(long low, long high, Collection<LxState> perUuid) {
+        int slot = hash(low, high) & mask;
+        while (states[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keysLow[slot] = low;
+        keysHigh[slot] = high;
+        states[slot] = perUuid.toArray(new LxState[perUuid.size()]);
+        size++;
+    }
+
+    /**
+     * Decodes a table of value states and updates all states whose value has changed.
+     *
+     * @param data   binary message received from the Miniserver
+     * @param offset offset of the first entry in the message
+     * @param length length of the table in bytes
+     * @return number of entries with a changed value
+     */
+    public int update(byte[] data, int offset, int length) {
+        int changed = 0;
+        int end = offset + length - ENTRY_SIZE;
+        for (int pos = offset; pos <= end; pos += ENTRY_SIZE) {
+            long low = readLong(data, pos);
+            long high = readLong(data, pos + 8);
+            int slot = hash(low, high) & mask;
+            LxState[] perUuid;
+            while ((perUuid = states[slot]) != null && (keysLow[slot] != low || keysHigh[slot] != high)) {
+                slot = (slot + 1) & mask;
+            }
+            if (perUuid == null) {
+                continue;
+            }
+            long value = readLong(data, pos + 16);
+            if (valueKnown[slot] && values[slot] == value) {
+                continue;
+            }
+            values[slot] = value;
+            valueKnown[slot] = true;
+            changed++;
+            Double stateValue = Double.longBitsToDouble(value);
+            for (LxState state : perUuid) {
+                state.setStateValue(stateValue);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns number of indexed state UUIDs.
+     *
+     * @return number of state UUIDs
+     */
+    public int size() {
+        return size;
+    }
+
+    private static long readLong(byte[] data, int offset) {
+        return (data[offset] & 0xFFL) | (data[offset + 1] & 0xFFL) << 8 | (data[offset + 2] & 0xFFL) << 16
+                | (data[offset + 3] & 0xFFL) << 24 | (data[offset + 4] & 0xFFL) << 32
+                | (data[offset + 5] & 0xFFL) << 40 | (data[offset + 6] & 0xFFL) << 48
+                | (data[offset + 7] & 0xFFL) << 56;
+    }
+
+    private static int hash(long low, long high) {
+        long h = (low ^ high * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.loxone.internal.types;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.loxone.internal.controls.LxControl;
+import org.openhab.binding.loxone.internal.controls.LxServerHandlerDummy;
+
+/**
+ * Test class for {@link LxValueStateTable}, decodes state dumps built from the test Miniserver configuration.
+ *
+ * @author agent - initial contribution
+ *
+ */
+public class LxValueStateTableTest {
+    private Map<LxUuid, Map<LxUuid, LxState>> states = new HashMap<>();
+    private List<LxUuid> uuids = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        LxServerHandlerDummy handler = new LxServerHandlerDummy();
+        InputStream stream = LxServerHandlerDummy.class.getResourceAsStream("LoxAPP3.json");
+        assertNotNull(stream);
+        LxConfig config = handler.getGson().fromJson(new InputStreamReader(stream, StandardCharsets.UTF_8),
+                LxConfig.class);
+        config.finalize(handler);
+        config.controls.values().forEach(this::addStates);
+        states.keySet().forEach(uuid -> {
+            if (uuid.toString().replace("-", "").matches("[0-9A-F]{32}")) {
+                uuids.add(uuid);
+            }
+        });
+        assertFalse(uuids.isEmpty());
+    }
+
+    @Test
+    public void testUpdateAllStates() {
+        LxValueStateTable table = new LxValueStateTable(states);
+        assertEquals(uuids.size(), table.size());
+
+        byte[] dump = createStateDump(1, 0.0);
+        assertEquals(uuids.size(), table.update(dump, 0, dump.length));
+        for (int i = 0; i < uuids.size(); i++) {
+            for (LxState state : states.get(uuids.get(i)).values()) {
+                assertEquals(Double.valueOf(i), state.getStateValue());
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyChangedValuesAreUpdated() {
+        LxValueStateTable table = new LxValueStateTable(states);
+        byte[] dump = createStateDump(1, 0.0);
+        table.update(dump, 0, dump.length);
+        assertEquals(0, table.update(dump, 0, dump.length));
+
+        // change the value of the last entry
+        ByteBuffer.wrap(dump).order(ByteOrder.LITTLE_ENDIAN).putDouble(dump.length - 8, 1234.5);
+        assertEquals(1, table.update(dump, 0, dump.length));
+        for (LxState state : states.get(uuids.get(uuids.size() - 1)).values()) {
+            assertEquals(Double.valueOf(1234.5), state.getStateValue());
+        }
+    }
+
+    @Test
+    public void testUnknownAndTruncatedEntries() {
+        LxValueStateTable table = new LxValueStateTable(states);
+        byte[] dump = new byte[LxValueStateTable.ENTRY_SIZE * 2 + 10];
+        ByteBuffer buffer = ByteBuffer.wrap(dump).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0x0123456789ABCDEFL).putLong(0x0123456789ABCDEFL).putDouble(1.0);
+        putUuid(buffer, uuids.get(0));
+        buffer.putDouble(2.0);
+
+        assertEquals(1, table.update(dump, 0, dump.length));
+        for (LxState state : states.get(uuids.get(0)).values()) {
+            assertEquals(Double.valueOf(2.0), state.getStateValue());
+        }
+    }
+
+    @Test
+    public void testRepeatedEntriesInLargeDump() {
+        // the initial state dump of a large Miniserver, simulated by repeating the states of the test configuration
+        LxValueStateTable table = new LxValueStateTable(states);
+        for (int i = 0; i < 3; i++) {
+            byte[] dump = createStateDump(5, i);
+            // every state changes once per dump, its repetitions carry the same value
+            assertEquals(uuids.size(), table.update(dump, 0, dump.length));
+            for (int j = 0; j < uuids.size(); j++) {
+                for (LxState state : states.get(uuids.get(j)).values()) {
+                    assertEquals(Double.valueOf(j + i), state.getStateValue());
+                }
+            }
+        }
+    }
+
+    private void addStates(LxControl control) {
+        control.getStates().values().forEach(state -> {
+            states.computeIfAbsent(state.getUuid(), uuid -> new HashMap<>()).put(control.getUuid(), state);
+        });
+        control.getSubControls().values().forEach(this::addStates);
+    }
+
+    private byte[] createStateDump(int repetitions, double valueOffset) {
+        ByteBuffer buffer = ByteBuffer.allocate(repetitions * uuids.size() * LxValueStateTable.ENTRY_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int r = 0; r < repetitions; r++) {
+            for (int i = 0; i < uuids.size(); i++) {
+                putUuid(buffer, uuids.get(i));
+                buffer.putDouble(i + valueOffset);
+            }
+        }
+        return buffer.array();
+    }
+
+    private void putUuid(ByteBuffer buffer, LxUuid uuid) {
+        String hex = uuid.toString().replace("-", "");
+        buffer.putInt((int) Long.parseLong(hex.substring(0, 8), 16));
+        buffer.putShort((short) Integer.parseInt(hex.substring(8, 12), 16));
+        buffer.putShort((short) Integer.parseInt(hex.substring(12, 16), 16));
+        for (int i = 16; i < 32; i += 2) {
+            buffer.put((byte) Integer.parseInt(hex.substring(i, i + 2), 16));
+        }
+    }
+}
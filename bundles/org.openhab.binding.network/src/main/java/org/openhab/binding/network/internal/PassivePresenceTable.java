@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PassivePresenceTable} keeps track of all devices that have been noticed on the network without actively
+ * probing them. It is fed by the DHCP packets received by the DHCP listener and by the neighbour (ARP) table of the
+ * operating system.
+ *
+ * Entries are indexed by MAC and by IP address. A device that gets a new IP address keeps its entry, only the IP
+ * index is moved. A {@link PresenceDetection} consults this table first and only performs active probes for hosts
+ * that have not been noticed within its refresh interval.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PassivePresenceTable {
+    /** Minimum time between two reads of the neighbour table of the operating system */
+    static final long ARP_TABLE_REFRESH_MS = 5000;
+
+    private static final PassivePresenceTable INSTANCE = new PassivePresenceTable(new NetworkUtils());
+
+    private final Logger logger = LoggerFactory.getLogger(PassivePresenceTable.class);
+    private final NetworkUtils networkUtils;
+
+    private final Map<String, Entry> byMac = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byIp = new ConcurrentHashMap<>();
+    private @Nullable Map<String, String> lastArpTable;
+    private long lastArpTableRead = 0;
+
+    /**
+     * A device that has been noticed on the network
+     */
+    public static class Entry {
+        private final String macAddress;
+        private volatile @Nullable String ipAddress;
+        private volatile long lastSeen;
+        private volatile PresenceDetectionType source;
+
+        Entry(String macAddress, long lastSeen, PresenceDetectionType source) {
+            this.macAddress = macAddress;
+            this.lastSeen = lastSeen;
+            this.source = source;
+        }
+
+        public String getMacAddress() {
+            return macAddress;
+        }
+
+        public @Nullable String getIpAddress() {
+            return ipAddress;
+        }
+
+        /**
+         * Return the last seen value in milliseconds based on {@link System#currentTimeMillis()}.
+         */
+        public long getLastSeen() {
+            return lastSeen;
+        }
+
+        /**
+         * Return the kind of traffic the device has been noticed by last.
+         */
+        public PresenceDetectionType getSource() {
+            return source;
+        }
+    }
+
+    PassivePresenceTable(NetworkUtils networkUtils) {
+        this.networkUtils = networkUtils;
+    }
+
+    /**
+     * Return the table shared by the whole binding.
+     */
+    public static PassivePresenceTable getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record that a device has been noticed on the network.
+     *
+     * @param macAddress The hardware address of the device
+     * @param ipAddress The IPv4 address of the device or null if the device has no address yet
+     * @param source The kind of traffic the device has been noticed by
+     * @param timestamp The time the device has been noticed in milliseconds
+     */
+    public synchronized void seen(String macAddress, @Nullable String ipAddress, PresenceDetectionType source,
+            long timestamp) {
+        final String mac = macAddress.toLowerCase(Locale.ROOT);
+        Entry entry = byMac.get(mac);
+        if (entry == null) {
+            entry = new Entry(mac, timestamp, source);
+            byMac.put(mac, entry);
+        } else if (timestamp > entry.lastSeen) {
+            entry.lastSeen = timestamp;
+            entry.source = source;
+        }
+
+        if (ipAddress != null && !ipAddress.equals(entry.ipAddress)) {
+            String oldIpAddress = entry.ipAddress;
+            if (oldIpAddress != null) {
+                byIp.remove(oldIpAddress, entry);
+            }
+            Entry previousOwner = byIp.put(ipAddress, entry);
+            if (previousOwner != null) {
+                // The address has been handed out to another device
+                previousOwner.ipAddress = null;
+            }
+            entry.ipAddress = ipAddress;
+            logger.trace("Device {} uses address {} now", mac, ipAddress);
+        }
+    }
+
+    /**
+     * Return the entry of the device with the given IP address. The neighbour table of the operating system is
+     * read before if it has not been read for {@link #ARP_TABLE_REFRESH_MS}.
+     *
+     * @param ipAddress The IPv4 address
+     * @return The entry or null if the address has not been noticed yet
+     */
+    public @Nullable Entry getByIp(String ipAddress) {
+        refreshArpTable(System.currentTimeMillis());
+        return byIp.get(ipAddress);
+    }
+
+    /**
+     * Return the entry of the device with the given hardware address.
+     *
+     * @param macAddress The hardware address
+     * @return The entry or null if the device has not been noticed yet
+     */
+    public @Nullable Entry getByMac(String macAddress) {
+        return byMac.get(macAddress.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Return the number of tracked devices.
+     */
+    public int size() {
+        return byMac.size();
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void clear() {
+        byMac.clear();
+        byIp.clear();
+        lastArpTable = null;
+        lastArpTableRead = 0;
+    }
+
+    private void refreshArpTable(long now) {
+        synchronized (this) {
+            if (lastArpTableRead != 0 && now - lastArpTableRead < ARP_TABLE_REFRESH_MS) {
+                return;
+            }
+            lastArpTableRead = now;
+        }
+        mergeArpTable(networkUtils.getArpTable(), networkUtils.getReachableNeighbours(), now);
+    }
+
+    /**
+     * Merge a snapshot of the neighbour table. The table itself does not tell when a device has answered last.
+     * Entries that the kernel has confirmed as REACHABLE count as a sighting at the time of the snapshot, even if
+     * the mapping is unchanged, so devices that stay on the network keep refreshing their last seen value. For all
+     * other entries, e.g. STALE ones or if the neighbour states are not available, only mappings that are new or
+     * changed since the previous snapshot count as a sighting. Such mappings of the first snapshot may be
+     * arbitrarily old, they only seed the address index without a sighting.
+     *
+     * @param arpTable A map of IPv4 addresses to MAC addresses
+     * @param reachable The IPv4 addresses of the neighbours in the REACHABLE state
+     * @param timestamp The time of the snapshot in milliseconds
+     */
+    synchronized void mergeArpTable(Map<String, String> arpTable, Set<String> reachable, long timestamp) {
+        final Map<String, String> previous = lastArpTable;
+        for (Map.Entry<String, String> mapping : arpTable.entrySet()) {
+            if (reachable.contains(mapping.getKey())) {
+                seen(mapping.getValue(), mapping.getKey(), PresenceDetectionType.ARP_TABLE, timestamp);
+            } else if (previous == null) {
+                seen(mapping.getValue(), mapping.getKey(), PresenceDetectionType.ARP_TABLE, 0);
+            } else if (!mapping.getValue().equalsIgnoreCase(previous.get(mapping.getKey()))) {
+                seen(mapping.getValue(), mapping.getKey(), PresenceDetectionType.ARP_TABLE, timestamp);
+            }
+        }
+        lastArpTable = new HashMap<>(arpTable);
+    }
+
+    /**
+     * Merge a snapshot of the neighbour table without neighbour states.
+     *
+     * @see #mergeArpTable(Map, Set, long)
+     */
+    void mergeArpTable(Map<String, String> arpTable, long timestamp) {
+        mergeArpTable(arpTable, Collections.emptySet(), timestamp);
+    }
+}
@@ -17,10 +17,13 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +38,7 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +55,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     public static final int DESTINATION_TTL = 300 * 1000; // in ms, 300 s
 
     NetworkUtils networkUtils = new NetworkUtils();
+    PassivePresenceTable passivePresenceTable = PassivePresenceTable.getInstance();
     private final Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
 
     /// Configuration variables
@@ -66,6 +71,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private long refreshIntervalInMS = 60000;
     private int timeoutInMS = 5000;
     private long lastSeenInMS;
+    private long detectionStartInMS;
 
     private @NonNullByDefault({}) String hostname;
     private @NonNullByDefault({}) ExpiringCache<@Nullable InetAddress> destination;
@@ -76,6 +82,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
     protected @Nullable ExecutorService executorService;
+    private List<CompletableFuture<?>> serviceChecks = new ArrayList<>();
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
@@ -271,14 +278,20 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+    /**
+     * Return an executor for the checks of one detection run. The checks are executed on the
+     * thread pool shared by all presence detections, no threads are created per detection run.
+     */
+    public ExecutorService createExecutorService() {
+        return PresenceProbeEngine.getInstance().newTaskGroup();
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously, unless the device has been noticed recently
+     * by passive DHCP or ARP monitoring, see {@link PassivePresenceTable}. The pings are executed on the shared thread
+     * pool of the {@link PresenceProbeEngine}, TCP connection attempts are multiplexed by its selector and do not
+     * occupy a thread at all.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -303,6 +316,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
+        if (checkPassivePresence()) {
+            return true;
+        }
+
         Set<String> interfaceNames = null;
 
         currentCheck = 0;
@@ -319,22 +336,20 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
+        detectionStartInMS = System.currentTimeMillis();
+        final ExecutorService executorService = createExecutorService();
         this.executorService = executorService;
 
+        final List<CompletableFuture<?>> serviceChecks = new ArrayList<>();
+        this.serviceChecks = serviceChecks;
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            serviceChecks.add(performServicePing(tcpPort).whenComplete((result, e) -> checkIfFinished()));
         }
 
         // ARP ping for IPv4 addresses. Use single executor for Windows tool and 
         // each own executor for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
             executorService.execute(() -> {
-               Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
                // arp-ping.exe tool capable of handling multiple interfaces by itself
                performARPping("");
                checkIfFinished();
@@ -342,7 +357,6 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         } else if (interfaceNames != null) {                        
             for (final String interfaceName : interfaceNames) {
                 executorService.execute(() -> {
-                   Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
                    performARPping(interfaceName);
                    checkIfFinished();
                });               
@@ -353,7 +367,6 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (pingMethod != null) {
             executorService.execute(() -> {
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
@@ -369,6 +382,33 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return true;
     }
 
+    /**
+     * Consult the {@link PassivePresenceTable}. If the device has been noticed by DHCP or ARP traffic
+     * within the refresh interval, the device is reported as reachable without any active probe.
+     * This only applies to pinged devices: traffic of a host does not tell whether a TCP service is reachable.
+     *
+     * @return Return true if the device has been noticed recently and a final result was submitted.
+     */
+    private boolean checkPassivePresence() {
+        if (!tcpPorts.isEmpty()) {
+            return false;
+        }
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return false;
+        }
+        PassivePresenceTable.Entry entry = passivePresenceTable.getByIp(destinationAddress.getHostAddress());
+        if (entry == null || entry.getLastSeen() + refreshIntervalInMS < System.currentTimeMillis()) {
+            // Unknown or gone quiet, fall back to active probes
+            return false;
+        }
+        logger.trace("{} has been noticed passively by {}, skipping active probes", hostname, entry.getSource());
+        PresenceDetectionValue v = updateReachableValue(entry.getSource(), 0, entry.getLastSeen());
+        updateListener.partialDetectionResult(v);
+        updateListener.finalDetectionResult(v);
+        return true;
+    }
+
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
@@ -390,7 +430,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
         // The cache will be expired by now if cache_time < timeoutInMS. But the device might be actually reachable.
         // Therefore use lastSeenInMS here and not cache.isExpired() to determine if we got a ping response.
-        if (lastSeenInMS + timeoutInMS + 100 < System.currentTimeMillis()) {
+        // Checks may have waited for the shared thread pool, so the run can take longer than timeoutInMS.
+        if (lastSeenInMS < detectionStartInMS) {
             // We haven't seen the device in the detection process
             v = new PresenceDetectionValue(hostname, -1);
         } else {
@@ -421,8 +462,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     }
 
     /**
-     * Waits for the presence detection threads to finish. Returns immediately
+     * Waits for the presence detection checks to finish. Returns immediately
      * if no presence detection is performed right now.
+     *
+     * Checks that are still queued on the shared thread pool are waited for, the timeout of each check
+     * is counted from the moment it is actually started. Only checks that exceed their timeout are cancelled,
+     * so a busy thread pool delays the result but does not turn a reachable device into an unreachable one.
      */
     public void waitForPresenceDetection() {
         ExecutorService service = executorService;
@@ -431,7 +476,16 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            // TCP connection attempts always complete, at the latest after their timeout.
+            CompletableFuture.allOf(serviceChecks.toArray(new CompletableFuture<?>[0])).get();
+            if (service instanceof PresenceProbeEngine.TaskGroup) {
+                ((PresenceProbeEngine.TaskGroup) service).awaitCompletion(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            } else {
+                service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            }
+            submitFinalResult();
+        } catch (ExecutionException e) {
+            // The connection attempts never complete exceptionally
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
@@ -452,7 +506,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return The non expired or a new instance of PresenceDetectionValue.
      */
     synchronized PresenceDetectionValue updateReachableValue(PresenceDetectionType type, double latency) {
-        lastSeenInMS = System.currentTimeMillis();
+        return updateReachableValue(type, latency, System.currentTimeMillis());
+    }
+
+    private synchronized PresenceDetectionValue updateReachableValue(PresenceDetectionType type, double latency,
+            long seenInMS) {
+        lastSeenInMS = Math.max(lastSeenInMS, seenInMS);
         PresenceDetectionValue v;
         if (cache.isExpired()) {
             v = new PresenceDetectionValue(hostname, 0);
@@ -465,21 +524,35 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
+    /**
+     * Performs a TCP connection attempt without blocking the calling thread. The result is
+     * processed on the selector thread of the {@link PresenceProbeEngine}.
+     *
+     * @param tcpPort The TCP port
+     * @return A future that is completed as soon as the connection attempt has finished
+     */
+    protected CompletableFuture<?> performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
         try {
-            double pingTime = System.nanoTime();
             InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null
-                    && networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
-                v.addReachableTcpService(tcpPort);
-                updateListener.partialDetectionResult(v);
+            if (destinationAddress == null) {
+                return CompletableFuture.completedFuture(null);
             }
+            final double pingTime = System.nanoTime();
+            return networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)
+                    .thenAccept(reachable -> {
+                        if (reachable) {
+                            final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+                            PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
+                                    latency);
+                            v.addReachableTcpService(tcpPort);
+                            updateListener.partialDetectionResult(v);
+                        }
+                    });
         } catch (IOException e) {
             // This should not happen and might be a user configuration issue, we log a warning message therefore.
             logger.warn("Could not create a socket connection", e);
+            return CompletableFuture.completedFuture(null);
         }
     }
 
@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -93,6 +94,8 @@ class DHCPPacket {
     }
 
     private byte op;
+    private byte[] ciaddr = new byte[4];
+    private byte[] chaddr = new byte[0];
     private Map<Byte, byte[]> options;
 
     /**
@@ -107,6 +110,14 @@ class DHCPPacket {
         }
     }
 
+    /**
+     * Package private constructor for test suite.
+     */
+    DHCPPacket(byte[] messageType, byte @Nullable [] requestedIP, byte[] hardwareAddress) {
+        this(messageType, requestedIP);
+        this.chaddr = hardwareAddress;
+    }
+
     /**
      * Constructor for the <tt>DHCPPacket</tt> class. Parses the given datagram.
      */
@@ -137,16 +148,17 @@ class DHCPPacket {
         // parse static part of packet
         this.op = inStream.readByte();
         inStream.readByte(); // read hardware type (ETHERNET)
-        inStream.readByte(); // read hardware address length (6 bytes)
+        int hlen = Math.min(Math.max(inStream.readByte(), 0), 16); // read hardware address length (6 bytes)
         inStream.readByte(); // read hops
         inStream.readInt(); // read transaction id
         inStream.readShort(); // read secsonds elapsed
         inStream.readShort(); // read flags
-        inStream.readFully(dummy, 0, 4); // ciaddr
+        inStream.readFully(ciaddr, 0, 4); // ciaddr
         inStream.readFully(dummy, 0, 4); // yiaddr
         inStream.readFully(dummy, 0, 4); // siaddr
         inStream.readFully(dummy, 0, 4); // giaddr
         inStream.readFully(dummy, 0, 16); // chaddr
+        chaddr = Arrays.copyOf(dummy, hlen);
         inStream.readFully(dummy, 0, 64); // sname
         inStream.readFully(dummy, 0, 128); // file
 
@@ -236,4 +248,35 @@ class DHCPPacket {
         }
         return InetAddress.getByAddress(opt);
     }
+
+    /**
+     * Returns the client hardware address (chaddr field) formatted like "00:11:22:aa:bb:cc".
+     *
+     * @return the hardware address, or <tt>null</tt> if not present.
+     */
+    public @Nullable String getClientHardwareAddress() {
+        if (chaddr.length == 0) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(chaddr.length * 3);
+        for (byte b : chaddr) {
+            if (builder.length() > 0) {
+                builder.append(':');
+            }
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the client IP address (ciaddr field), which is only filled in by clients that already own an address.
+     *
+     * @return the client address, or <tt>null</tt> if not set.
+     */
+    public @Nullable InetAddress getClientIPAddress() throws UnknownHostException {
+        if (ciaddr[0] == 0 && ciaddr[1] == 0 && ciaddr[2] == 0 && ciaddr[3] == 0) {
+            return null;
+        }
+        return InetAddress.getByAddress(ciaddr);
+    }
 }
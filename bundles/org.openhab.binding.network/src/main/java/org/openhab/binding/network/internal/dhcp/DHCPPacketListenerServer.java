@@ -23,12 +23,15 @@ import java.net.UnknownHostException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.PassivePresenceTable;
+import org.openhab.binding.network.internal.PresenceDetectionType;
 import org.openhab.binding.network.internal.dhcp.DHCPPacket.BadPacketException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Receives UDP messages and try to parse them as DHCP messages.
+ * All client messages are recorded in the {@link PassivePresenceTable}.
  * First try to listen to the DHCP port 67 and if that failes because of missing access rights,
  * port 6767 will be opened instead (and the user is required to setup a port forarding).
  *
@@ -43,6 +46,7 @@ public class DHCPPacketListenerServer extends Thread {
     Logger logger = LoggerFactory.getLogger(DHCPPacketListenerServer.class);
     private boolean useUnprevilegedPort = false;
     private final IPRequestReceivedCallback listener;
+    PassivePresenceTable presenceTable = PassivePresenceTable.getInstance();
 
     DHCPPacketListenerServer(IPRequestReceivedCallback listener) throws SocketException, BindException {
         this.listener = listener;
@@ -69,6 +73,7 @@ public class DHCPPacketListenerServer extends Thread {
         }
 
         Byte dhcpMessageType = request.getDHCPMessageType();
+        recordPresence(request, dhcpMessageType, udpRemote);
 
         if (dhcpMessageType != DHCPPacket.DHCPREQUEST) {
             return; // skipping non DHCPREQUEST message types
@@ -87,6 +92,31 @@ public class DHCPPacketListenerServer extends Thread {
         listener.dhcpRequestReceived(requestedAddress.getHostAddress());
     }
 
+    /**
+     * Every DHCP message of a client proves that the device is present. Feed the passive presence table
+     * with the client hardware address and the address the client owns or asks for.
+     */
+    private void recordPresence(DHCPPacket request, @Nullable Byte dhcpMessageType, @Nullable InetAddress udpRemote)
+            throws UnknownHostException {
+        String macAddress = request.getClientHardwareAddress();
+        if (macAddress == null || dhcpMessageType == null || dhcpMessageType == DHCPPacket.DHCPRELEASE
+                || dhcpMessageType == DHCPPacket.DHCPDECLINE) {
+            return;
+        }
+        InetAddress address = null;
+        if (dhcpMessageType == DHCPPacket.DHCPREQUEST) {
+            address = request.getRequestedIPAddress();
+        }
+        if (address == null) {
+            address = request.getClientIPAddress();
+        }
+        if (address == null && dhcpMessageType != DHCPPacket.DHCPDISCOVER) {
+            address = udpRemote;
+        }
+        String ipAddress = address != null && !address.isAnyLocalAddress() ? address.getHostAddress() : null;
+        presenceTable.seen(macAddress, ipAddress, PresenceDetectionType.DHCP_REQUEST, System.currentTimeMillis());
+    }
+
     @Override
     public void run() {
         try {
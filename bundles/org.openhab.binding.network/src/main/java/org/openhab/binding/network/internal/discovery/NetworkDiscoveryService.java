@@ -14,13 +14,18 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.internal.NetworkBindingConstants.*;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -37,6 +42,8 @@ import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine.ConnectResult;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -48,6 +55,7 @@ import org.slf4j.LoggerFactory;
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * The TCP connection attempts to all IPs are performed concurrently by the {@link PresenceProbeEngine}.
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
@@ -65,8 +73,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     // TCP port 1025 (Xbox / MS-RPC)
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
-    private @Nullable ExecutorService executorService = null;
+    private @Nullable CompletableFuture<Void> scanFuture = null;
+    private final List<CompletableFuture<ConnectResult>> connectProbes = new ArrayList<>();
+    private int scanGeneration = 0;
+    private int pendingDetections = 0;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
@@ -96,9 +106,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
-        }
+        stopScan();
         super.deactivate();
     }
 
@@ -117,67 +125,196 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
 
     @Override
     public void finalDetectionResult(PresenceDetectionValue value) {
+        detectionFinished();
+    }
+
+    private void detectionFinished() {
+        synchronized (this) {
+            if (pendingDetections == 0 || --pendingDetections > 0) {
+                return;
+            }
+        }
+        logger.trace("Scan finished using ICMP and ARP pings");
+        stopScan();
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Scans each IP on each interface on the network. All TCP connection attempts are multiplexed by the
+     * {@link PresenceProbeEngine}, a host that accepts or refuses a connection is reachable. Afterwards the
+     * neighbour table of the operating system is consulted for hosts that answered the ARP requests of the
+     * connection attempts only. The hosts that are not in the neighbour table are probed with ICMP and ARP
+     * pings on the shared thread pool.
      */
     @Override
     protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
+        final int generation;
+        synchronized (this) {
+            generation = ++scanGeneration;
+        }
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
+        final Set<String> reachableIPs = ConcurrentHashMap.newKeySet();
+        final List<CompletableFuture<?>> probes = new ArrayList<>();
+        final PresenceProbeEngine engine = PresenceProbeEngine.getInstance();
+        final long startTime = System.currentTimeMillis();
 
         for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
+            InetAddress address;
+            try {
+                address = InetAddress.getByName(ip);
+                // iOS devices only answer ARP requests after a wake up on the Bonjour port
+                networkUtils.wakeUpIOS(address);
+            } catch (IOException e) {
+                logger.trace("Failed to wake up {}", ip, e);
+                continue;
+            }
+            for (int tcpPort : tcpServicePorts) {
+                CompletableFuture<ConnectResult> connect = engine
+                        .connect(new InetSocketAddress(address, tcpPort), PING_TIMEOUT_IN_MS);
+                synchronized (this) {
+                    if (generation != scanGeneration) {
+                        // the scan has been stopped in the meantime
+                        connect.cancel(false);
+                        return;
+                    }
+                    connectProbes.add(connect);
+                }
+                probes.add(connect.thenAccept(result -> {
+                    if (!isCurrentScan(generation)) {
+                        return;
+                    }
+                    if (result == ConnectResult.CONNECTED) {
+                        reachableIPs.add(ip);
+                        newServiceDevice(ip, tcpPort);
+                    } else if (result == ConnectResult.REFUSED && reachableIPs.add(ip)) {
+                        newPingDevice(ip);
+                    }
+                }));
+            }
+        }
+
+        final CompletableFuture<Void> scan = CompletableFuture
+                .allOf(probes.toArray(new CompletableFuture<?>[probes.size()]));
+        synchronized (this) {
+            if (generation != scanGeneration) {
+                return;
+            }
+            scanFuture = scan;
+        }
+        scan.thenRunAsync(() -> {
+            logger.trace("TCP scan of {} IPs finished in {} ms, {} hosts reachable", networkIPs.size(),
+                    System.currentTimeMillis() - startTime, reachableIPs.size());
+            Set<String> silentIPs = new HashSet<>(networkIPs);
+            silentIPs.removeAll(reachableIPs);
+            scanSilentHosts(silentIPs, generation);
+        }, engine.getExecutor());
+    }
+
+    /**
+     * Check if a scan is still running, results of stopped scans are dropped.
+     *
+     * @param generation The generation of the scan, counted up on every start and stop
+     */
+    private synchronized boolean isCurrentScan(int generation) {
+        return generation == scanGeneration;
+    }
+
+    /**
+     * Find hosts that did not answer a TCP connection attempt.
+     *
+     * @param silentIPs The IPs that are not known to be reachable yet
+     * @param generation The generation of the scan
+     */
+    private void scanSilentHosts(Set<String> silentIPs, int generation) {
+        if (!isCurrentScan(generation)) {
+            return;
+        }
+        // Hosts that answered the ARP requests of the connection attempts are known to be reachable,
+        // only the hosts missing from the neighbour table are pinged
+        Map<String, String> arpTable = networkUtils.getArpTable();
+        Set<String> unknownIPs = new HashSet<>();
+        for (String ip : silentIPs) {
+            if (arpTable.containsKey(ip)) {
+                if (!isCurrentScan(generation)) {
+                    return;
+                }
+                newPingDevice(ip);
+            } else {
+                unknownIPs.add(ip);
+            }
+        }
+        logger.trace("{} hosts found in the ARP table, pinging {} hosts", silentIPs.size() - unknownIPs.size(),
+                unknownIPs.size());
+
+        synchronized (this) {
+            if (generation != scanGeneration) {
+                return;
+            }
+            pendingDetections = unknownIPs.size();
+        }
+        if (unknownIPs.isEmpty()) {
+            stopScan();
+            return;
+        }
+        final ScanListener listener = new ScanListener(generation);
+        for (String ip : unknownIPs) {
+            final PresenceDetection s = new PresenceDetection(listener, 2000);
             s.setHostname(ip);
             s.setIOSDevice(true);
             s.setUseDhcpSniffing(false);
             s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
+            // Ping devices, the TCP ports have been checked already
             s.setUseIcmpPing(true);
             s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
-            });
+            s.setServicePorts(Collections.emptySet());
+            if (!s.performPresenceDetection(false) && isCurrentScan(generation)) {
+                detectionFinished();
+            }
         }
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
+        // drop all results that are still on the way
+        scanGeneration++;
+        for (CompletableFuture<ConnectResult> connect : connectProbes) {
+            connect.cancel(false);
         }
+        connectProbes.clear();
+        final CompletableFuture<Void> scan = scanFuture;
+        if (scan != null) {
+            scan.cancel(false);
+            scanFuture = null;
+        }
+        pendingDetections = 0;
+    }
+
+    /**
+     * Forwards the results of the presence detections of a scan as long as the scan is running.
+     */
+    private class ScanListener implements PresenceDetectionListener {
+        private final int generation;
 
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
+        ScanListener(int generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public void partialDetectionResult(PresenceDetectionValue value) {
+            if (isCurrentScan(generation)) {
+                NetworkDiscoveryService.this.partialDetectionResult(value);
+            }
+        }
+
+        @Override
+        public void finalDetectionResult(PresenceDetectionValue value) {
+            if (isCurrentScan(generation)) {
+                detectionFinished();
+            }
         }
-        service.shutdown();
-        executorService = null;
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -186,7 +323,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the probes of {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -229,7 +366,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the probes of {@link startScan}.
      *
      * @param ip The device IP
      */
@@ -15,23 +15,26 @@ package org.openhab.binding.network.internal.utils;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.ConnectException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
-import java.net.NoRouteToHostException;
 import java.net.PortUnreachableException;
-import java.net.Socket;
-import java.net.SocketAddress;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -42,6 +45,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.net.CidrAddress;
 import org.eclipse.smarthome.core.net.NetUtil;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine.ConnectResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +56,14 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class NetworkUtils {
+    private static final String PROC_NET_ARP = "/proc/net/arp";
+    private static final int ATF_COM = 0x02; // completed entry
+    private static final String NULL_MAC = "00:00:00:00:00:00";
+    private static final String NUD_REACHABLE = "REACHABLE";
+    private static final int NEIGHBOUR_COMMAND_TIMEOUT_MS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(NetworkUtils.class);
+    private volatile boolean neighbourCommandAvailable = SystemUtils.IS_OS_LINUX;
 
     /**
      * Gets every IPv4 Address on each Interface except the loopback
@@ -144,24 +155,105 @@ public class NetworkUtils {
     }
 
     /**
-     * Try to establish a tcp connection to the given port. Returns false if a timeout occurred
-     * or the connection was denied.
+     * Try to establish a tcp connection to the given port. The result is false if a timeout occurred
+     * or the connection was denied. The connection attempt is multiplexed with all other attempts
+     * by the {@link PresenceProbeEngine}, the calling thread does not wait for the result.
      *
      * @param host The IP or hostname
      * @param port The tcp port. Must be not 0.
      * @param timeout Timeout in ms
-     * @param logger A slf4j logger instance to log IOException
-     * @return
-     * @throws IOException
+     * @return A future that is completed on the selector thread of the {@link PresenceProbeEngine}
+     * @throws IOException If the host cannot be resolved
      */
-    public boolean servicePing(String host, int port, int timeout) throws IOException {
-        SocketAddress socketAddress = new InetSocketAddress(host, port);
-        try (Socket socket = new Socket()) {
-            socket.connect(socketAddress, timeout);
-            return true;
-        } catch (ConnectException | SocketTimeoutException | NoRouteToHostException ignored) {
-            return false;
+    public CompletableFuture<Boolean> servicePing(String host, int port, int timeout) throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(host, port);
+        if (socketAddress.isUnresolved()) {
+            throw new UnknownHostException(host);
         }
+        return PresenceProbeEngine.getInstance().connect(socketAddress, timeout)
+                .thenApply(result -> result == ConnectResult.CONNECTED);
+    }
+
+    /**
+     * Read the IPv4 neighbour table of the operating system. The kernel fills this table whenever a host on a
+     * local network answers an ARP request, for example caused by a TCP connection attempt. Reading it is far
+     * cheaper than starting an arping process per host. Only supported on Linux, an empty map is returned on
+     * other systems.
+     *
+     * @return A map of IPv4 addresses to MAC addresses of all completely resolved entries
+     */
+    public Map<String, String> getArpTable() {
+        return getArpTable(Paths.get(PROC_NET_ARP));
+    }
+
+    Map<String, String> getArpTable(Path arpTable) {
+        Map<String, String> result = new HashMap<>();
+        if (!Files.isReadable(arpTable)) {
+            return result;
+        }
+        // IP address HW type Flags HW address Mask Device
+        // 192.168.1.1 0x1 0x2 00:11:22:33:44:55 * eth0
+        try (BufferedReader r = Files.newBufferedReader(arpTable)) {
+            String line = r.readLine(); // skip the header
+            while ((line = r.readLine()) != null) {
+                String[] columns = line.trim().split("\\s+");
+                if (columns.length < 4) {
+                    continue;
+                }
+                int flags = Integer.decode(columns[2]);
+                if ((flags & ATF_COM) != 0 && !NULL_MAC.equals(columns[3])) {
+                    result.put(columns[0], columns[3]);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Failed to read the ARP table {}", arpTable, e);
+        }
+        return result;
+    }
+
+    /**
+     * Return the IPv4 addresses of all neighbours the kernel has confirmed to be reachable recently. In contrast to
+     * the entries of {@link #getArpTable()}, which are kept long after the device has left, the kernel only marks an
+     * entry as REACHABLE if the device has answered within the base reachable time (about 30 seconds). The states
+     * are read with "ip -4 neigh show", an empty set is returned if the command is not available.
+     *
+     * @return The IPv4 addresses of all neighbours in the REACHABLE state
+     */
+    public Set<String> getReachableNeighbours() {
+        if (!neighbourCommandAvailable) {
+            return new HashSet<>();
+        }
+        try {
+            Process proc = new ProcessBuilder("ip", "-4", "neigh", "show").redirectErrorStream(true).start();
+            Set<String> result;
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
+                result = parseReachableNeighbours(r);
+            }
+            if (!proc.waitFor(NEIGHBOUR_COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                proc.destroy();
+            }
+            return result;
+        } catch (IOException e) {
+            logger.debug("Neighbour states are not available, only the ARP table is used: {}", e.getMessage());
+            neighbourCommandAvailable = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new HashSet<>();
+    }
+
+    Set<String> parseReachableNeighbours(BufferedReader r) throws IOException {
+        Set<String> result = new HashSet<>();
+        // 192.168.1.1 dev eth0 lladdr 00:11:22:33:44:55 REACHABLE
+        // 192.168.1.7 dev eth0 lladdr 00:11:22:33:44:66 STALE
+        String line;
+        while ((line = r.readLine()) != null) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length >= 2 && NUD_REACHABLE.equals(columns[columns.length - 1])) {
+                result.add(columns[0]);
+            }
+        }
+        return result;
     }
 
     /**
@@ -0,0 +1,468 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PresenceProbeEngine} is shared by all presence detections and the network discovery.
+ *
+ * TCP connection attempts are performed with non-blocking socket channels on a single selector thread, so hundreds of
+ * hosts can be probed at once without a thread per host. The selector loop runs on the "network-probe" thread pool as
+ * long as there are connection attempts. Probes that need to block (system ping, arping, Java ping) are executed on
+ * the shared "network" thread pool instead of a new thread pool per detection run.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeEngine {
+    public static final String THREAD_POOL_NAME = "network";
+    public static final String SELECTOR_THREAD_POOL_NAME = "network-probe";
+
+    /** Maximum number of connection attempts in flight, further attempts are queued */
+    static final int MAX_CONCURRENT_CONNECTS = 256;
+
+    /**
+     * Operating systems give up on an unanswered connection attempt after 20 s (Windows) or more (Linux: ~2 min).
+     * A {@link ConnectException} reported earlier is caused by a reset of the host and not by a timeout.
+     */
+    static final long OS_CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+    private static final PresenceProbeEngine INSTANCE = new PresenceProbeEngine();
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeEngine.class);
+
+    private final Deque<ConnectProbe> pendingProbes = new ArrayDeque<>();
+    private final List<ConnectProbe> activeProbes = new ArrayList<>();
+    private @Nullable Selector selector;
+    private @Nullable Future<?> selectorTask;
+
+    /**
+     * The result of a TCP connection attempt
+     */
+    public enum ConnectResult {
+        /** The connection was established, the service is reachable */
+        CONNECTED,
+        /** The host answered with a reset, the host is reachable but the service is not */
+        REFUSED,
+        /** No answer within the timeout or the host is not reachable at all */
+        NO_RESPONSE
+    }
+
+    /**
+     * Return the engine shared by the whole binding.
+     */
+    public static PresenceProbeEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the executor for probes that need to block a thread.
+     */
+    public ExecutorService getExecutor() {
+        return ThreadPoolManager.getPool(THREAD_POOL_NAME);
+    }
+
+    /**
+     * Create a group of tasks that are executed on the shared executor. The group behaves like an own
+     * {@link ExecutorService}: it can be shut down and awaited without affecting other users of the shared pool.
+     */
+    public TaskGroup newTaskGroup() {
+        return new TaskGroup(getExecutor());
+    }
+
+    /**
+     * Start a non-blocking TCP connection attempt.
+     *
+     * @param address The destination address and port
+     * @param timeoutInMS Timeout in milliseconds, counted from the moment the attempt is actually started
+     * @return A future that is completed with the result of the attempt. It is never completed exceptionally.
+     */
+    public CompletableFuture<ConnectResult> connect(InetSocketAddress address, int timeoutInMS) {
+        ConnectProbe probe = new ConnectProbe(address, TimeUnit.MILLISECONDS.toNanos(timeoutInMS));
+        synchronized (this) {
+            pendingProbes.add(probe);
+            ensureSelectorThread();
+        }
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        return probe.result;
+    }
+
+    /**
+     * Number of connection attempts that are in flight or queued.
+     */
+    public synchronized int getPendingCount() {
+        return pendingProbes.size() + activeProbes.size();
+    }
+
+    private void ensureSelectorThread() {
+        if (selectorTask != null) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            logger.warn("Cannot open a selector for TCP presence detection", e);
+            failPending();
+            return;
+        }
+        selectorTask = ThreadPoolManager.getPool(SELECTOR_THREAD_POOL_NAME).submit(this::run);
+    }
+
+    private synchronized void failPending() {
+        ConnectProbe probe;
+        while ((probe = pendingProbes.poll()) != null) {
+            probe.result.complete(ConnectResult.NO_RESPONSE);
+        }
+    }
+
+    private void run() {
+        final Selector selector = this.selector;
+        if (selector == null) {
+            return;
+        }
+        try {
+            while (true) {
+                long nextTimeout = startPendingProbes(selector);
+                if (nextTimeout < 0) {
+                    synchronized (this) {
+                        if (pendingProbes.isEmpty()) {
+                            // Nothing to do anymore, the loop will be started again on demand
+                            selectorTask = null;
+                            this.selector = null;
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextTimeout)));
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ConnectProbe probe = (ConnectProbe) key.attachment();
+                    if (probe != null && key.isValid() && key.isConnectable()) {
+                        finishConnect(probe);
+                    }
+                }
+                expireProbes(System.nanoTime());
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            logger.warn("TCP presence detection selector failed", e);
+            synchronized (this) {
+                for (ConnectProbe probe : activeProbes) {
+                    probe.complete(ConnectResult.NO_RESPONSE);
+                }
+                activeProbes.clear();
+                selectorTask = null;
+                this.selector = null;
+            }
+            failPending();
+        }
+    }
+
+    /**
+     * Register queued probes with the selector as long as the concurrency limit allows.
+     *
+     * @return Nanoseconds until the next probe times out or -1 if no probe is in flight
+     */
+    private long startPendingProbes(Selector selector) {
+        final long now = System.nanoTime();
+        synchronized (this) {
+            while (activeProbes.size() < MAX_CONCURRENT_CONNECTS && !pendingProbes.isEmpty()) {
+                ConnectProbe probe = pendingProbes.poll();
+                if (probe.result.isDone()) {
+                    // cancelled by the caller in the meantime
+                    continue;
+                }
+                probe.started = now;
+                probe.deadline = now + probe.timeout;
+                try {
+                    SocketChannel channel = SocketChannel.open();
+                    probe.channel = channel;
+                    channel.configureBlocking(false);
+                    if (channel.connect(probe.address)) {
+                        probe.complete(ConnectResult.CONNECTED);
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                        activeProbes.add(probe);
+                    }
+                } catch (ConnectException e) {
+                    probe.complete(toResult(probe, now));
+                } catch (IOException | RuntimeException e) {
+                    // unresolved address, no route to host, ...
+                    probe.complete(ConnectResult.NO_RESPONSE);
+                }
+            }
+            long nextTimeout = -1;
+            for (ConnectProbe probe : activeProbes) {
+                long remaining = Math.max(0, probe.deadline - now);
+                if (nextTimeout < 0 || remaining < nextTimeout) {
+                    nextTimeout = remaining;
+                }
+            }
+            return nextTimeout;
+        }
+    }
+
+    private void finishConnect(ConnectProbe probe) {
+        ConnectResult result;
+        try {
+            SocketChannel channel = probe.channel;
+            result = channel != null && channel.finishConnect() ? ConnectResult.CONNECTED : ConnectResult.NO_RESPONSE;
+        } catch (ConnectException e) {
+            result = toResult(probe, System.nanoTime());
+        } catch (IOException e) {
+            result = ConnectResult.NO_RESPONSE;
+        }
+        synchronized (this) {
+            activeProbes.remove(probe);
+        }
+        probe.complete(result);
+    }
+
+    /**
+     * A reset (connection refused) is an answer of the host as well, a connect timeout reported by the operating
+     * system is not. The JDK reports both ECONNREFUSED and ETIMEDOUT as {@link ConnectException} with a localized
+     * message, so they are told apart by the duration of the attempt. An unreachable host (EHOSTUNREACH) is reported
+     * as {@link java.net.NoRouteToHostException} instead.
+     */
+    private static ConnectResult toResult(ConnectProbe probe, long now) {
+        return now - probe.started < OS_CONNECT_TIMEOUT_NANOS ? ConnectResult.REFUSED : ConnectResult.NO_RESPONSE;
+    }
+
+    private synchronized void expireProbes(long now) {
+        for (Iterator<ConnectProbe> it = activeProbes.iterator(); it.hasNext();) {
+            ConnectProbe probe = it.next();
+            if (now - probe.deadline >= 0 || probe.result.isDone()) {
+                it.remove();
+                probe.complete(ConnectResult.NO_RESPONSE);
+            }
+        }
+    }
+
+    /**
+     * A single TCP connection attempt
+     */
+    private static class ConnectProbe {
+        final InetSocketAddress address;
+        final long timeout;
+        final CompletableFuture<ConnectResult> result = new CompletableFuture<>();
+        long started;
+        long deadline;
+        @Nullable
+        SocketChannel channel;
+
+        ConnectProbe(InetSocketAddress address, long timeout) {
+            this.address = address;
+            this.timeout = timeout;
+        }
+
+        void complete(ConnectResult connectResult) {
+            SocketChannel channel = this.channel;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            result.complete(connectResult);
+        }
+    }
+
+    /**
+     * A group of tasks on a shared executor that can be shut down and awaited on its own.
+     * A shutdown interrupts the running tasks of this group and drops its queued tasks.
+     */
+    public static class TaskGroup extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final Set<GroupTask> tasks = ConcurrentHashMap.newKeySet();
+        private volatile boolean shutdown = false;
+
+        TaskGroup(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@Nullable Runnable command) {
+            if (command == null) {
+                throw new NullPointerException();
+            }
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("Task group has been shut down");
+                }
+                GroupTask task = new GroupTask(command);
+                tasks.add(task);
+                task.future = executor.submit(task);
+            }
+        }
+
+        private synchronized void started(GroupTask task) {
+            task.startedAt = System.nanoTime();
+            notifyAll();
+        }
+
+        private synchronized void finished(GroupTask task) {
+            tasks.remove(task);
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> notStarted = new ArrayList<>();
+            for (GroupTask task : new ArrayList<>(tasks)) {
+                if (task.started.compareAndSet(false, true)) {
+                    // still queued in the shared executor, it will not run anymore
+                    notStarted.add(task.command);
+                    Future<?> future = task.future;
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                    tasks.remove(task);
+                } else {
+                    Future<?> future = task.future;
+                    if (future != null) {
+                        future.cancel(true);
+                    }
+                }
+            }
+            notifyAll();
+            return notStarted;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, @Nullable TimeUnit unit)
+                throws InterruptedException {
+            long remaining = (unit != null ? unit : TimeUnit.MILLISECONDS).toNanos(timeout);
+            final long deadline = System.nanoTime() + remaining;
+            while (!isTerminated()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            return true;
+        }
+
+        /**
+         * Wait until all tasks of the group have finished. Tasks that are still queued on the shared executor are
+         * waited for, however long the executor is busy. Only tasks that run longer than the given timeout are given
+         * up on, the timeout of each task is counted from the moment it is actually started.
+         *
+         * @param taskTimeout The maximum run time of a single task
+         * @param unit The unit of the timeout
+         * @return Return true if all tasks have finished and false if a running task exceeded the timeout
+         * @throws InterruptedException If the waiting thread is interrupted
+         */
+        public synchronized boolean awaitCompletion(long taskTimeout, TimeUnit unit) throws InterruptedException {
+            final long timeout = unit.toNanos(taskTimeout);
+            while (!tasks.isEmpty()) {
+                final long now = System.nanoTime();
+                boolean queued = false;
+                long remaining = 0;
+                for (GroupTask task : tasks) {
+                    if (!task.started.get()) {
+                        queued = true;
+                    } else {
+                        remaining = Math.max(remaining, task.startedAt + timeout - now);
+                    }
+                }
+                if (queued) {
+                    // woken up as soon as a task of this group starts or finishes
+                    wait();
+                } else if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private class GroupTask implements Runnable {
+            final Runnable command;
+            final AtomicBoolean started = new AtomicBoolean();
+            volatile long startedAt;
+            volatile @Nullable Future<?> future;
+
+            GroupTask(Runnable command) {
+                this.command = command;
+            }
+
+            @Override
+            public void run() {
+                if (!started.compareAndSet(false, true)) {
+                    return;
+                }
+                started(this);
+                try {
+                    command.run();
+                } finally {
+                    // do not leak an interrupt of shutdownNow() into the next task of the shared thread
+                    Thread.interrupted();
+                    finished(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases for {@see PassivePresenceTable}
+ *
+ * @author agent - Initial contribution
+ */
+public class PassivePresenceTableTest {
+    private static final String MAC = "00:11:22:aa:bb:cc";
+
+    private NetworkUtils networkUtils;
+    private PassivePresenceTable table;
+
+    @Before
+    public void setUp() {
+        networkUtils = mock(NetworkUtils.class);
+        when(networkUtils.getArpTable()).thenReturn(Collections.emptyMap());
+        when(networkUtils.getReachableNeighbours()).thenReturn(Collections.emptySet());
+        table = new PassivePresenceTable(networkUtils);
+    }
+
+    @Test
+    public void deviceIsIndexedByMacAndIp() {
+        table.seen("00:11:22:AA:BB:CC", "192.168.1.20", PresenceDetectionType.DHCP_REQUEST, 1000);
+
+        PassivePresenceTable.Entry entry = table.getByIp("192.168.1.20");
+        assertNotNull(entry);
+        assertThat(table.getByMac(MAC), is(sameInstance(entry)));
+        assertThat(entry.getMacAddress(), is(MAC));
+        assertThat(entry.getLastSeen(), is(1000L));
+        assertThat(entry.getSource(), is(PresenceDetectionType.DHCP_REQUEST));
+    }
+
+    @Test
+    public void newAddressMovesIpIndex() {
+        table.seen(MAC, "192.168.1.20", PresenceDetectionType.DHCP_REQUEST, 1000);
+        table.seen(MAC, "192.168.1.21", PresenceDetectionType.DHCP_REQUEST, 2000);
+
+        assertNull(table.getByIp("192.168.1.20"));
+        assertThat(table.getByIp("192.168.1.21").getMacAddress(), is(MAC));
+        assertThat(table.size(), is(1));
+
+        // The old address is handed out to another device
+        table.seen("00:11:22:aa:bb:dd", "192.168.1.21", PresenceDetectionType.DHCP_REQUEST, 3000);
+        assertThat(table.getByIp("192.168.1.21").getMacAddress(), is("00:11:22:aa:bb:dd"));
+        assertNull(table.getByMac(MAC).getIpAddress());
+    }
+
+    @Test
+    public void sightingWithoutAddressKeepsAddress() {
+        table.seen(MAC, "192.168.1.20", PresenceDetectionType.DHCP_REQUEST, 1000);
+        table.seen(MAC, null, PresenceDetectionType.DHCP_REQUEST, 2000);
+
+        assertThat(table.getByIp("192.168.1.20").getLastSeen(), is(2000L));
+        // out of order sightings do not move the timestamp back
+        table.seen(MAC, null, PresenceDetectionType.DHCP_REQUEST, 1500);
+        assertThat(table.getByMac(MAC).getLastSeen(), is(2000L));
+    }
+
+    @Test
+    public void arpTableSnapshotsCountNewMappingsOnly() {
+        Map<String, String> snapshot = new HashMap<>();
+        snapshot.put("192.168.1.1", "00:00:5e:00:53:01");
+        table.mergeArpTable(snapshot, 500);
+        // The first snapshot may contain stale mappings, it does not count as a sighting
+        assertThat(table.getByMac("00:00:5e:00:53:01").getLastSeen(), is(0L));
+
+        snapshot.put("192.168.1.2", "00:00:5e:00:53:02");
+        table.mergeArpTable(snapshot, 1000);
+        assertThat(table.getByMac("00:00:5e:00:53:02").getLastSeen(), is(1000L));
+        assertThat(table.getByMac("00:00:5e:00:53:02").getSource(), is(PresenceDetectionType.ARP_TABLE));
+
+        // unchanged mapping, no new sighting
+        table.mergeArpTable(snapshot, 2000);
+        assertThat(table.getByMac("00:00:5e:00:53:02").getLastSeen(), is(1000L));
+
+        // the entry vanished and appeared again
+        table.mergeArpTable(Collections.emptyMap(), 3000);
+        table.mergeArpTable(snapshot, 4000);
+        assertThat(table.getByMac("00:00:5e:00:53:01").getLastSeen(), is(4000L));
+        assertThat(table.getByMac("00:00:5e:00:53:02").getLastSeen(), is(4000L));
+    }
+
+    @Test
+    public void reachableNeighboursRefreshStableEntries() {
+        Map<String, String> snapshot = new HashMap<>();
+        snapshot.put("192.168.1.1", "00:00:5e:00:53:01");
+        snapshot.put("192.168.1.2", "00:00:5e:00:53:02");
+        Set<String> reachable = Collections.singleton("192.168.1.1");
+
+        // A reachable entry counts as a sighting even in the first snapshot
+        table.mergeArpTable(snapshot, reachable, 500);
+        assertThat(table.getByMac("00:00:5e:00:53:01").getLastSeen(), is(500L));
+        assertThat(table.getByMac("00:00:5e:00:53:02").getLastSeen(), is(0L));
+
+        // The mappings are unchanged, only the reachable entry is refreshed
+        table.mergeArpTable(snapshot, reachable, 1000);
+        assertThat(table.getByMac("00:00:5e:00:53:01").getLastSeen(), is(1000L));
+        assertThat(table.getByMac("00:00:5e:00:53:02").getLastSeen(), is(0L));
+
+        // The entry went stale, it keeps the time it has been reachable last
+        table.mergeArpTable(snapshot, Collections.emptySet(), 2000);
+        assertThat(table.getByMac("00:00:5e:00:53:01").getLastSeen(), is(1000L));
+    }
+
+    @Test
+    public void arpTableIsReadOnLookup() {
+        when(networkUtils.getArpTable()).thenReturn(Collections.singletonMap("192.168.1.1", "00:00:5e:00:53:01"));
+
+        assertNotNull(table.getByIp("192.168.1.1"));
+        assertNull(table.getByIp("192.168.1.2"));
+        // The second lookup is served without reading the table again
+        verify(networkUtils, times(1)).getArpTable();
+        verify(networkUtils, times(1)).getReachableNeighbours();
+    }
+}
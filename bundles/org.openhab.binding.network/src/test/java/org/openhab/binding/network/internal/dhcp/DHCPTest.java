@@ -15,14 +15,21 @@ package org.openhab.binding.network.internal.dhcp;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 import org.junit.Test;
+import org.openhab.binding.network.internal.PresenceDetectionType;
 import org.openhab.binding.network.internal.dhcp.DHCPPacket.BadPacketException;
 
 /**
@@ -56,4 +63,45 @@ public class DHCPTest {
         s.receivePacket(new DHCPPacket(new byte[] { DHCPPacket.DHCPREQUEST }, null), testAddress);
         verify(dhcpListener, times(2)).dhcpRequestReceived(eq(testIP));
     }
+
+    @Test
+    public void testReplayedPacketsFeedPresenceTable() throws BadPacketException, IOException {
+        IPRequestReceivedCallback dhcpListener = mock(IPRequestReceivedCallback.class);
+        DHCPPacketListenerServer s = new DHCPPacketListenerServer(dhcpListener);
+        s.presenceTable.clear();
+        byte[] mac = new byte[] { 0x00, 0x11, 0x22, (byte) 0xaa, (byte) 0xbb, (byte) 0xcc };
+
+        // DHCPDISCOVER of a device without an address: the device is known by MAC only
+        s.receivePacket(new DHCPPacket(datagram(DHCPPacket.DHCPDISCOVER, mac, null)), InetAddress.getByName("0.0.0.0"));
+        assertThat(s.presenceTable.getByMac("00:11:22:aa:bb:cc"), is(notNullValue()));
+        assertThat(s.presenceTable.getByMac("00:11:22:aa:bb:cc").getIpAddress(), is(nullValue()));
+        verify(dhcpListener, never()).dhcpRequestReceived(anyString());
+
+        // DHCPREQUEST for an address
+        s.receivePacket(new DHCPPacket(datagram(DHCPPacket.DHCPREQUEST, mac, new byte[] { 10, 1, 2, 3 })),
+                InetAddress.getByName("0.0.0.0"));
+        assertThat(s.presenceTable.getByIp("10.1.2.3").getMacAddress(), is("00:11:22:aa:bb:cc"));
+        assertThat(s.presenceTable.getByIp("10.1.2.3").getSource(), is(PresenceDetectionType.DHCP_REQUEST));
+        verify(dhcpListener).dhcpRequestReceived(eq("10.1.2.3"));
+    }
+
+    /**
+     * Build a BOOTREQUEST datagram as captured on the network
+     */
+    private DatagramPacket datagram(byte messageType, byte[] mac, byte @Nullable [] requestedIP) {
+        ByteBuffer buffer = ByteBuffer.allocate(300);
+        buffer.put(DHCPPacket.BOOTREQUEST).put((byte) 1).put((byte) mac.length).put((byte) 0);
+        buffer.putInt(0x3903f326); // transaction id
+        buffer.putShort((short) 0).putShort((short) 0x8000); // seconds, broadcast flag
+        buffer.put(new byte[16]); // ciaddr, yiaddr, siaddr, giaddr
+        buffer.put(Arrays.copyOf(mac, 16)); // chaddr
+        buffer.put(new byte[64 + 128]); // sname, file
+        buffer.putInt(DHCPPacket.MAGIC_COOKIE);
+        buffer.put(DHCPPacket.DHO_DHCP_MESSAGE_TYPE).put((byte) 1).put(messageType);
+        if (requestedIP != null) {
+            buffer.put(DHCPPacket.DHO_DHCP_REQUESTED_ADDRESS).put((byte) 4).put(requestedIP);
+        }
+        buffer.put(DHCPPacket.DHO_END);
+        return new DatagramPacket(buffer.array(), buffer.position());
+    }
 }
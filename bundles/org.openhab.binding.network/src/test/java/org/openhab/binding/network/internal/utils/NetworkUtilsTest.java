@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests cases for {@see NetworkUtils}
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkUtilsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void arpTableContainsCompleteEntriesOnly() throws IOException {
+        Path arp = folder.newFile("arp").toPath();
+        Files.write(arp, Arrays.asList( //
+                "IP address       HW type     Flags       HW address            Mask     Device",
+                "192.168.1.1      0x1         0x2         00:11:22:33:44:55     *        eth0",
+                "192.168.1.20     0x1         0x0         00:00:00:00:00:00     *        eth0",
+                "192.168.1.21     0x1         0x6         aa:bb:cc:dd:ee:ff     *        wlan0"),
+                StandardCharsets.UTF_8);
+
+        Map<String, String> table = new NetworkUtils().getArpTable(arp);
+        assertThat(table.size(), is(2));
+        assertThat(table.get("192.168.1.1"), is("00:11:22:33:44:55"));
+        assertThat(table.get("192.168.1.21"), is("aa:bb:cc:dd:ee:ff"));
+    }
+
+    @Test
+    public void missingArpTableIsEmpty() {
+        assertTrue(new NetworkUtils().getArpTable(folder.getRoot().toPath().resolve("missing")).isEmpty());
+    }
+
+    @Test
+    public void onlyReachableNeighboursAreReturned() throws IOException {
+        String neighbours = "192.168.1.1 dev eth0 lladdr 00:11:22:33:44:55 REACHABLE\n"
+                + "192.168.1.7 dev eth0 lladdr 00:11:22:33:44:66 STALE\n" //
+                + "192.168.1.8 dev eth0  FAILED\n" //
+                + "192.168.1.21 dev eth0 lladdr aa:bb:cc:dd:ee:ff router REACHABLE\n";
+
+        Set<String> reachable = new NetworkUtils()
+                .parseReachableNeighbours(new BufferedReader(new StringReader(neighbours)));
+        assertThat(reachable.size(), is(2));
+        assertTrue(reachable.contains("192.168.1.1"));
+        assertTrue(reachable.contains("192.168.1.21"));
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine.ConnectResult;
+
+/**
+ * Tests cases for {@see PresenceProbeEngine}
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceProbeEngineTest {
+    private final PresenceProbeEngine engine = PresenceProbeEngine.getInstance();
+
+    @Test
+    public void connectToOpenAndClosedPort() throws Exception {
+        int closedPort;
+        try (ServerSocket closed = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = closed.getLocalPort();
+        }
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<ConnectResult> open = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()), 1000);
+            CompletableFuture<ConnectResult> refused = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), closedPort), 1000);
+
+            assertThat(open.get(2, TimeUnit.SECONDS), is(ConnectResult.CONNECTED));
+            assertThat(refused.get(2, TimeUnit.SECONDS), is(ConnectResult.REFUSED));
+        }
+    }
+
+    @Test
+    public void manyConnectsAreMultiplexed() throws Exception {
+        final int count = PresenceProbeEngine.MAX_CONCURRENT_CONNECTS * 2;
+        try (ServerSocket server = new ServerSocket(0, count, InetAddress.getLoopbackAddress())) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    server.getLocalPort());
+            List<CompletableFuture<ConnectResult>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                results.add(engine.connect(address, 2000));
+            }
+            for (CompletableFuture<ConnectResult> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS), is(ConnectResult.CONNECTED));
+            }
+        }
+        assertThat(engine.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void unresolvedAddressHasNoResponse() throws Exception {
+        CompletableFuture<ConnectResult> result = engine
+                .connect(InetSocketAddress.createUnresolved("host.invalid", 80), 1000);
+        assertThat(result.get(2, TimeUnit.SECONDS), is(ConnectResult.NO_RESPONSE));
+    }
+
+    @Test
+    public void taskGroupTerminatesAfterShutdown() throws InterruptedException {
+        ExecutorService group = engine.newTaskGroup();
+        CountDownLatch latch = new CountDownLatch(2);
+        group.execute(latch::countDown);
+        group.execute(latch::countDown);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+
+        // Like a thread pool, the group only terminates after a shutdown
+        assertFalse(group.awaitTermination(50, TimeUnit.MILLISECONDS));
+        group.shutdown();
+        assertTrue(group.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(group.isTerminated());
+    }
+
+    @Test
+    public void taskGroupShutdownNowInterruptsRunningTasks() throws InterruptedException {
+        ExecutorService group = engine.newTaskGroup();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        group.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        group.shutdownNow();
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertTrue(group.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void taskGroupAwaitsQueuedTasks() throws InterruptedException {
+        // A busy shared pool: the second task has to wait for the first one, longer than the task timeout
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PresenceProbeEngine.TaskGroup group = new PresenceProbeEngine.TaskGroup(executor);
+            CountDownLatch executed = new CountDownLatch(2);
+            group.execute(() -> {
+                sleep(200);
+                executed.countDown();
+            });
+            group.execute(executed::countDown);
+
+            assertTrue(group.awaitCompletion(150, TimeUnit.MILLISECONDS));
+            assertThat(executed.getCount(), is(0L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void taskGroupGivesUpOnTasksExceedingTheTimeout() throws InterruptedException {
+        PresenceProbeEngine.TaskGroup group = engine.newTaskGroup();
+        group.execute(() -> sleep(10000));
+
+        assertFalse(group.awaitCompletion(100, TimeUnit.MILLISECONDS));
+        group.shutdownNow();
+        assertTrue(group.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void servicePingUsesEngine() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            assertTrue(new NetworkUtils().servicePing("127.0.0.1", server.getLocalPort(), 1000).get(2,
+                    TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.xmltv.internal;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.xmltv.internal.jaxb.Programme;
+
+/**
+ * The {@link ChannelSchedule} holds the programmes of one media channel, sorted by start time.
+ * Start and stop times are parsed once when the schedule is built, so that looking up the current
+ * and the next programme is a binary search over a plain array of stop times.
+ *
+ * A schedule is immutable and can be shared between threads.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ChannelSchedule {
+    private final Programme[] programmes;
+    private final long[] stops;
+
+    private ChannelSchedule(Programme[] programmes, long[] stops) {
+        this.programmes = programmes;
+        this.stops = stops;
+    }
+
+    /**
+     * Builds a schedule from the given programmes. Programmes with missing or unparsable times are skipped.
+     *
+     * @param programmes the programmes of one media channel, in any order
+     * @return the schedule
+     */
+    public static ChannelSchedule of(List<Programme> programmes) {
+        List<Entry> entries = new ArrayList<>(programmes.size());
+        for (Programme programme : programmes) {
+            if (!programme.hasStartAndStop()) {
+                continue;
+            }
+            try {
+                entries.add(new Entry(programme, programme.getProgrammeStart().toEpochMilli(),
+                        programme.getProgrammeStop().toEpochMilli()));
+            } catch (DateTimeParseException e) {
+                // programme without valid start or stop, can't be placed in the schedule
+            }
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.start));
+
+        int size = entries.size();
+        Programme[] sortedProgrammes = new Programme[size];
+        long[] stops = new long[size];
+        long lastStop = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            sortedProgrammes[i] = entry.programme;
+            // keep stop times ascending, so that they can be searched as well
+            lastStop = Math.max(lastStop, entry.stop);
+            stops[i] = lastStop;
+        }
+        return new ChannelSchedule(sortedProgrammes, stops);
+    }
+
+    /**
+     * Returns the programme running at the given instant (offset 0) or coming after it (offset 1, 2...).
+     * If no programme is running, the next programme to come is considered as current one.
+     *
+     * @param now the reference instant
+     * @param offset 0 for the current programme, 1 for the next one...
+     * @return the programme or null if the schedule does not go that far
+     */
+    public @Nullable Programme getProgramme(Instant now, int offset) {
+        int index = firstNotFinished(now.toEpochMilli()) + offset;
+        return index < programmes.length ? programmes[index] : null;
+    }
+
+    /**
+     * Returns how many programmes are not finished at the given instant
+     */
+    public int remaining(Instant now) {
+        return programmes.length - firstNotFinished(now.toEpochMilli());
+    }
+
+    public int size() {
+        return programmes.length;
+    }
+
+    private int firstNotFinished(long now) {
+        int low = 0;
+        int high = stops.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (stops[middle] > now) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private static class Entry {
+        final Programme programme;
+        final long start;
+        final long stop;
+
+        Entry(Programme programme, long start, long stop) {
+            this.programme = programme;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+}
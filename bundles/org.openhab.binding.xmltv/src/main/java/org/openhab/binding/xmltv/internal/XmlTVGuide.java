@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.xmltv.internal;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.xmltv.internal.jaxb.MediaChannel;
+import org.openhab.binding.xmltv.internal.jaxb.Programme;
+
+/**
+ * The {@link XmlTVGuide} is the content of an XMLTV file that is relevant for the things of a bridge: all
+ * media channels (for discovery) and the schedules of the subscribed media channels.
+ *
+ * The file is read as a stream: channel and programme elements are unmarshalled one by one and programmes
+ * of other media channels or already finished are skipped without being unmarshalled, so that the file
+ * content never is on the heap as a whole.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class XmlTVGuide {
+    private static final String ELEMENT_CHANNEL = "channel";
+    private static final String ELEMENT_PROGRAMME = "programme";
+    private static final String ATTRIBUTE_CHANNEL = "channel";
+
+    private final List<MediaChannel> mediaChannels;
+    private final Map<String, ChannelSchedule> schedules;
+    private final int programmeCount;
+
+    private XmlTVGuide(List<MediaChannel> mediaChannels, Map<String, ChannelSchedule> schedules) {
+        this.mediaChannels = Collections.unmodifiableList(mediaChannels);
+        this.schedules = Collections.unmodifiableMap(schedules);
+        this.programmeCount = schedules.values().stream().mapToInt(ChannelSchedule::size).sum();
+    }
+
+    /**
+     * Reads a guide from an XMLTV stream
+     *
+     * @param xsr the stream reader, positioned at the start of the document
+     * @param unmarshaller the unmarshaller for the channel and programme elements
+     * @param channelIds the ids of the media channels whose programmes are kept
+     * @param now programmes finished at this instant are skipped
+     * @return the guide
+     */
+    public static XmlTVGuide read(XMLStreamReader xsr, Unmarshaller unmarshaller, Set<String> channelIds,
+            Instant now) throws XMLStreamException, JAXBException {
+        List<MediaChannel> mediaChannels = new ArrayList<>();
+        Map<String, List<Programme>> programmes = new HashMap<>();
+        channelIds.forEach(channelId -> programmes.put(channelId, new ArrayList<>()));
+
+        while (xsr.hasNext()) {
+            if (xsr.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                xsr.next();
+                continue;
+            }
+            // the unmarshaller leaves the reader on the event following the end of the element
+            if (ELEMENT_CHANNEL.equals(xsr.getLocalName())) {
+                mediaChannels.add(unmarshaller.unmarshal(xsr, MediaChannel.class).getValue());
+            } else if (ELEMENT_PROGRAMME.equals(xsr.getLocalName())) {
+                String channelId = xsr.getAttributeValue(null, ATTRIBUTE_CHANNEL);
+                List<Programme> channelProgrammes = channelId != null ? programmes.get(channelId.trim()) : null;
+                if (channelProgrammes != null) {
+                    Programme programme = unmarshaller.unmarshal(xsr, Programme.class).getValue();
+                    if (!isFinished(programme, now)) {
+                        channelProgrammes.add(programme);
+                    }
+                } else {
+                    skipElement(xsr);
+                }
+            } else {
+                xsr.next();
+            }
+        }
+
+        Map<String, ChannelSchedule> schedules = new HashMap<>();
+        programmes.forEach((channelId, channelProgrammes) -> schedules.put(channelId,
+                ChannelSchedule.of(channelProgrammes)));
+        return new XmlTVGuide(mediaChannels, schedules);
+    }
+
+    private static boolean isFinished(Programme programme, Instant now) {
+        if (!programme.hasStartAndStop()) {
+            // can't be placed in a schedule
+            return true;
+        }
+        try {
+            return !programme.getProgrammeStop().isAfter(now);
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Moves the reader from the start of an element to the event following its end
+     */
+    private static void skipElement(XMLStreamReader xsr) throws XMLStreamException {
+        int depth = 0;
+        do {
+            int event = xsr.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        } while (depth >= 0);
+        xsr.next();
+    }
+
+    public List<MediaChannel> getMediaChannels() {
+        return mediaChannels;
+    }
+
+    /**
+     * Returns the schedule of a media channel or null if its programmes have not been loaded
+     */
+    public @Nullable ChannelSchedule getSchedule(String channelId) {
+        return schedules.get(channelId);
+    }
+
+    public Set<String> getChannelIds() {
+        return schedules.keySet();
+    }
+
+    public int getProgrammeCount() {
+        return programmeCount;
+    }
+}
@@ -18,7 +18,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledFuture;
@@ -42,11 +41,11 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.eclipse.smarthome.io.net.http.HttpUtil;
+import org.openhab.binding.xmltv.internal.ChannelSchedule;
 import org.openhab.binding.xmltv.internal.configuration.XmlChannelConfiguration;
 import org.openhab.binding.xmltv.internal.jaxb.Icon;
 import org.openhab.binding.xmltv.internal.jaxb.MediaChannel;
 import org.openhab.binding.xmltv.internal.jaxb.Programme;
-import org.openhab.binding.xmltv.internal.jaxb.Tv;
 import org.openhab.binding.xmltv.internal.jaxb.WithLangType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,8 +63,7 @@ public class ChannelHandler extends BaseThingHandler {
     private @NonNullByDefault({}) ScheduledFuture<?> globalJob;
     private @Nullable MediaChannel mediaChannel;
     private @Nullable RawType mediaIcon = new RawType(new byte[0], RawType.DEFAULT_MIME_TYPE);
-
-    public final List<Programme> programmes = new ArrayList<>();
+    private @Nullable ChannelSchedule schedule;
 
     public ChannelHandler(Thing thing) {
         super(thing);
@@ -79,33 +77,41 @@ public class ChannelHandler extends BaseThingHandler {
 
         if (globalJob == null || globalJob.isCancelled()) {
             globalJob = scheduler.scheduleWithFixedDelay(() -> {
-                if (programmes.size() < 2) {
-                    refreshProgramList();
+                Instant now = Instant.now();
+                ChannelSchedule schedule = this.schedule;
+                if (schedule == null || schedule.remaining(now) < 2) {
+                    schedule = refreshProgramList();
                 }
-                if (programmes.size() == 0) {
+                if (schedule == null || schedule.remaining(now) == 0) {
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
                             "No programmes to come in the current XML file for this channel");
-                } else if (Instant.now().isAfter(programmes.get(0).getProgrammeStop())) {
-                    programmes.remove(0);
+                    return;
                 }
 
-                getThing().getChannels().forEach(channel -> updateChannel(channel.getUID()));
+                final ChannelSchedule current = schedule;
+                getThing().getChannels().forEach(channel -> updateChannel(channel.getUID(), current, now));
 
             }, 3, config.refresh, TimeUnit.SECONDS);
         }
     }
 
-    private void refreshProgramList() {
+    /**
+     * Fetches the schedule of the media channel from the bridge, the bridge keeps it up to date when reloading
+     * the XMLTV file
+     *
+     * @return the schedule or null if it is not available
+     */
+    private @Nullable ChannelSchedule refreshProgramList() {
         Bridge bridge = getBridge();
         if (bridge != null && bridge.getStatus() == ThingStatus.ONLINE) {
             XmlTVHandler handler = (XmlTVHandler) bridge.getHandler();
             if (handler != null) {
-                Tv tv = handler.getXmlFile();
-                if (tv != null) {
-                    String channelId = (String) getConfig().get(XmlChannelConfiguration.CHANNEL_ID);
-
+                String channelId = ((String) getConfig().get(XmlChannelConfiguration.CHANNEL_ID)).trim();
+                ChannelSchedule schedule = handler.getSchedule(channelId);
+                this.schedule = schedule;
+                if (schedule != null) {
                     if (mediaChannel == null) {
-                        Optional<MediaChannel> channel = tv.getMediaChannels().stream()
+                        Optional<MediaChannel> channel = handler.getMediaChannels().stream()
                                 .filter(mediaChannel -> mediaChannel.getId().equals(channelId)).findFirst();
                         if (channel.isPresent()) {
                             mediaChannel = channel.get();
@@ -113,12 +119,8 @@ public class ChannelHandler extends BaseThingHandler {
                         }
                     }
 
-                    programmes.clear();
-                    tv.getProgrammes().stream().filter(
-                            p -> p.getChannel().equals(channelId) && p.getProgrammeStop().isAfter(Instant.now()))
-                            .forEach(p -> programmes.add(p));
-
                     updateStatus(ThingStatus.ONLINE);
+                    return schedule;
                 } else {
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE, "No file available");
                 }
@@ -128,6 +130,7 @@ public class ChannelHandler extends BaseThingHandler {
         } else {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
         }
+        return null;
     }
 
     @Override
@@ -136,6 +139,7 @@ public class ChannelHandler extends BaseThingHandler {
             globalJob.cancel(true);
             globalJob = null;
         }
+        schedule = null;
     }
 
     @Override
@@ -150,14 +154,16 @@ public class ChannelHandler extends BaseThingHandler {
      * Update the channel from the last OpenUV data retrieved
      *
      * @param channelUID the id identifying the channel to be updated
+     * @param schedule the schedule of the media channel
+     * @param now the instant the current programme is looked up for
      *
      */
-    private void updateChannel(ChannelUID channelUID) {
+    private void updateChannel(ChannelUID channelUID, ChannelSchedule schedule, Instant now) {
         String[] uidElements = channelUID.getId().split("#");
         if (uidElements.length == 2) {
             int target = GROUP_NEXT_PROGRAMME.equals(uidElements[0]) ? 1 : 0;
-            if (programmes.size() > target) {
-                Programme programme = programmes.get(target);
+            Programme programme = schedule.getProgramme(now, target);
+            if (programme != null) {
 
                 switch (uidElements[1]) {
                     case CHANNEL_ICON:
@@ -14,13 +14,16 @@ package org.openhab.binding.xmltv.internal.handler;
 
 import java.time.Instant;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -30,12 +33,17 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.xmltv.internal.ChannelSchedule;
+import org.openhab.binding.xmltv.internal.XmlTVGuide;
+import org.openhab.binding.xmltv.internal.configuration.XmlChannelConfiguration;
 import org.openhab.binding.xmltv.internal.configuration.XmlTVConfiguration;
-import org.openhab.binding.xmltv.internal.jaxb.Programme;
+import org.openhab.binding.xmltv.internal.jaxb.MediaChannel;
 import org.openhab.binding.xmltv.internal.jaxb.Tv;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,12 +56,25 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class XmlTVHandler extends BaseBridgeHandler {
+    /**
+     * Delay before the XMLTV file is reloaded for added media channels, so that things initialized together cause a
+     * single reload
+     */
+    private static final long CHANNEL_ADDED_RELOAD_DELAY_SECONDS = 5;
+
     private final Logger logger = LoggerFactory.getLogger(XmlTVHandler.class);
     private final XMLInputFactory xif = XMLInputFactory.newFactory();
     private final JAXBContext jc;
+    private final Object reloadLock = new Object();
+
+    private volatile @Nullable XmlTVGuide currentGuide;
+    private @Nullable ScheduledFuture<?> reloadJob;
+    private @Nullable ScheduledFuture<?> channelReloadJob;
 
-    private @Nullable Tv currentXmlFile;
-    private @NonNullByDefault({}) ScheduledFuture<?> reloadJob;
+    /**
+     * Media channels of initialized things whose programmes have not been loaded yet
+     */
+    private final Set<String> pendingChannelIds = new HashSet<>();
 
     public XmlTVHandler(Bridge thing) throws JAXBException {
         super(thing);
@@ -66,54 +87,131 @@ public class XmlTVHandler extends BaseBridgeHandler {
         XmlTVConfiguration config = getConfigAs(XmlTVConfiguration.class);
         logger.debug("Initializing {} for input file '{}'", getClass(), config.filePath);
 
-        reloadJob = scheduler.scheduleWithFixedDelay(() -> {
-            final StreamSource source = new StreamSource(config.filePath);
-            currentXmlFile = null;
-            XMLStreamReader xsr = null;
+        synchronized (this) {
+            reloadJob = scheduler.scheduleWithFixedDelay(this::reload, 0, TimeUnit.HOURS.toSeconds(config.refresh),
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Schedules a single reload of the XMLTV file for added media channels, unless one is already scheduled. The
+     * periodic reload is left untouched.
+     */
+    private synchronized void scheduleChannelReload() {
+        if (channelReloadJob == null) {
+            channelReloadJob = scheduler.schedule(this::reloadForChannels, CHANNEL_ADDED_RELOAD_DELAY_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    private void reloadForChannels() {
+        synchronized (this) {
+            // channels added from now on need another reload
+            channelReloadJob = null;
+        }
+        reload();
+    }
+
+    /**
+     * Reads the XMLTV file, keeping only the programmes of the media channels having a thing. The previous guide
+     * stays available to the channel handlers until the new one is complete.
+     */
+    private void reload() {
+        synchronized (reloadLock) {
+            loadGuide();
+        }
+    }
+
+    private void loadGuide() {
+        XmlTVConfiguration config = getConfigAs(XmlTVConfiguration.class);
+        Set<String> channelIds = getSubscribedChannelIds();
+        XMLStreamReader xsr = null;
+        try {
+            // This can take some seconds depending upon weight of the XmlTV source file
+            xsr = xif.createXMLStreamReader(new StreamSource(config.filePath));
+            long start = System.currentTimeMillis();
+            XmlTVGuide guide = XmlTVGuide.read(xsr, jc.createUnmarshaller(), channelIds, Instant.now());
+            logger.debug("Loaded {} programmes for {} media channels out of {} in {} ms",
+                    guide.getProgrammeCount(), channelIds.size(), guide.getMediaChannels().size(),
+                    System.currentTimeMillis() - start);
+
+            currentGuide = guide;
+            checkPendingChannels(guide);
+            if (guide.getProgrammeCount() > 0 || channelIds.isEmpty()) {
+                // Ready to deliver data to ChannelHandlers
+                updateStatus(ThingStatus.ONLINE);
+            } else {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DISABLED, "XMLTV file seems outdated");
+            }
+        } catch (JAXBException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.HANDLER_INITIALIZING_ERROR, e.getMessage());
+        } catch (XMLStreamException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+        } finally {
             try {
-                // This can take some seconds depending upon weight of the XmlTV source file
-                xsr = xif.createXMLStreamReader(source);
-
-                try {
-                    Unmarshaller unmarshaller = jc.createUnmarshaller();
-                    Tv xmlFile = (Tv) unmarshaller.unmarshal(xsr);
-                    // Remove all finished programmes
-                    xmlFile.getProgrammes().removeIf(programme -> Instant.now().isAfter(programme.getProgrammeStop()));
-
-                    if (xmlFile.getProgrammes().size() > 0) {
-                        // Sort programmes by starting instant
-                        Collections.sort(xmlFile.getProgrammes(), Comparator.comparing(Programme::getProgrammeStart));
-                        // Ready to deliver data to ChannelHandlers
-                        currentXmlFile = xmlFile;
-                        updateStatus(ThingStatus.ONLINE);
-                    } else {
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DISABLED, "XMLTV file seems outdated");
-                    }
+                if (xsr != null) {
                     xsr.close();
-                } catch (JAXBException e) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.HANDLER_INITIALIZING_ERROR, e.getMessage());
                 }
             } catch (XMLStreamException e) {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
-            } finally {
-                try {
-                    if (xsr != null) {
-                        xsr.close();
-                    }
-                } catch (XMLStreamException e) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
-                }
             }
-        }, 0, config.refresh, TimeUnit.HOURS);
+        }
+    }
+
+    private Set<String> getSubscribedChannelIds() {
+        return getThing().getThings().stream()
+                .map(thing -> (String) thing.getConfiguration().get(XmlChannelConfiguration.CHANNEL_ID))
+                .filter(Objects::nonNull).map(String::trim).collect(Collectors.toSet());
+    }
+
+    /**
+     * Reloads the XMLTV file if media channels have been added while it was loaded
+     */
+    private synchronized void checkPendingChannels(XmlTVGuide guide) {
+        pendingChannelIds.removeAll(guide.getChannelIds());
+        if (!pendingChannelIds.isEmpty()) {
+            logger.debug("Media channels {} have been added while loading, reloading XMLTV file", pendingChannelIds);
+            scheduleChannelReload();
+        }
+    }
+
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        String channelId = (String) childThing.getConfiguration().get(XmlChannelConfiguration.CHANNEL_ID);
+        if (channelId == null) {
+            return;
+        }
+        synchronized (this) {
+            XmlTVGuide guide = currentGuide;
+            if (guide == null) {
+                // the first load is still running, it is checked when the load completes
+                pendingChannelIds.add(channelId.trim());
+            } else if (!guide.getChannelIds().contains(channelId.trim())) {
+                // programmes of this media channel have been skipped by the last load
+                logger.debug("Media channel '{}' has been added, reloading XMLTV file", channelId);
+                pendingChannelIds.add(channelId.trim());
+                scheduleChannelReload();
+            }
+        }
     }
 
     @Override
     public void dispose() {
         logger.debug("Running dispose");
-        if (reloadJob != null && !reloadJob.isCancelled()) {
-            reloadJob.cancel(true);
-            reloadJob = null;
+        synchronized (this) {
+            ScheduledFuture<?> job = reloadJob;
+            if (job != null) {
+                job.cancel(true);
+                reloadJob = null;
+            }
+            job = channelReloadJob;
+            if (job != null) {
+                job.cancel(true);
+                channelReloadJob = null;
+            }
+            pendingChannelIds.clear();
         }
+        currentGuide = null;
     }
 
     @Override
@@ -121,9 +219,20 @@ public class XmlTVHandler extends BaseBridgeHandler {
         // nothing to do
     }
 
-    @Nullable
-    public Tv getXmlFile() {
-        return currentXmlFile;
+    /**
+     * Returns all media channels declared in the XMLTV file
+     */
+    public List<MediaChannel> getMediaChannels() {
+        XmlTVGuide guide = currentGuide;
+        return guide != null ? guide.getMediaChannels() : Collections.emptyList();
+    }
+
+    /**
+     * Returns the schedule of a media channel or null if it is not loaded (yet)
+     */
+    public @Nullable ChannelSchedule getSchedule(String channelId) {
+        XmlTVGuide guide = currentGuide;
+        return guide != null ? guide.getSchedule(channelId) : null;
     }
 
 }
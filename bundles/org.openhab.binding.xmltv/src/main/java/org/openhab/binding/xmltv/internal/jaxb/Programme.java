@@ -66,6 +66,14 @@ public class Programme {
         return categories;
     }
 
+    /**
+     * Returns true if the programme has both a start and a stop time, the stop time is optional in XMLTV files
+     */
+    @SuppressWarnings("null")
+    public boolean hasStartAndStop() {
+        return start != null && !start.isEmpty() && stop != null && !stop.isEmpty();
+    }
+
     public Instant getProgrammeStart() {
         long epoch = iso860DateToEpoch(start);
         return Instant.ofEpochMilli(epoch);
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.xmltv.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Test;
+import org.openhab.binding.xmltv.internal.jaxb.Programme;
+import org.openhab.binding.xmltv.internal.jaxb.Tv;
+
+/**
+ * Tests cases for {@link XmlTVGuide} and {@link ChannelSchedule}.
+ *
+ * @author agent - Initial contribution
+ */
+public class XmlTVGuideTest {
+    private static final String XMLTV = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+            + "<tv generator-info-name=\"test\">\n" //
+            + "  <channel id=\"C1.tv\"><display-name>One</display-name><icon src=\"http://one/logo.png\"/></channel>\n"
+            + "  <channel id=\"C2.tv\"><display-name>Two</display-name></channel>\n" //
+            + "  <programme start=\"20190101200000 +0000\" stop=\"20190101210000 +0000\" channel=\"C1.tv\">"
+            + "<title lang=\"en\">Evening</title></programme>\n" //
+            + "  <programme start=\"20190101180000 +0000\" stop=\"20190101190000 +0000\" channel=\"C1.tv\">"
+            + "<title lang=\"en\">Early</title></programme>\n" //
+            + "  <programme start=\"20190101190000 +0000\" stop=\"20190101200000 +0000\" channel=\"C1.tv\">"
+            + "<title lang=\"en\">News</title><category>Info</category></programme>\n" //
+            + "  <programme start=\"20190101190000 +0000\" stop=\"20190101200000 +0000\" channel=\"C2.tv\">"
+            + "<title lang=\"en\">Other</title><sub-title><i>nested</i></sub-title></programme>\n" //
+            + "  <programme start=\"20190101210000 +0000\" stop=\"20190101223000 +0000\" channel=\" C1.tv \">"
+            + "<title lang=\"en\">Night</title></programme>\n" //
+            + "  <programme start=\"20190101230000 +0000\" channel=\"C1.tv\">"
+            + "<title lang=\"en\">No stop</title></programme>\n" //
+            + "  <programme stop=\"20190101233000 +0000\" channel=\"C1.tv\">"
+            + "<title lang=\"en\">No start</title></programme>\n" //
+            + "</tv>\n";
+
+    private XmlTVGuide read(Set<String> channelIds, Instant now) throws Exception {
+        XMLInputFactory xif = XMLInputFactory.newFactory();
+        xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader xsr = xif.createXMLStreamReader(new StringReader(XMLTV));
+        try {
+            return XmlTVGuide.read(xsr, JAXBContext.newInstance(Tv.class).createUnmarshaller(), channelIds, now);
+        } finally {
+            xsr.close();
+        }
+    }
+
+    private Instant at(String time) {
+        return ZonedDateTime.parse("2019-01-01T" + time + "Z").toInstant();
+    }
+
+    private String title(Programme programme) {
+        return programme.getTitles().get(0).getValue();
+    }
+
+    @Test
+    public void allMediaChannelsAreKept() throws Exception {
+        XmlTVGuide guide = read(new HashSet<>(), at("00:00:00"));
+
+        assertThat(guide.getMediaChannels().size(), is(2));
+        assertThat(guide.getMediaChannels().get(0).getId(), is("C1.tv"));
+        assertThat(guide.getMediaChannels().get(0).getIcons().get(0).getSrc(), is("http://one/logo.png"));
+        assertThat(guide.getMediaChannels().get(1).getDisplayNames().get(0).getValue(), is("Two"));
+        assertThat(guide.getProgrammeCount(), is(0));
+    }
+
+    @Test
+    public void onlySubscribedAndPendingProgrammesAreKept() throws Exception {
+        XmlTVGuide guide = read(new HashSet<>(Arrays.asList("C1.tv")), at("19:30:00"));
+
+        assertThat(guide.getMediaChannels().size(), is(2));
+        assertThat(guide.getSchedule("C2.tv"), is(nullValue()));
+        ChannelSchedule schedule = guide.getSchedule("C1.tv");
+        assertThat(schedule, is(notNullValue()));
+        // "Early" is finished
+        assertThat(schedule.size(), is(3));
+        assertThat(guide.getProgrammeCount(), is(3));
+    }
+
+    @Test
+    public void currentAndNextProgrammeAreFound() throws Exception {
+        ChannelSchedule schedule = read(new HashSet<>(Arrays.asList("C1.tv")), at("00:00:00")).getSchedule("C1.tv");
+        assertThat(schedule, is(notNullValue()));
+
+        // not started yet, the first one to come is the current one
+        assertThat(title(schedule.getProgramme(at("17:00:00"), 0)), is("Early"));
+        assertThat(title(schedule.getProgramme(at("19:00:00"), 0)), is("News"));
+        assertThat(schedule.getProgramme(at("19:00:00"), 0).getCategories().get(0).getValue(), is("Info"));
+        assertThat(title(schedule.getProgramme(at("19:59:59"), 1)), is("Evening"));
+        assertThat(title(schedule.getProgramme(at("22:00:00"), 0)), is("Night"));
+        assertThat(schedule.getProgramme(at("22:00:00"), 1), is(nullValue()));
+        assertThat(schedule.getProgramme(at("22:30:00"), 0), is(nullValue()));
+
+        assertThat(schedule.remaining(at("17:00:00")), is(4));
+        assertThat(schedule.remaining(at("20:30:00")), is(2));
+        assertThat(schedule.remaining(at("23:00:00")), is(0));
+    }
+
+    @Test
+    public void programmesWithoutStartOrStopAreSkipped() throws Exception {
+        XmlTVGuide guide = read(new HashSet<>(Arrays.asList("C1.tv")), at("00:00:00"));
+
+        ChannelSchedule schedule = guide.getSchedule("C1.tv");
+        assertThat(schedule, is(notNullValue()));
+        assertThat(schedule.size(), is(4));
+        assertThat(title(schedule.getProgramme(at("22:00:00"), 0)), is("Night"));
+        assertThat(schedule.getProgramme(at("22:00:00"), 1), is(nullValue()));
+    }
+}
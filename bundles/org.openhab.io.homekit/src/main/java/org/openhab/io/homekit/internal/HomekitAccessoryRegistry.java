@@ -53,28 +53,66 @@ class HomekitAccessoryRegistry {
     }
 
     public synchronized void clear() {
-        Iterator<Entry<String, HomekitAccessory>> iter = createdAccessories.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<String, HomekitAccessory> entry = iter.next();
-            if (bridge != null) {
-                bridge.removeAccessory(entry.getValue());
-            } else {
-                logger.warn("trying to clear {} but bridge is null", entry);
+        beginBatch();
+        try {
+            Iterator<Entry<String, HomekitAccessory>> iter = createdAccessories.entrySet().iterator();
+            while (iter.hasNext()) {
+                Entry<String, HomekitAccessory> entry = iter.next();
+                if (bridge != null) {
+                    bridge.removeAccessory(entry.getValue());
+                } else {
+                    logger.warn("trying to clear {} but bridge is null", entry);
+                }
+                iter.remove();
             }
-            iter.remove();
+        } finally {
+            completeBatch();
         }
         createdIds.clear();
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
         this.bridge = bridge;
-        createdAccessories.values().forEach(accessory -> bridge.addAccessory(accessory));
+        bridge.batchUpdate();
+        try {
+            createdAccessories.values().forEach(accessory -> bridge.addAccessory(accessory));
+        } finally {
+            bridge.completeUpdateBatch();
+        }
+    }
+
+    /**
+     * Starts a batch of changes. The bridge publishes a new configuration to the clients only once the outermost
+     * batch is completed, instead of after every single added or removed accessory.
+     */
+    public synchronized void beginBatch() {
+        if (bridge != null) {
+            bridge.batchUpdate();
+        }
+    }
+
+    /**
+     * Completes a batch of changes started with {@link #beginBatch()}.
+     */
+    public synchronized void completeBatch() {
+        if (bridge != null) {
+            bridge.completeUpdateBatch();
+        }
+    }
+
+    public synchronized boolean contains(String itemName) {
+        return createdAccessories.containsKey(itemName);
     }
 
     public synchronized void unsetBridge() {
         final HomekitRoot oldBridge = bridge;
         if (oldBridge != null) {
-            createdAccessories.values().forEach(accessory -> oldBridge.removeAccessory(accessory));
+            oldBridge.batchUpdate();
+            try {
+                createdAccessories.values().forEach(accessory -> oldBridge.removeAccessory(accessory));
+            } finally {
+                oldBridge.completeUpdateBatch();
+            }
         }
         bridge = null;
     }
@@ -12,9 +12,17 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -30,12 +38,43 @@ import io.github.hapjava.HomekitCharacteristicChangeCallback;
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * State changes are not passed to the Homekit library right away. They are collected for a short window and then
+ * delivered together from a separate thread, so that a dimmer ramp or a group update results in a single
+ * notification per characteristic carrying the latest value. The library reads the current value when it is
+ * notified, therefore intermediate values are dropped without further bookkeeping.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
 
+    /** Time in milliseconds during which changes of the same characteristic are coalesced */
+    static final long DEFAULT_NOTIFICATION_WINDOW = 100;
+    /** Interval in milliseconds at which notification rates are logged */
+    private static final long RATE_REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final ScheduledExecutorService scheduler;
+    private final long notificationWindow;
+    private final Map<ItemKey, HomekitCharacteristicChangeCallback> pendingNotifications = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushJob;
+
+    private long receivedChanges;
+    private long coalescedChanges;
+    private long deliveredNotifications;
+    private long lastRateReport = System.currentTimeMillis();
+    private long lastReceivedChanges;
+    private long lastDeliveredNotifications;
+
+    public HomekitAccessoryUpdater() {
+        this(ThreadPoolManager.getScheduledPool("homekit"), DEFAULT_NOTIFICATION_WINDOW);
+    }
+
+    HomekitAccessoryUpdater(ScheduledExecutorService scheduler, long notificationWindow) {
+        this.scheduler = scheduler;
+        this.notificationWindow = notificationWindow;
+    }
+
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
     }
@@ -56,7 +95,7 @@ public class HomekitAccessoryUpdater {
                 unsubscribe(item, key);
             }
             logger.debug("Adding subscription for {} / {}", item, key);
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = (changedItem, oldState, newState) -> changed(itemKey, callback);
             item.addStateChangeListener(subscription);
             return subscription;
         });
@@ -70,11 +109,105 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
+        ItemKey itemKey = new ItemKey(item, key);
+        subscriptionsByName.computeIfPresent(itemKey, (k, v) -> {
             logger.debug("Removing existing subscription for {} / {}", item, key);
             item.removeStateChangeListener(v);
             return null;
         });
+        synchronized (pendingNotifications) {
+            pendingNotifications.remove(itemKey);
+        }
+    }
+
+    /**
+     * Cancels all pending notifications. Subscriptions are left untouched, as they are owned by the accessories.
+     */
+    public void stop() {
+        synchronized (pendingNotifications) {
+            pendingNotifications.clear();
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                flushJob = null;
+            }
+        }
+    }
+
+    public long getReceivedChanges() {
+        synchronized (pendingNotifications) {
+            return receivedChanges;
+        }
+    }
+
+    public long getCoalescedChanges() {
+        synchronized (pendingNotifications) {
+            return coalescedChanges;
+        }
+    }
+
+    public long getDeliveredNotifications() {
+        synchronized (pendingNotifications) {
+            return deliveredNotifications;
+        }
+    }
+
+    /**
+     * Queues a notification for the characteristic. A change that arrives while a notification for the same
+     * item/key is still pending replaces it.
+     */
+    private void changed(ItemKey itemKey, HomekitCharacteristicChangeCallback callback) {
+        synchronized (pendingNotifications) {
+            receivedChanges++;
+            if (pendingNotifications.put(itemKey, callback) != null) {
+                coalescedChanges++;
+            }
+            if (flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, notificationWindow, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Delivers all pending notifications in one pass, so that the library sends the resulting events to each
+     * connected client back to back.
+     */
+    void flush() {
+        List<HomekitCharacteristicChangeCallback> callbacks;
+        synchronized (pendingNotifications) {
+            flushJob = null;
+            callbacks = new ArrayList<>(pendingNotifications.values());
+            pendingNotifications.clear();
+            deliveredNotifications += callbacks.size();
+        }
+        logger.trace("Delivering {} coalesced characteristic notifications", callbacks.size());
+        for (HomekitCharacteristicChangeCallback callback : callbacks) {
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify Homekit clients: {}", e.getMessage());
+            }
+        }
+        reportRates();
+    }
+
+    private void reportRates() {
+        long now = System.currentTimeMillis();
+        long received;
+        long delivered;
+        long elapsed;
+        synchronized (pendingNotifications) {
+            elapsed = now - lastRateReport;
+            if (elapsed < RATE_REPORT_INTERVAL) {
+                return;
+            }
+            received = receivedChanges - lastReceivedChanges;
+            delivered = deliveredNotifications - lastDeliveredNotifications;
+            lastRateReport = now;
+            lastReceivedChanges = receivedChanges;
+            lastDeliveredNotifications = deliveredNotifications;
+        }
+        logger.debug("Homekit notifications: {} changes/min received, {} notifications/min delivered",
+                received * RATE_REPORT_INTERVAL / elapsed, delivered * RATE_REPORT_INTERVAL / elapsed);
     }
 
     @FunctionalInterface
@@ -14,14 +14,18 @@ package org.openhab.io.homekit.internal;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
@@ -37,6 +41,10 @@ import io.github.hapjava.HomekitRoot;
  * Listens for changes to the item registry. When changes are detected, check
  * for Homekit tags and, if present, add the items to the HomekitAccessoryRegistry.
  *
+ * All accessory groups are indexed by name, so that the accessory a changed item belongs to can be found without
+ * registry lookups. When pending changes are applied, an accessory is only recreated if the items and tags it is built
+ * from have changed, and all changes are published to the clients as a single configuration update.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitChangeListener implements ItemRegistryChangeListener {
@@ -47,6 +55,8 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     private HomekitSettings settings;
 
     private Set<String> pendingUpdates = new HashSet<String>();
+    private final Map<String, GroupItem> accessoryGroups = new HashMap<>();
+    private final Map<String, AccessoryMapping> accessoryMappings = new HashMap<>();
 
     private final ScheduledExecutorService scheduler = ThreadPoolManager
             .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
@@ -68,20 +78,41 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
                 Clock.systemUTC(), this::applyUpdates);
 
         itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getAll().stream().map(item -> new HomekitTaggedItem(item, itemRegistry))
-                .filter(taggedItem -> taggedItem.isAccessory())
-                .filter(taggedItem -> !taggedItem.isMemberOfAccessoryGroup())
-                .forEach(rootTaggedItem -> createRootAccessory(rootTaggedItem));
+        synchronized (this) {
+            Collection<Item> items = itemRegistry.getAll();
+            indexAccessoryGroups(items);
+            items.stream().filter(item -> HomekitAccessoryType.fromItem(item) != null)
+                    .forEach(item -> pendingUpdates.add(item.getName()));
+            applyUpdates();
+        }
     }
 
     @Override
     public synchronized void added(Item item) {
+        indexAccessoryGroup(item);
         markDirty(item);
     }
 
     @Override
-    public void allItemsChanged(Collection<String> oldItemNames) {
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
         clearAccessories();
+        indexAccessoryGroups(itemRegistry.getAll());
+    }
+
+    private void indexAccessoryGroups(Collection<Item> items) {
+        accessoryGroups.clear();
+        items.forEach(this::indexAccessoryGroup);
+    }
+
+    private void indexAccessoryGroup(Item item) {
+        if (isAccessoryGroup(item)) {
+            accessoryGroups.put(item.getName(), (GroupItem) item);
+        }
+    }
+
+    private static boolean isAccessoryGroup(Item item) {
+        return item instanceof GroupItem
+                && item.getTags().stream().anyMatch(tag -> HomekitAccessoryType.valueOfTag(tag) != null);
     }
 
     /**
@@ -93,11 +124,13 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     private synchronized void markDirty(Item item) {
         pendingUpdates.add(item.getName());
         /*
-         * If findMyAccessoryGroups fails because the accessory group has already been deleted, then we can count on a
-         * later update telling us that the accessory group was removed.
+         * If the accessory group has already been deleted, then we can count on a later update telling us that the
+         * accessory group was removed.
          */
-        for (Item accessoryGroup : HomekitTaggedItem.findMyAccessoryGroups(item, itemRegistry)) {
-            pendingUpdates.add(accessoryGroup.getName());
+        for (String groupName : item.getGroupNames()) {
+            if (accessoryGroups.containsKey(groupName)) {
+                pendingUpdates.add(groupName);
+            }
         }
 
         applyUpdatesDebouncer.call();
@@ -105,6 +138,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     @Override
     public synchronized void removed(Item item) {
+        accessoryGroups.remove(item.getName());
         markDirty(item);
     }
 
@@ -116,27 +150,61 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         }
     }
 
-    private synchronized void applyUpdates() {
-        Iterator<String> iter = pendingUpdates.iterator();
+    /**
+     * Returns the accessory groups an item is a member of, as found in the index of accessory groups.
+     */
+    private List<GroupItem> findAccessoryGroups(Item item) {
+        List<GroupItem> groups = new ArrayList<>();
+        for (String groupName : item.getGroupNames()) {
+            GroupItem group = accessoryGroups.get(groupName);
+            if (group != null) {
+                groups.add(group);
+            }
+        }
+        return groups;
+    }
 
-        while (iter.hasNext()) {
-            String name = iter.next();
-            accessoryRegistry.remove(name);
+    private synchronized void applyUpdates() {
+        int recreated = 0;
+        accessoryRegistry.beginBatch();
+        try {
+            for (String name : pendingUpdates) {
+                Optional<HomekitTaggedItem> rootItem = getItemOptional(name)
+                        .map(i -> new HomekitTaggedItem(i, findAccessoryGroups(i)))
+                        .filter(i -> i.isAccessory() && !i.isMemberOfAccessoryGroup());
+                AccessoryMapping mapping = rootItem.map(i -> new AccessoryMapping(i.getItem())).orElse(null);
+                if (mapping != null && mapping.equals(accessoryMappings.get(name))
+                        && accessoryRegistry.contains(name)) {
+                    continue;
+                }
 
-            getItemOptional(name).map(i -> new HomekitTaggedItem(i, itemRegistry))
-                    .filter(i -> i.isAccessory() && !i.isMemberOfAccessoryGroup())
-                    .ifPresent(rootItem -> createRootAccessory(rootItem));
+                accessoryRegistry.remove(name);
+                accessoryMappings.remove(name);
+                if (rootItem.isPresent()) {
+                    accessoryMappings.put(name, mapping);
+                    createRootAccessory(rootItem.get());
+                    recreated++;
+                }
+            }
+        } finally {
+            accessoryRegistry.completeBatch();
         }
+        logger.debug("Applied {} pending homekit updates, {} accessories recreated", pendingUpdates.size(),
+                recreated);
+        pendingUpdates.clear();
     }
 
     @Override
-    public void updated(Item oldElement, Item element) {
+    public synchronized void updated(Item oldElement, Item element) {
+        accessoryGroups.remove(oldElement.getName());
+        indexAccessoryGroup(element);
         markDirty(oldElement);
         markDirty(element);
     }
 
     public synchronized void clearAccessories() {
         accessoryRegistry.clear();
+        accessoryMappings.clear();
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
@@ -148,6 +216,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
+        this.updater.stop();
         this.updater = updater;
     }
 
@@ -157,6 +226,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     public void stop() {
         this.itemRegistry.removeRegistryChangeListener(this);
+        updater.stop();
     }
 
     private void createRootAccessory(HomekitTaggedItem taggedItem) {
@@ -174,4 +244,51 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
             logger.warn("Could not add device {}: {}", taggedItem.getItem().getUID(), e.getMessage());
         }
     }
+
+    /**
+     * The items and tags an accessory is built from. Items are compared by identity, as an accessory subscribes to
+     * the item instances it has been created with.
+     */
+    static class AccessoryMapping {
+        private final List<Item> items = new ArrayList<>();
+        private final List<Object> tags = new ArrayList<>();
+
+        AccessoryMapping(Item rootItem) {
+            add(rootItem);
+            tags.add(new HashSet<>(rootItem.getGroupNames()));
+            if (rootItem instanceof GroupItem) {
+                ((GroupItem) rootItem).getMembers().forEach(this::add);
+            }
+        }
+
+        private void add(Item item) {
+            items.add(item);
+            tags.add(new HashSet<>(item.getTags()));
+        }
+
+        @Override
+        public int hashCode() {
+            return tags.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            AccessoryMapping other = (AccessoryMapping) obj;
+            if (items.size() != other.items.size() || !tags.equals(other.tags)) {
+                return false;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) != other.items.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -53,6 +53,16 @@ public class HomekitTaggedItem {
     private GroupItem parentGroupItem;
 
     public HomekitTaggedItem(Item item, ItemRegistry itemRegistry) {
+        this(item, findMyAccessoryGroups(item, itemRegistry));
+    }
+
+    /**
+     * Creates a tagged item from the accessory groups the item is a member of, which have been looked up already.
+     *
+     * @param item the item
+     * @param accessoryGroups the groups of the item which are tagged as Homekit accessories
+     */
+    public HomekitTaggedItem(Item item, List<GroupItem> accessoryGroups) {
         this.item = item;
 
         try {
@@ -62,9 +72,7 @@ public class HomekitTaggedItem {
                 throw new BadItemConfigurationException(
                         "Items cannot be tagged as both a characteristic and an accessory type");
             }
-            List<GroupItem> matchingGroupItems = findMyAccessoryGroups(item, itemRegistry);
-
-            switch (matchingGroupItems.size()) {
+            switch (accessoryGroups.size()) {
                 case 0: // Does not belong to a accessory group
                     if (homekitCharacteristicType != null) {
                         throw new BadItemConfigurationException(
@@ -78,7 +86,7 @@ public class HomekitTaggedItem {
                         throw new BadItemConfigurationException("Nested Accessory Groups are not supported");
                     }
 
-                    parentGroupItem = matchingGroupItems.get(0);
+                    parentGroupItem = accessoryGroups.get(0);
                     break;
                 default: // Belongs to more than one accessory group
                     throw new BadItemConfigurationException(
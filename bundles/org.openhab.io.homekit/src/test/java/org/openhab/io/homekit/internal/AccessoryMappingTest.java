@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.smarthome.core.items.GroupItem;
+import org.eclipse.smarthome.core.library.items.NumberItem;
+import org.eclipse.smarthome.core.library.items.StringItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.homekit.internal.HomekitChangeListener.AccessoryMapping;
+
+/**
+ * Tests for {@link AccessoryMapping}, which decides whether an accessory has to be recreated.
+ *
+ * @author agent - Initial contribution
+ */
+public class AccessoryMappingTest {
+    private GroupItem group;
+    private NumberItem target;
+
+    @Before
+    public void setUp() {
+        group = new GroupItem("thermostat");
+        group.addTag("Thermostat");
+        target = new NumberItem("targetTemperature");
+        target.addTag("homekit:TargetTemperature");
+        group.addMember(target);
+    }
+
+    @Test
+    public void unchangedAccessoryIsEqual() {
+        assertEquals(new AccessoryMapping(group), new AccessoryMapping(group));
+    }
+
+    @Test
+    public void changedTagIsDetected() {
+        AccessoryMapping before = new AccessoryMapping(group);
+        target.removeTag("homekit:TargetTemperature");
+        assertNotEquals(before, new AccessoryMapping(group));
+    }
+
+    @Test
+    public void addedMemberIsDetected() {
+        AccessoryMapping before = new AccessoryMapping(group);
+        group.addMember(new StringItem("heatingMode"));
+        assertNotEquals(before, new AccessoryMapping(group));
+    }
+
+    @Test
+    public void replacedItemInstanceIsDetected() {
+        AccessoryMapping before = new AccessoryMapping(group);
+        group.removeAllMembers();
+        NumberItem replacement = new NumberItem("targetTemperature");
+        replacement.addTag("homekit:TargetTemperature");
+        group.addMember(replacement);
+        assertNotEquals(before, new AccessoryMapping(group));
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.StateChangeListener;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.github.hapjava.HomekitCharacteristicChangeCallback;
+
+/**
+ * Tests for the coalescing of characteristic change notifications in {@link HomekitAccessoryUpdater}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HomekitAccessoryUpdaterTest {
+    private ScheduledExecutorService scheduler;
+    private HomekitAccessoryUpdater updater;
+
+    @Before
+    public void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        updater = new HomekitAccessoryUpdater(scheduler, 100);
+    }
+
+    private StateChangeListener subscribe(GenericItem item, String key, HomekitCharacteristicChangeCallback callback) {
+        updater.subscribe(item, key, callback);
+        ArgumentCaptor<StateChangeListener> listener = ArgumentCaptor.forClass(StateChangeListener.class);
+        verify(item).addStateChangeListener(listener.capture());
+        return listener.getValue();
+    }
+
+    @Test
+    public void changesAreCoalescedUntilFlush() {
+        GenericItem item = mock(GenericItem.class);
+        HomekitCharacteristicChangeCallback callback = mock(HomekitCharacteristicChangeCallback.class);
+        StateChangeListener listener = subscribe(item, null, callback);
+
+        for (int i = 0; i < 10; i++) {
+            listener.stateChanged(item, new PercentType(i), new PercentType(i + 1));
+        }
+        verify(callback, never()).changed();
+        verify(scheduler, times(1)).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+
+        updater.flush();
+        verify(callback, times(1)).changed();
+        assertEquals(10, updater.getReceivedChanges());
+        assertEquals(9, updater.getCoalescedChanges());
+        assertEquals(1, updater.getDeliveredNotifications());
+
+        listener.stateChanged(item, new PercentType(11), new PercentType(12));
+        verify(scheduler, times(2)).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void eachCharacteristicIsNotifiedOnce() {
+        GenericItem item = mock(GenericItem.class);
+        HomekitCharacteristicChangeCallback brightness = mock(HomekitCharacteristicChangeCallback.class);
+        HomekitCharacteristicChangeCallback power = mock(HomekitCharacteristicChangeCallback.class);
+        updater.subscribe(item, "brightness", brightness);
+        updater.subscribe(item, "power", power);
+        ArgumentCaptor<StateChangeListener> listeners = ArgumentCaptor.forClass(StateChangeListener.class);
+        verify(item, times(2)).addStateChangeListener(listeners.capture());
+
+        for (StateChangeListener listener : listeners.getAllValues()) {
+            listener.stateChanged(item, new PercentType(0), new PercentType(50));
+            listener.stateChanged(item, new PercentType(50), new PercentType(100));
+        }
+        updater.flush();
+
+        verify(brightness, times(1)).changed();
+        verify(power, times(1)).changed();
+    }
+
+    @Test
+    public void unsubscribeDropsPendingNotification() {
+        GenericItem item = mock(GenericItem.class);
+        HomekitCharacteristicChangeCallback callback = mock(HomekitCharacteristicChangeCallback.class);
+        StateChangeListener listener = subscribe(item, null, callback);
+
+        listener.stateChanged(item, new PercentType(0), new PercentType(1));
+        updater.unsubscribe(item);
+        updater.flush();
+
+        verify(item).removeStateChangeListener(listener);
+        verify(callback, never()).changed();
+    }
+}
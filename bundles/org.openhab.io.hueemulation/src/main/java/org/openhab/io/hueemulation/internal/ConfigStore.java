@@ -18,6 +18,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -58,6 +59,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 
 /**
  * This component sets up the hue data store and gets the service configuration.
@@ -93,13 +95,30 @@ public class ConfigStore {
     /**
      * This is the main gson instance, to be obtained by all components that operate on the dto data fields
      */
-    public final Gson gson = new GsonBuilder().registerTypeAdapter(HueLightEntry.class, new HueLightEntry.Serializer())
-            .registerTypeAdapter(HueSensorEntry.class, new HueSensorEntry.Serializer())
-            .registerTypeAdapter(HueRuleEntry.Condition.class, new HueRuleEntry.SerializerCondition())
-            .registerTypeAdapter(HueAuthorizedConfig.class, new HueAuthorizedConfig.Serializer())
-            .registerTypeAdapter(HueSuccessGeneric.class, new HueSuccessGeneric.Serializer())
-            .registerTypeAdapter(HueSuccessResponseStateChanged.class, new HueSuccessResponseStateChanged.Serializer())
-            .registerTypeAdapter(HueGroupEntry.class, new HueGroupEntry.Serializer(this)).create();
+    public final Gson gson = createGsonBuilder().create();
+
+    /**
+     * The serialized lights, groups and sensors. Those are polled by hue clients very often, but rarely change.
+     */
+    public final JsonFragmentCache<HueLightEntry> lightsJson = new JsonFragmentCache<>(gson,
+            light -> new Object[] { light.item, light.item.getState(), light.item.getLabel(), light.name,
+                    light.deviceType });
+    public final JsonFragmentCache<HueGroupEntry> groupsJson = new JsonFragmentCache<>(gson,
+            group -> new Object[] { group.groupItem, group.groupItem != null ? group.groupItem.getMembers() : null,
+                    group.lights, group.sensors, group.name, group.type, group.roomclass, group.action });
+    public final JsonFragmentCache<HueSensorEntry> sensorsJson = new JsonFragmentCache<>(gson,
+            sensor -> new Object[] { sensor.item.getState(), sensor.name });
+
+    /**
+     * Serializes the full data store, but writes the lights, groups and sensors from the fragment caches
+     */
+    private final Gson dataStoreGson = createGsonBuilder()
+            .registerTypeAdapter(new TypeToken<TreeMap<String, HueLightEntry>>() {
+            }.getType(), lightsJson.asTypeAdapter())
+            .registerTypeAdapter(new TypeToken<TreeMap<String, HueGroupEntry>>() {
+            }.getType(), groupsJson.asTypeAdapter())
+            .registerTypeAdapter(new TypeToken<Map<String, HueSensorEntry>>() {
+            }.getType(), sensorsJson.asTypeAdapter()).create();
 
     @Reference
     protected @NonNullByDefault({}) ConfigurationAdmin configAdmin;
@@ -302,6 +321,27 @@ public class ConfigStore {
         return String.valueOf(hueId);
     }
 
+    /**
+     * Serializes the full data store like {@code gson.toJson(ds)} would, but takes the lights, groups and sensors
+     * from the fragment caches.
+     *
+     * @return The data store as JSON
+     */
+    public String dataStoreToJson() {
+        return dataStoreGson.toJson(ds);
+    }
+
+    private GsonBuilder createGsonBuilder() {
+        return new GsonBuilder().registerTypeAdapter(HueLightEntry.class, new HueLightEntry.Serializer())
+                .registerTypeAdapter(HueSensorEntry.class, new HueSensorEntry.Serializer())
+                .registerTypeAdapter(HueRuleEntry.Condition.class, new HueRuleEntry.SerializerCondition())
+                .registerTypeAdapter(HueAuthorizedConfig.class, new HueAuthorizedConfig.Serializer())
+                .registerTypeAdapter(HueSuccessGeneric.class, new HueSuccessGeneric.Serializer())
+                .registerTypeAdapter(HueSuccessResponseStateChanged.class,
+                        new HueSuccessResponseStateChanged.Serializer())
+                .registerTypeAdapter(HueGroupEntry.class, new HueGroupEntry.Serializer(this));
+    }
+
     public boolean isReady() {
         return discoveryIps.size() > 0;
     }
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Keeps the serialized JSON of the entries of a hue data store collection (lights, groups, sensors).
+ * <p>
+ * The serializers of those entries read the current item state and label on every call. Instead of listening
+ * to all item state events, each cached fragment remembers a fingerprint of everything its serializer reads.
+ * A fragment is only serialized again if the entry object got replaced or the fingerprint changed.
+ * Collection responses are assembled from the cached fragments.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JsonFragmentCache<T> {
+    private final Gson gson;
+    private final Function<T, @Nullable Object[]> fingerprint;
+    private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Fragment {
+        final Object entry;
+        final @Nullable Object[] fingerprint;
+        final String json;
+
+        Fragment(Object entry, @Nullable Object[] fingerprint, String json) {
+            this.entry = entry;
+            this.fingerprint = fingerprint;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Creates a fragment cache.
+     *
+     * @param gson The gson instance with the serializers of the entries registered
+     * @param fingerprint Returns all values the serialized form of an entry depends on. Values are compared with
+     *            {@link Object#equals(Object)}.
+     */
+    public JsonFragmentCache(Gson gson, Function<T, @Nullable Object[]> fingerprint) {
+        this.gson = gson;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the serialized entry. The entry is only serialized if it changed since the last call.
+     *
+     * @param id The hue ID of the entry
+     * @param entry The entry. If null, "null" is returned, like {@link Gson#toJson(Object)} does.
+     */
+    public String toJson(String id, @Nullable T entry) {
+        if (entry == null) {
+            return "null";
+        }
+        @Nullable
+        Object[] current = fingerprint.apply(entry);
+        Fragment fragment = fragments.get(id);
+        if (fragment != null && fragment.entry == entry && Arrays.equals(fragment.fingerprint, current)) {
+            hits.incrementAndGet();
+            return fragment.json;
+        }
+        misses.incrementAndGet();
+        String json = gson.toJson(entry);
+        fragments.put(id, new Fragment(entry, current, json));
+        return json;
+    }
+
+    /**
+     * Returns the serialized collection as a JSON object with the hue IDs as keys, assembled from the cached
+     * fragments. Fragments of entries that are not part of the collection anymore are dropped.
+     *
+     * @param entries The collection
+     */
+    public String toJson(Map<String, T> entries) {
+        StringBuilder json = new StringBuilder(64 * entries.size() + 2).append('{');
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(gson.toJson(entry.getKey())).append(':').append(toJson(entry.getKey(), entry.getValue()));
+        }
+        if (fragments.size() > entries.size()) {
+            fragments.keySet().retainAll(entries.keySet());
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Returns a type adapter which writes a collection with {@link #toJson(Map)}. It is meant to be registered for the
+     * declared type of a collection field, so that a gson instance takes the collection from this cache when it
+     * serializes the object containing it. Reading is not supported.
+     */
+    public TypeAdapter<Map<String, T>> asTypeAdapter() {
+        return new TypeAdapter<Map<String, T>>() {
+            @Override
+            public void write(JsonWriter out, @Nullable Map<String, T> entries) throws IOException {
+                if (entries == null) {
+                    out.nullValue();
+                } else {
+                    out.jsonValue(toJson(entries));
+                }
+            }
+
+            @Override
+            public Map<String, T> read(JsonReader in) throws IOException {
+                throw new UnsupportedOperationException("Cached collections can only be written");
+            }
+        };
+    }
+
+    /**
+     * Removes all cached fragments.
+     */
+    public void clear() {
+        fragments.clear();
+    }
+
+    /**
+     * Returns how many fragments have been served from the cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many fragments had to be serialized.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -16,10 +16,16 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -139,4 +145,35 @@ public class NetworkUtils {
         }.getType())).build();
     }
 
+    /**
+     * Creates a json response with an entity tag. Clients that send the tag of their last response with
+     * "If-None-Match" get a "304 Not Modified" without a body instead.
+     *
+     * @param request The request
+     * @param json The serialized response
+     * @return A response
+     */
+    public static Response cachedJson(Request request, String json) {
+        EntityTag tag = new EntityTag(digest(json));
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true); // Always revalidate, item states change at any time
+        ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+        return Response.ok(json).tag(tag).cacheControl(cacheControl).build();
+    }
+
+    /**
+     * Returns the SHA-256 digest of a serialized response, for use as an entity tag.
+     */
+    private static String digest(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -26,11 +26,16 @@ import java.nio.channels.Selector;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -64,6 +69,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Advertises a Hue compatible bridge via UPNP and provides the announced /description.xml http endpoint.
+ * <p>
+ * M-SEARCH requests are answered through the same non-blocking multicast channel they were received on. The
+ * response datagrams are rendered once per discovery address whenever the configuration changes. A requester
+ * whose address is in the subnet of a discovery address gets the location on that address, everybody else the
+ * location on the primary address. Repeated searches from the same requester within
+ * {@link #MIN_RESPONSE_INTERVAL_MS} are not answered again.
  *
  * @author Dan Cunningham - Initial contribution
  * @author David Graeff - Rewritten
@@ -92,13 +103,63 @@ public class UpnpServer extends HttpServlet implements Consumer<HueEmulationConf
      * Send a keep alive every 2 minutes
      */
     private static final int CACHE_MSECS = 120 * 1000;
+    /**
+     * Minimum time between two responses to the same requester. Some clients send bursts of M-SEARCH requests.
+     */
+    static final long MIN_RESPONSE_INTERVAL_MS = 500;
+    private static final byte[] M_SEARCH = "M-SEARCH".getBytes(StandardCharsets.US_ASCII);
 
     private final Logger logger = LoggerFactory.getLogger(UpnpServer.class);
 
     public final InetAddress MULTI_ADDR_IPV4;
     public final InetAddress MULTI_ADDR_IPV6;
-    private String[] stVersions = { "", "", "" };
-    private String notifyMsg = "";
+
+    /**
+     * The pre-rendered datagrams for one discovery address
+     */
+    static class ResponseDatagrams {
+        final InetAddress address;
+        final int prefixLength;
+        final ByteBuffer[] searchResponses;
+        final ByteBuffer notify;
+
+        ResponseDatagrams(InetAddress address, int prefixLength, ByteBuffer[] searchResponses, ByteBuffer notify) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+            this.searchResponses = searchResponses;
+            this.notify = notify;
+        }
+
+        /**
+         * Return true if the given address is in the same subnet as the discovery address.
+         */
+        boolean isInSubnet(InetAddress other) {
+            byte[] a = address.getAddress();
+            byte[] b = other.getAddress();
+            if (a.length != b.length || prefixLength <= 0) {
+                return false;
+            }
+            int bits = Math.min(prefixLength, a.length * 8);
+            int i = 0;
+            for (; bits >= 8; bits -= 8, ++i) {
+                if (a[i] != b[i]) {
+                    return false;
+                }
+            }
+            int mask = (0xff00 >> bits) & 0xff;
+            return bits == 0 || (a[i] & mask) == (b[i] & mask);
+        }
+    }
+
+    private volatile List<ResponseDatagrams> responseDatagrams = Collections.emptyList();
+    private volatile @Nullable ResponseDatagrams primaryDatagrams;
+
+    /** Last response time per requester, only accessed by the upnp thread */
+    private final Map<SocketAddress, Long> lastResponses = new HashMap<>();
+    private final AtomicLong responsesSent = new AtomicLong();
+    private final AtomicLong requestsThrottled = new AtomicLong();
+    private final AtomicLong responseLatencySum = new AtomicLong();
+    private final AtomicLong responseLatencyMax = new AtomicLong();
 
     //// objects, set within activate()
     protected @NonNullByDefault({}) String xmlDoc;
@@ -201,29 +262,77 @@ public class UpnpServer extends HttpServlet implements Consumer<HueEmulationConf
         final String urlBase = "http://" + r.addressString + ":" + r.port;
         this.baseurl = urlBase + DISCOVERY_FILE;
 
+        List<ResponseDatagrams> datagrams = new ArrayList<>();
+        ResponseDatagrams primary = renderDatagrams(r, r.address, r.addressString, 0);
+        for (InetAddress address : cs.getDiscoveryIps()) {
+            if (address.equals(r.address)) {
+                primary = renderDatagrams(r, address, r.addressString, getPrefixLength(address));
+                datagrams.add(primary);
+            } else {
+                String addressString = address instanceof Inet6Address
+                        ? "[" + address.getHostAddress().split("%")[0] + "]"
+                        : address.getHostAddress();
+                datagrams.add(renderDatagrams(r, address, addressString, getPrefixLength(address)));
+            }
+        }
+        this.responseDatagrams = datagrams;
+        this.primaryDatagrams = primary;
+
+        xmlDocWithAddress = String.format(xmlDoc, urlBase, r.addressString, cs.ds.config.bridgeid, cs.ds.config.uuid,
+                cs.ds.config.devicename);
+
+    }
+
+    /**
+     * Render the search responses and the notify message announcing the description on the given address.
+     */
+    private ResponseDatagrams renderDatagrams(HueEmulationConfigWithRuntime r, InetAddress address,
+            String addressString, int prefixLength) {
+        final String location = "http://" + addressString + ":" + r.port + DISCOVERY_FILE;
+        final String multicastAddress = address instanceof Inet6Address
+                ? "[" + MULTI_ADDR_IPV6.getHostAddress().split("%")[0] + "]"
+                : MULTI_ADDR_IPV4.getHostAddress();
+
         final String[] stVersions = { "upnp:rootdevice", "urn:schemas-upnp-org:device:basic:1",
                 "uuid:" + config.config.uuid };
+        ByteBuffer[] searchResponses = new ByteBuffer[stVersions.length];
         for (int i = 0; i < stVersions.length; ++i) {
-            this.stVersions[i] = String.format(
+            searchResponses[i] = toDatagram(String.format(
                     "HTTP/1.1 200 OK\r\n" + "HOST: %s:%d\r\n" + "EXT:\r\n" + "CACHE-CONTROL: max-age=%d\r\n"
                             + "LOCATION: %s\r\n" + "SERVER: Linux/3.14.0 UPnP/1.0 IpBridge/%s\r\n"
                             + "hue-bridgeid: %s\r\n" + "ST: %s\r\n" + "USN: uuid:%s\r\n\r\n",
-                    r.getMulticastAddress(), UPNP_PORT, CACHE_MSECS / 1000, baseurl, // host:port,
-                                                                                     // cache,location
+                    multicastAddress, UPNP_PORT, CACHE_MSECS / 1000, location, // host:port, cache,location
                     cs.ds.config.apiversion, cs.ds.config.bridgeid, // version, bridgeid
-                    stVersions[i], config.config.uuid);
+                    stVersions[i], config.config.uuid));
         }
 
-        this.notifyMsg = String.format(
+        ByteBuffer notify = toDatagram(String.format(
                 "NOTIFY * HTTP/1.1\r\n" + "HOST: %s:%d\r\n" + "CACHE-CONTROL: max-age=%d\r\n" + "LOCATION: %s\r\n"
                         + "SERVER: Linux/3.14.0 UPnP/1.0 IpBridge/%s\r\nNTS: ssdp:alive\r\nNT: upnp:rootdevice\r\n"
                         + "USN: uuid:%s::upnp:rootdevice\r\n" + "hue-bridgeid: %s\r\n\r\n",
-                r.getMulticastAddress(), UPNP_PORT, CACHE_MSECS / 1000, baseurl, // host:port, cache,location
-                cs.ds.config.apiversion, config.config.uuid, cs.ds.config.bridgeid);// version, uuid, bridgeid
+                multicastAddress, UPNP_PORT, CACHE_MSECS / 1000, location, // host:port, cache,location
+                cs.ds.config.apiversion, config.config.uuid, cs.ds.config.bridgeid));// version, uuid, bridgeid
 
-        xmlDocWithAddress = String.format(xmlDoc, urlBase, r.addressString, cs.ds.config.bridgeid, cs.ds.config.uuid,
-                cs.ds.config.devicename);
+        return new ResponseDatagrams(address, prefixLength, searchResponses, notify);
+    }
 
+    private static ByteBuffer toDatagram(String message) {
+        return ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    private static int getPrefixLength(InetAddress address) {
+        try {
+            NetworkInterface networkInterface = NetworkInterface.getByInetAddress(address);
+            if (networkInterface != null) {
+                for (InterfaceAddress interfaceAddress : networkInterface.getInterfaceAddresses()) {
+                    if (address.equals(interfaceAddress.getAddress())) {
+                        return interfaceAddress.getNetworkPrefixLength();
+                    }
+                }
+            }
+        } catch (SocketException ignored) {
+        }
+        return 0;
     }
 
     protected @Nullable HueEmulationConfigWithRuntime performAddressTest(
@@ -369,41 +478,120 @@ public class UpnpServer extends HttpServlet implements Consumer<HueEmulationConf
         ClientRecord clntRec = (ClientRecord) key.attachment();
         clntRec.buffer.clear(); // Prepare buffer for receiving
         clntRec.clientAddress = channel.receive(clntRec.buffer);
+        long received = System.nanoTime();
         InetSocketAddress recAddress = (InetSocketAddress) clntRec.clientAddress;
         if (recAddress == null) { // Did we receive something?
             return;
         }
-        String data = new String(clntRec.buffer.array(), StandardCharsets.UTF_8);
-        if (!data.startsWith("M-SEARCH")) {
+        if (!startsWith(clntRec.buffer, M_SEARCH)) {
+            return;
+        }
+
+        Long lastResponse = lastResponses.get(recAddress);
+        if (lastResponse != null && received - lastResponse < TimeUnit.MILLISECONDS.toNanos(MIN_RESPONSE_INTERVAL_MS)) {
+            requestsThrottled.incrementAndGet();
+            logger.trace("Not answering repeated M-SEARCH from {}", recAddress);
+            return;
+        }
+        if (lastResponses.size() > 256) {
+            lastResponses.values().removeIf(
+                    time -> received - time >= TimeUnit.MILLISECONDS.toNanos(MIN_RESPONSE_INTERVAL_MS));
+        }
+        lastResponses.put(recAddress, received);
+
+        ResponseDatagrams datagrams = datagramsFor(recAddress.getAddress());
+        if (datagrams == null) {
             return;
         }
+        sendUPNPDatagrams(channel, datagrams.searchResponses, recAddress);
+
+        long latency = System.nanoTime() - received;
+        responsesSent.incrementAndGet();
+        responseLatencySum.addAndGet(latency);
+        responseLatencyMax.accumulateAndGet(latency, Math::max);
+    }
 
-        try (DatagramSocket sendSocket = new DatagramSocket()) {
-            sendUPNPDatagrams(sendSocket, recAddress.getAddress(), recAddress.getPort());
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.position() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; ++i) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
         }
+        return true;
     }
 
-    private void sendUPNPDatagrams(DatagramSocket sendSocket, InetAddress address, int port) {
+    /**
+     * Return the datagrams for the discovery address in the subnet of the requester or for the primary address.
+     */
+    private @Nullable ResponseDatagrams datagramsFor(InetAddress requester) {
+        for (ResponseDatagrams datagrams : responseDatagrams) {
+            if (datagrams.isInSubnet(requester)) {
+                return datagrams;
+            }
+        }
+        return primaryDatagrams;
+    }
+
+    private void sendUPNPDatagrams(DatagramChannel channel, ByteBuffer[] messages, SocketAddress target) {
         logger.trace("upnp thread send announcement");
-        for (String msg : stVersions) {
-            DatagramPacket response = new DatagramPacket(msg.getBytes(), msg.length(), address, port);
+        for (ByteBuffer msg : messages) {
             try {
-                logger.trace("Sending to {}:{}", address.getHostAddress(), port);
-                sendSocket.send(response);
+                logger.trace("Sending to {}", target);
+                if (channel.send(msg.duplicate(), target) == 0) {
+                    logger.debug("Could not send UPNP response to {}: Send buffer full", target);
+                }
             } catch (IOException e) {
                 logger.warn("Could not send UPNP response: {}", e.getMessage());
             }
         }
     }
 
-    private void sendUPNPNotify(DatagramSocket sendSocket, InetAddress address, int port) {
-        DatagramPacket response = new DatagramPacket(notifyMsg.getBytes(), notifyMsg.length(), address, port);
-        try {
-            logger.trace("Sending to {}:{}", address.getHostAddress(), port);
-            sendSocket.send(response);
-        } catch (IOException e) {
-            logger.warn("Could not send UPNP response: {}", e.getMessage());
+    /**
+     * Send the periodic notify message or the initial announcement onto the multicast group of the channel.
+     */
+    private void announce(DatagramChannel channel, InetAddress multicastAddress, boolean notify) {
+        ResponseDatagrams datagrams = primaryDatagrams;
+        if (multicastAddress instanceof Inet6Address) {
+            // The primary address is usually an IPv4 address. Use the first IPv6 discovery address if possible.
+            for (ResponseDatagrams d : responseDatagrams) {
+                if (d.address instanceof Inet6Address) {
+                    datagrams = d;
+                    break;
+                }
+            }
         }
+        if (datagrams == null) {
+            return;
+        }
+        InetSocketAddress target = new InetSocketAddress(multicastAddress, UPNP_PORT);
+        sendUPNPDatagrams(channel, notify ? new ByteBuffer[] { datagrams.notify } : datagrams.searchResponses,
+                target);
+    }
+
+    public long getResponsesSent() {
+        return responsesSent.get();
+    }
+
+    public long getRequestsThrottled() {
+        return requestsThrottled.get();
+    }
+
+    /**
+     * Return the average time between receiving an M-SEARCH request and having sent the response in microseconds.
+     */
+    public long getAverageResponseLatency() {
+        long count = responsesSent.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(responseLatencySum.get() / count);
+    }
+
+    /**
+     * Return the maximum time between receiving an M-SEARCH request and having sent the response in microseconds.
+     */
+    public long getMaxResponseLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(responseLatencyMax.get());
     }
 
     @Override
@@ -442,17 +630,18 @@ public class UpnpServer extends HttpServlet implements Consumer<HueEmulationConf
 
             if (hasIPv4) {
                 channelV4.configureBlocking(false);
-                channelV4.register(selector, SelectionKey.OP_READ, new ClientRecord());
-                try (DatagramSocket sendSocket = new DatagramSocket(new InetSocketAddress(config.address, 0))) {
-                    sendUPNPDatagrams(sendSocket, MULTI_ADDR_IPV4, UPNP_PORT);
+                NetworkInterface primaryInterface = NetworkInterface.getByInetAddress(config.address);
+                if (primaryInterface != null) {
+                    // Announce on the interface of the primary address
+                    channelV4.setOption(StandardSocketOptions.IP_MULTICAST_IF, primaryInterface);
                 }
+                channelV4.register(selector, SelectionKey.OP_READ, new ClientRecord());
+                announce(channelV4, MULTI_ADDR_IPV4, false);
             }
             if (hasIPv6) {
                 channelV6.configureBlocking(false);
                 channelV6.register(selector, SelectionKey.OP_READ, new ClientRecord());
-                try (DatagramSocket sendSocket = new DatagramSocket()) {
-                    sendUPNPDatagrams(sendSocket, MULTI_ADDR_IPV6, UPNP_PORT);
-                }
+                announce(channelV6, MULTI_ADDR_IPV6, false);
             }
 
             threadContext.future.complete(threadContext);
@@ -474,14 +663,10 @@ public class UpnpServer extends HttpServlet implements Consumer<HueEmulationConf
                     logger.trace("upnp thread send periodic announcement");
                     time = Instant.now();
                     if (hasIPv4) {
-                        try (DatagramSocket sendSocket = new DatagramSocket(new InetSocketAddress(config.address, 0))) {
-                            sendUPNPNotify(sendSocket, MULTI_ADDR_IPV4, UPNP_PORT);
-                        }
+                        announce(channelV4, MULTI_ADDR_IPV4, true);
                     }
                     if (hasIPv6) {
-                        try (DatagramSocket sendSocket = new DatagramSocket()) {
-                            sendUPNPNotify(sendSocket, MULTI_ADDR_IPV6, UPNP_PORT);
-                        }
+                        announce(channelV6, MULTI_ADDR_IPV6, true);
                     }
                 }
             }
@@ -20,6 +20,7 @@ import static org.mockito.Mockito.verify;
 import java.io.IOException;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -339,6 +340,87 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void cachedLightFollowsItemState() {
+        String before = commonSetup.client.target(commonSetup.basePath + "/testuser/lights/1").request()
+                .get(String.class);
+        assertThat(before, containsString("\"on\":false"));
+
+        cs.ds.lights.get("1").item.setState(OnOffType.ON);
+        String after = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get(String.class);
+        assertThat(after, containsString("\"on\":true"));
+        assertThat(cs.lightsJson.getMisses(), is(4L)); // Initial three lights and the changed light
+    }
+
+    @Test
+    public void notModifiedIfEntityTagMatches() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        String tag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(tag, notNullValue());
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, tag).get();
+        assertEquals(304, response.getStatus());
+
+        assertThat(response.getHeaderString(HttpHeaders.ETAG), is(tag));
+        assertThat(response.hasEntity(), is(false));
+
+        cs.ds.lights.get("2").item.setState(OnOffType.ON);
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, tag).get();
+        assertEquals(200, response.getStatus());
+        String changedTag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(changedTag, is(not(tag)));
+        assertThat(response.readEntity(String.class), containsString("\"on\":true"));
+
+        // The new tag matches again
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, changedTag).get();
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    public void dataStoreAssembledFromFragments() {
+        cs.ds.lights.get("2").item.setState(OnOffType.ON);
+        assertThat(cs.dataStoreToJson(), is(cs.gson.toJson(cs.ds)));
+        long misses = cs.lightsJson.getMisses();
+        // Served from the fragments the second time
+        assertThat(cs.dataStoreToJson(), is(cs.gson.toJson(cs.ds)));
+        assertThat(cs.lightsJson.getMisses(), is(misses));
+        assertTrue(cs.lightsJson.getHits() > 0);
+    }
+
+    @Test
+    public void fragmentsAreReusedAcrossRequests() {
+        for (int i = 100; i < 110; ++i) {
+            ColorItem item = new ColorItem("color" + i);
+            item.setLabel("Color light " + i);
+            cs.ds.lights.put(String.valueOf(i), new HueLightEntry(item, "color" + i, DeviceType.ColorType));
+        }
+        final long lights = cs.ds.lights.size();
+        long hits = cs.lightsJson.getHits();
+        long misses = cs.lightsJson.getMisses();
+
+        String first = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get(String.class);
+        assertThat(cs.lightsJson.getMisses(), is(misses + lights));
+        assertThat(cs.lightsJson.getHits(), is(hits));
+
+        // Every light is served from its fragment
+        String second = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .get(String.class);
+        assertThat(second, is(first));
+        assertThat(cs.lightsJson.getMisses(), is(misses + lights));
+        assertThat(cs.lightsJson.getHits(), is(hits + lights));
+
+        // Only the changed light is serialized again
+        cs.ds.lights.get("105").item.setState(OnOffType.ON);
+        String third = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get(String.class);
+        assertThat(third, is(not(second)));
+        assertThat(cs.lightsJson.getMisses(), is(misses + lights + 1));
+        assertThat(cs.lightsJson.getHits(), is(hits + 2 * lights - 1));
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
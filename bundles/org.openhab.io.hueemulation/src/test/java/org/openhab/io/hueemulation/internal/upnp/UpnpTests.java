@@ -19,6 +19,9 @@ import static org.mockito.Mockito.mock;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -134,12 +137,32 @@ public class UpnpTests {
             String received = new String(buffer);
             assertThat(received, CoreMatchers.startsWith("HTTP/1.1 200 OK"));
             assertThat(received, CoreMatchers.containsString("hue-bridgeid: DEMOUUID"));
+            assertThat(subject.getResponsesSent(), is(1L));
+
+            // A repeated search from the same requester is not answered again
+            sendSocket.send(new DatagramPacket(bytes, bytes.length, subject.MULTI_ADDR_IPV4, UpnpServer.UPNP_PORT));
+            for (int i = 0; i < 50 && subject.getRequestsThrottled() == 0; ++i) {
+                Thread.sleep(10);
+            }
+            assertThat(subject.getRequestsThrottled(), is(1L));
+            assertThat(subject.getResponsesSent(), is(1L));
         }
 
         r.dispose();
         assertThat(subject.upnpAnnouncementThreadRunning(), is(false));
     }
 
+    @Test
+    public void subnetOfDiscoveryAddress() throws UnknownHostException {
+        UpnpServer.ResponseDatagrams datagrams = new UpnpServer.ResponseDatagrams(
+                InetAddress.getByName("192.168.1.20"), 23, new ByteBuffer[0], ByteBuffer.allocate(0));
+        assertTrue(datagrams.isInSubnet(InetAddress.getByName("192.168.0.5")));
+        assertTrue(datagrams.isInSubnet(InetAddress.getByName("192.168.1.250")));
+        assertFalse(datagrams.isInSubnet(InetAddress.getByName("192.168.2.1")));
+        assertFalse(datagrams.isInSubnet(InetAddress.getByName("10.0.0.1")));
+        assertFalse(datagrams.isInSubnet(InetAddress.getByName("fe80::1")));
+    }
+
     @Test
     public void handEventTest() throws InterruptedException, ExecutionException, TimeoutException {
         subject.handleEvent(null);
@@ -15,15 +15,18 @@ package org.openhab.io.imperihome.internal.handler;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceServiceRegistry;
@@ -33,11 +36,13 @@ import org.openhab.io.imperihome.internal.model.HistoryItem;
 import org.openhab.io.imperihome.internal.model.HistoryList;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
+import org.openhab.io.imperihome.internal.util.HistoryDownsampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Device history request handler.
+ * Device history request handler. The history is downsampled to at most {@link #MAX_BUCKETS} min/max pairs, the
+ * bucket grid is aligned to the bucket width so refreshes of the same range hit the result cache.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -45,11 +50,32 @@ public class DeviceHistoryHandler {
 
     private static final String CHARSET = "UTF-8";
 
+    /** Maximum number of buckets a history range is divided into */
+    static final int MAX_BUCKETS = 250;
+
+    /** Maximum number of cached history results */
+    private static final int CACHE_SIZE = 64;
+
+    /** Maximum time a history result is cached */
+    private static final long MAX_CACHE_TIME = TimeUnit.MINUTES.toMillis(5);
+
+    /** Minimum bucket width */
+    private static final long MIN_BUCKET_WIDTH = TimeUnit.SECONDS.toMillis(1);
+
     private final Logger logger = LoggerFactory.getLogger(DeviceHistoryHandler.class);
 
     private final DeviceRegistry deviceRegistry;
     private final PersistenceServiceRegistry persistenceServiceRegistry;
 
+    private final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     public DeviceHistoryHandler(DeviceRegistry deviceRegistry, PersistenceServiceRegistry persistenceServiceRegistry) {
         this.deviceRegistry = deviceRegistry;
         this.persistenceServiceRegistry = persistenceServiceRegistry;
@@ -90,34 +116,95 @@ public class DeviceHistoryHandler {
 
     private HistoryList serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start,
             long end) {
-        logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), start, end);
+        long bucketWidth = Math.max(MIN_BUCKET_WIDTH, (end - start + MAX_BUCKETS - 1) / MAX_BUCKETS);
+        long alignedStart = Math.floorDiv(start, bucketWidth) * bucketWidth;
+        long alignedEnd = (Math.floorDiv(end, bucketWidth) + 1) * bucketWidth - 1;
+
+        CacheKey key = new CacheKey(persistence.getId(), device.getItemName(), alignedStart, alignedEnd);
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.expires > now) {
+                logger.debug("Serving cached history of Item {}, from {} to {}", device.getItemName(), start, end);
+                return new HistoryList(HistoryDownsampler.clamp(entry.values, start, end));
+            }
+        }
+
+        logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), alignedStart,
+                alignedEnd);
 
-        FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName()).setBeginDate(new Date(start))
-                .setEndDate(new Date(end));
+        FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName())
+                .setBeginDate(new Date(alignedStart)).setEndDate(new Date(alignedEnd)).setOrdering(Ordering.ASCENDING);
 
-        List<HistoryItem> resultItems = new LinkedList<>();
-        Iterable<HistoricItem> historicItems = persistence.query(criteria);
+        HistoryDownsampler downsampler = new HistoryDownsampler(alignedStart, bucketWidth);
+        boolean hasResults = false;
+        for (HistoricItem historicItem : persistence.query(criteria)) {
+            hasResults = true;
+            State state = historicItem.getState();
+            if (state instanceof DecimalType) {
+                Number value = ((DecimalType) state).toBigDecimal();
+                downsampler.add(historicItem.getTimestamp().getTime(), value);
+            }
+        }
 
-        Iterator<HistoricItem> iterator = historicItems.iterator();
-        if (!iterator.hasNext()) {
+        List<HistoryItem> resultItems = downsampler.finish();
+        if (!hasResults) {
             logger.info("Persistence returned no results for history query");
+        } else if (resultItems.isEmpty()) {
+            logger.warn("Persistence returned results for history query, but could not be interpreted as DecimalTypes");
         } else {
-            while (iterator.hasNext()) {
-                HistoricItem historicItem = iterator.next();
-                State state = historicItem.getState();
-                if (state instanceof DecimalType) {
-                    Number value = ((DecimalType) state).toBigDecimal();
-                    resultItems.add(new HistoryItem(historicItem.getTimestamp(), value));
-                }
-            }
+            logger.debug("Downsampled {} history values to {}", downsampler.getCount(), resultItems.size());
+        }
+
+        // The last bucket may still receive values, so do not cache the result longer than a bucket
+        long expires = now + Math.min(MAX_CACHE_TIME, bucketWidth);
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(resultItems, expires));
+        }
+        // The aligned bucket grid may extend beyond the requested range
+        return new HistoryList(HistoryDownsampler.clamp(resultItems, start, end));
+    }
+
+    private static class CacheKey {
+        private final String persistenceId;
+        private final String itemName;
+        private final long start;
+        private final long end;
+
+        CacheKey(String persistenceId, String itemName, long start, long end) {
+            this.persistenceId = persistenceId;
+            this.itemName = itemName;
+            this.start = start;
+            this.end = end;
+        }
 
-            if (resultItems.isEmpty()) {
-                logger.warn(
-                        "Persistence returned results for history query, but could not be interpreted as DecimalTypes");
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return start == that.start && end == that.end && Objects.equals(persistenceId, that.persistenceId)
+                    && Objects.equals(itemName, that.itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(persistenceId, itemName, start, end);
         }
+    }
+
+    private static class CacheEntry {
+        private final List<HistoryItem> values;
+        private final long expires;
 
-        return new HistoryList(resultItems);
+        CacheEntry(List<HistoryItem> values, long expires) {
+            this.values = values;
+            this.expires = expires;
+        }
     }
 
 }
@@ -12,43 +12,130 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
-import org.openhab.io.imperihome.internal.model.device.DeviceList;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
+import org.openhab.io.imperihome.internal.processor.ItemProcessor;
+import org.openhab.io.imperihome.internal.util.DigestUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
- * Device list request handler.
+ * Device list request handler. Keeps the JSON of every device and only serializes the devices that changed since the
+ * previous request, or that link to a changed device. The assembled list is identified by an ETag, requests carrying
+ * the current ETag are answered with 304 Not Modified.
  *
  * @author Pepijn de Geus - Initial contribution
  */
 public class DevicesListHandler {
 
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
     private final Logger logger = LoggerFactory.getLogger(DevicesListHandler.class);
 
     private final DeviceRegistry deviceRegistry;
+    private final Gson gson;
+
+    private Map<String, String> fragments = new HashMap<>();
+    private long renderedVersion = -1;
+    private String json;
+    private String etag;
 
-    public DevicesListHandler(DeviceRegistry deviceRegistry) {
+    public DevicesListHandler(DeviceRegistry deviceRegistry, Gson gson) {
         this.deviceRegistry = deviceRegistry;
+        this.gson = gson;
+    }
+
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String currentJson;
+        String currentEtag;
+        synchronized (this) {
+            update();
+            currentJson = json;
+            currentEtag = etag;
+        }
+
+        resp.setHeader(HEADER_ETAG, currentEtag);
+        if (matches(req.getHeader(HEADER_IF_NONE_MATCH), currentEtag)) {
+            logger.debug("Device list not modified");
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        logger.debug("Device list response: {}", currentJson);
+        resp.getWriter().write(currentJson);
     }
 
-    public DeviceList handle(HttpServletRequest req) {
-        DeviceList response = new DeviceList();
+    /**
+     * Serializes the changed devices and assembles the device list, if the registry changed since the last call.
+     */
+    private void update() {
+        long version = deviceRegistry.getVersion();
+        if (version == renderedVersion) {
+            return;
+        }
+        Set<String> changedDevices = deviceRegistry.takeChangedDevices();
+
+        Map<String, String> newFragments = new HashMap<>();
+        StringBuilder builder = new StringBuilder("{\"devices\":[");
+        int serialized = 0;
+        for (AbstractDevice device : deviceRegistry) {
+            String fragment = fragments.get(device.getId());
+            if (fragment == null || changedDevices.contains(device.getId())
+                    || linksChangedDevice(device, changedDevices)) {
+                device.renderParams();
+                fragment = gson.toJson(device);
+                serialized++;
+            }
+            newFragments.put(device.getId(), fragment);
 
-        Collection<AbstractDevice> devices = deviceRegistry.getDevices().values();
-        for (AbstractDevice device : devices) {
-            device.updateParams();
+            if (newFragments.size() > 1) {
+                builder.append(',');
+            }
+            builder.append(fragment);
         }
+        builder.append("]}");
 
-        response.setDevices(devices);
+        fragments = newFragments;
+        renderedVersion = version;
+        json = builder.toString();
+        etag = '"' + DigestUtil.sha1(json) + '"';
+        logger.debug("Serialized {} of {} devices for the device list", serialized, newFragments.size());
+    }
 
-        logger.debug("Device list response: {}", response);
-        return response;
+    private boolean linksChangedDevice(AbstractDevice device, Set<String> changedDevices) {
+        if (changedDevices.isEmpty()) {
+            return false;
+        }
+        for (String deviceName : device.getLinks().values()) {
+            if (changedDevices.contains(ItemProcessor.getDeviceId(deviceName))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(String ifNoneMatch, String currentEtag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if ("*".equals(trimmed) || currentEtag.equals(trimmed) || ("W/" + currentEtag).equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
     }
 
 }
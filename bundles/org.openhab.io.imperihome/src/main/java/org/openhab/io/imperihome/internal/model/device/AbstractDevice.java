@@ -56,6 +56,7 @@ public abstract class AbstractDevice implements StateChangeListener {
 
     private transient DeviceRegistry deviceRegistry;
     private transient ActionRegistry actionRegistry;
+    private transient volatile Thread renderingThread;
 
     public AbstractDevice(DeviceType type, Item item) {
         this.type = type;
@@ -140,7 +141,25 @@ public abstract class AbstractDevice implements StateChangeListener {
 
     public void addParam(DeviceParam param) {
         logger.trace("Setting param for device {}: {}", this, param);
-        params.set(param);
+        if (!param.equals(params.get(param.getKey()))) {
+            params.set(param);
+            paramsChanged();
+        }
+    }
+
+    /**
+     * Notifies the device registry that the parameters of this device changed, so the device is serialized again on
+     * the next device list request.
+     */
+    protected void paramsChanged() {
+        if (renderingThread == Thread.currentThread()) {
+            // The device is being serialized, the params set by updateParams() are part of the result already
+            return;
+        }
+        DeviceRegistry registry = deviceRegistry;
+        if (registry != null) {
+            registry.deviceChanged(this);
+        }
     }
 
     public Map<String, String> getLinks() {
@@ -199,6 +218,19 @@ public abstract class AbstractDevice implements StateChangeListener {
         logger.trace("updateParams on {}", this);
     }
 
+    /**
+     * Calls {@link #updateParams()} right before the device is serialized. Params changed by it are not reported to
+     * the device registry, as they do not require serializing the device again.
+     */
+    public void renderParams() {
+        renderingThread = Thread.currentThread();
+        try {
+            updateParams();
+        } finally {
+            renderingThread = null;
+        }
+    }
+
     /**
      * Performs an action on this device.
      * 
@@ -65,6 +65,8 @@ public class MultiSwitchDevice extends AbstractDevice {
         State state = item.getStateAs(DecimalType.class);
         if (state instanceof DecimalType) {
             itemValue = String.valueOf(((DecimalType) state).intValue());
+            // The value param is derived in updateParams()
+            paramsChanged();
         }
     }
 
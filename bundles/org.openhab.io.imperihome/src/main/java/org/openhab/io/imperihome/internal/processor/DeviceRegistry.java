@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.io.imperihome.internal.model.Room;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
@@ -35,10 +36,14 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
     private final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
 
     private final Map<String, AbstractDevice> devices;
+    private final Set<String> changedDevices;
+    private final AtomicLong version;
     private Set<Room> rooms;
 
     public DeviceRegistry() {
         devices = new ConcurrentHashMap<>();
+        changedDevices = ConcurrentHashMap.newKeySet();
+        version = new AtomicLong();
     }
 
     public AbstractDevice getDevice(String deviceId) {
@@ -69,8 +74,10 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
             return;
         }
 
+        device.setDeviceRegistry(this);
         devices.put(device.getId(), device);
         updateRooms();
+        version.incrementAndGet();
 
         logger.debug("Device {} added, registry now contains {} total", device.getName(), devices.size());
     }
@@ -79,6 +86,7 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         AbstractDevice removed = devices.remove(deviceId);
         if (removed != null) {
             updateRooms();
+            version.incrementAndGet();
             logger.debug("Device {} removed, registry now contains {} total", removed.getName(), devices.size());
         }
         return removed;
@@ -94,6 +102,8 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
             device.destroy();
         }
         devices.clear();
+        changedDevices.clear();
+        version.incrementAndGet();
 
         if (rooms != null) {
             rooms.clear();
@@ -102,6 +112,40 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         logger.debug("Device registry cleared");
     }
 
+    /**
+     * Marks the parameters of a device as changed.
+     *
+     * @param device The changed device.
+     */
+    public void deviceChanged(AbstractDevice device) {
+        changedDevices.add(device.getId());
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns and forgets the IDs of the devices changed since the last call.
+     *
+     * @return IDs of changed devices.
+     */
+    public Set<String> takeChangedDevices() {
+        Set<String> changed = new HashSet<>();
+        Iterator<String> iterator = changedDevices.iterator();
+        while (iterator.hasNext()) {
+            changed.add(iterator.next());
+            iterator.remove();
+        }
+        return changed;
+    }
+
+    /**
+     * Returns a counter that is incremented whenever a device is added, removed or changed.
+     *
+     * @return Registry version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     private void updateRooms() {
         Set<Room> newRooms = new HashSet<>();
         for (AbstractDevice device : devices.values()) {
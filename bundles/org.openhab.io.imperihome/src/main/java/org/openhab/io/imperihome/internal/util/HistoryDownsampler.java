@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.imperihome.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openhab.io.imperihome.internal.model.HistoryItem;
+
+/**
+ * Streaming min/max downsampler for history values. The time range is divided into buckets of equal width, for every
+ * bucket only the lowest and the highest value are kept (in their original order), so peaks stay visible in the graph.
+ * Values have to be added in ascending time order.
+ *
+ * @author agent - Initial contribution
+ */
+public class HistoryDownsampler {
+
+    private final long start;
+    private final long bucketWidth;
+    private final List<HistoryItem> result = new ArrayList<>();
+
+    private long bucket = Long.MIN_VALUE;
+    private HistoryItem min;
+    private HistoryItem max;
+    private int count;
+
+    /**
+     * @param start Start of the first bucket, in milliseconds since epoch.
+     * @param bucketWidth Width of a bucket in milliseconds.
+     */
+    public HistoryDownsampler(long start, long bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        this.start = start;
+        this.bucketWidth = bucketWidth;
+    }
+
+    public void add(long timestamp, Number value) {
+        long valueBucket = Math.floorDiv(timestamp - start, bucketWidth);
+        if (valueBucket != bucket) {
+            flushBucket();
+            bucket = valueBucket;
+        }
+
+        count++;
+        if (min == null || value.doubleValue() < min.getValue().doubleValue()) {
+            min = new HistoryItem(timestamp, value);
+        }
+        if (max == null || value.doubleValue() > max.getValue().doubleValue()) {
+            max = new HistoryItem(timestamp, value);
+        }
+    }
+
+    /**
+     * @return Number of values added so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The downsampled values, at most two per bucket.
+     */
+    public List<HistoryItem> finish() {
+        flushBucket();
+        return result;
+    }
+
+    /**
+     * Returns the values within a time range. The bucket grid may extend beyond the requested range, values outside of
+     * it are left out.
+     *
+     * @param values Values in ascending time order.
+     * @param start Start of the range, in milliseconds since epoch.
+     * @param end End of the range (inclusive), in milliseconds since epoch.
+     * @return The values within the range.
+     */
+    public static List<HistoryItem> clamp(List<HistoryItem> values, long start, long end) {
+        List<HistoryItem> result = new ArrayList<>(values.size());
+        for (HistoryItem value : values) {
+            if (value.getDate() >= start && value.getDate() <= end) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private void flushBucket() {
+        if (min == null) {
+            return;
+        }
+
+        if (min.getDate() == max.getDate()) {
+            result.add(min);
+        } else if (min.getDate() < max.getDate()) {
+            result.add(min);
+            result.add(max);
+        } else {
+            result.add(max);
+            result.add(min);
+        }
+        min = null;
+        max = null;
+    }
+
+}
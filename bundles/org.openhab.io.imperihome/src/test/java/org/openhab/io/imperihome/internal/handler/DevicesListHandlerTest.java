@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.imperihome.internal.handler;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.smarthome.core.items.Item;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.io.imperihome.internal.io.DeviceParametersSerializer;
+import org.openhab.io.imperihome.internal.io.DeviceTypeSerializer;
+import org.openhab.io.imperihome.internal.io.ParamTypeSerializer;
+import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
+import org.openhab.io.imperihome.internal.model.device.DeviceType;
+import org.openhab.io.imperihome.internal.model.param.DeviceParam;
+import org.openhab.io.imperihome.internal.model.param.DeviceParameters;
+import org.openhab.io.imperihome.internal.model.param.ParamType;
+import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests cases for {@link DevicesListHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DevicesListHandlerTest {
+
+    private DeviceRegistry deviceRegistry;
+    private DevicesListHandler handler;
+    private TestDevice lamp;
+    private TestDevice fan;
+
+    @Before
+    public void setUp() {
+        Gson gson = new GsonBuilder().registerTypeAdapter(DeviceType.class, new DeviceTypeSerializer())
+                .registerTypeAdapter(ParamType.class, new ParamTypeSerializer())
+                .registerTypeAdapter(DeviceParameters.class, new DeviceParametersSerializer()).create();
+
+        deviceRegistry = new DeviceRegistry();
+        handler = new DevicesListHandler(deviceRegistry, gson);
+        lamp = new TestDevice("lamp");
+        fan = new TestDevice("fan");
+        deviceRegistry.add(lamp);
+        deviceRegistry.add(fan);
+    }
+
+    @Test
+    public void listContainsAllDevices() throws IOException {
+        Response response = request(null);
+        assertEquals(200, response.status);
+        assertTrue(response.body.startsWith("{\"devices\":["));
+        assertTrue(response.body.contains("\"id\":\"lamp\""));
+        assertTrue(response.body.contains("\"id\":\"fan\""));
+        assertTrue(response.body.contains("\"type\":\"DevSwitch\""));
+        assertNotNull(response.etag);
+    }
+
+    @Test
+    public void matchingEtagIsNotModified() throws IOException {
+        Response first = request(null);
+        Response second = request(first.etag);
+        assertEquals(304, second.status);
+        assertEquals("", second.body);
+        assertEquals(first.etag, second.etag);
+
+        assertEquals(304, request("\"other\", " + first.etag).status);
+        assertEquals(200, request("\"other\"").status);
+    }
+
+    @Test
+    public void onlyChangedDevicesAreSerialized() throws IOException {
+        Response first = request(null);
+        assertEquals(1, lamp.serialized);
+        assertEquals(1, fan.serialized);
+
+        request(null);
+        assertEquals(1, lamp.serialized);
+        assertEquals(1, fan.serialized);
+
+        lamp.addParam(new DeviceParam(ParamType.STATUS, "1"));
+        Response changed = request(first.etag);
+        assertEquals(200, changed.status);
+        assertNotEquals(first.etag, changed.etag);
+        assertTrue(changed.body.contains("\"value\":\"1\""));
+        assertEquals(2, lamp.serialized);
+        assertEquals(1, fan.serialized);
+
+        // setting the same value again does not change the list
+        lamp.addParam(new DeviceParam(ParamType.STATUS, "1"));
+        assertEquals(304, request(changed.etag).status);
+        assertEquals(2, lamp.serialized);
+    }
+
+    @Test
+    public void paramsSetWhileRenderingDoNotChangeTheList() throws IOException {
+        Response first = request(null);
+        assertTrue(first.body.contains("\"value\":\"lamp\""));
+        long version = deviceRegistry.getVersion();
+
+        assertEquals(304, request(first.etag).status);
+        assertEquals(version, deviceRegistry.getVersion());
+        assertEquals(1, lamp.serialized);
+    }
+
+    @Test
+    public void removedDeviceIsNotListed() throws IOException {
+        Response first = request(null);
+        deviceRegistry.remove("fan");
+
+        Response second = request(first.etag);
+        assertEquals(200, second.status);
+        assertFalse(second.body.contains("\"id\":\"fan\""));
+        assertTrue(second.body.contains("\"id\":\"lamp\""));
+    }
+
+    private Response request(String ifNoneMatch) throws IOException {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        StringWriter body = new StringWriter();
+        when(resp.getWriter()).thenReturn(new PrintWriter(body));
+
+        handler.handle(req, resp);
+
+        Response response = new Response();
+        ArgumentCaptor<Integer> status = ArgumentCaptor.forClass(Integer.class);
+        verify(resp, atMost(1)).setStatus(status.capture());
+        response.status = status.getAllValues().isEmpty() ? 200 : status.getValue();
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        verify(resp).setHeader(eq("ETag"), etag.capture());
+        response.etag = etag.getValue();
+        response.body = body.toString();
+        return response;
+    }
+
+    private static class Response {
+        private int status;
+        private String etag;
+        private String body;
+    }
+
+    private static class TestDevice extends AbstractDevice {
+        private transient int serialized;
+
+        TestDevice(String id) {
+            super(DeviceType.SWITCH, mock(Item.class));
+            setId(id);
+            setName(id);
+        }
+
+        @Override
+        public void updateParams() {
+            super.updateParams();
+            addParam(new DeviceParam(ParamType.GENERIC_VALUE, getName()));
+            serialized++;
+        }
+    }
+}
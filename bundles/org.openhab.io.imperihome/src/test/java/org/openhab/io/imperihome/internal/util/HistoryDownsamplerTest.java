@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.imperihome.internal.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.imperihome.internal.model.HistoryItem;
+
+/**
+ * Tests cases for {@link HistoryDownsampler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HistoryDownsamplerTest {
+
+    @Test
+    public void minAndMaxAreKeptPerBucket() {
+        HistoryDownsampler downsampler = new HistoryDownsampler(1000, 100);
+        downsampler.add(1000, 5);
+        downsampler.add(1010, 9);
+        downsampler.add(1020, 1);
+        downsampler.add(1030, 4);
+        downsampler.add(1150, 3);
+
+        List<HistoryItem> result = downsampler.finish();
+        assertEquals(3, result.size());
+        assertItem(1010, 9, result.get(0));
+        assertItem(1020, 1, result.get(1));
+        assertItem(1150, 3, result.get(2));
+        assertEquals(5, downsampler.getCount());
+    }
+
+    @Test
+    public void emptyBucketsAreSkipped() {
+        HistoryDownsampler downsampler = new HistoryDownsampler(0, 10);
+        downsampler.add(5, 1);
+        downsampler.add(95, 2);
+        assertEquals(2, downsampler.finish().size());
+    }
+
+    @Test
+    public void outputIsBoundedByBuckets() {
+        long day = 24 * 3600 * 1000L;
+        HistoryDownsampler downsampler = new HistoryDownsampler(0, 30 * day / 250);
+        for (long t = 0; t < 30 * day; t += 10_000) {
+            downsampler.add(t, Math.sin(t / 1e7) * 100);
+        }
+        List<HistoryItem> result = downsampler.finish();
+        assertTrue(result.size() <= 2 * 250);
+        assertTrue(result.size() >= 250);
+
+        double max = result.stream().mapToDouble(item -> item.getValue().doubleValue()).max().getAsDouble();
+        assertEquals(100, max, 0.01);
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getDate() < result.get(i).getDate());
+        }
+    }
+
+    @Test
+    public void valuesOutsideTheRequestedRangeAreLeftOut() {
+        HistoryDownsampler downsampler = new HistoryDownsampler(1000, 100);
+        downsampler.add(1010, 1);
+        downsampler.add(1090, 2);
+        downsampler.add(1120, 3);
+        downsampler.add(1190, 4);
+
+        List<HistoryItem> result = HistoryDownsampler.clamp(downsampler.finish(), 1050, 1120);
+        assertEquals(2, result.size());
+        assertItem(1090, 2, result.get(0));
+        assertItem(1120, 3, result.get(1));
+    }
+
+    private void assertItem(long date, double value, HistoryItem item) {
+        assertEquals(date, item.getDate());
+        assertEquals(value, item.getValue().doubleValue(), 0);
+    }
+}
@@ -68,6 +68,9 @@ public class ServiceContext {
     /** The event publisher. */
     private final EventPublisher eventPublisher;
 
+    /** The search index of the exposed devices. */
+    private final TokenSearchIndex searchIndex;
+
     /** The definitions. */
     private final NeeoDeviceDefinitions definitions;
 
@@ -116,9 +119,19 @@ public class ServiceContext {
         this.mdnsClient = mdnsClient;
         this.eventPublisher = eventPublisher;
         this.networkAddressService = networkAddressService;
+        this.searchIndex = new TokenSearchIndex(this);
         this.definitions = new NeeoDeviceDefinitions(this);
     }
 
+    /**
+     * Gets the search index of the exposed devices.
+     *
+     * @return the search index
+     */
+    public TokenSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
     /**
      * Gets the definitions.
      *
@@ -0,0 +1,392 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.neeo.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.binding.BindingInfo;
+import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.link.ItemChannelLink;
+import org.eclipse.smarthome.core.thing.type.ThingType;
+import org.openhab.io.neeo.internal.models.NeeoDevice;
+import org.openhab.io.neeo.internal.models.NeeoThingUID;
+import org.openhab.io.neeo.internal.models.TokenScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class keeps an inverted index of the search tokens of all exposed {@link NeeoDevice}. The tokens of a device
+ * (name, binding id, location, vendor, thing type label and binding name) are normalized to lower case and indexed
+ * by all of their suffixes, so that a needle is matched anywhere within a token by a single prefix lookup.
+ *
+ * The index is built on the first search and then kept up to date from the thing, item and link registries and from
+ * changes of the {@link NeeoDeviceDefinitions}.
+ *
+ * @author agent - Initial Contribution
+ */
+@NonNullByDefault
+public class TokenSearchIndex implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(TokenSearchIndex.class);
+
+    /** The delimiter used to split search terms */
+    private static final char DELIMITER = ' ';
+
+    /** The service context */
+    private final ServiceContext context;
+
+    /** The indexed devices by their uid */
+    private final Map<NeeoThingUID, Document> documents = new HashMap<>();
+
+    /** The uids of the devices containing a token, with the number of occurrences within the device */
+    private final Map<String, Map<NeeoThingUID, Integer>> postings = new HashMap<>();
+
+    /** The tokens by each of their suffixes */
+    private final TreeMap<String, Set<String>> suffixes = new TreeMap<>();
+
+    /** Whether the index has been built */
+    private boolean built;
+
+    /** Whether the registry listeners are registered */
+    private boolean started;
+
+    private final RegistryChangeListener<Thing> thingListener = new RegistryChangeListener<Thing>() {
+        @Override
+        public void added(Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+
+        @Override
+        public void removed(Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+
+        @Override
+        public void updated(Thing oldElement, Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+    };
+
+    private final RegistryChangeListener<ItemChannelLink> linkListener = new RegistryChangeListener<ItemChannelLink>() {
+        @Override
+        public void added(ItemChannelLink element) {
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+
+        @Override
+        public void removed(ItemChannelLink element) {
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+
+        @Override
+        public void updated(ItemChannelLink oldElement, ItemChannelLink element) {
+            update(new NeeoThingUID(oldElement.getLinkedUID().getThingUID()));
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+    };
+
+    private final RegistryChangeListener<Item> itemListener = new RegistryChangeListener<Item>() {
+        @Override
+        public void added(Item element) {
+            updateBoundThings(element);
+        }
+
+        @Override
+        public void removed(Item element) {
+            updateBoundThings(element);
+        }
+
+        @Override
+        public void updated(Item oldElement, Item element) {
+            updateBoundThings(element);
+        }
+    };
+
+    /**
+     * Creates the index based on the {@link ServiceContext}. The index stays empty until {@link #start()} is called.
+     *
+     * @param context the non-null context
+     */
+    TokenSearchIndex(ServiceContext context) {
+        Objects.requireNonNull(context, "context cannot be null");
+        this.context = context;
+    }
+
+    /**
+     * Starts listening to registry changes. The index itself is built on the first search.
+     */
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            context.getThingRegistry().addRegistryChangeListener(thingListener);
+            context.getItemChannelLinkRegistry().addRegistryChangeListener(linkListener);
+            context.getItemRegistry().addRegistryChangeListener(itemListener);
+        }
+    }
+
+    /**
+     * Stops listening to registry changes and clears the index
+     */
+    @Override
+    public synchronized void close() {
+        if (started) {
+            started = false;
+            context.getThingRegistry().removeRegistryChangeListener(thingListener);
+            context.getItemChannelLinkRegistry().removeRegistryChangeListener(linkListener);
+            context.getItemRegistry().removeRegistryChangeListener(itemListener);
+        }
+        clear();
+    }
+
+    /**
+     * Scores all indexed devices against the needles using the tokensearch.js algorithm
+     *
+     * @param needles the non-null needles
+     * @param baseScore the score every device gets regardless of the needles
+     * @return the non-null list of devices with a score greater than zero
+     */
+    public synchronized List<TokenScore<NeeoDevice>> search(String[] needles, int baseScore) {
+        Objects.requireNonNull(needles, "needles cannot be null");
+        if (!built || !started) {
+            rebuild();
+        }
+
+        final Map<NeeoThingUID, Integer> scores = new HashMap<>();
+        for (String needle : needles) {
+            final String normalized = normalize(needle);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+
+            final Set<String> tokens = new HashSet<>();
+            for (Set<String> suffixTokens : suffixes.subMap(normalized, true, normalized + Character.MAX_VALUE, false)
+                    .values()) {
+                tokens.addAll(suffixTokens);
+            }
+
+            for (String token : tokens) {
+                final int tokenScore = score(token, normalized);
+                final Map<NeeoThingUID, Integer> uids = postings.get(token);
+                if (uids != null) {
+                    uids.forEach((uid, count) -> scores.merge(uid, tokenScore * count, Integer::sum));
+                }
+            }
+        }
+
+        final List<TokenScore<NeeoDevice>> results = new ArrayList<>();
+        if (baseScore > 0) {
+            for (Map.Entry<NeeoThingUID, Document> entry : documents.entrySet()) {
+                final Integer score = scores.get(entry.getKey());
+                results.add(new TokenScore<>(baseScore + (score == null ? 0 : score), entry.getValue().device));
+            }
+        } else {
+            scores.forEach((uid, score) -> {
+                final Document document = documents.get(uid);
+                if (document != null && score > 0) {
+                    results.add(new TokenScore<>(score, document.device));
+                }
+            });
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of indexed devices
+     *
+     * @return the number of indexed devices
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Re-indexes the device with the given uid. Does nothing if the index has not been built yet.
+     *
+     * @param uid the non-null uid
+     */
+    public synchronized void update(NeeoThingUID uid) {
+        Objects.requireNonNull(uid, "uid cannot be null");
+        if (!built) {
+            return;
+        }
+
+        remove(uid);
+        final NeeoDevice device = context.getDefinitions().getExposed(uid);
+        if (device != null) {
+            add(device);
+        }
+        logger.trace("Re-indexed {}: {}", uid, device == null ? "not exposed" : "exposed");
+    }
+
+    /**
+     * Builds the index from all exposed devices
+     */
+    private void rebuild() {
+        clear();
+        for (NeeoDevice device : context.getDefinitions().getExposed()) {
+            add(device);
+        }
+        built = true;
+        logger.debug("Built search index of {} devices with {} tokens", documents.size(), postings.size());
+    }
+
+    private void clear() {
+        documents.clear();
+        postings.clear();
+        suffixes.clear();
+        built = false;
+    }
+
+    private void updateBoundThings(Item item) {
+        if (!built) {
+            return;
+        }
+        for (ChannelUID channelUID : context.getItemChannelLinkRegistry().getBoundChannels(item.getName())) {
+            update(new NeeoThingUID(channelUID.getThingUID()));
+        }
+    }
+
+    private void add(NeeoDevice device) {
+        final Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, device.getName());
+        addTokens(tokens, device.getUid().getBindingId());
+
+        final Thing thing = context.getThingRegistry().get(device.getUid().asThingUID());
+        if (thing != null) {
+            addTokens(tokens, thing.getLocation());
+            addTokens(tokens, thing.getProperties().get(Thing.PROPERTY_VENDOR));
+
+            final ThingType tt = context.getThingTypeRegistry().getThingType(thing.getThingTypeUID());
+            if (tt != null) {
+                addTokens(tokens, tt.getLabel());
+
+                final BindingInfo bi = context.getBindingInfoRegistry().getBindingInfo(tt.getBindingId());
+                if (bi != null) {
+                    addTokens(tokens, bi.getName());
+                }
+            }
+        }
+
+        documents.put(device.getUid(), new Document(device, tokens));
+        tokens.forEach((token, count) -> {
+            final Map<NeeoThingUID, Integer> uids = postings.get(token);
+            if (uids == null) {
+                final Map<NeeoThingUID, Integer> newUids = new HashMap<>();
+                newUids.put(device.getUid(), count);
+                postings.put(token, newUids);
+                for (int i = 0; i < token.length(); i++) {
+                    suffixes.computeIfAbsent(token.substring(i), k -> new HashSet<>()).add(token);
+                }
+            } else {
+                uids.put(device.getUid(), count);
+            }
+        });
+    }
+
+    private void remove(NeeoThingUID uid) {
+        final Document document = documents.remove(uid);
+        if (document == null) {
+            return;
+        }
+
+        for (String token : document.tokens.keySet()) {
+            final Map<NeeoThingUID, Integer> uids = postings.get(token);
+            if (uids != null) {
+                uids.remove(uid);
+                if (uids.isEmpty()) {
+                    postings.remove(token);
+                    for (int i = 0; i < token.length(); i++) {
+                        final String suffix = token.substring(i);
+                        final Set<String> suffixTokens = suffixes.get(suffix);
+                        if (suffixTokens != null) {
+                            suffixTokens.remove(token);
+                            if (suffixTokens.isEmpty()) {
+                                suffixes.remove(suffix);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, @Nullable String haystack) {
+        if (haystack == null || StringUtils.isEmpty(haystack)) {
+            return;
+        }
+        for (String token : StringUtils.split(haystack, DELIMITER)) {
+            tokens.merge(normalize(token), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Normalizes a token or needle for the index
+     *
+     * @param text the non-null text
+     * @return the normalized text
+     */
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Scores a single (normalized) token against a single (normalized) needle (lifted from tokensearch.js)
+     *
+     * @param token the token of the haystack
+     * @param needle the needle
+     * @return the score of the match
+     */
+    static int score(String token, String needle) {
+        final int stringPos = token.indexOf(needle);
+        if (stringPos < 0) {
+            return 0;
+        } else if (needle.length() < 2) {
+            return 1;
+        } else if (token.equals(needle)) {
+            return 6;
+        } else if (stringPos == 0) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    /**
+     * An indexed device with its token occurrences
+     *
+     * @author agent - Initial Contribution
+     */
+    private static class Document {
+        private final NeeoDevice device;
+        private final Map<String, Integer> tokens;
+
+        private Document(NeeoDevice device, Map<String, Integer> tokens) {
+            this.device = device;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.neeo.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingRegistry;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.link.ItemChannelLinkRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.io.neeo.internal.models.NeeoDevice;
+import org.openhab.io.neeo.internal.models.NeeoDeviceType;
+import org.openhab.io.neeo.internal.models.NeeoThingUID;
+import org.openhab.io.neeo.internal.models.TokenScore;
+
+/**
+ * Tests cases for {@link TokenSearchIndex}.
+ *
+ * @author agent - Initial Contribution
+ */
+public class TokenSearchIndexTest {
+    private final ServiceContext context = mock(ServiceContext.class);
+    private final NeeoDeviceDefinitions definitions = mock(NeeoDeviceDefinitions.class);
+    private final ThingRegistry thingRegistry = mock(ThingRegistry.class);
+    private final List<NeeoDevice> devices = new ArrayList<>();
+    private TokenSearchIndex index;
+
+    @Before
+    public void setUp() {
+        when(context.getDefinitions()).thenReturn(definitions);
+        when(context.getThingRegistry()).thenReturn(thingRegistry);
+        when(context.getItemRegistry()).thenReturn(mock(ItemRegistry.class));
+        when(context.getItemChannelLinkRegistry()).thenReturn(mock(ItemChannelLinkRegistry.class));
+        when(definitions.getExposed()).thenReturn(devices);
+
+        devices.add(device("hue:bulb:1", "Living Room Lamp"));
+        devices.add(device("hue:bulb:2", "Kitchen Lamp"));
+        devices.add(device("sonos:zoneplayer:1", "Living Room Speaker"));
+
+        index = new TokenSearchIndex(context);
+        index.start();
+    }
+
+    @Test
+    public void scoreFollowsTokenSearch() {
+        assertEquals(6, TokenSearchIndex.score("lamp", "lamp"));
+        assertEquals(2, TokenSearchIndex.score("lamps", "lamp"));
+        assertEquals(1, TokenSearchIndex.score("floorlamp", "lamp"));
+        assertEquals(1, TokenSearchIndex.score("lamp", "a"));
+        assertEquals(0, TokenSearchIndex.score("lamp", "kitchen"));
+    }
+
+    @Test
+    public void devicesAreMatchedAnywhereInTokens() {
+        Map<String, Double> scores = search("lamp");
+        assertEquals(2, scores.size());
+        assertEquals(6, scores.get("Living Room Lamp"), 0);
+        assertEquals(6, scores.get("Kitchen Lamp"), 0);
+
+        scores = search("LIV amp");
+        assertEquals(2 + 1, scores.get("Living Room Lamp"), 0);
+        assertEquals(2, scores.get("Living Room Speaker"), 0);
+        assertEquals(1, scores.get("Kitchen Lamp"), 0);
+
+        // binding id is part of the tokens
+        scores = search("sonos");
+        assertEquals(Collections.singletonMap("Living Room Speaker", 6d), scores);
+    }
+
+    @Test
+    public void baseScoreIsAddedToAllDevices() {
+        List<TokenScore<NeeoDevice>> results = index.search(new String[] { "kitchen" }, 2);
+        assertEquals(3, results.size());
+        assertEquals(8, results.stream().mapToDouble(TokenScore::getScore).max().getAsDouble(), 0);
+        assertEquals(2, results.stream().mapToDouble(TokenScore::getScore).min().getAsDouble(), 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void indexIsUpdatedIncrementally() {
+        ArgumentCaptor<RegistryChangeListener<Thing>> listener = ArgumentCaptor
+                .forClass(RegistryChangeListener.class);
+        verify(thingRegistry).addRegistryChangeListener(listener.capture());
+        assertEquals(3, search("l").size());
+
+        NeeoDevice renamed = device("hue:bulb:2", "Kitchen Ceiling");
+        when(definitions.getExposed(renamed.getUid())).thenReturn(renamed);
+        listener.getValue().updated(mock(Thing.class), thing("hue:bulb:2"));
+
+        assertEquals(Collections.singletonMap("Kitchen Ceiling", 6d), search("ceiling"));
+        assertEquals(1, search("lamp").size());
+        assertEquals(3, index.size());
+
+        NeeoThingUID removed = new NeeoThingUID(new ThingUID("sonos:zoneplayer:1"));
+        when(definitions.getExposed(removed)).thenReturn(null);
+        listener.getValue().removed(thing("sonos:zoneplayer:1"));
+
+        assertTrue(search("speaker").isEmpty());
+        assertTrue(search("sonos").isEmpty());
+        assertEquals(2, index.size());
+        verify(definitions, times(1)).getExposed();
+    }
+
+    @Test
+    public void closedIndexIsRebuiltPerSearch() {
+        index.close();
+        search("lamp");
+        search("lamp");
+        verify(definitions, times(2)).getExposed();
+        verify(definitions, never()).getExposed(any(NeeoThingUID.class));
+    }
+
+    private Map<String, Double> search(String query) {
+        return index.search(query.split(" "), 0).stream()
+                .collect(Collectors.toMap(ts -> ts.getItem().getName(), TokenScore::getScore));
+    }
+
+    private NeeoDevice device(String uid, String name) {
+        return new NeeoDevice(new NeeoThingUID(new ThingUID(uid)), 0, NeeoDeviceType.ACCESSOIRE, "openHAB", name,
+                Collections.emptyList(), null, null, null, null);
+    }
+
+    private Thing thing(String uid) {
+        Thing thing = mock(Thing.class);
+        when(thing.getUID()).thenReturn(new ThingUID(uid));
+        return thing;
+    }
+}
@@ -20,18 +20,19 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -40,6 +41,7 @@ import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -67,6 +69,14 @@ import io.socket.engineio.client.Transport;
  */
 
 public class CloudClient {
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+    private static final String EVENT_RESPONSE_CONTENT_STREAM = "responseContentStream";
+
+    /*
+     * Maximum number of response chunks per request which are not acknowledged by the openHAB Cloud yet
+     */
+    private static final int MAX_CHUNKS_IN_FLIGHT = 4;
+
     /*
      * Logger for this class
      */
@@ -98,9 +108,14 @@ public class CloudClient {
     private final HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final Map<Integer, ProxyRequest> runningRequests = new ConcurrentHashMap<>();
+
+    /*
+     * This variable indicates if the openHAB Cloud accepts acknowledged binary response chunks
+     */
+    private volatile boolean streamingSupported;
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -131,6 +146,11 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * This variable holds the stage which coalesces and rate limits item updates sent to the openHAB Cloud
+     */
+    private final ItemUpdateUplink itemUpdateUplink;
+
     /**
      * Constructor of CloudClient
      *
@@ -138,17 +158,21 @@ public class CloudClient {
      * @param secret openHAB's Secret to connect to the openHAB Cloud
      * @param remoteAccessEnabled Allow the openHAB Cloud to be used as a remote proxy
      * @param exposedItems Items that are made available to apps connected to the openHAB Cloud
+     * @param itemUpdateWindow Time in milliseconds item updates are collected before they are sent
+     * @param itemUpdateRate Maximum number of item update messages per second, 0 disables the limit
      */
     public CloudClient(HttpClient httpClient, String uuid, String secret, String baseURL, String localBaseUrl,
-            boolean remoteAccessEnabled, Set<String> exposedItems) {
+            boolean remoteAccessEnabled, Set<String> exposedItems, long itemUpdateWindow, int itemUpdateRate) {
         this.uuid = uuid;
         this.secret = secret;
         this.baseURL = baseURL;
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
         this.jettyClient = httpClient;
+        this.itemUpdateUplink = new ItemUpdateUplink(
+                ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD), itemUpdateWindow,
+                itemUpdateRate);
     }
 
     /**
@@ -220,6 +244,11 @@ public class CloudClient {
             public void call(Object... args) {
                 onEvent("command", (JSONObject) args[0]);
             }
+        }).on("features", new Emitter.Listener() {
+            @Override
+            public void call(Object... args) {
+                onFeatures((JSONObject) args[0]);
+            }
         });
         socket.connect();
     }
@@ -231,6 +260,7 @@ public class CloudClient {
     public void onConnect() {
         logger.info("Connected to the openHAB Cloud service (UUID = {}, base URL = {})", this.uuid, this.localBaseUrl);
         isConnected = true;
+        itemUpdateUplink.connected(socket);
     }
 
     /**
@@ -241,10 +271,25 @@ public class CloudClient {
         logger.info("Disconnected from the openHAB Cloud service (UUID = {}, base URL = {})", this.uuid,
                 this.localBaseUrl);
         isConnected = false;
-        // And clean up the list of running requests
-        if (runningRequests != null) {
-            runningRequests.clear();
+        itemUpdateUplink.disconnected();
+        streamingSupported = false;
+        // And abort the running requests, their responses cannot be delivered anymore
+        for (ProxyRequest proxyRequest : runningRequests.values()) {
+            proxyRequest.abort();
         }
+        runningRequests.clear();
+    }
+
+    /**
+     * Callback method for socket.io client which is called when the openHAB Cloud announces optional features
+     */
+
+    public void onFeatures(JSONObject data) {
+        boolean batchSupported = data.optBoolean(ItemUpdateUplink.EVENT_ITEM_UPDATES, false);
+        logger.debug("openHAB Cloud supports batched item updates: {}", batchSupported);
+        itemUpdateUplink.setBatchSupported(batchSupported);
+        streamingSupported = data.optBoolean(EVENT_RESPONSE_CONTENT_STREAM, false);
+        logger.debug("openHAB Cloud supports streamed responses: {}", streamingSupported);
     }
 
     /**
@@ -334,11 +379,13 @@ public class CloudClient {
                 logger.warn("Unsupported request method {}", requestMethod);
                 return;
             }
-            ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
-            // If successfully submitted request to http client, add it to the list of currently
-            // running requests to be able to cancel it if needed
-            runningRequests.put(requestId, request);
+            ProxyRequest proxyRequest = new ProxyRequest(requestId, request, MAX_CHUNKS_IN_FLIGHT);
+            ResponseListener listener = new ResponseListener(proxyRequest, streamingSupported);
+            // Add the request to the list of currently running requests to be able to cancel it if needed,
+            // this has to happen before sending as the response may complete right away
+            runningRequests.put(requestId, proxyRequest);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
         } catch (JSONException | IOException | URISyntaxException e) {
             logger.debug("{}", e.getMessage());
         }
@@ -368,10 +415,9 @@ public class CloudClient {
             int requestId = data.getInt("id");
             logger.debug("Received cancel for request {}", requestId);
             // Find and abort running request
-            if (runningRequests.containsKey(requestId)) {
-                Request request = runningRequests.get(requestId);
-                request.abort(new InterruptedException());
-                runningRequests.remove(requestId);
+            ProxyRequest proxyRequest = runningRequests.remove(requestId);
+            if (proxyRequest != null) {
+                proxyRequest.abort();
             }
         } catch (JSONException e) {
             logger.debug("{}", e.getMessage());
@@ -476,19 +522,8 @@ public class CloudClient {
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
-        if (isConnected()) {
-            logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
-            JSONObject itemUpdateMessage = new JSONObject();
-            try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
-            } catch (JSONException e) {
-                logger.debug("{}", e.getMessage());
-            }
-        } else {
-            logger.debug("No connection, Item update is not sent");
-        }
+        logger.trace("Queueing update '{}' for item '{}'", itemState, itemName);
+        itemUpdateUplink.update(itemName, itemState);
     }
 
     /**
@@ -503,6 +538,7 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        itemUpdateUplink.shutdown();
         socket.disconnect();
     }
 
@@ -518,18 +554,35 @@ public class CloudClient {
         this.listener = listener;
     }
 
+    /**
+     * Returns the stage item updates are sent through, e.g. to read its counters
+     */
+    public ItemUpdateUplink getItemUpdateUplink() {
+        return itemUpdateUplink;
+    }
+
+    /**
+     * Returns the requests to local openHAB which are currently running, e.g. to read their metrics
+     */
+    public Map<Integer, ProxyRequest> getRunningRequests() {
+        return Collections.unmodifiableMap(runningRequests);
+    }
+
     /*
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
-        private int mRequestId;
+        private final ProxyRequest mProxyRequest;
+        private final int mRequestId;
+        private final boolean mStreaming;
         private boolean mHeadersSent = false;
 
-        public ResponseListener(int requestId) {
-            mRequestId = requestId;
+        public ResponseListener(ProxyRequest proxyRequest, boolean streaming) {
+            mProxyRequest = proxyRequest;
+            mRequestId = proxyRequest.getId();
+            mStreaming = streaming;
         }
 
         private JSONObject getJSONHeaders(HttpFields httpFields) {
@@ -547,7 +600,9 @@ public class CloudClient {
         @Override
         public void onComplete(Result result) {
             // Remove this request from list of running requests
-            runningRequests.remove(mRequestId);
+            runningRequests.remove(mRequestId, mProxyRequest);
+            mProxyRequest.completed();
+            logger.debug("Finished {}", mProxyRequest);
             if ((result != null && result.isFailed())
                     && (result.getResponse() != null && result.getResponse().getStatus() != HttpStatus.OK_200)) {
                 if (result.getFailure() != null) {
@@ -591,23 +646,35 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
+            // The buffer is reused by Jetty once the callback is completed, so it has to be copied once
+            byte[] body = BufferUtil.toArray(content);
+            if (mStreaming) {
+                // Send the chunk as binary attachment and let the openHAB Cloud acknowledge it, reading of the
+                // response pauses while too many chunks are not acknowledged yet
+                mProxyRequest.sendChunk(body.length, callback,
+                        ack -> socket.emit(EVENT_RESPONSE_CONTENT_STREAM, new Object[] { mRequestId, body }, ack));
+                logger.debug("Streamed content to request {}", mRequestId);
+                return;
+            }
             JSONObject responseJson = new JSONObject();
             try {
                 responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
+                responseJson.put("body", body);
                 socket.emit("responseContentBinary", responseJson);
                 logger.debug("Sent content to request {}", mRequestId);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
+            mProxyRequest.chunkSent(body.length, callback);
         }
 
         @Override
         public void onHeaders(Response response) {
             if (!mHeadersSent) {
                 logger.debug("Jetty finished receiving response header");
+                mProxyRequest.headersReceived();
                 JSONObject responseJson = new JSONObject();
                 mHeadersSent = true;
                 try {
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.socket.emitter.Emitter;
+
+/**
+ * This class sits between the event bus and the Socket.IO connection to the openHAB Cloud and forwards item updates.
+ * Only the latest state of an item is kept while it waits for the next flush, which happens at most once per update
+ * window. The number of messages per second is capped, updates that exceed the cap wait for the next flush.
+ *
+ * If the openHAB Cloud announced that it accepts batched updates, all pending updates of a flush are sent as one
+ * "itemupdates" message, otherwise every update is sent as an "itemupdate" message as before.
+ *
+ * Without an update window and rate limit, and as long as the openHAB Cloud does not accept batched updates, every
+ * update is passed through and emitted right away.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateUplink {
+    static final String EVENT_ITEM_UPDATE = "itemupdate";
+    static final String EVENT_ITEM_UPDATES = "itemupdates";
+
+    /*
+     * Maximum number of updates in one batched message
+     */
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ItemUpdateUplink.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final int maxMessagesPerSecond;
+    private final Clock clock;
+
+    /*
+     * Pending updates in the order the items have been updated first, keyed by item name
+     */
+    private final Map<String, String> pendingUpdates = new LinkedHashMap<>();
+    private Emitter socket;
+    private boolean connected;
+    private boolean batchSupported;
+    private ScheduledFuture<?> flushJob;
+
+    /*
+     * Token bucket of the message rate limit, it holds up to one second worth of messages
+     */
+    private double tokens;
+    private long lastRefill;
+
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+    private final AtomicLong sentUpdates = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    /**
+     * Constructor of ItemUpdateUplink
+     *
+     * @param scheduler the scheduler which runs the flushes
+     * @param window the time in milliseconds updates are collected before they are sent
+     * @param maxMessagesPerSecond the maximum number of messages per second, 0 disables the limit
+     */
+    public ItemUpdateUplink(ScheduledExecutorService scheduler, long window, int maxMessagesPerSecond) {
+        this(scheduler, window, maxMessagesPerSecond, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor of ItemUpdateUplink
+     *
+     * @param scheduler the scheduler which runs the flushes
+     * @param window the time in milliseconds updates are collected before they are sent
+     * @param maxMessagesPerSecond the maximum number of messages per second, 0 disables the limit
+     * @param clock the source of the current time for the rate limit
+     */
+    ItemUpdateUplink(ScheduledExecutorService scheduler, long window, int maxMessagesPerSecond, Clock clock) {
+        this.scheduler = scheduler;
+        this.window = Math.max(0, window);
+        this.maxMessagesPerSecond = Math.max(0, maxMessagesPerSecond);
+        this.clock = clock;
+        this.tokens = this.maxMessagesPerSecond;
+        this.lastRefill = clock.millis();
+    }
+
+    /**
+     * Start forwarding updates to a connected Socket.IO client
+     *
+     * @param socket the socket the updates are emitted on
+     */
+    public synchronized void connected(Emitter socket) {
+        this.socket = socket;
+        this.connected = true;
+    }
+
+    /**
+     * Stop forwarding updates, pending updates are dropped
+     */
+    public synchronized void disconnected() {
+        connected = false;
+        batchSupported = false;
+        droppedUpdates.addAndGet(pendingUpdates.size());
+        pendingUpdates.clear();
+        cancelFlush();
+    }
+
+    /**
+     * Set if the openHAB Cloud accepts batched "itemupdates" messages
+     */
+    public synchronized void setBatchSupported(boolean batchSupported) {
+        this.batchSupported = batchSupported;
+    }
+
+    /**
+     * Queue an item update. A pending update for the same item is replaced.
+     *
+     * @param itemName the name of the item
+     * @param itemState updated item state
+     */
+    public void update(String itemName, String itemState) {
+        Emitter socket;
+        synchronized (this) {
+            if (!connected) {
+                logger.debug("No connection, Item update is not sent");
+                droppedUpdates.incrementAndGet();
+                return;
+            }
+            if (!isPassThrough()) {
+                if (pendingUpdates.put(itemName, itemState) != null) {
+                    coalescedUpdates.incrementAndGet();
+                }
+                if (flushJob == null) {
+                    flushJob = scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            socket = this.socket;
+        }
+
+        logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
+        socket.emit(EVENT_ITEM_UPDATE, toJson(itemName, itemState));
+        sentMessages.incrementAndGet();
+        sentUpdates.incrementAndGet();
+    }
+
+    /**
+     * Send pending updates as far as the rate limit allows
+     */
+    void flush() {
+        Emitter socket;
+        List<JSONObject> updates = new ArrayList<>();
+        boolean batch;
+        synchronized (this) {
+            flushJob = null;
+            if (!connected || pendingUpdates.isEmpty()) {
+                return;
+            }
+            socket = this.socket;
+            batch = batchSupported;
+            int messages = availableMessages();
+            int count = batch ? messages * MAX_BATCH_SIZE : messages;
+            Iterator<Map.Entry<String, String>> iterator = pendingUpdates.entrySet().iterator();
+            while (iterator.hasNext() && updates.size() < count) {
+                Map.Entry<String, String> entry = iterator.next();
+                iterator.remove();
+                updates.add(toJson(entry.getKey(), entry.getValue()));
+            }
+            if (maxMessagesPerSecond > 0) {
+                tokens -= batch ? (updates.size() + MAX_BATCH_SIZE - 1) / MAX_BATCH_SIZE : updates.size();
+            }
+            if (!pendingUpdates.isEmpty()) {
+                // rate limit exceeded, try again when the next message may be sent
+                long delay = maxMessagesPerSecond > 0
+                        ? Math.max(window, TimeUnit.SECONDS.toMillis(1) / maxMessagesPerSecond)
+                        : window;
+                flushJob = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batch) {
+            for (int i = 0; i < updates.size(); i += MAX_BATCH_SIZE) {
+                List<JSONObject> frame = updates.subList(i, Math.min(updates.size(), i + MAX_BATCH_SIZE));
+                logger.debug("Sending {} item updates", frame.size());
+                socket.emit(EVENT_ITEM_UPDATES, new JSONArray(frame));
+                sentMessages.incrementAndGet();
+            }
+        } else {
+            for (JSONObject update : updates) {
+                logger.debug("Sending update for item '{}'", update.opt("itemName"));
+                socket.emit(EVENT_ITEM_UPDATE, update);
+                sentMessages.incrementAndGet();
+            }
+        }
+        sentUpdates.addAndGet(updates.size());
+    }
+
+    /**
+     * Stop the uplink, pending updates are dropped
+     */
+    public void shutdown() {
+        disconnected();
+        logger.debug("Item updates: {} sent in {} messages, {} coalesced, {} dropped", sentUpdates.get(),
+                sentMessages.get(), coalescedUpdates.get(), droppedUpdates.get());
+    }
+
+    /**
+     * Returns the number of updates which have not been sent because there was no connection
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
+    /**
+     * Returns the number of updates which have been replaced by a newer state of the same item before being sent
+     */
+    public long getCoalescedUpdates() {
+        return coalescedUpdates.get();
+    }
+
+    /**
+     * Returns the number of updates which have been sent
+     */
+    public long getSentUpdates() {
+        return sentUpdates.get();
+    }
+
+    /**
+     * Returns the number of Socket.IO messages the sent updates have been carried in
+     */
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    private boolean isPassThrough() {
+        return window == 0 && maxMessagesPerSecond == 0 && !batchSupported && pendingUpdates.isEmpty();
+    }
+
+    private int availableMessages() {
+        if (maxMessagesPerSecond == 0) {
+            return Integer.MAX_VALUE / MAX_BATCH_SIZE;
+        }
+        long now = clock.millis();
+        tokens = Math.min(maxMessagesPerSecond,
+                tokens + (now - lastRefill) * maxMessagesPerSecond / (double) TimeUnit.SECONDS.toMillis(1));
+        lastRefill = now;
+        return (int) tokens;
+    }
+
+    private void cancelFlush() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            flushJob = null;
+        }
+    }
+
+    private static JSONObject toJson(String itemName, String itemState) {
+        JSONObject itemUpdateMessage = new JSONObject();
+        try {
+            itemUpdateMessage.put("itemName", itemName);
+            itemUpdateMessage.put("itemStatus", itemState);
+        } catch (JSONException e) {
+            // only thrown for null keys or non-finite numbers
+        }
+        return itemUpdateMessage;
+    }
+}
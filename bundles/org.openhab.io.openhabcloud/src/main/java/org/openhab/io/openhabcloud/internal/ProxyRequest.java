@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.util.Callback;
+
+import io.socket.client.Ack;
+
+/**
+ * This class tracks a request of the openHAB Cloud which is proxied to the local openHAB.
+ *
+ * It limits the number of response chunks that have been sent to the openHAB Cloud but are not acknowledged yet.
+ * When the limit is reached, the callback of the last chunk is held back, so that Jetty stops reading the local
+ * response until the openHAB Cloud caught up. It also records latency and throughput of the request.
+ *
+ * @author agent - Initial contribution
+ */
+public class ProxyRequest {
+    private final int id;
+    private final Request request;
+    private final int maxChunksInFlight;
+    private final long started = System.nanoTime();
+
+    private long headersReceived;
+    private long completed;
+    private long bytes;
+    private int chunks;
+    private int chunksInFlight;
+    private Callback pendingCallback;
+
+    /**
+     * Constructor of ProxyRequest
+     *
+     * @param id the id of the request assigned by the openHAB Cloud
+     * @param request the request to the local openHAB
+     * @param maxChunksInFlight the maximum number of unacknowledged chunks, 0 disables the limit
+     */
+    public ProxyRequest(int id, Request request, int maxChunksInFlight) {
+        this.id = id;
+        this.request = request;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    /**
+     * Record that the response headers have been received from the local openHAB
+     */
+    public synchronized void headersReceived() {
+        if (headersReceived == 0) {
+            headersReceived = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record that a chunk of the response has been sent to the openHAB Cloud without acknowledgement. The callback is
+     * completed right away.
+     *
+     * @param length the size of the chunk
+     * @param callback the Jetty callback which resumes reading the response
+     */
+    public void chunkSent(int length, Callback callback) {
+        synchronized (this) {
+            bytes += length;
+            chunks++;
+        }
+        callback.succeeded();
+    }
+
+    /**
+     * Send a chunk of the response which the openHAB Cloud acknowledges. The chunk is counted as unacknowledged before
+     * it is emitted, so an acknowledgement which arrives while the chunk is still being emitted is not lost. The
+     * callback is completed right away unless the maximum number of unacknowledged chunks has been reached.
+     *
+     * @param length the size of the chunk
+     * @param callback the Jetty callback which resumes reading the response
+     * @param emitter emits the chunk with the given acknowledgement handler
+     */
+    public void sendChunk(int length, Callback callback, Consumer<Ack> emitter) {
+        synchronized (this) {
+            bytes += length;
+            chunks++;
+            chunksInFlight++;
+        }
+        emitter.accept(args -> chunkAcknowledged());
+
+        boolean resume;
+        synchronized (this) {
+            resume = maxChunksInFlight == 0 || chunksInFlight < maxChunksInFlight;
+            if (!resume) {
+                pendingCallback = callback;
+            }
+        }
+        if (resume) {
+            callback.succeeded();
+        }
+    }
+
+    /**
+     * Record that the openHAB Cloud acknowledged a chunk, reading of the response is resumed if it has been paused
+     */
+    public void chunkAcknowledged() {
+        Callback callback = null;
+        synchronized (this) {
+            if (chunksInFlight > 0) {
+                chunksInFlight--;
+            }
+            if (pendingCallback != null && chunksInFlight < maxChunksInFlight) {
+                callback = pendingCallback;
+                pendingCallback = null;
+            }
+        }
+        if (callback != null) {
+            callback.succeeded();
+        }
+    }
+
+    /**
+     * Record that the request has been completed, a paused response is released
+     */
+    public void completed() {
+        Callback callback;
+        synchronized (this) {
+            if (completed == 0) {
+                completed = System.nanoTime();
+            }
+            callback = pendingCallback;
+            pendingCallback = null;
+        }
+        if (callback != null) {
+            callback.failed(new InterruptedException("Request " + id + " completed"));
+        }
+    }
+
+    /**
+     * Abort the request to the local openHAB
+     */
+    public void abort() {
+        request.abort(new InterruptedException());
+        completed();
+    }
+
+    /**
+     * Returns true if reading of the response is paused until the openHAB Cloud acknowledges a chunk
+     */
+    public synchronized boolean isPaused() {
+        return pendingCallback != null;
+    }
+
+    public synchronized int getChunksInFlight() {
+        return chunksInFlight;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Returns the time in milliseconds until the response headers have been received, -1 if not received yet
+     */
+    public synchronized long getHeaderLatency() {
+        return headersReceived == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(headersReceived - started);
+    }
+
+    /**
+     * Returns the time in milliseconds the request has been running or took until it completed
+     */
+    public synchronized long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis((completed == 0 ? System.nanoTime() : completed) - started);
+    }
+
+    /**
+     * Returns the throughput of the response body in bytes per second
+     */
+    public synchronized long getThroughput() {
+        long nanos = (completed == 0 ? System.nanoTime() : completed) - started;
+        return nanos <= 0 ? 0 : bytes * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "request " + id + ": " + bytes + " bytes in " + chunks + " chunks, headers after "
+                + getHeaderLatency() + " ms, completed after " + getDuration() + " ms, " + getThroughput()
+                + " bytes/s";
+    }
+}
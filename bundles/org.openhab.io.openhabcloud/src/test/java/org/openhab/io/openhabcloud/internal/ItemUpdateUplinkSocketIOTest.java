@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.socket.client.IO;
+import io.socket.client.Socket;
+import io.socket.engineio.client.transports.Polling;
+
+/**
+ * Tests cases for {@link ItemUpdateUplink} with a Socket.IO client connected to a local stand-in for the openHAB
+ * Cloud. The stand-in speaks the Engine.IO 3 long polling transport and records the Socket.IO events it receives, so
+ * the tests verify the messages as they go over the wire.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateUplinkSocketIOTest {
+    private static final String HANDSHAKE = "0{\"sid\":\"standin\",\"upgrades\":[],\"pingInterval\":25000,"
+            + "\"pingTimeout\":60000}";
+    private static final String SOCKETIO_CONNECT = "40";
+    private static final String SOCKETIO_EVENT = "42";
+    private static final String NOOP = "6";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final BlockingQueue<JSONArray> events = new LinkedBlockingQueue<>();
+
+    private ScheduledExecutorService scheduler;
+    private HttpServer server;
+    private Socket socket;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/socket.io/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        IO.Options options = new IO.Options();
+        options.forceNew = true;
+        options.reconnection = false;
+        options.transports = new String[] { Polling.NAME };
+        socket = IO.socket("http://127.0.0.1:" + server.getAddress().getPort(), options);
+        CountDownLatch connected = new CountDownLatch(1);
+        socket.on(Socket.EVENT_CONNECT, args -> connected.countDown());
+        socket.connect();
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        socket.close();
+        scheduler.shutdownNow();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String response;
+        if ("POST".equals(exchange.getRequestMethod())) {
+            for (String packet : decodePayload(read(exchange.getRequestBody()))) {
+                if (packet.startsWith(SOCKETIO_EVENT)) {
+                    events.add(new JSONArray(packet.substring(SOCKETIO_EVENT.length())));
+                }
+            }
+            response = "ok";
+        } else if (exchange.getRequestURI().getQuery().contains("sid=")) {
+            // long poll, the stand-in has nothing to send
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response = encodePacket(NOOP);
+        } else {
+            response = encodePacket(HANDSHAKE) + encodePacket(SOCKETIO_CONNECT);
+        }
+
+        byte[] body = response.getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] bytes = new byte[1024];
+        int read;
+        while ((read = inputStream.read(bytes)) != -1) {
+            outputStream.write(bytes, 0, read);
+        }
+        return new String(outputStream.toByteArray(), UTF_8);
+    }
+
+    private static String encodePacket(String packet) {
+        return packet.length() + ":" + packet;
+    }
+
+    private static List<String> decodePayload(String payload) {
+        List<String> packets = new ArrayList<>();
+        int position = 0;
+        while (position < payload.length()) {
+            int separator = payload.indexOf(':', position);
+            int length = Integer.parseInt(payload.substring(position, separator));
+            packets.add(payload.substring(separator + 1, separator + 1 + length));
+            position = separator + 1 + length;
+        }
+        return packets;
+    }
+
+    private JSONArray nextEvent() throws InterruptedException {
+        JSONArray event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull("No event received", event);
+        return event;
+    }
+
+    @Test
+    public void itemUpdatesAreSentAsSingleEvents() throws InterruptedException {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 0, 0);
+        uplink.connected(socket);
+
+        uplink.update("Power", "100");
+        uplink.update("Light", "ON");
+
+        JSONArray event = nextEvent();
+        assertEquals(2, event.length());
+        assertEquals("itemupdate", event.getString(0));
+        assertEquals("Power", event.getJSONObject(1).getString("itemName"));
+        assertEquals("100", event.getJSONObject(1).getString("itemStatus"));
+
+        event = nextEvent();
+        assertEquals("itemupdate", event.getString(0));
+        assertEquals("Light", event.getJSONObject(1).getString("itemName"));
+        assertEquals("ON", event.getJSONObject(1).getString("itemStatus"));
+    }
+
+    @Test
+    public void batchedItemUpdatesAreSentAsArray() throws InterruptedException {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 10000, 0);
+        uplink.connected(socket);
+        uplink.setBatchSupported(true);
+
+        uplink.update("Power", "100");
+        uplink.update("Light", "ON");
+        uplink.update("Power", "110");
+        uplink.flush();
+
+        JSONArray event = nextEvent();
+        assertEquals(2, event.length());
+        assertEquals("itemupdates", event.getString(0));
+        JSONArray updates = event.getJSONArray(1);
+        assertEquals(2, updates.length());
+        JSONObject update = updates.getJSONObject(0);
+        assertEquals("Power", update.getString("itemName"));
+        assertEquals("110", update.getString("itemStatus"));
+        assertEquals("Light", updates.getJSONObject(1).getString("itemName"));
+        assertTrue(events.isEmpty());
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.socket.emitter.Emitter;
+
+/**
+ * Tests cases for {@link ItemUpdateUplink}. A plain {@link Emitter} stands in for the Socket.IO connection and
+ * records the emitted messages, the wire format is covered by {@link ItemUpdateUplinkSocketIOTest}. The flushes are
+ * run by the test instead of a scheduler and the rate limit is based on a fake clock.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateUplinkTest {
+    private ScheduledExecutorService scheduler;
+    private Clock clock;
+    private long now;
+    private Emitter socket;
+    private final List<JSONObject> itemUpdates = new ArrayList<>();
+    private final List<JSONArray> batches = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now);
+        socket = new Emitter();
+        socket.on(ItemUpdateUplink.EVENT_ITEM_UPDATE, args -> {
+            synchronized (itemUpdates) {
+                itemUpdates.add((JSONObject) args[0]);
+            }
+        });
+        socket.on(ItemUpdateUplink.EVENT_ITEM_UPDATES, args -> {
+            synchronized (batches) {
+                batches.add((JSONArray) args[0]);
+            }
+        });
+    }
+
+    @Test
+    public void updatesArePassedThroughWithoutWindowAndRateLimit() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 0, 0);
+        uplink.connected(socket);
+
+        uplink.update("Power", "100");
+        uplink.update("Power", "110");
+
+        assertEquals(2, itemUpdates.size());
+        assertEquals("100", itemUpdates.get(0).getString("itemStatus"));
+        assertEquals("110", itemUpdates.get(1).getString("itemStatus"));
+        assertEquals(0, uplink.getCoalescedUpdates());
+        assertEquals(2, uplink.getSentMessages());
+    }
+
+    @Test
+    public void onlyLatestStateIsSent() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 10000, 0);
+        uplink.connected(socket);
+
+        uplink.update("Power", "100");
+        uplink.update("Light", "ON");
+        uplink.update("Power", "110");
+        uplink.update("Power", "120");
+        uplink.flush();
+
+        assertEquals(2, itemUpdates.size());
+        assertEquals("Power", itemUpdates.get(0).getString("itemName"));
+        assertEquals("120", itemUpdates.get(0).getString("itemStatus"));
+        assertEquals("Light", itemUpdates.get(1).getString("itemName"));
+        assertEquals("ON", itemUpdates.get(1).getString("itemStatus"));
+        assertEquals(2, uplink.getCoalescedUpdates());
+        assertEquals(2, uplink.getSentUpdates());
+        assertEquals(2, uplink.getSentMessages());
+        assertEquals(0, uplink.getDroppedUpdates());
+    }
+
+    @Test
+    public void updatesAreFlushedAfterWindow() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 50, 0);
+        uplink.connected(socket);
+
+        uplink.update("Power", "100");
+        uplink.update("Power", "110");
+        assertTrue(itemUpdates.isEmpty());
+
+        runScheduledFlush(50);
+        assertEquals(1, uplink.getSentUpdates());
+        assertEquals("110", itemUpdates.get(0).getString("itemStatus"));
+    }
+
+    @Test
+    public void updatesAreBatchedIfSupported() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 10000, 0);
+        uplink.connected(socket);
+        uplink.setBatchSupported(true);
+
+        for (int i = 0; i < 250; i++) {
+            uplink.update("Item" + i, Integer.toString(i));
+        }
+        uplink.flush();
+
+        assertTrue(itemUpdates.isEmpty());
+        assertEquals(3, batches.size());
+        assertEquals(ItemUpdateUplink.MAX_BATCH_SIZE, batches.get(0).length());
+        assertEquals(50, batches.get(2).length());
+        assertEquals("Item249", batches.get(2).getJSONObject(49).getString("itemName"));
+        assertEquals(250, uplink.getSentUpdates());
+        assertEquals(3, uplink.getSentMessages());
+    }
+
+    @Test
+    public void messageRateIsCapped() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 0, 10, clock);
+        uplink.connected(socket);
+
+        for (int i = 0; i < 25; i++) {
+            uplink.update("Item" + i, "ON");
+        }
+        // the bucket holds one second worth of messages
+        runScheduledFlush(0);
+        assertEquals(10, uplink.getSentMessages());
+
+        // the next flush is scheduled when the next message may be sent
+        now += 100;
+        runScheduledFlush(100);
+        assertEquals(11, uplink.getSentMessages());
+
+        now += 1000;
+        runScheduledFlush(100);
+        assertEquals(21, uplink.getSentMessages());
+
+        now += 400;
+        runScheduledFlush(100);
+        assertEquals(25, uplink.getSentMessages());
+        assertEquals("Item24", itemUpdates.get(24).getString("itemName"));
+        assertEquals(0, uplink.getCoalescedUpdates());
+        verifyNoMoreInteractions(scheduler);
+    }
+
+    @Test
+    public void updatesWithoutConnectionAreDropped() {
+        ItemUpdateUplink uplink = new ItemUpdateUplink(scheduler, 10000, 0);
+        uplink.update("Power", "100");
+
+        uplink.connected(socket);
+        uplink.update("Power", "110");
+        uplink.update("Light", "ON");
+        uplink.disconnected();
+        uplink.flush();
+
+        assertTrue(itemUpdates.isEmpty());
+        assertEquals(3, uplink.getDroppedUpdates());
+        assertEquals(0, uplink.getSentUpdates());
+    }
+
+    /**
+     * Runs the flush which has been scheduled last, it must have been scheduled with the given delay
+     */
+    private void runScheduledFlush(long delay) {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeastOnce()).schedule(flush.capture(), eq(delay), eq(TimeUnit.MILLISECONDS));
+        clearInvocations(scheduler);
+        flush.getValue().run();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.util.Callback;
+import org.junit.Test;
+
+import io.socket.client.Ack;
+
+/**
+ * Tests cases for {@link ProxyRequest}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ProxyRequestTest {
+    private final Request request = mock(Request.class);
+
+    private static void emitWithoutAck(Ack ack) {
+        // the acknowledgement arrives later
+    }
+
+    @Test
+    public void readingPausesWhenWindowIsFull() {
+        ProxyRequest proxyRequest = new ProxyRequest(1, request, 2);
+        Callback first = mock(Callback.class);
+        Callback second = mock(Callback.class);
+        Callback third = mock(Callback.class);
+
+        proxyRequest.sendChunk(100, first, ProxyRequestTest::emitWithoutAck);
+        verify(first).succeeded();
+        assertFalse(proxyRequest.isPaused());
+
+        proxyRequest.sendChunk(100, second, ProxyRequestTest::emitWithoutAck);
+        verify(second, never()).succeeded();
+        assertTrue(proxyRequest.isPaused());
+
+        proxyRequest.chunkAcknowledged();
+        verify(second).succeeded();
+        assertFalse(proxyRequest.isPaused());
+
+        proxyRequest.sendChunk(100, third, ProxyRequestTest::emitWithoutAck);
+        verify(third, never()).succeeded();
+        proxyRequest.chunkAcknowledged();
+        proxyRequest.chunkAcknowledged();
+        verify(third).succeeded();
+        assertEquals(0, proxyRequest.getChunksInFlight());
+    }
+
+    @Test
+    public void acknowledgementWhileEmittingIsNotLost() {
+        ProxyRequest proxyRequest = new ProxyRequest(1, request, 1);
+        for (int i = 0; i < 3; i++) {
+            Callback callback = mock(Callback.class);
+            // the acknowledgement handler runs synchronously inside emit
+            proxyRequest.sendChunk(100, callback, ack -> ack.call());
+            verify(callback).succeeded();
+            assertEquals(0, proxyRequest.getChunksInFlight());
+            assertFalse(proxyRequest.isPaused());
+        }
+
+        Callback callback = mock(Callback.class);
+        proxyRequest.sendChunk(100, callback, ProxyRequestTest::emitWithoutAck);
+        verify(callback, never()).succeeded();
+        assertTrue(proxyRequest.isPaused());
+        assertEquals(400, proxyRequest.getBytes());
+    }
+
+    @Test
+    public void unacknowledgedChunksDoNotPause() {
+        ProxyRequest proxyRequest = new ProxyRequest(1, request, 1);
+        for (int i = 0; i < 10; i++) {
+            Callback callback = mock(Callback.class);
+            proxyRequest.chunkSent(10, callback);
+            verify(callback).succeeded();
+        }
+        assertEquals(100, proxyRequest.getBytes());
+        assertEquals(10, proxyRequest.getChunks());
+    }
+
+    @Test
+    public void abortReleasesPausedResponse() {
+        ProxyRequest proxyRequest = new ProxyRequest(1, request, 1);
+        Callback callback = mock(Callback.class);
+        proxyRequest.sendChunk(100, callback, ProxyRequestTest::emitWithoutAck);
+        assertTrue(proxyRequest.isPaused());
+
+        proxyRequest.abort();
+        verify(request).abort(any(Throwable.class));
+        verify(callback).failed(any(Throwable.class));
+        verify(callback, never()).succeeded();
+        assertFalse(proxyRequest.isPaused());
+    }
+
+    @Test
+    public void metricsAreRecorded() throws InterruptedException {
+        ProxyRequest proxyRequest = new ProxyRequest(1, request, 0);
+        assertEquals(-1, proxyRequest.getHeaderLatency());
+
+        Thread.sleep(20);
+        proxyRequest.headersReceived();
+        proxyRequest.sendChunk(1000, mock(Callback.class), ProxyRequestTest::emitWithoutAck);
+        proxyRequest.completed();
+
+        assertTrue(proxyRequest.getHeaderLatency() >= 20);
+        assertTrue(proxyRequest.getDuration() >= proxyRequest.getHeaderLatency());
+        assertTrue(proxyRequest.getThroughput() > 0);
+        assertTrue(proxyRequest.getThroughput() <= 1000 * 1000 / 20);
+        long duration = proxyRequest.getDuration();
+        Thread.sleep(10);
+        assertEquals(duration, proxyRequest.getDuration());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.ttscache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link PrewarmText} is a text which a TTS service puts into its cache in advance, see
+ * {@link TTSAudioCache#prewarm}.
+ *
+ * The texts are read from a file with one text per line, preceded by the UID of the voice to speak it, e.g.
+ * "pollytts:Joanna Welcome home". Empty lines and lines starting with # are ignored.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PrewarmText {
+
+    private final String voiceUID;
+    private final String text;
+
+    public PrewarmText(String voiceUID, String text) {
+        this.voiceUID = voiceUID;
+        this.text = text;
+    }
+
+    /**
+     * Read the texts of a prewarm file.
+     *
+     * @param file the file to read
+     * @return the texts in the order of the file
+     * @throws IOException if the file could not be read or contains a line without text
+     */
+    public static List<PrewarmText> read(File file) throws IOException {
+        List<PrewarmText> texts = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+", 2);
+                if (fields.length < 2) {
+                    throw new IOException("Missing text in line " + lineNumber + " of " + file);
+                }
+                texts.add(new PrewarmText(fields[0], fields[1]));
+            }
+        }
+        return texts;
+    }
+
+    public String getVoiceUID() {
+        return voiceUID;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return "PrewarmText [voiceUID=" + voiceUID + ", text=" + text + "]";
+    }
+}
@@ -0,0 +1,835 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.ttscache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link TTSAudioCache} keeps synthesized audio files in a folder, each with an additional .txt file to indicate
+ * what content is in the audio file.
+ *
+ * All entries are tracked by an index in memory, so looking up an entry does not touch the file system. The index is
+ * kept in least recently used order and persisted to the cache folder. The cache is bounded by the total size and the
+ * number of its audio files, the least recently used entries are evicted first. Entries which have not been used for
+ * the maximum age are evicted as well. Concurrent requests for an entry which is not in the cache yet are served by a
+ * single synthesis.
+ *
+ * An entry which is not in the cache yet can be streamed while it is being synthesized: the audio data is written to a
+ * temporary file by a background download and readers follow that file, so the audio can be played as soon as its
+ * first bytes have been received. Only complete audio files are moved to their final name, a failed download never
+ * leaves an entry behind.
+ *
+ * Entries are pinned while their files are being opened, so a concurrent eviction never deletes a file which is about
+ * to be opened. An entry which has been evicted before its stream is opened is synthesized again. Streams which are
+ * open already can be read to their end on all platforms, as the files are opened through NIO.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TTSAudioCache {
+
+    /**
+     * Default limit for the total size of all audio files in bytes
+     */
+    public static final long DEFAULT_MAX_SIZE = 100L * 1024 * 1024;
+
+    /**
+     * Default limit for the number of audio files
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 2000;
+
+    static final String INDEX_FILE_NAME = "cache.index";
+    private static final String TEXT_EXTENSION = ".txt";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    /**
+     * Supplies the audio data of an entry which is not in the cache yet.
+     */
+    @FunctionalInterface
+    public interface AudioSynthesizer {
+        InputStream synthesize() throws IOException;
+    }
+
+    /**
+     * An audio file of the cache, which may still be downloading.
+     */
+    public interface AudioEntry {
+
+        /**
+         * Open a stream for the audio data. The stream delivers the data as soon as it has been received and blocks
+         * until more data is available or the download is complete.
+         *
+         * @return the audio data
+         * @throws IOException if the audio could not be synthesized
+         */
+        InputStream openStream() throws IOException;
+
+        /**
+         * Return the length of the audio data, waits until the download is complete.
+         *
+         * @return the length in bytes
+         * @throws IOException if the audio could not be synthesized or written to the cache
+         */
+        long getLength() throws IOException;
+
+        /**
+         * Return whether the audio data is complete, so that {@link #getLength()} returns without waiting.
+         *
+         * @return true if the entry is in the cache, false if it is still downloading or the download has failed
+         */
+        boolean isComplete();
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(TTSAudioCache.class);
+
+    private final File cacheFolder;
+    private long maxSize;
+    private int maxEntries;
+    private final long maxAge;
+
+    /**
+     * All audio files by file name, in least recently used order
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Download> runningDownloads = new ConcurrentHashMap<>();
+    private long totalSize;
+    private boolean indexChanged;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong joinedRequests = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+        private final String fileName;
+        private final long size;
+        private long lastUsed;
+        private int pins;
+
+        Entry(String fileName, long size, long lastUsed) {
+            this.fileName = fileName;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Open the cache in the given folder, the folder is created if necessary.
+     *
+     * @param cacheFolder the folder holding the audio files and the index
+     * @param maxSize the maximum total size of all audio files in bytes
+     * @param maxEntries the maximum number of audio files
+     * @param maxAge the time in milliseconds after which unused audio files are evicted, 0 to keep them
+     */
+    public TTSAudioCache(File cacheFolder, long maxSize, int maxEntries, long maxAge) {
+        this.cacheFolder = cacheFolder;
+        this.maxSize = maxSize;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+
+        if (!cacheFolder.exists()) {
+            cacheFolder.mkdirs();
+        }
+        synchronized (this) {
+            loadIndex();
+            evict(System.currentTimeMillis());
+            flush();
+        }
+        logger.debug("Opened {} in {}", this, cacheFolder);
+    }
+
+    /**
+     * Gets a unique key for a given content, by creating a MD5 hash of it. It will be preceded by the prefix.
+     *
+     * Sample: "Joanna_00a2653ac5f77063bc4ea2fee87318d3"
+     *
+     * @param prefix the prefix, e.g. the voice label
+     * @param content the content to hash, e.g. the text
+     * @return the key
+     */
+    public static String createKey(String prefix, String content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] md5Hash = md.digest(content.getBytes(UTF_8));
+            StringBuilder hashText = new StringBuilder(new BigInteger(1, md5Hash).toString(16));
+            // zero pad it to the full 32 chars
+            while (hashText.length() < 32) {
+                hashText.insert(0, '0');
+            }
+            return prefix + "_" + hashText;
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support MD5
+            throw new IllegalStateException("MD5 is not supported", e);
+        }
+    }
+
+    /**
+     * Fetch an audio file from the cache. If it is not in the cache yet, it is synthesized and put to the cache. If
+     * the same entry is being synthesized by another request already, this request waits for its result.
+     *
+     * @param key the key of the entry, see {@link #createKey(String, String)}
+     * @param extension the file extension of the audio format
+     * @param description the content written to the .txt file next to the audio file
+     * @param synthesizer supplies the audio data if the entry is not in the cache
+     * @return the complete audio entry
+     * @throws IOException if the audio could not be synthesized or written to the cache
+     */
+    public AudioEntry get(String key, String extension, String description, AudioSynthesizer synthesizer)
+            throws IOException {
+        AudioEntry entry = getEntry(key, extension, description, synthesizer, Runnable::run);
+        // waits for a running synthesis of another request
+        entry.getLength();
+        return entry;
+    }
+
+    /**
+     * Fetch an audio entry from the cache. If it is not in the cache yet, it is synthesized and put to the cache by a
+     * background download, the entry can be read while it is downloading. If the same entry is being synthesized by
+     * another request already, the returned entry follows that download.
+     *
+     * @param key the key of the entry, see {@link #createKey(String, String)}
+     * @param extension the file extension of the audio format
+     * @param description the content written to the .txt file next to the audio file
+     * @param synthesizer supplies the audio data if the entry is not in the cache
+     * @param executor runs the download
+     * @return the audio entry
+     */
+    public AudioEntry getEntry(String key, String extension, String description, AudioSynthesizer synthesizer,
+            Executor executor) {
+        String fileName = getFileName(key, extension);
+        Supplier<AudioEntry> request = () -> getEntry(key, extension, description, synthesizer, executor);
+        Entry entry = lookup(fileName);
+        if (entry != null) {
+            return new CompleteEntry(entry, request);
+        }
+
+        Download download = new Download(fileName, key, description, synthesizer);
+        Download runningDownload = runningDownloads.putIfAbsent(fileName, download);
+        if (runningDownload != null) {
+            joinedRequests.incrementAndGet();
+            logger.debug("Following the running synthesis of audio file {}", fileName);
+            return runningDownload;
+        }
+        try {
+            executor.execute(download::run);
+        } catch (RejectedExecutionException e) {
+            download.run();
+        }
+        return download;
+    }
+
+    /**
+     * Synthesize an entry in advance, e.g. for announcements which are known to be used frequently. An entry which is
+     * in the cache already is left untouched.
+     *
+     * @param key the key of the entry, see {@link #createKey(String, String)}
+     * @param extension the file extension of the audio format
+     * @param description the content written to the .txt file next to the audio file
+     * @param synthesizer supplies the audio data if the entry is not in the cache
+     * @return true if the entry has been synthesized, false if it was in the cache already
+     * @throws IOException if the audio could not be synthesized or written to the cache
+     */
+    public boolean prewarm(String key, String extension, String description, AudioSynthesizer synthesizer)
+            throws IOException {
+        synchronized (this) {
+            // containsKey does not change the access order
+            if (entries.containsKey(getFileName(key, extension))) {
+                return false;
+            }
+        }
+        get(key, extension, description, synthesizer);
+        return true;
+    }
+
+    /**
+     * Change the bounds of the cache, entries beyond the new bounds are evicted.
+     *
+     * @param maxSize the maximum total size of all audio files in bytes
+     * @param maxEntries the maximum number of audio files
+     */
+    public synchronized void setLimits(long maxSize, int maxEntries) {
+        this.maxSize = maxSize;
+        this.maxEntries = maxEntries;
+        evict(System.currentTimeMillis());
+        flush();
+    }
+
+    /**
+     * Remove all entries and delete all files in the cache folder.
+     */
+    public synchronized void clear() {
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    logger.debug("Could not delete {}", file);
+                }
+            }
+        }
+        entries.clear();
+        totalSize = 0;
+        indexChanged = true;
+        flush();
+        logger.debug("Cache purged");
+    }
+
+    /**
+     * Persist the index if it has changed, e.g. because entries have been used since the last write.
+     */
+    public synchronized void flush() {
+        if (!indexChanged) {
+            return;
+        }
+        File indexFile = new File(cacheFolder, INDEX_FILE_NAME);
+        File tempFile = new File(cacheFolder, INDEX_FILE_NAME + TEMP_EXTENSION);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), UTF_8)) {
+                for (Entry entry : entries.values()) {
+                    writer.write(entry.lastUsed + " " + entry.size + " " + entry.fileName);
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            indexChanged = false;
+        } catch (IOException e) {
+            logger.warn("Could not write cache index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return the number of requests which have been served by the synthesis of another request.
+     */
+    public long getJoinedRequests() {
+        return joinedRequests.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Return the total size of all audio files in bytes.
+     */
+    public synchronized long getSize() {
+        return totalSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TTSAudioCache [entries=" + entries.size() + ", size=" + totalSize + ", hits=" + hits + ", misses="
+                + misses + ", joinedRequests=" + joinedRequests + ", evictions=" + evictions + "]";
+    }
+
+    private synchronized @Nullable Entry lookup(String fileName) {
+        Entry entry = entries.get(fileName);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(entry, now)) {
+            // will be replaced by the new synthesis
+            return null;
+        }
+        entry.lastUsed = now;
+        indexChanged = true;
+        hits.incrementAndGet();
+        logger.debug("Audio file {} was found in cache", fileName);
+        return entry;
+    }
+
+    /**
+     * Pin an entry, so it is not evicted while its file is being opened.
+     *
+     * @return false if the entry has been evicted already
+     */
+    private synchronized boolean pin(Entry entry) {
+        if (entries.get(entry.fileName) != entry) {
+            return false;
+        }
+        entry.pins++;
+        return true;
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.pins--;
+        // evictions may have been deferred while the entry was pinned
+        if (entry.pins == 0 && evict(System.currentTimeMillis())) {
+            flush();
+        }
+    }
+
+    /**
+     * Remove an entry whose file could not be opened, e.g. because it has been deleted by someone else.
+     */
+    private synchronized void remove(Entry entry) {
+        if (entries.remove(entry.fileName, entry)) {
+            totalSize -= entry.size;
+            indexChanged = true;
+            flush();
+        }
+    }
+
+    /**
+     * Open the audio file of an entry.
+     *
+     * @return the audio data or null if the entry is not in the cache anymore
+     */
+    private @Nullable InputStream open(Entry entry) {
+        if (!pin(entry)) {
+            return null;
+        }
+        try {
+            return Files.newInputStream(new File(cacheFolder, entry.fileName).toPath());
+        } catch (IOException e) {
+            logger.debug("Could not open audio file {}: {}", entry.fileName, e.getMessage());
+            remove(entry);
+            return null;
+        } finally {
+            unpin(entry);
+        }
+    }
+
+    private String getFileName(String key, String extension) {
+        return key + "." + extension.toLowerCase();
+    }
+
+    /**
+     * Add a complete audio file to the index.
+     *
+     * @return the new entry
+     */
+    private synchronized Entry add(String fileName, long size) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(fileName, size, now);
+        Entry previous = entries.put(fileName, entry);
+        if (previous != null) {
+            totalSize -= previous.size;
+        }
+        totalSize += size;
+        indexChanged = true;
+        // the new entry is about to be read, it is kept even if it exceeds the bounds on its own
+        entry.pins++;
+        evict(now);
+        entry.pins--;
+        flush();
+        return entry;
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is within its bounds again. Pinned entries are skipped,
+     * they are evicted once they are unpinned.
+     *
+     * @param now the current time
+     * @return true if an entry has been evicted
+     */
+    private boolean evict(long now) {
+        boolean evicted = false;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (totalSize <= maxSize && entries.size() <= maxEntries && !isExpired(eldest, now)) {
+                break;
+            }
+            if (eldest.pins > 0) {
+                continue;
+            }
+            iterator.remove();
+            evicted = true;
+            totalSize -= eldest.size;
+            indexChanged = true;
+            evictions.incrementAndGet();
+            deleteFiles(eldest.fileName);
+            logger.debug("Evicted audio file {} from cache", eldest.fileName);
+        }
+        return evicted;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return maxAge > 0 && now - entry.lastUsed > maxAge;
+    }
+
+    private void deleteFiles(String fileName) {
+        File audioFile = new File(cacheFolder, fileName);
+        if (!audioFile.delete()) {
+            logger.debug("Could not delete {}", audioFile);
+        }
+        // the text file is shared by all audio formats of the same text
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.') + 1);
+        if (entries.keySet().stream().noneMatch(name -> name.startsWith(baseName))) {
+            new File(cacheFolder, fileName.substring(0, baseName.length() - 1) + TEXT_EXTENSION).delete();
+        }
+    }
+
+    /**
+     * Read the persisted index and add the audio files which are not in the index yet, e.g. because the cache has
+     * been filled in advance or by a former version.
+     */
+    private void loadIndex() {
+        List<Entry> loadedEntries = new ArrayList<>();
+        File indexFile = new File(cacheFolder, INDEX_FILE_NAME);
+        if (indexFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(" ", 3);
+                    if (fields.length == 3) {
+                        loadedEntries.add(new Entry(fields[2], Long.parseLong(fields[1]), Long.parseLong(fields[0])));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                logger.warn("Could not read cache index {}, rebuilding it: {}", indexFile, e.getMessage());
+                loadedEntries.clear();
+            }
+        }
+
+        Map<String, File> audioFiles = new HashMap<>();
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(TEMP_EXTENSION)) {
+                    // left over by an interrupted synthesis
+                    file.delete();
+                } else if (file.isFile() && !name.endsWith(TEXT_EXTENSION) && !name.equals(INDEX_FILE_NAME)) {
+                    audioFiles.put(name, file);
+                }
+            }
+        }
+
+        List<Entry> validEntries = new ArrayList<>();
+        for (Entry entry : loadedEntries) {
+            File file = audioFiles.remove(entry.fileName);
+            if (file == null) {
+                indexChanged = true;
+            } else if (file.length() != entry.size) {
+                validEntries.add(new Entry(entry.fileName, file.length(), entry.lastUsed));
+                indexChanged = true;
+            } else {
+                validEntries.add(entry);
+            }
+        }
+        for (File file : audioFiles.values()) {
+            validEntries.add(new Entry(file.getName(), file.length(), file.lastModified()));
+            indexChanged = true;
+        }
+
+        // the sort is stable, so entries used within the same millisecond keep their order
+        validEntries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+        for (Entry entry : validEntries) {
+            entries.put(entry.fileName, entry);
+            totalSize += entry.size;
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> synthesis) throws IOException {
+        try {
+            return synthesis.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the synthesis");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Synthesis failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * The {@link Download} synthesizes an entry into a temporary file, which is moved to its final name once it is
+     * complete. Readers may follow the temporary file while the download is running.
+     */
+    private class Download implements AudioEntry {
+        private final String fileName;
+        private final String key;
+        private final String description;
+        private final AudioSynthesizer synthesizer;
+        private final File tempFile;
+        private final File audioFile;
+        private final CompletableFuture<Entry> completion = new CompletableFuture<>();
+
+        // guarded by this
+        private boolean started;
+        private boolean finished;
+        private long written;
+
+        Download(String fileName, String key, String description, AudioSynthesizer synthesizer) {
+            this.fileName = fileName;
+            this.key = key;
+            this.description = description;
+            this.synthesizer = synthesizer;
+            this.tempFile = new File(cacheFolder, fileName + TEMP_EXTENSION);
+            this.audioFile = new File(cacheFolder, fileName);
+        }
+
+        void run() {
+            try {
+                // the entry may have been added while we were looking it up
+                Entry entry = lookup(fileName);
+                if (entry == null) {
+                    misses.incrementAndGet();
+                    download();
+                    entry = add(fileName, getWritten());
+                    logger.debug("Cached audio file {}, {}", fileName, TTSAudioCache.this);
+                } else {
+                    synchronized (this) {
+                        written = entry.size;
+                    }
+                }
+                completion.complete(entry);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Could not cache audio file {}: {}", fileName, e.getMessage());
+                completion.completeExceptionally(e);
+            } finally {
+                runningDownloads.remove(fileName, this);
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private void download() throws IOException {
+            logger.debug("Caching audio file {}", fileName);
+            try {
+                try (InputStream inputStream = synthesizer.synthesize();
+                        OutputStream outputStream = new FileOutputStream(tempFile)) {
+                    synchronized (this) {
+                        started = true;
+                        notifyAll();
+                    }
+                    byte[] bytes = new byte[READ_BUFFER_SIZE];
+                    int read;
+                    while ((read = inputStream.read(bytes)) != -1) {
+                        outputStream.write(bytes, 0, read);
+                        synchronized (this) {
+                            written += read;
+                            notifyAll();
+                        }
+                    }
+                }
+                // write text to file for transparency too
+                // this allows to know which contents is in which audio file
+                writeText(new File(cacheFolder, key + TEXT_EXTENSION), description);
+                synchronized (this) {
+                    // only complete audio files must ever show up under their final name
+                    Files.move(tempFile.toPath(), audioFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    finished = true;
+                }
+            } finally {
+                // readers which have opened the file already can still read it
+                if (tempFile.exists() && !tempFile.delete()) {
+                    logger.debug("Could not delete {}", tempFile);
+                }
+            }
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            synchronized (this) {
+                try {
+                    while (!started && !completion.isDone()) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the synthesis");
+                }
+                if (!finished && !completion.isDone()) {
+                    // unlike a FileInputStream, a channel does not lock the file on Windows, so the complete file can
+                    // still be moved to its final name and a failed download can be deleted while it is being read
+                    return new DownloadInputStream(this, Files.newInputStream(tempFile.toPath()));
+                }
+            }
+            InputStream inputStream = open(await(completion));
+            if (inputStream == null) {
+                throw new FileNotFoundException("Audio file " + fileName + " has been evicted from the cache");
+            }
+            return inputStream;
+        }
+
+        @Override
+        public long getLength() throws IOException {
+            await(completion);
+            return getWritten();
+        }
+
+        @Override
+        public boolean isComplete() {
+            return completion.isDone() && !completion.isCompletedExceptionally();
+        }
+
+        /**
+         * Wait until data beyond the given position has been written.
+         *
+         * @param position the position of the reader
+         * @return the number of bytes written or -1 if the download is complete and all bytes have been read
+         * @throws IOException if the download has failed
+         */
+        synchronized long awaitData(long position) throws IOException {
+            try {
+                while (position >= written && !finished) {
+                    if (completion.isCompletedExceptionally()) {
+                        await(completion);
+                    }
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for audio data");
+            }
+            return position < written ? written : -1;
+        }
+
+        synchronized long getWritten() {
+            return written;
+        }
+    }
+
+    /**
+     * An audio file which is in the cache already.
+     */
+    private class CompleteEntry implements AudioEntry {
+        private final Entry entry;
+        private final Supplier<AudioEntry> request;
+
+        CompleteEntry(Entry entry, Supplier<AudioEntry> request) {
+            this.entry = entry;
+            this.request = request;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            InputStream inputStream = open(entry);
+            if (inputStream == null) {
+                logger.debug("Audio file {} has been evicted, synthesizing it again", entry.fileName);
+                return request.get().openStream();
+            }
+            return inputStream;
+        }
+
+        @Override
+        public long getLength() {
+            return entry.size;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return true;
+        }
+    }
+
+    /**
+     * Reads the temporary file of a running download, never beyond the data written so far.
+     */
+    private static class DownloadInputStream extends InputStream {
+        private final Download download;
+        private final InputStream inputStream;
+        private long position;
+
+        DownloadInputStream(Download download, InputStream inputStream) {
+            this.download = download;
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] bytes = new byte[1];
+            int read = read(bytes, 0, 1);
+            return read == -1 ? -1 : bytes[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte @Nullable [] bytes, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            long written = download.awaitData(position);
+            if (written == -1) {
+                return -1;
+            }
+            int read = inputStream.read(bytes, off, (int) Math.min(len, written - position));
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, download.getWritten() - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    // helper methods
+
+    private void writeText(File file, String text) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(text.getBytes(UTF_8));
+        }
+    }
+}
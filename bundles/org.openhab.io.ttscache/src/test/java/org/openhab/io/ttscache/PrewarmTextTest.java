@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.ttscache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests cases for {@link PrewarmText}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PrewarmTextTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File write(String content) throws IOException {
+        File file = temporaryFolder.newFile("prewarm.txt");
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+        return file;
+    }
+
+    @Test
+    public void textsAreReadWithTheirVoices() throws IOException {
+        List<PrewarmText> texts = PrewarmText
+                .read(write("# announcements\npollytts:Joanna Welcome home\n\n  voicerss:enUS  The door is open \n"));
+
+        assertEquals(2, texts.size());
+        assertEquals("pollytts:Joanna", texts.get(0).getVoiceUID());
+        assertEquals("Welcome home", texts.get(0).getText());
+        assertEquals("voicerss:enUS", texts.get(1).getVoiceUID());
+        assertEquals("The door is open", texts.get(1).getText());
+    }
+
+    @Test
+    public void lineWithoutTextIsRejected() throws IOException {
+        File file = write("pollytts:Joanna Welcome home\npollytts:Joanna\n");
+
+        try {
+            PrewarmText.read(file);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Missing text in line 2"));
+        }
+    }
+}
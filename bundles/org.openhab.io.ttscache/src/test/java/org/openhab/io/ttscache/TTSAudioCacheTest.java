@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.ttscache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
+import org.openhab.io.ttscache.TTSAudioCache.AudioSynthesizer;
+
+/**
+ * Tests cases for {@link TTSAudioCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TTSAudioCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final Object END_OF_STREAM = new Object();
+
+    private File cacheFolder;
+    private final AtomicInteger syntheses = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+
+    /**
+     * Delivers the chunks put to the queue, like an HTTP response which is still being received.
+     */
+    private class ChunkedInputStream extends InputStream {
+        private byte[] chunk = new byte[0];
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] bytes = new byte[1];
+            return read(bytes, 0, 1) == -1 ? -1 : bytes[0];
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (position == chunk.length) {
+                Object next;
+                try {
+                    next = chunks.poll(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                if (next instanceof IOException) {
+                    throw (IOException) next;
+                }
+                if (next == null || next == END_OF_STREAM) {
+                    return -1;
+                }
+                chunk = (byte[]) next;
+                position = 0;
+            }
+            int read = Math.min(len, chunk.length - position);
+            System.arraycopy(chunk, position, bytes, off, read);
+            position += read;
+            return read;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFolder = temporaryFolder.newFolder("cache");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private AudioSynthesizer chunkedAudio() {
+        return () -> {
+            syntheses.incrementAndGet();
+            return new ChunkedInputStream();
+        };
+    }
+
+    private String readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] bytes = new byte[100];
+        int read;
+        while ((read = inputStream.read(bytes)) != -1) {
+            outputStream.write(bytes, 0, read);
+        }
+        inputStream.close();
+        return new String(outputStream.toByteArray(), UTF_8);
+    }
+
+    private AudioSynthesizer audio(String content) {
+        return () -> {
+            syntheses.incrementAndGet();
+            return new ByteArrayInputStream(content.getBytes(UTF_8));
+        };
+    }
+
+    private String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+
+    @Test
+    public void keyIsPrefixedMD5OfContent() {
+        assertEquals("Joanna_b10a8db164e0754105b7a99be72e3fe5", TTSAudioCache.createKey("Joanna", "Hello World"));
+    }
+
+    @Test
+    public void missIsSynthesizedOnceAndServedFromCacheAfterwards() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+
+        AudioEntry first = cache.get("Joanna_1", "MP3", "Hello", audio("audio1"));
+        AudioEntry second = cache.get("Joanna_1", "MP3", "Hello", audio("audio1"));
+
+        assertEquals("audio1", read(new File(cacheFolder, "Joanna_1.mp3")));
+        assertEquals("audio1", readAll(first.openStream()));
+        assertEquals("audio1", readAll(second.openStream()));
+        assertEquals(6, second.getLength());
+        assertEquals("Hello", read(new File(cacheFolder, "Joanna_1.txt")));
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(6, cache.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedWhenEntryLimitIsReached() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 2, 0);
+        cache.get("a", "mp3", "a", audio("a"));
+        cache.get("b", "mp3", "b", audio("b"));
+        cache.get("a", "mp3", "a", audio("a"));
+
+        cache.get("c", "mp3", "c", audio("c"));
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(new File(cacheFolder, "a.mp3").exists());
+        assertFalse(new File(cacheFolder, "b.mp3").exists());
+        assertFalse(new File(cacheFolder, "b.txt").exists());
+        assertTrue(new File(cacheFolder, "c.mp3").exists());
+    }
+
+    @Test
+    public void entriesAreEvictedWhenSizeLimitIsReached() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 10, 100, 0);
+        cache.get("a", "mp3", "a", audio("1234"));
+        cache.get("b", "mp3", "b", audio("1234"));
+
+        cache.get("c", "mp3", "c", audio("1234"));
+
+        assertEquals(8, cache.getSize());
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+        assertTrue(new File(cacheFolder, "b.mp3").exists());
+    }
+
+    @Test
+    public void entriesAreEvictedWhenLimitsAreLowered() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        cache.get("a", "mp3", "a", audio("1234"));
+        cache.get("b", "mp3", "b", audio("1234"));
+        cache.get("c", "mp3", "c", audio("1234"));
+
+        cache.setLimits(10, 10);
+        assertEquals(2, cache.getEntryCount());
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+
+        cache.setLimits(1000, 1);
+        assertEquals(1, cache.getEntryCount());
+        assertTrue(new File(cacheFolder, "c.mp3").exists());
+    }
+
+    @Test
+    public void entryEvictedBeforeItIsOpenedIsSynthesizedAgain() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 1, 0);
+        cache.get("a", "mp3", "a", audio("a"));
+        AudioEntry entry = cache.getEntry("a", "mp3", "a", audio("a"), executor);
+
+        cache.get("b", "mp3", "b", audio("b"));
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+
+        assertEquals("a", readAll(entry.openStream()));
+        assertEquals(3, syntheses.get());
+        assertTrue(new File(cacheFolder, "a.mp3").exists());
+    }
+
+    @Test
+    public void openStreamIsReadableAfterEviction() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 1, 0);
+        InputStream reader = cache.get("a", "mp3", "a", audio("audio")).openStream();
+
+        cache.get("b", "mp3", "b", audio("b"));
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+
+        assertEquals("audio", readAll(reader));
+    }
+
+    @Test
+    public void deletedFileIsSynthesizedAgain() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        cache.get("a", "mp3", "a", audio("a"));
+        assertTrue(new File(cacheFolder, "a.mp3").delete());
+
+        assertEquals("a", readAll(cache.getEntry("a", "mp3", "a", audio("a"), executor).openStream()));
+        assertEquals(2, syntheses.get());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void textFileIsKeptWhileAnotherFormatOfTheSameTextIsCached() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 2, 0);
+        cache.get("a", "mp3", "a", audio("a"));
+        cache.get("a", "ogg", "a", audio("a"));
+
+        cache.get("b", "mp3", "b", audio("b"));
+
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+        assertTrue(new File(cacheFolder, "a.txt").exists());
+    }
+
+    @Test
+    public void indexIsRestoredInLeastRecentlyUsedOrder() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 2, 0);
+        cache.get("a", "mp3", "a", audio("a"));
+        cache.get("b", "mp3", "b", audio("b"));
+        cache.get("a", "mp3", "a", audio("a"));
+        cache.flush();
+
+        TTSAudioCache reopened = new TTSAudioCache(cacheFolder, 1000, 2, 0);
+        assertEquals(2, reopened.getEntryCount());
+        reopened.get("c", "mp3", "c", audio("c"));
+
+        assertTrue(new File(cacheFolder, "a.mp3").exists());
+        assertFalse(new File(cacheFolder, "b.mp3").exists());
+        assertEquals(3, syntheses.get());
+    }
+
+    @Test
+    public void filesWithoutIndexArePickedUp() throws IOException {
+        Files.write(new File(cacheFolder, "a.mp3").toPath(), "audio".getBytes(UTF_8));
+        Files.write(new File(cacheFolder, "a.txt").toPath(), "a".getBytes(UTF_8));
+        Files.write(new File(cacheFolder, "b.mp3.tmp").toPath(), "partial".getBytes(UTF_8));
+
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(5, cache.getSize());
+        assertFalse(new File(cacheFolder, "b.mp3.tmp").exists());
+        cache.get("a", "mp3", "a", audio("other"));
+        assertEquals(0, syntheses.get());
+        assertTrue(new File(cacheFolder, TTSAudioCache.INDEX_FILE_NAME).exists());
+    }
+
+    @Test
+    public void expiredEntriesAreSynthesizedAgain() throws Exception {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 1);
+        cache.get("a", "mp3", "a", audio("a"));
+        Thread.sleep(10);
+
+        cache.get("a", "mp3", "a", audio("a"));
+
+        assertEquals(2, syntheses.get());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void failedSynthesisLeavesNoEntry() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        AudioSynthesizer failing = () -> new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ < 10) {
+                    return 'x';
+                }
+                throw new IOException("connection reset");
+            }
+        };
+
+        try {
+            cache.get("a", "mp3", "a", failing);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+
+        assertEquals(0, cache.getEntryCount());
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+        assertFalse(new File(cacheFolder, "a.mp3.tmp").exists());
+        assertEquals("a", readAll(cache.get("a", "mp3", "a", audio("a")).openStream()));
+    }
+
+    @Test
+    public void concurrentMissesAreServedBySingleSynthesis() throws Exception {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AudioSynthesizer slow = () -> {
+            syntheses.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ByteArrayInputStream("audio".getBytes(UTF_8));
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AudioEntry> first = executor.submit(() -> cache.get("a", "mp3", "a", slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<AudioEntry> second = executor.submit(() -> cache.get("a", "mp3", "a", slow));
+            while (cache.getJoinedRequests() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("audio", readAll(first.get(5, TimeUnit.SECONDS).openStream()));
+            assertEquals("audio", readAll(second.get(5, TimeUnit.SECONDS).openStream()));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void prewarmSynthesizesOnlyMissingEntries() throws IOException {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+
+        assertTrue(cache.prewarm("a", "mp3", "a", audio("a")));
+        assertFalse(cache.prewarm("a", "mp3", "a", audio("a")));
+
+        assertEquals(1, syntheses.get());
+        assertTrue(new File(cacheFolder, "a.mp3").exists());
+    }
+
+    @Test
+    public void partialEntryIsReadableWhileDownloading() throws Exception {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        AudioEntry entry = cache.getEntry("a", "mp3", "a", chunkedAudio(), executor);
+        chunks.put("first".getBytes(UTF_8));
+
+        InputStream firstReader = entry.openStream();
+        byte[] bytes = new byte[100];
+        assertEquals(5, firstReader.read(bytes));
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+        assertFalse(entry.isComplete());
+
+        InputStream secondReader = cache.getEntry("a", "mp3", "a", chunkedAudio(), executor).openStream();
+        assertEquals(1, cache.getJoinedRequests());
+        chunks.put(" second".getBytes(UTF_8));
+        chunks.put(END_OF_STREAM);
+
+        assertEquals("first second", readAll(secondReader));
+        assertEquals(" second", readAll(firstReader));
+        assertEquals(12, entry.getLength());
+        assertTrue(entry.isComplete());
+        assertEquals("first second", read(new File(cacheFolder, "a.mp3")));
+        assertEquals("first second", readAll(cache.getEntry("a", "mp3", "a", chunkedAudio(), executor).openStream()));
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void failedDownloadFailsReadersAndLeavesNoEntry() throws Exception {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        AudioEntry entry = cache.getEntry("a", "mp3", "a", chunkedAudio(), executor);
+        chunks.put("first".getBytes(UTF_8));
+        InputStream reader = entry.openStream();
+        assertEquals(5, reader.read(new byte[100]));
+
+        chunks.put(new IOException("connection reset"));
+
+        try {
+            reader.read(new byte[100]);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+        try {
+            entry.getLength();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+        assertEquals(0, cache.getEntryCount());
+        assertFalse(new File(cacheFolder, "a.mp3").exists());
+        assertFalse(new File(cacheFolder, "a.mp3.tmp").exists());
+    }
+
+    @Test
+    public void synthesisErrorIsReportedWhenOpeningTheStream() {
+        TTSAudioCache cache = new TTSAudioCache(cacheFolder, 1000, 10, 0);
+        AudioEntry entry = cache.getEntry("a", "mp3", "a", () -> {
+            throw new IOException("HTTP 403");
+        }, executor);
+
+        try {
+            entry.openStream();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("HTTP 403", e.getMessage());
+        }
+        assertEquals(0, cache.getEntryCount());
+    }
+}
@@ -43,6 +43,21 @@ class GoogleTTSConfig {
      */
     private Double volumeGainDb = 0d;
 
+    /**
+     * Maximum total size of the cached files in MB
+     */
+    private Integer cacheMaxSize = 100;
+
+    /**
+     * Maximum number of cached files
+     */
+    private Integer cacheMaxEntries = 2000;
+
+    /**
+     * File with texts to put to the cache in advance
+     */
+    private String prewarmFile;
+
     String getServiceAccountKey() {
         return serviceAccountKey;
     }
@@ -83,6 +98,30 @@ class GoogleTTSConfig {
         this.purgeCache = purgeCache;
     }
 
+    Integer getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    void setCacheMaxSize(Integer cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    Integer getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    void setCacheMaxEntries(Integer cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    String getPrewarmFile() {
+        return prewarmFile;
+    }
+
+    void setPrewarmFile(String prewarmFile) {
+        this.prewarmFile = prewarmFile;
+    }
+
     @Override
     public String toString() {
         return "GoogleTTSConfig{" +
@@ -91,6 +130,9 @@ class GoogleTTSConfig {
                 ", speakingRate=" + speakingRate +
                 ", volumeGainDb=" + volumeGainDb +
                 ", purgeCache=" + purgeCache +
+                ", cacheMaxSize=" + cacheMaxSize +
+                ", cacheMaxEntries=" + cacheMaxEntries +
+                ", prewarmFile='" + prewarmFile + '\'' +
                 '}';
     }
 
@@ -15,6 +15,7 @@ package org.openhab.voice.googletts.internal;
 import static org.openhab.voice.googletts.internal.GoogleTTSService.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
@@ -25,13 +26,16 @@ import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.io.ttscache.PrewarmText;
 import org.openhab.voice.googletts.internal.protocol.AudioEncoding;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +83,9 @@ public class GoogleTTSService implements TTSService {
     private static final String PARAM_SPEAKING_RATE = "speakingRate";
     private static final String PARAM_VOLUME_GAIN_DB = "volumeGainDb";
     private static final String PARAM_PURGE_CACHE = "purgeCache";
+    private static final String PARAM_CACHE_MAX_SIZE = "cacheMaxSize";
+    private static final String PARAM_CACHE_MAX_ENTRIES = "cacheMaxEntries";
+    private static final String PARAM_PREWARM_FILE = "prewarmFile";
 
     /**
      * Logger.
@@ -122,6 +129,14 @@ public class GoogleTTSService implements TTSService {
         updateConfig(config);
     }
 
+    /**
+     * DS deactivate, persists the cache index
+     */
+    @Deactivate
+    protected void deactivate() {
+        apiImpl.flushCache();
+    }
+
     /**
      * Initializing audio formats. Google supports 3 formats:
      * LINEAR16
@@ -209,6 +224,23 @@ public class GoogleTTSService implements TTSService {
             if (param != null) {
                 config.setPurgeCache(Boolean.parseBoolean(param));
             }
+
+            // cacheMaxSize
+            param = newConfig.containsKey(PARAM_CACHE_MAX_SIZE) ? newConfig.get(PARAM_CACHE_MAX_SIZE).toString() : null;
+            if (param != null) {
+                config.setCacheMaxSize((int) Double.parseDouble(param));
+            }
+
+            // cacheMaxEntries
+            param = newConfig.containsKey(PARAM_CACHE_MAX_ENTRIES) ? newConfig.get(PARAM_CACHE_MAX_ENTRIES).toString()
+                    : null;
+            if (param != null) {
+                config.setCacheMaxEntries((int) Double.parseDouble(param));
+            }
+
+            // prewarmFile
+            param = newConfig.containsKey(PARAM_PREWARM_FILE) ? newConfig.get(PARAM_PREWARM_FILE).toString() : null;
+            config.setPrewarmFile(param);
             logger.trace("New configuration: {}", config.toString());
 
             if (config.getServiceAccountKey() != null) {
@@ -216,6 +248,10 @@ public class GoogleTTSService implements TTSService {
                 if (apiImpl.isInitialized()) {
                     allVoices = initVoices();
                     audioFormats = initAudioFormats();
+                    if (config.getPrewarmFile() != null && !config.getPrewarmFile().isEmpty()) {
+                        String prewarmFile = config.getPrewarmFile();
+                        ThreadPoolManager.getPool(SERVICE_ID).execute(() -> prewarmCache(prewarmFile));
+                    }
                 }
             }
         } else {
@@ -223,6 +259,36 @@ public class GoogleTTSService implements TTSService {
         }
     }
 
+    /**
+     * Puts the texts of the prewarm file to the cache, in MP3 format.
+     *
+     * @param prewarmFile File with the texts, relative to the configuration folder unless it is absolute.
+     */
+    private void prewarmCache(String prewarmFile) {
+        File file = new File(prewarmFile);
+        if (!file.isAbsolute()) {
+            file = new File(ConfigConstants.getConfigFolder(), prewarmFile);
+        }
+        try {
+            for (PrewarmText prewarmText : PrewarmText.read(file)) {
+                Voice voice = allVoices.stream().filter(v -> v.getUID().equals(prewarmText.getVoiceUID())).findAny()
+                        .orElse(null);
+                if (voice == null) {
+                    logger.warn("Unknown voice {} in prewarm file {}", prewarmText.getVoiceUID(), file);
+                    continue;
+                }
+                try {
+                    apiImpl.prewarmSpeech(prewarmText.getText(), (GoogleTTSVoice) voice, AudioFormat.CODEC_MP3);
+                } catch (IOException e) {
+                    logger.warn("Could not put '{}' to the cache: {}", prewarmText.getText(), e.getMessage());
+                }
+            }
+            logger.debug("Prewarmed cache from {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not read prewarm file {}: {}", file, e.getMessage());
+        }
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
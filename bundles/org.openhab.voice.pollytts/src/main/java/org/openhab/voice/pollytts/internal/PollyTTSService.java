@@ -26,17 +26,20 @@ import java.util.Set;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.io.ttscache.PrewarmText;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
 import org.openhab.voice.pollytts.internal.cloudapi.CachedPollyTTSCloudImpl;
 import org.openhab.voice.pollytts.internal.cloudapi.PollyTTSConfig;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -114,7 +117,11 @@ public class PollyTTSService implements TTSService {
             }
             logger.info("Using cache folder {}", cacheFolder.getAbsolutePath());
 
-            pollyTTSImpl = new CachedPollyTTSCloudImpl(pollyTTSConfig, cacheFolder);
+            if (pollyTTSImpl != null) {
+                pollyTTSImpl.flushCache();
+            }
+            pollyTTSImpl = new CachedPollyTTSCloudImpl(pollyTTSConfig, cacheFolder,
+                    ThreadPoolManager.getPool(SERVICE_ID));
 
             audioFormats.clear();
             audioFormats.addAll(initAudioFormats());
@@ -122,6 +129,12 @@ public class PollyTTSService implements TTSService {
             voices.clear();
             voices.addAll(initVoices());
 
+            if (!pollyTTSConfig.getPrewarmFile().isEmpty()) {
+                CachedPollyTTSCloudImpl impl = pollyTTSImpl;
+                String prewarmFile = pollyTTSConfig.getPrewarmFile();
+                ThreadPoolManager.getPool(SERVICE_ID).execute(() -> prewarmCache(impl, prewarmFile));
+            }
+
             logger.debug("PollyTTS service initialized");
         } catch (IllegalArgumentException e) {
             logger.warn("Failed to initialize PollyTTS: {}", e.getMessage());
@@ -130,6 +143,13 @@ public class PollyTTSService implements TTSService {
         }
     }
 
+    @Deactivate
+    protected void deactivate() {
+        if (pollyTTSImpl != null) {
+            pollyTTSImpl.flushCache();
+        }
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return Collections.unmodifiableSet(voices);
@@ -168,21 +188,43 @@ public class PollyTTSService implements TTSService {
         // now create the input stream for given text, locale, format. There is
         // only a default voice
         try {
-            File cacheAudioFile = pollyTTSImpl.getTextToSpeechAsFile(text, voice.getLabel(),
+            AudioEntry audioEntry = pollyTTSImpl.getTextToSpeechAsEntry(text, voice.getLabel(),
                     getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from PollyTTS service");
-            }
             logger.debug("Audio Stream for '{}' in format {}", text, requestedFormat);
-            AudioStream audioStream = new PollyTTSAudioStream(cacheAudioFile, requestedFormat);
-            return audioStream;
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
+            return PollyTTSAudioStream.of(audioEntry, requestedFormat);
         } catch (IOException ex) {
             throw new TTSException("Could not read from PollyTTS service: " + ex.getMessage(), ex);
         }
     }
 
+    /**
+     * put the texts of the prewarm file to the cache, in the configured audio format or MP3
+     */
+    private void prewarmCache(CachedPollyTTSCloudImpl impl, String prewarmFile) {
+        File file = new File(prewarmFile);
+        if (!file.isAbsolute()) {
+            file = new File(ConfigConstants.getConfigFolder(), prewarmFile);
+        }
+        try {
+            for (PrewarmText prewarmText : PrewarmText.read(file)) {
+                Voice voice = voices.stream().filter(v -> v.getUID().equals(prewarmText.getVoiceUID())).findAny()
+                        .orElse(null);
+                if (voice == null) {
+                    logger.warn("Unknown voice {} in prewarm file {}", prewarmText.getVoiceUID(), file);
+                    continue;
+                }
+                try {
+                    impl.prewarmTextToSpeech(prewarmText.getText(), voice.getLabel(), getApiAudioFormat(MP3));
+                } catch (IOException e) {
+                    logger.warn("Could not put '{}' to the cache: {}", prewarmText.getText(), e.getMessage());
+                }
+            }
+            logger.debug("Prewarmed cache from {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not read prewarm file {}: {}", file, e.getMessage());
+        }
+    }
+
     private Set<Voice> initVoices() {
         // @formatter:off
         return pollyTTSImpl.getAvailableLocales().stream()
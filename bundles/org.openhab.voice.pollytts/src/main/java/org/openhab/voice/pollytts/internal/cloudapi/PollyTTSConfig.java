@@ -29,13 +29,18 @@ public class PollyTTSConfig {
     private static final String SERVICE_REGION = "serviceRegion";
     private static final String AUDIO_FORMAT = "audioFormat";
     private static final String CACHE_EXPIRATION = "cacheExpiration";
+    private static final String CACHE_MAX_SIZE = "cacheMaxSize";
+    private static final String CACHE_MAX_ENTRIES = "cacheMaxEntries";
+    private static final String PREWARM_FILE = "prewarmFile";
 
     private String accessKey = "";
     private String secretKey = "";
     private String serviceRegion = "eu-west-1";
     private int expireDate = 0;
     private String audioFormat = "default";
-    private long lastDelete;
+    private int cacheMaxSize = 100;
+    private int cacheMaxEntries = 2000;
+    private String prewarmFile = "";
 
     public PollyTTSConfig(Map<String, Object> config) {
         assertValidConfig(config);
@@ -46,6 +51,11 @@ public class PollyTTSConfig {
         audioFormat = config.getOrDefault(AUDIO_FORMAT, audioFormat).toString();
         expireDate = (int) Double
                 .parseDouble(config.getOrDefault(CACHE_EXPIRATION, Double.toString(expireDate)).toString());
+        cacheMaxSize = (int) Double
+                .parseDouble(config.getOrDefault(CACHE_MAX_SIZE, Integer.toString(cacheMaxSize)).toString());
+        cacheMaxEntries = (int) Double
+                .parseDouble(config.getOrDefault(CACHE_MAX_ENTRIES, Integer.toString(cacheMaxEntries)).toString());
+        prewarmFile = config.getOrDefault(PREWARM_FILE, prewarmFile).toString();
     }
 
     private void assertValidConfig(Map<String, Object> config) {
@@ -86,17 +96,24 @@ public class PollyTTSConfig {
     }
 
     /**
-     * get the date when cache was cleaned last
+     * get the maximum total size of the cache files in megabytes
      */
-    public long getLastDelete() {
-        return lastDelete;
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
     }
 
     /**
-     * set the date when cache was cleaned last
+     * get the maximum number of cache files
      */
-    public void setLastDelete(long lastDelete) {
-        this.lastDelete = lastDelete;
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    /**
+     * get the file with the texts to put to the cache in advance, empty if there is none
+     */
+    public String getPrewarmFile() {
+        return prewarmFile;
     }
 
     @Override
@@ -104,7 +121,9 @@ public class PollyTTSConfig {
         StringBuilder builder = new StringBuilder();
         builder.append("PollyTTSConfig [accessKey=").append(accessKey).append(", secretKey=").append(secretKey)
                 .append(", serviceRegion=").append(serviceRegion).append(", expireDate=").append(expireDate)
-                .append(", audioFormat=").append(audioFormat).append(", lastDelete=").append(lastDelete).append("]");
+                .append(", audioFormat=").append(audioFormat).append(", cacheMaxSize=").append(cacheMaxSize)
+                .append(", cacheMaxEntries=").append(cacheMaxEntries).append(", prewarmFile=").append(prewarmFile)
+                .append("]");
         return builder.toString();
     }
 }
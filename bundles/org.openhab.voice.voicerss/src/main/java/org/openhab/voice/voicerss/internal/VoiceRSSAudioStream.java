@@ -12,25 +12,96 @@
  */
 package org.openhab.voice.voicerss.internal;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
-import org.eclipse.smarthome.core.audio.FileAudioStream;
+import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Implementation of the {@link AudioStream} interface for the
- * {@link VoiceRSSTTSService}. It simply uses a {@link FileAudioStream} which is
- * doing all the necessary work, e.g. supporting MP3 and WAV files with fixed
- * stream length.
+ * Implementation of the {@link AudioStream} interface for the {@link VoiceRSSTTSService}.
+ * It reads a complete entry of the audio cache, so its length is known up front.
+ * Entries which are still downloading are read by a {@link VoiceRSSDownloadAudioStream},
+ * see {@link #of(AudioEntry, AudioFormat)}.
  *
  * @author Jochen Hiller - Initial contribution and API
  */
-class VoiceRSSAudioStream extends FileAudioStream {
+class VoiceRSSAudioStream extends FixedLengthAudioStream {
 
-    public VoiceRSSAudioStream(File audioFile, AudioFormat format) throws AudioException {
-        super(audioFile, format);
+    private final Logger logger = LoggerFactory.getLogger(VoiceRSSAudioStream.class);
+
+    private final AudioEntry audioEntry;
+    private final AudioFormat format;
+    private final InputStream inputStream;
+
+    /**
+     * Open a stream for the audio entry. Sinks which need the length of a fixed length
+     * stream would wait for a running download to complete, so an entry which is still
+     * downloading is returned as a stream of unknown length.
+     */
+    static AudioStream of(AudioEntry audioEntry, AudioFormat format) throws IOException {
+        return audioEntry.isComplete() ? new VoiceRSSAudioStream(audioEntry, format)
+                : new VoiceRSSDownloadAudioStream(audioEntry, format);
+    }
+
+    /**
+     * Open a stream for the audio entry
+     */
+    public VoiceRSSAudioStream(AudioEntry audioEntry, AudioFormat format) throws IOException {
+        this.audioEntry = audioEntry;
+        this.format = format;
+        this.inputStream = audioEntry.openStream();
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return inputStream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+        super.close();
+    }
+
+    @Override
+    public long length() {
+        try {
+            return audioEntry.getLength();
+        } catch (IOException e) {
+            // the audio could not be synthesized, so the stream will fail as well
+            logger.warn("Could not determine the length of the audio: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public InputStream getClonedStream() throws AudioException {
+        try {
+            return new VoiceRSSAudioStream(audioEntry, format);
+        } catch (IOException e) {
+            throw new AudioException("Could not open audio stream: " + e.getMessage(), e);
+        }
     }
 
 }
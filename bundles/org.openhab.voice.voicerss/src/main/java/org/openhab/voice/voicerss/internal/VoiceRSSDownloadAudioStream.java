@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.voicerss.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
+
+/**
+ * Implementation of the {@link AudioStream} interface for the {@link VoiceRSSTTSService}
+ * for an entry of the audio cache which is still downloading. The audio data is
+ * delivered as soon as it has been received from the service, its length is unknown.
+ *
+ * @author agent - Initial contribution
+ */
+class VoiceRSSDownloadAudioStream extends AudioStream {
+
+    private final AudioFormat format;
+    private final InputStream inputStream;
+
+    public VoiceRSSDownloadAudioStream(AudioEntry audioEntry, AudioFormat format) throws IOException {
+        this.format = format;
+        this.inputStream = audioEntry.openStream();
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return inputStream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+        super.close();
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.openhab.voice.voicerss.internal;
 
+import static org.openhab.io.ttscache.TTSAudioCache.*;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
@@ -22,15 +24,18 @@ import java.util.Set;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.io.ttscache.PrewarmText;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImpl;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +59,13 @@ public class VoiceRSSTTSService implements TTSService {
     private static final String CONFIG_API_KEY = "apiKey";
     private String apiKey;
 
+    private static final String CONFIG_CACHE_MAX_SIZE = "cacheMaxSize";
+    private static final String CONFIG_CACHE_MAX_ENTRIES = "cacheMaxEntries";
+    private static final String CONFIG_PREWARM_FILE = "prewarmFile";
+    private long cacheMaxSize = DEFAULT_MAX_SIZE;
+    private int cacheMaxEntries = DEFAULT_MAX_ENTRIES;
+    private String prewarmFile;
+
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
@@ -80,6 +92,7 @@ public class VoiceRSSTTSService implements TTSService {
             voiceRssImpl = initVoiceImplementation();
             voices = initVoices();
             audioFormats = initAudioFormats();
+            prewarmCache();
 
             logger.debug("Using VoiceRSS cache folder {}", getCacheFolderName());
         } catch (IllegalStateException e) {
@@ -87,10 +100,28 @@ public class VoiceRSSTTSService implements TTSService {
         }
     }
 
+    @Deactivate
+    protected void deactivate() {
+        if (voiceRssImpl != null) {
+            voiceRssImpl.flushCache();
+        }
+    }
+
     @Modified
     protected void modified(Map<String, Object> config) {
         if (config != null) {
             apiKey = config.containsKey(CONFIG_API_KEY) ? config.get(CONFIG_API_KEY).toString() : null;
+            cacheMaxSize = config.containsKey(CONFIG_CACHE_MAX_SIZE)
+                    ? (long) Double.parseDouble(config.get(CONFIG_CACHE_MAX_SIZE).toString()) * 1024 * 1024
+                    : DEFAULT_MAX_SIZE;
+            cacheMaxEntries = config.containsKey(CONFIG_CACHE_MAX_ENTRIES)
+                    ? (int) Double.parseDouble(config.get(CONFIG_CACHE_MAX_ENTRIES).toString())
+                    : DEFAULT_MAX_ENTRIES;
+            prewarmFile = config.containsKey(CONFIG_PREWARM_FILE) ? config.get(CONFIG_PREWARM_FILE).toString() : null;
+        }
+        if (voiceRssImpl != null) {
+            voiceRssImpl.setCacheLimits(cacheMaxSize, cacheMaxEntries);
+            prewarmCache();
         }
     }
 
@@ -137,19 +168,49 @@ public class VoiceRSSTTSService implements TTSService {
         // now create the input stream for given text, locale, format. There is
         // only a default voice
         try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(apiKey, trimmedText,
+            AudioEntry audioEntry = voiceRssImpl.getTextToSpeechAsEntry(apiKey, trimmedText,
                     voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from VoiceRSS service");
-            }
-            return new VoiceRSSAudioStream(cacheAudioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
+            return VoiceRSSAudioStream.of(audioEntry, requestedFormat);
         } catch (IOException ex) {
             throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Puts the texts of the prewarm file to the cache in the background, in MP3 format.
+     */
+    private void prewarmCache() {
+        if (prewarmFile == null || prewarmFile.isEmpty() || apiKey == null) {
+            return;
+        }
+        File file = new File(prewarmFile).isAbsolute() ? new File(prewarmFile)
+                : new File(ConfigConstants.getConfigFolder(), prewarmFile);
+        CachedVoiceRSSCloudImpl impl = voiceRssImpl;
+        String key = apiKey;
+        ThreadPoolManager.getPool("voicerss").execute(() -> prewarmCache(impl, key, file));
+    }
+
+    private void prewarmCache(CachedVoiceRSSCloudImpl impl, String apiKey, File file) {
+        try {
+            for (PrewarmText prewarmText : PrewarmText.read(file)) {
+                Voice voice = voices.stream().filter(v -> v.getUID().equals(prewarmText.getVoiceUID())).findAny()
+                        .orElse(null);
+                if (voice == null) {
+                    logger.warn("Unknown voice {} in prewarm file {}", prewarmText.getVoiceUID(), file);
+                    continue;
+                }
+                try {
+                    impl.prewarmTextToSpeech(apiKey, prewarmText.getText(), voice.getLocale().toLanguageTag(), "MP3");
+                } catch (IOException e) {
+                    logger.warn("Could not put '{}' to the cache: {}", prewarmText.getText(), e.getMessage());
+                }
+            }
+            logger.debug("Prewarmed VoiceRSS cache from {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not read prewarm file {}: {}", file, e.getMessage());
+        }
+    }
+
     /**
      * Initializes voices.
      *
@@ -215,7 +276,8 @@ public class VoiceRSSTTSService implements TTSService {
     }
 
     private CachedVoiceRSSCloudImpl initVoiceImplementation() {
-        return new CachedVoiceRSSCloudImpl(getCacheFolderName());
+        return new CachedVoiceRSSCloudImpl(getCacheFolderName(), cacheMaxSize, cacheMaxEntries,
+                ThreadPoolManager.getPool("voicerss"));
     }
 
     private String getCacheFolderName() {
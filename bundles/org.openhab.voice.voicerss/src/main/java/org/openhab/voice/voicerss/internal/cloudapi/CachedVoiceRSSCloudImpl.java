@@ -12,19 +12,14 @@
  */
 package org.openhab.voice.voicerss.internal.cloudapi;
 
+import static org.openhab.io.ttscache.TTSAudioCache.*;
+
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.openhab.io.ttscache.TTSAudioCache;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
 
 /**
  * This class implements a cache for the retrieved audio data. It will preserve
@@ -35,94 +30,68 @@ import org.slf4j.LoggerFactory;
  */
 public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
 
-    private final Logger logger = LoggerFactory.getLogger(CachedVoiceRSSCloudImpl.class);
+    private final TTSAudioCache cache;
+
+    private final Executor executor;
 
-    private final File cacheFolder;
+    /**
+     * Audio which is not in the cache yet is downloaded by the executor.
+     */
+    public CachedVoiceRSSCloudImpl(String cacheFolderName, Executor executor) {
+        this(cacheFolderName, DEFAULT_MAX_SIZE, DEFAULT_MAX_ENTRIES, executor);
+    }
 
     /**
-     * Stream buffer size
+     * The cache is bounded by the given total size in bytes and number of files.
      */
-    private static final int READ_BUFFER_SIZE = 4096;
+    public CachedVoiceRSSCloudImpl(String cacheFolderName, long maxSize, int maxEntries, Executor executor) {
+        this(API_URL, cacheFolderName, maxSize, maxEntries, executor);
+    }
 
-    public CachedVoiceRSSCloudImpl(String cacheFolderName) {
+    /**
+     * Use the service at the given URL, in package scope to be accessed by tests.
+     */
+    CachedVoiceRSSCloudImpl(String apiUrl, String cacheFolderName, long maxSize, int maxEntries,
+            Executor executor) {
+        super(apiUrl);
         if (cacheFolderName == null) {
             throw new IllegalStateException("Folder for cache must be defined");
         }
-        // Lazy create the cache folder
-        cacheFolder = new File(cacheFolderName);
-        if (!cacheFolder.exists()) {
-            cacheFolder.mkdirs();
-        }
+        this.executor = executor;
+        cache = new TTSAudioCache(new File(cacheFolderName), maxSize, maxEntries, 0);
     }
 
-    public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
-            throws IOException {
-        String fileNameInCache = getUniqueFilenameForText(text, locale);
-        // check if in cache
-        File audioFileInCache = new File(cacheFolder, fileNameInCache + "." + audioFormat.toLowerCase());
-        if (audioFileInCache.exists()) {
-            return audioFileInCache;
-        }
-
-        // if not in cache, get audio data and put to cache
-        try (InputStream is = super.getTextToSpeech(apiKey, text, locale, audioFormat);
-                FileOutputStream fos = new FileOutputStream(audioFileInCache)) {
-            copyStream(is, fos);
-            // write text to file for transparency too
-            // this allows to know which contents is in which audio file
-            File txtFileInCache = new File(cacheFolder, fileNameInCache + ".txt");
-            writeText(txtFileInCache, text);
-            // return from cache
-            return audioFileInCache;
-        } catch (FileNotFoundException ex) {
-            logger.warn("Could not write {} to cache", audioFileInCache, ex);
-            return null;
-        } catch (IOException ex) {
-            logger.error("Could not write {} to cache", audioFileInCache, ex);
-            return null;
-        }
+    /**
+     * Fetch the specified text as an audio entry. If it is not in the cache yet,
+     * the audio can be read while it is being received.
+     */
+    public AudioEntry getTextToSpeechAsEntry(String apiKey, String text, String locale, String audioFormat) {
+        return cache.getEntry(createKey(locale, text), audioFormat, text,
+                () -> super.getTextToSpeech(apiKey, text, locale, audioFormat), executor);
     }
 
     /**
-     * Gets a unique filename for a give text, by creating a MD5 hash of it. It
-     * will be preceded by the locale.
+     * Put the specified text to the cache in advance.
      *
-     * Sample: "en-US_00a2653ac5f77063bc4ea2fee87318d3"
+     * @return true if the audio has been retrieved, false if it was in the cache already
      */
-    private String getUniqueFilenameForText(String text, String locale) {
-        try {
-            byte[] bytesOfMessage = text.getBytes(StandardCharsets.UTF_8);
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] md5Hash = md.digest(bytesOfMessage);
-            BigInteger bigInt = new BigInteger(1, md5Hash);
-            String hashtext = bigInt.toString(16);
-            // Now we need to zero pad it if you actually want the full 32
-            // chars.
-            while (hashtext.length() < 32) {
-                hashtext = "0" + hashtext;
-            }
-            return locale + "_" + hashtext;
-        } catch (NoSuchAlgorithmException ex) {
-            // should not happen
-            logger.error("Could not create MD5 hash for '{}'", text, ex);
-            return null;
-        }
+    public boolean prewarmTextToSpeech(String apiKey, String text, String locale, String audioFormat)
+            throws IOException {
+        return cache.prewarm(createKey(locale, text), audioFormat, text,
+                () -> super.getTextToSpeech(apiKey, text, locale, audioFormat));
     }
 
-    // helper methods
-
-    private void copyStream(InputStream inputStream, OutputStream outputStream) throws IOException {
-        byte[] bytes = new byte[READ_BUFFER_SIZE];
-        int read = inputStream.read(bytes, 0, READ_BUFFER_SIZE);
-        while (read > 0) {
-            outputStream.write(bytes, 0, read);
-            read = inputStream.read(bytes, 0, READ_BUFFER_SIZE);
-        }
+    /**
+     * Change the total size in bytes and the number of files the cache is bounded by.
+     */
+    public void setCacheLimits(long maxSize, int maxEntries) {
+        cache.setLimits(maxSize, maxEntries);
     }
 
-    private void writeText(File file, String text) throws IOException {
-        try (OutputStream outputStream = new FileOutputStream(file)) {
-            outputStream.write(text.getBytes(StandardCharsets.UTF_8));
-        }
+    /**
+     * Persist the cache index, to be called before this instance is dropped.
+     */
+    public void flushCache() {
+        cache.flush();
     }
 }
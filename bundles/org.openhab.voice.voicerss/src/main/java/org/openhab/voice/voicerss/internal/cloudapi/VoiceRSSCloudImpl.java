@@ -86,6 +86,21 @@ public class VoiceRSSCloudImpl implements VoiceRSSCloudAPI {
 
     private static final Set<String> SUPPORTED_VOICES = Collections.singleton("VoiceRSS");
 
+    static final String API_URL = "http://api.voicerss.org/";
+
+    private final String apiUrl;
+
+    public VoiceRSSCloudImpl() {
+        this(API_URL);
+    }
+
+    /**
+     * Use the service at the given URL, in package scope to be accessed by tests.
+     */
+    VoiceRSSCloudImpl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+
     @Override
     public Set<String> getAvailableAudioFormats() {
         return SUPPORTED_AUDIO_FORMATS;
@@ -174,7 +189,7 @@ public class VoiceRSSCloudImpl implements VoiceRSSCloudAPI {
             // fall through and use msg un-encoded
             encodedMsg = text;
         }
-        return "http://api.voicerss.org/?key=" + apiKey + "&hl=" + locale + "&c=" + audioFormat
+        return apiUrl + "?key=" + apiKey + "&hl=" + locale + "&c=" + audioFormat
                 + "&f=44khz_16bit_mono&src=" + encodedMsg;
     }
 
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.voicerss.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.io.ttscache.TTSAudioCache;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
+import org.openhab.io.ttscache.TTSAudioCache.AudioSynthesizer;
+
+/**
+ * Tests cases for {@link VoiceRSSAudioStream} and {@link VoiceRSSDownloadAudioStream}.
+ *
+ * @author agent - Initial contribution
+ */
+public class VoiceRSSAudioStreamTest {
+
+    private static final String FIRST_PART = "ID3 first part of the audio";
+    private static final String SECOND_PART = ", second part of the audio";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch secondPartReleased = new CountDownLatch(1);
+
+    private TTSAudioCache cache;
+
+    /**
+     * Delivers the first part right away and the second part once it has been released, like a response which is
+     * still being synthesized.
+     */
+    private final AudioSynthesizer synthesizer = () -> new InputStream() {
+        private final byte[] audio = (FIRST_PART + SECOND_PART).getBytes(UTF_8);
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] bytes = new byte[1];
+            return read(bytes, 0, 1) == -1 ? -1 : bytes[0];
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (position == FIRST_PART.length()) {
+                try {
+                    secondPartReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            int end = position < FIRST_PART.length() ? FIRST_PART.length() : audio.length;
+            if (position == end) {
+                return -1;
+            }
+            int read = Math.min(len, end - position);
+            System.arraycopy(audio, position, bytes, off, read);
+            position += read;
+            return read;
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new TTSAudioCache(temporaryFolder.newFolder("cache"), TTSAudioCache.DEFAULT_MAX_SIZE,
+                TTSAudioCache.DEFAULT_MAX_ENTRIES, 0);
+    }
+
+    @After
+    public void tearDown() {
+        secondPartReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    private AudioEntry request() {
+        return cache.getEntry("en-us_hello", "mp3", "Hello World", synthesizer, executor);
+    }
+
+    private String read(InputStream inputStream, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int position = 0;
+        while (position < length) {
+            int read = inputStream.read(bytes, position, length - position);
+            if (read == -1) {
+                throw new IOException("Unexpected end of stream");
+            }
+            position += read;
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    private String readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] bytes = new byte[16];
+        int read;
+        while ((read = inputStream.read(bytes)) != -1) {
+            outputStream.write(bytes, 0, read);
+        }
+        inputStream.close();
+        return new String(outputStream.toByteArray(), UTF_8);
+    }
+
+    @Test
+    public void firstBytesAreServedBeforeTheDownloadIsComplete() throws IOException {
+        AudioEntry entry = request();
+        AudioStream audioStream = VoiceRSSAudioStream.of(entry, AudioFormat.MP3);
+
+        // sinks must not wait for the length of a running download
+        assertFalse(audioStream instanceof FixedLengthAudioStream);
+        assertEquals(FIRST_PART, read(audioStream, FIRST_PART.length()));
+        assertFalse(entry.isComplete());
+
+        secondPartReleased.countDown();
+        assertEquals(SECOND_PART, readAll(audioStream));
+    }
+
+    @Test
+    public void completeAudioHasItsLength() throws IOException {
+        secondPartReleased.countDown();
+        request().getLength();
+
+        AudioStream audioStream = VoiceRSSAudioStream.of(request(), AudioFormat.MP3);
+
+        assertTrue(audioStream instanceof FixedLengthAudioStream);
+        assertEquals(FIRST_PART.length() + SECOND_PART.length(), ((FixedLengthAudioStream) audioStream).length());
+        assertEquals(FIRST_PART + SECOND_PART, readAll(audioStream));
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.voicerss.internal.cloudapi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.io.ttscache.TTSAudioCache;
+import org.openhab.io.ttscache.TTSAudioCache.AudioEntry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests cases for {@link CachedVoiceRSSCloudImpl} against a local stand-in for the VoiceRSS API, which sends the
+ * audio in two parts.
+ *
+ * @author agent - Initial contribution
+ */
+public class CachedVoiceRSSCloudImplTest {
+
+    private static final String FIRST_PART = "ID3 first part of the audio";
+    private static final String SECOND_PART = ", second part of the audio";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch secondPartReleased = new CountDownLatch(1);
+    private volatile boolean abortAfterFirstPart;
+    private volatile String errorMessage;
+
+    private HttpServer server;
+    private File cacheFolder;
+    private CachedVoiceRSSCloudImpl impl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        cacheFolder = temporaryFolder.newFolder("cache");
+        impl = new CachedVoiceRSSCloudImpl("http://127.0.0.1:" + server.getAddress().getPort() + "/",
+                cacheFolder.getAbsolutePath(), TTSAudioCache.DEFAULT_MAX_SIZE, TTSAudioCache.DEFAULT_MAX_ENTRIES,
+                executor);
+    }
+
+    @After
+    public void tearDown() {
+        secondPartReleased.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (errorMessage != null) {
+            // the service answers errors with HTTP 200 and a plain text body
+            byte[] body = errorMessage.getBytes(UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "audio/mpeg");
+        // chunked, like a response which is still being synthesized
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(FIRST_PART.getBytes(UTF_8));
+        outputStream.flush();
+        try {
+            secondPartReleased.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (abortAfterFirstPart) {
+            // drops the connection in the middle of the chunked response
+            throw new IOException("aborted");
+        }
+        outputStream.write(SECOND_PART.getBytes(UTF_8));
+        exchange.close();
+    }
+
+    private AudioEntry request() {
+        return impl.getTextToSpeechAsEntry("apikey", "Hello World", "en-us", "MP3");
+    }
+
+    private String read(InputStream inputStream, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int position = 0;
+        while (position < length) {
+            int read = inputStream.read(bytes, position, length - position);
+            if (read == -1) {
+                throw new IOException("Unexpected end of stream");
+            }
+            position += read;
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    private String readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] bytes = new byte[16];
+        int read;
+        while ((read = inputStream.read(bytes)) != -1) {
+            outputStream.write(bytes, 0, read);
+        }
+        inputStream.close();
+        return new String(outputStream.toByteArray(), UTF_8);
+    }
+
+    private File cachedFile() {
+        return new File(cacheFolder, TTSAudioCache.createKey("en-us", "Hello World") + ".mp3");
+    }
+
+    @Test
+    public void audioIsDeliveredWhileItIsReceived() throws IOException {
+        AudioEntry entry = request();
+        InputStream firstReader = entry.openStream();
+
+        assertEquals(FIRST_PART, read(firstReader, FIRST_PART.length()));
+        assertFalse(cachedFile().exists());
+
+        InputStream secondReader = request().openStream();
+        secondPartReleased.countDown();
+
+        assertEquals(FIRST_PART + SECOND_PART, readAll(secondReader));
+        assertEquals(SECOND_PART, readAll(firstReader));
+        assertEquals(FIRST_PART.length() + SECOND_PART.length(), entry.getLength());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void completeAudioIsServedFromCache() throws IOException {
+        secondPartReleased.countDown();
+        assertEquals(FIRST_PART + SECOND_PART, readAll(request().openStream()));
+
+        assertTrue(cachedFile().exists());
+        assertEquals(FIRST_PART + SECOND_PART, readAll(request().openStream()));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void abortedDownloadLeavesNoCacheEntry() throws IOException {
+        abortAfterFirstPart = true;
+        AudioEntry entry = request();
+        InputStream reader = entry.openStream();
+        assertEquals(FIRST_PART, read(reader, FIRST_PART.length()));
+
+        secondPartReleased.countDown();
+
+        try {
+            readAll(reader);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            entry.getLength();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse(cachedFile().exists());
+        assertFalse(new File(cachedFile().getPath() + ".tmp").exists());
+
+        abortAfterFirstPart = false;
+        assertEquals(FIRST_PART + SECOND_PART, readAll(request().openStream()));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void serviceErrorIsReportedWhenOpeningTheStream() {
+        errorMessage = "ERROR: The API key is not available!";
+
+        try {
+            request().openStream();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("The API key is not available"));
+        }
+        assertFalse(cachedFile().exists());
+    }
+}